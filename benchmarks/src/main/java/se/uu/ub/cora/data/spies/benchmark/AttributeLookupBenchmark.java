@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.spies.DataAttributeSpy;
+import se.uu.ub.cora.data.spies.DataGroupFake;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * AttributeLookupBenchmark measures the *AndAttributes calls on a DataGroupFake where all
+ * children have the same nameInData and differ only in the value of their type attribute, the
+ * asked for value being the one of the last child added. The remove benchmark adds the removed
+ * child back, so that the group keeps its size. Recording is turned off, so that only the lookup
+ * is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeLookupBenchmark {
+	private static final String CHILD_NAME_IN_DATA = "child";
+
+	@Param({ "1000", "100000" })
+	public int numberOfChildren;
+
+	private DataGroupFake dataGroup;
+	private DataGroupFake lastChild;
+	private DataAttribute lastType;
+
+	@Setup
+	public void setUp() {
+		dataGroup = DataGroupFake.withNameInData("someGroup");
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+		for (int i = 0; i < numberOfChildren; i++) {
+			lastChild = DataGroupFake.withNameInData(CHILD_NAME_IN_DATA);
+			lastChild.setRecordingMode(RecordingMode.NONE);
+			lastChild.addAttributeByIdWithValue("type", "type" + i);
+			dataGroup.addChild(lastChild);
+		}
+		lastType = createAttribute("type", "type" + (numberOfChildren - 1));
+	}
+
+	private DataAttribute createAttribute(String nameInData, String value) {
+		DataAttributeSpy attribute = new DataAttributeSpy();
+		attribute.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		attribute.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		attribute.setRecordingMode(RecordingMode.NONE);
+		return attribute;
+	}
+
+	@Benchmark
+	public List<DataChild> getAllChildrenWithNameInDataAndAttributes() {
+		return dataGroup.getAllChildrenWithNameInDataAndAttributes(CHILD_NAME_IN_DATA, lastType);
+	}
+
+	@Benchmark
+	public Collection<DataGroup> getAllGroupsWithNameInDataAndAttributes() {
+		return dataGroup.getAllGroupsWithNameInDataAndAttributes(CHILD_NAME_IN_DATA, lastType);
+	}
+
+	@Benchmark
+	public Collection<DataAtomic> getAllDataAtomicsWithNameInDataAndAttributes() {
+		return dataGroup.getAllDataAtomicsWithNameInDataAndAttributes(CHILD_NAME_IN_DATA,
+				lastType);
+	}
+
+	@Benchmark
+	public boolean removeAndAddBackChildWithNameInDataAndAttributes() {
+		boolean removed = dataGroup.removeAllChildrenWithNameInDataAndAttributes(
+				CHILD_NAME_IN_DATA, lastType);
+		dataGroup.addChild(lastChild);
+		return removed;
+	}
+}
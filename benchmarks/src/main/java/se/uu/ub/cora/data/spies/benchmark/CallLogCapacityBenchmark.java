@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+
+/**
+ * CallLogCapacityBenchmark measures soak style use of DataGroupSpy and DataFactorySpy with a call
+ * log capacity, where the spies are called for the whole run while only the last calls are kept.
+ * Run it with the gc profiler (-prof gc) to see that the allocation rate does not depend on how
+ * long the spies have been used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallLogCapacityBenchmark {
+	@Param({ "1", "100", "10000" })
+	public int callLogCapacity;
+
+	private DataFactorySpy dataFactory;
+	private DataGroupSpy dataGroup;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataFactory = new DataFactorySpy();
+		dataFactory.setCallLogCapacity(callLogCapacity);
+		dataGroup = new DataGroupSpy();
+		dataGroup.setCallLogCapacity(callLogCapacity);
+	}
+
+	@Benchmark
+	public void factorAndReadGroup(Blackhole blackhole) {
+		blackhole.consume(dataFactory.factorGroupUsingNameInData("someNameInData"));
+		blackhole.consume(dataGroup.getFirstAtomicValueWithNameInData("someNameInData"));
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.spies.DataChildFilterFake;
+import se.uu.ub.cora.data.spies.DataGroupFake;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * ChildFilterBenchmark measures DataChildFilterFake on filters of one to ten attributes, each
+ * attribute having one or three possible values. childMatches is measured on a matching child
+ * and on a child differing only in the value of its last attribute, and
+ * getAllChildrenMatchingFilter on a DataGroupFake with children of many different attribute
+ * values, where the filter is looked up in the index of the group. Recording is turned off, so
+ * that only the matching is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChildFilterBenchmark {
+	private static final String CHILD_NAME_IN_DATA = "child";
+	private static final int NUMBER_OF_CHILDREN = 1000;
+
+	@Param({ "1", "2", "5", "10" })
+	public int numberOfAttributes;
+
+	@Param({ "1", "3" })
+	public int possibleValuesPerAttribute;
+
+	private DataChildFilterFake childFilter;
+	private DataGroupFake matchingChild;
+	private DataGroupFake notMatchingChild;
+	private DataGroupFake dataGroup;
+
+	@Setup
+	public void setUp() {
+		childFilter = DataChildFilterFake.withNameInData(CHILD_NAME_IN_DATA);
+		childFilter.setRecordingMode(RecordingMode.NONE);
+		for (int i = 0; i < numberOfAttributes; i++) {
+			childFilter.addAttributeUsingNameInDataAndPossibleValues("attribute" + i,
+					possibleValues());
+		}
+		matchingChild = createChild("value0");
+		notMatchingChild = createChild("other");
+		dataGroup = DataGroupFake.withNameInData("someGroup");
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+		for (int i = 0; i < NUMBER_OF_CHILDREN; i++) {
+			dataGroup.addChild(createChild("value" + (i % 10)));
+		}
+	}
+
+	private Set<String> possibleValues() {
+		Set<String> possibleValues = new HashSet<>();
+		for (int i = 0; i < possibleValuesPerAttribute; i++) {
+			possibleValues.add("value" + i);
+		}
+		return possibleValues;
+	}
+
+	private DataGroupFake createChild(String lastAttributeValue) {
+		DataGroupFake child = DataGroupFake.withNameInData(CHILD_NAME_IN_DATA);
+		child.setRecordingMode(RecordingMode.NONE);
+		for (int i = 0; i < numberOfAttributes - 1; i++) {
+			child.addAttributeByIdWithValue("attribute" + i, "value0");
+		}
+		child.addAttributeByIdWithValue("attribute" + (numberOfAttributes - 1),
+				lastAttributeValue);
+		return child;
+	}
+
+	@Benchmark
+	public boolean childMatches() {
+		return childFilter.childMatches(matchingChild);
+	}
+
+	@Benchmark
+	public boolean childDoesNotMatch() {
+		return childFilter.childMatches(notMatchingChild);
+	}
+
+	@Benchmark
+	public List<DataChild> getAllChildrenMatchingFilter() {
+		return dataGroup.getAllChildrenMatchingFilter(childFilter);
+	}
+}
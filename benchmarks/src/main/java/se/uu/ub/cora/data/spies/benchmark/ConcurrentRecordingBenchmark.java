@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * ConcurrentRecordingBenchmark measures a DataFactorySpy using RecordingMode.CONCURRENT called
+ * from four threads at the same time. Each measurement is a fixed batch of calls on a new spy, as
+ * all calls are kept. Compare with -t 1 to see how much the threads slow each other down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = 100_000)
+@Measurement(iterations = 10, batchSize = 100_000)
+@Threads(4)
+@Fork(1)
+public class ConcurrentRecordingBenchmark {
+	private DataFactorySpy dataFactory;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		dataFactory = new DataFactorySpy();
+		dataFactory.setRecordingMode(RecordingMode.CONCURRENT);
+	}
+
+	@Benchmark
+	public DataAtomic factorAtomic() {
+		return dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", "someValue");
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.spies.DataGroupFake;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * DataGroupFakeBenchmark measures finding children by nameInData in a DataGroupFake with many
+ * children, where the asked for child is the last one added. Recording is turned off, so that only
+ * the lookup is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataGroupFakeBenchmark {
+	@Param({ "100", "10000" })
+	public int numberOfChildren;
+
+	private DataGroupFake dataGroup;
+	private String lastNameInData;
+
+	@Setup
+	public void setUp() {
+		dataGroup = DataGroupFake.withNameInData("someGroup");
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+		for (int i = 0; i < numberOfChildren; i++) {
+			DataGroupFake child = DataGroupFake.withNameInData("child" + i);
+			child.setRecordingMode(RecordingMode.NONE);
+			dataGroup.addChild(child);
+		}
+		lastNameInData = "child" + (numberOfChildren - 1);
+	}
+
+	@Benchmark
+	public DataChild getFirstChildWithNameInData() {
+		return dataGroup.getFirstChildWithNameInData(lastNameInData);
+	}
+
+	@Benchmark
+	public boolean containsChildWithNameInData() {
+		return dataGroup.containsChildWithNameInData(lastNameInData);
+	}
+
+	@Benchmark
+	public DataGroup getFirstGroupWithNameInData() {
+		return dataGroup.getFirstGroupWithNameInData(lastNameInData);
+	}
+}
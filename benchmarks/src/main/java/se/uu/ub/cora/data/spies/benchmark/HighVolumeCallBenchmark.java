@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordSpy;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * HighVolumeCallBenchmark measures load style use of spies, where the same spies are called
+ * millions of times without ever being recreated. Only the recording modes that keep memory use
+ * constant are measured, as recording all calls would eventually fill the heap, see
+ * RecordedCallBenchmark for calls that are recorded. Run it with the gc profiler (-prof gc) to
+ * compare the allocation rate of the modes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighVolumeCallBenchmark {
+	@Param({ "COUNT", "NONE" })
+	public RecordingMode recordingMode;
+
+	private DataRecordSpy dataRecord;
+	private DataRecordGroupSpy dataRecordGroup;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataRecordGroup = new DataRecordGroupSpy();
+		dataRecordGroup.setRecordingMode(recordingMode);
+		dataRecord = new DataRecordSpy();
+		dataRecord.setRecordingMode(recordingMode);
+		dataRecord.MRV.setDefaultReturnValuesSupplier("getDataRecordGroup", () -> dataRecordGroup);
+	}
+
+	@Benchmark
+	public void readTypeAndIdOfRecord(Blackhole blackhole) {
+		var recordGroup = dataRecord.getDataRecordGroup();
+		blackhole.consume(recordGroup.getType());
+		blackhole.consume(recordGroup.getId());
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.JsonDataLoader;
+
+/**
+ * JsonLoadBenchmark measures the time to load a list of records from JSON, as fakes and as spies,
+ * both keeping the whole list and handing each record over as soon as it has been read. Run it
+ * with the gc profiler (-prof gc) to see that streaming the records allocates the same but keeps
+ * no more than one record alive at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonLoadBenchmark {
+	private static final String RECORD = "{\"record\":{\"data\":{\"name\":\"book\",\"children\":["
+			+ "{\"name\":\"recordInfo\",\"children\":[{\"name\":\"id\",\"value\":\"book:1\"},"
+			+ "{\"name\":\"type\",\"children\":[{\"name\":\"linkedRecordType\","
+			+ "\"value\":\"recordType\"},{\"name\":\"linkedRecordId\",\"value\":\"book\"}]}]},"
+			+ "{\"name\":\"title\",\"value\":\"someTitle\",\"attributes\":{\"language\":\"sv\"}},"
+			+ "{\"name\":\"author\",\"children\":[{\"name\":\"linkedRecordType\","
+			+ "\"value\":\"person\"},{\"name\":\"linkedRecordId\",\"value\":\"person:1\"}]}]},"
+			+ "\"permissions\":{\"read\":[\"title\"]}}}";
+	@Param({ "1000" })
+	private int numberOfRecords;
+	private String json;
+	private JsonDataLoader fakeLoader;
+	private JsonDataLoader spyLoader;
+
+	@Setup
+	public void setUp() {
+		StringBuilder list = new StringBuilder("{\"dataList\":{\"fromNo\":\"1\",\"data\":[");
+		for (int i = 0; i < numberOfRecords; i++) {
+			list.append(i == 0 ? "" : ",").append(RECORD);
+		}
+		json = list.append("]}}").toString();
+		fakeLoader = JsonDataLoader.loadingFakes();
+		spyLoader = JsonDataLoader.loadingSpies();
+	}
+
+	@Benchmark
+	public Object loadListAsFakes() {
+		return fakeLoader.loadList(new StringReader(json));
+	}
+
+	@Benchmark
+	public Object loadListAsSpies() {
+		return spyLoader.loadList(new StringReader(json));
+	}
+
+	@Benchmark
+	public void forEachRecordAsFakes(Blackhole blackhole) {
+		fakeLoader.forEachRecordInList(new StringReader(json), blackhole::consume);
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+
+/**
+ * McrAssertionBenchmark measures assertions on a spy that has recorded a given number of calls.
+ * The asserted call is the last one recorded, so that assertions that search through earlier
+ * calls pay for the whole call log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McrAssertionBenchmark {
+	private static final String METHOD_NAME = "factorAtomicUsingNameInDataAndValue";
+
+	@Param({ "10", "1000", "100000" })
+	public int noOfRecordedCalls;
+
+	private DataFactorySpy dataFactory;
+	private int lastCallNumber;
+	private String lastValue;
+
+	@Setup
+	public void setUp() {
+		dataFactory = new DataFactorySpy();
+		for (int i = 0; i < noOfRecordedCalls; i++) {
+			dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", "value" + i);
+		}
+		lastCallNumber = noOfRecordedCalls - 1;
+		lastValue = "value" + lastCallNumber;
+	}
+
+	@Benchmark
+	public void assertParameter() {
+		dataFactory.MCR.assertParameter(METHOD_NAME, lastCallNumber, "value", lastValue);
+	}
+
+	@Benchmark
+	public void assertCalledParameters() {
+		dataFactory.MCR.assertCalledParameters(METHOD_NAME, "someNameInData", lastValue);
+	}
+}
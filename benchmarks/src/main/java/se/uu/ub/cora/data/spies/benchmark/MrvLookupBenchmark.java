@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+
+/**
+ * MrvLookupBenchmark measures getting return values from MRV through a spy, both when the default
+ * return value is used and when a return value has been set for specific parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MrvLookupBenchmark {
+	private static final int CALLS_PER_INVOCATION = 100;
+	private static final String METHOD_NAME = "getFirstAtomicValueWithNameInData";
+	private DataGroupSpy dataGroup;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		dataGroup = new DataGroupSpy();
+		dataGroup.MRV.setSpecificReturnValuesSupplier(METHOD_NAME, () -> "someValue",
+				"specificNameInData");
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void defaultReturnValue(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataGroup.getFirstAtomicValueWithNameInData("otherNameInData"));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void specificReturnValue(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataGroup.getFirstAtomicValueWithNameInData("specificNameInData"));
+		}
+	}
+}
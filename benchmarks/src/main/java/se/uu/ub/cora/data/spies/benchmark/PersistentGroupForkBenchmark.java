@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.spies.DataAtomicSpy;
+import se.uu.ub.cora.data.spies.PersistentDataGroupFake;
+
+/**
+ * PersistentGroupForkBenchmark measures forking a tree of groups and changing one atomic at the
+ * bottom of the fork, for trees of growing size with the same depth. The time should stay the same
+ * whatever the size of the tree, as only the groups on the path to the change are copied.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentGroupForkBenchmark {
+	private static final int DEPTH = 4;
+	@Param({ "4", "8", "16" })
+	private int fanOut;
+	private PersistentDataGroupFake base;
+	private DataAtomicSpy changedAtomic;
+
+	@Setup
+	public void setUp() {
+		base = createGroup(DEPTH);
+		changedAtomic = new DataAtomicSpy();
+		changedAtomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "changed");
+	}
+
+	private PersistentDataGroupFake createGroup(int levelsBelow) {
+		PersistentDataGroupFake group = PersistentDataGroupFake.withNameInData("group");
+		List<DataChild> children = new ArrayList<>(fanOut);
+		for (int i = 0; i < fanOut; i++) {
+			children.add(levelsBelow == 0 ? createAtomic() : createGroup(levelsBelow - 1));
+		}
+		group.addChildren(children);
+		return group;
+	}
+
+	private DataChild createAtomic() {
+		DataAtomicSpy atomic = new DataAtomicSpy();
+		atomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "atomic");
+		return atomic;
+	}
+
+	@Benchmark
+	public Object forkAndChangeDeepestGroup() {
+		PersistentDataGroupFake fork = base.fork();
+		DataGroup group = fork;
+		for (int level = 0; level < DEPTH; level++) {
+			group = group.getFirstGroupWithNameInData("group");
+		}
+		group.addChild(changedAtomic);
+		return fork;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.spies.DataRecordGroupFake;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * RecordGroupThroughputBenchmark measures record groups per second passing through a small
+ * pipeline step that creates a record group, sets its record info, adds an update and reads the
+ * record info back, using DataRecordGroupFake and, for comparison, DataRecordGroupSpy with
+ * return values set in MRV. The fake is measured both recording all calls and recording none.
+ * Run it with the gc profiler (-prof gc) to get bytes allocated per record group.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordGroupThroughputBenchmark {
+
+	@Benchmark
+	public void fakeRecordingAllCalls(Blackhole blackhole) {
+		processRecordGroup(DataRecordGroupFake.withNameInData("someRecord"), blackhole);
+	}
+
+	@Benchmark
+	public void fakeRecordingNoCalls(Blackhole blackhole) {
+		DataRecordGroupFake recordGroup = DataRecordGroupFake.withNameInData("someRecord");
+		recordGroup.setRecordingMode(RecordingMode.NONE);
+		processRecordGroup(recordGroup, blackhole);
+	}
+
+	@Benchmark
+	public void spyWithReturnValuesInMRV(Blackhole blackhole) {
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getType", () -> "someType");
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getId", () -> "someId");
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getDataDivider", () -> "someDivider");
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getLatestUpdatedBy", () -> "someUser");
+		processRecordGroup(recordGroup, blackhole);
+	}
+
+	private void processRecordGroup(DataRecordGroup recordGroup, Blackhole blackhole) {
+		recordGroup.setType("someType");
+		recordGroup.setId("someId");
+		recordGroup.setDataDivider("someDivider");
+		recordGroup.addUpdatedUsingUserIdAndTs("someUser", "2026-01-01T00:00:00.000000Z");
+		blackhole.consume(recordGroup.getType());
+		blackhole.consume(recordGroup.getId());
+		blackhole.consume(recordGroup.getDataDivider());
+		blackhole.consume(recordGroup.getLatestUpdatedBy());
+	}
+}
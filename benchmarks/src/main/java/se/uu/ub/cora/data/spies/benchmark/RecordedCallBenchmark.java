@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.spies.DataAttributeSpy;
+import se.uu.ub.cora.data.spies.DataChildSpy;
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordSpy;
+
+/**
+ * RecordedCallBenchmark measures the time of a call through spies, for calls with zero to four
+ * parameters, a call with varargs attributes and the hot loop of iterating the children of a
+ * group and reading the name of each child. Each iteration is a batch of BATCH_SIZE invocations
+ * on spies created before the iteration, so that the call log grows to the same bounded size in
+ * every iteration, without setting up spies between invocations, whose cost JMH can not keep out
+ * of the measured time for invocations this short. The time reported is per call. Run it with
+ * the gc profiler (-prof gc) to get bytes allocated per recorded call for each number of
+ * parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 20, batchSize = RecordedCallBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = RecordedCallBenchmark.BATCH_SIZE)
+@Fork(1)
+public class RecordedCallBenchmark {
+	static final int BATCH_SIZE = 1000;
+	private static final int CALLS_PER_INVOCATION = 100;
+	private DataGroupSpy dataGroup;
+	private DataFactorySpy dataFactory;
+	private DataRecordSpy dataRecord;
+	private DataAttribute[] childAttributes;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		dataFactory = new DataFactorySpy();
+		dataRecord = new DataRecordSpy();
+		childAttributes = new DataAttribute[] { new DataAttributeSpy(), new DataAttributeSpy() };
+		dataGroup = new DataGroupSpy();
+		List<DataChild> children = new ArrayList<>(CALLS_PER_INVOCATION);
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			children.add(new DataChildSpy());
+		}
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getChildren", () -> children);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void getNameInDataOnEachChild(Blackhole blackhole) {
+		for (DataChild child : dataGroup.getChildren()) {
+			blackhole.consume(child.getNameInData());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void noParameters(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataRecord.getId());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void oneParameter(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataFactory.factorGroupUsingNameInData("someNameInData"));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void twoParameters(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(
+					dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", "someValue"));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void threeParameters(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataFactory.factorRecordLinkUsingNameInDataAndTypeAndId(
+					"someNameInData", "someType", "someId"));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void fourParameters(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataFactory.factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
+					"someNameInData", "someType", "someId", "someMimeType"));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS_PER_INVOCATION)
+	public void varargsChildAttributes(Blackhole blackhole) {
+		for (int i = 0; i < CALLS_PER_INVOCATION; i++) {
+			blackhole.consume(dataGroup.getAllChildrenWithNameInDataAndAttributes("someNameInData",
+					childAttributes));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * RecordingAllocationBenchmark measures what recording a call allocates, for calls with zero and
+ * one parameter, void and answered from a default return value that does not allocate. Run it
+ * with the gc profiler (-prof gc) and read gc.alloc.rate.norm, which is 0 B/op with a call log
+ * capacity and in recording modes COUNT and NONE. In mode ALL it is the amortized growth of the
+ * call log, as every call is kept.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordingAllocationBenchmark {
+	@Param({ "CAPACITY", "COUNT", "NONE", "ALL" })
+	public String recording;
+
+	private DataGroupSpy dataGroup;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		dataGroup = new DataGroupSpy();
+		if ("CAPACITY".equals(recording)) {
+			dataGroup.setCallLogCapacity(16);
+		} else {
+			dataGroup.setRecordingMode(RecordingMode.valueOf(recording));
+		}
+	}
+
+	@Benchmark
+	public void noParameters(Blackhole blackhole) {
+		blackhole.consume(dataGroup.hasChildren());
+	}
+
+	@Benchmark
+	public void oneParameter(Blackhole blackhole) {
+		blackhole.consume(dataGroup.containsChildWithNameInData("someNameInData"));
+	}
+
+	@Benchmark
+	public void voidOneParameter() {
+		dataGroup.setRepeatId("someRepeatId");
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.DataFactorySpy;
+import se.uu.ub.cora.data.spies.DataGroupSpy;
+import se.uu.ub.cora.data.spies.DataRecordGroupSpy;
+import se.uu.ub.cora.data.spies.SpyPool;
+
+/**
+ * SpyReuseBenchmark measures setting up the spies for one test, a DataFactorySpy and a number of
+ * DataGroupSpy and DataRecordGroupSpy, either by creating new spies or by reusing spies from a
+ * {@link SpyPool}. Run it with the gc profiler (-prof gc) to compare the allocation rate of the two
+ * alternatives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpyReuseBenchmark {
+	@Param({ "10", "50" })
+	public int spiesPerTest;
+
+	private SpyPool<DataFactorySpy> factoryPool;
+	private SpyPool<DataGroupSpy> groupPool;
+	private SpyPool<DataRecordGroupSpy> recordGroupPool;
+
+	@Setup
+	public void setUp() {
+		factoryPool = new SpyPool<>(DataFactorySpy::new);
+		groupPool = new SpyPool<>(DataGroupSpy::new);
+		recordGroupPool = new SpyPool<>(DataRecordGroupSpy::new);
+	}
+
+	@Benchmark
+	public void newSpiesForEachTest(Blackhole blackhole) {
+		useSpies(blackhole, new DataFactorySpy());
+		for (int i = 0; i < spiesPerTest; i++) {
+			useSpies(blackhole, new DataGroupSpy(), new DataRecordGroupSpy());
+		}
+	}
+
+	@Benchmark
+	public void pooledSpiesForEachTest(Blackhole blackhole) {
+		factoryPool.releaseAll();
+		groupPool.releaseAll();
+		recordGroupPool.releaseAll();
+		useSpies(blackhole, factoryPool.borrow());
+		for (int i = 0; i < spiesPerTest; i++) {
+			useSpies(blackhole, groupPool.borrow(), recordGroupPool.borrow());
+		}
+	}
+
+	private void useSpies(Blackhole blackhole, DataFactorySpy dataFactory) {
+		blackhole.consume(dataFactory.factorGroupUsingNameInData("someNameInData"));
+	}
+
+	private void useSpies(Blackhole blackhole, DataGroupSpy dataGroup,
+			DataRecordGroupSpy dataRecordGroup) {
+		blackhole.consume(dataGroup.getNameInData());
+		blackhole.consume(dataRecordGroup.getId());
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import se.uu.ub.cora.data.spies.DataTreeGenerator;
+import se.uu.ub.cora.data.spies.RecordingMode;
+
+/**
+ * TreeGenerationBenchmark measures trees per second generated by DataTreeGenerator, with a fan
+ * out of five and recording turned off, sequentially and using a parallel stream. The number of
+ * nodes in a tree grows as five to the power of the depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeGenerationBenchmark {
+	private static final int TREES_PER_INVOCATION = 64;
+
+	@Param({ "2", "4" })
+	public int depth;
+
+	private DataTreeGenerator generator;
+
+	@Setup
+	public void setUp() {
+		generator = DataTreeGenerator.usingSeed(42);
+		generator.setDepth(depth);
+		generator.setRecordingMode(RecordingMode.NONE);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TREES_PER_INVOCATION)
+	public void sequential(Blackhole blackhole) {
+		generator.generateGroups(TREES_PER_INVOCATION).forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TREES_PER_INVOCATION)
+	public int parallel() {
+		return generator.generateGroups(TREES_PER_INVOCATION).parallel()
+				.mapToInt(tree -> tree.getChildren().size()).sum();
+	}
+}
@@ -3,6 +3,7 @@
  */
 module se.uu.ub.cora.data.spies {
 
+	requires jdk.jfr;
 	requires org.testng;
 	requires transitive se.uu.ub.cora.data;
 	requires transitive se.uu.ub.cora.testutils;
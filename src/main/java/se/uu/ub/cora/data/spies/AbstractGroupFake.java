@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataChildFilter;
+import se.uu.ub.cora.data.DataGroup;
+
+/**
+ * AbstractGroupFake implements the calls that {@link DataGroup} and DataRecordGroup have in
+ * common for the group fakes, recording each call in MCR and answering it from the
+ * {@link GroupContent} of the fake. Fakes that keep their content in another way, such as
+ * {@link PersistentDataGroupFake}, override the calls they answer differently.
+ */
+public abstract class AbstractGroupFake extends AbstractSpy {
+	private final String nameInData;
+
+	AbstractGroupFake(String nameInData) {
+		super(Collections.emptyMap());
+		this.nameInData = nameInData;
+	}
+
+	/**
+	 * content returns the attributes and children of the group.
+	 */
+	abstract GroupContent content();
+
+	public void addAttributeByIdWithValue(String nameInData, String value) {
+		recordCall("addAttributeByIdWithValue", "nameInData", nameInData, "value", value);
+		content().addAttributeByIdWithValue(nameInData, value);
+	}
+
+	public boolean hasAttributes() {
+		long call = startCall("hasAttributes");
+		boolean hasAttributes = content().hasAttributes();
+		return recordReturn("hasAttributes", call, hasAttributes);
+	}
+
+	public DataAttribute getAttribute(String nameInData) {
+		long call = startCall("getAttribute", "nameInData", nameInData);
+		DataAttribute attribute = content().getAttribute(nameInData);
+		return recordReturn("getAttribute", call, attribute);
+	}
+
+	public Collection<DataAttribute> getAttributes() {
+		long call = startCall("getAttributes");
+		Collection<DataAttribute> attributes = content().getAttributes();
+		return recordReturn("getAttributes", call, attributes);
+	}
+
+	public Optional<String> getAttributeValue(String nameInData) {
+		long call = startCall("getAttributeValue", "nameInData", nameInData);
+		Optional<String> value = content().getAttributeValue(nameInData);
+		return recordReturn("getAttributeValue", call, value);
+	}
+
+	public String getNameInData() {
+		long call = startCall("getNameInData");
+		return recordReturn("getNameInData", call, nameInData);
+	}
+
+	public boolean hasChildren() {
+		long call = startCall("hasChildren");
+		boolean hasChildren = content().hasChildren();
+		return recordReturn("hasChildren", call, hasChildren);
+	}
+
+	public boolean containsChildWithNameInData(String nameInData) {
+		long call = startCall("containsChildWithNameInData", "nameInData", nameInData);
+		boolean containsChild = content().containsChildWithNameInData(nameInData);
+		return recordReturn("containsChildWithNameInData", call, containsChild);
+	}
+
+	public void addChild(DataChild dataChild) {
+		recordCall("addChild", "dataChild", dataChild);
+		content().addChild(dataChild);
+	}
+
+	public void addChildren(Collection<DataChild> dataChildren) {
+		recordCall("addChildren", "dataChildren", dataChildren);
+		content().addChildren(dataChildren);
+	}
+
+	public List<DataChild> getChildren() {
+		long call = startCall("getChildren");
+		List<DataChild> allChildren = content().getChildren();
+		return recordReturn("getChildren", call, allChildren);
+	}
+
+	public List<DataChild> getAllChildrenWithNameInData(String nameInData) {
+		long call = startCall("getAllChildrenWithNameInData", "nameInData", nameInData);
+		List<DataChild> childrenWithNameInData = content().getAllChildrenWithNameInData(nameInData);
+		return recordReturn("getAllChildrenWithNameInData", call, childrenWithNameInData);
+	}
+
+	public List<DataChild> getAllChildrenWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "getAllChildrenWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		List<DataChild> matchingChildren = content().childrenOfTypeWithNameInDataAndAttributes(
+				DataChild.class, nameInData, childAttributes);
+		return recordReturn(methodName, call, matchingChildren);
+	}
+
+	public DataChild getFirstChildWithNameInData(String nameInData) {
+		long call = startCall("getFirstChildWithNameInData", "nameInData", nameInData);
+		DataChild child = content().getFirstChildWithNameInData(nameInData);
+		return recordReturn("getFirstChildWithNameInData", call, child);
+	}
+
+	public String getFirstAtomicValueWithNameInData(String nameInData) {
+		long call = startCall("getFirstAtomicValueWithNameInData", "nameInData", nameInData);
+		String value = content().firstChildOfTypeWithNameInData(DataAtomic.class, nameInData)
+				.getValue();
+		return recordReturn("getFirstAtomicValueWithNameInData", call, value);
+	}
+
+	public DataAtomic getFirstDataAtomicWithNameInData(String nameInData) {
+		long call = startCall("getFirstDataAtomicWithNameInData", "nameInData", nameInData);
+		DataAtomic atomic = content().firstChildOfTypeWithNameInData(DataAtomic.class, nameInData);
+		return recordReturn("getFirstDataAtomicWithNameInData", call, atomic);
+	}
+
+	public List<DataAtomic> getAllDataAtomicsWithNameInData(String nameInData) {
+		long call = startCall("getAllDataAtomicsWithNameInData", "nameInData", nameInData);
+		List<DataAtomic> atomics = content().childrenOfTypeWithNameInData(DataAtomic.class,
+				nameInData);
+		return recordReturn("getAllDataAtomicsWithNameInData", call, atomics);
+	}
+
+	public Collection<DataAtomic> getAllDataAtomicsWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "getAllDataAtomicsWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		Collection<DataAtomic> atomics = content().childrenOfTypeWithNameInDataAndAttributes(
+				DataAtomic.class, nameInData, childAttributes);
+		return recordReturn(methodName, call, atomics);
+	}
+
+	public DataGroup getFirstGroupWithNameInData(String nameInData) {
+		long call = startCall("getFirstGroupWithNameInData", "nameInData", nameInData);
+		DataGroup group = content().firstChildOfTypeWithNameInData(DataGroup.class, nameInData);
+		return recordReturn("getFirstGroupWithNameInData", call, group);
+	}
+
+	public List<DataGroup> getAllGroupsWithNameInData(String nameInData) {
+		long call = startCall("getAllGroupsWithNameInData", "nameInData", nameInData);
+		List<DataGroup> groups = content().childrenOfTypeWithNameInData(DataGroup.class,
+				nameInData);
+		return recordReturn("getAllGroupsWithNameInData", call, groups);
+	}
+
+	public Collection<DataGroup> getAllGroupsWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "getAllGroupsWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		Collection<DataGroup> groups = content().childrenOfTypeWithNameInDataAndAttributes(
+				DataGroup.class, nameInData, childAttributes);
+		return recordReturn(methodName, call, groups);
+	}
+
+	public boolean removeFirstChildWithNameInData(String nameInData) {
+		long call = startCall("removeFirstChildWithNameInData", "nameInData", nameInData);
+		boolean removed = content().removeFirstChildWithNameInData(nameInData);
+		return recordReturn("removeFirstChildWithNameInData", call, removed);
+	}
+
+	public boolean removeAllChildrenWithNameInData(String nameInData) {
+		long call = startCall("removeAllChildrenWithNameInData", "nameInData", nameInData);
+		boolean removed = content().removeAllChildrenWithNameInData(nameInData);
+		return recordReturn("removeAllChildrenWithNameInData", call, removed);
+	}
+
+	public boolean removeAllChildrenWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "removeAllChildrenWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		boolean removed = content().removeAllChildrenWithNameInDataAndAttributes(nameInData,
+				childAttributes);
+		return recordReturn(methodName, call, removed);
+	}
+
+	public List<DataChild> getAllChildrenMatchingFilter(DataChildFilter childFilter) {
+		long call = startCall("getAllChildrenMatchingFilter", "childFilter", childFilter);
+		List<DataChild> matchingChildren = content().getAllChildrenMatchingFilter(childFilter);
+		return recordReturn("getAllChildrenMatchingFilter", call, matchingChildren);
+	}
+
+	public boolean removeAllChildrenMatchingFilter(DataChildFilter childFilter) {
+		long call = startCall("removeAllChildrenMatchingFilter", "childFilter", childFilter);
+		boolean removed = content().removeAllChildrenMatchingFilter(childFilter);
+		return recordReturn("removeAllChildrenMatchingFilter", call, removed);
+	}
+
+	public <T> boolean containsChildOfTypeAndName(Class<T> type, String name) {
+		long call = startCall("containsChildOfTypeAndName", "type", type, "name", name);
+		boolean containsChild = content().containsChildOfTypeWithNameInData(type, name);
+		return recordReturn("containsChildOfTypeAndName", call, containsChild);
+	}
+
+	public <T extends DataChild> T getFirstChildOfTypeAndName(Class<T> type, String name) {
+		long call = startCall("getFirstChildOfTypeAndName", "type", type, "name", name);
+		T child = content().firstChildOfTypeWithNameInData(type, name);
+		return recordReturn("getFirstChildOfTypeAndName", call, child);
+	}
+
+	public <T extends DataChild> List<T> getChildrenOfType(Class<T> type) {
+		long call = startCall("getChildrenOfType", "type", type);
+		List<T> childrenOfType = content().childrenOfType(type);
+		return recordReturn("getChildrenOfType", call, childrenOfType);
+	}
+
+	public <T extends DataChild> List<T> getChildrenOfTypeAndName(Class<T> type, String name) {
+		long call = startCall("getChildrenOfTypeAndName", "type", type, "name", name);
+		List<T> childrenOfType = content().childrenOfTypeWithNameInData(type, name);
+		return recordReturn("getChildrenOfTypeAndName", call, childrenOfType);
+	}
+
+	public <T extends DataChild> boolean removeFirstChildWithTypeAndName(Class<T> type,
+			String name) {
+		long call = startCall("removeFirstChildWithTypeAndName", "type", type, "name", name);
+		boolean removed = content().removeFirstChildWithTypeAndName(type, name);
+		return recordReturn("removeFirstChildWithTypeAndName", call, removed);
+	}
+
+	public <T extends DataChild> boolean removeChildrenWithTypeAndName(Class<T> type, String name) {
+		long call = startCall("removeChildrenWithTypeAndName", "type", type, "name", name);
+		boolean removed = content().removeChildrenWithTypeAndName(type, name);
+		return recordReturn("removeChildrenWithTypeAndName", call, removed);
+	}
+}
@@ -0,0 +1,583 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+/**
+ * AbstractSpy holds the {@link MethodCallRecorder} and {@link MethodReturnValues} used by the
+ * spies in this package.
+ * <p>
+ * The default return value for a method is installed in the MRV the first time that method is
+ * called, so spies that are created but never called, such as the ones returned by default from
+ * other spies, do not pay for setting up return values they never use.
+ */
+public abstract class AbstractSpy {
+	public MethodCallRecorder MCR;
+	public MethodReturnValues MRV;
+	private final Map<String, Supplier<?>> defaultReturnValues;
+	private LazyMethodReturnValues lazyMRV;
+	private RecordingMode recordingMode;
+	private int callLogCapacity;
+	private SpyMethodCallRecorder recorder;
+	private BoundedMethodCallRecorder boundedMCR;
+	private ConcurrentMethodCallRecorder concurrentMCR;
+	private boolean memoizeDefaultReturnValues;
+	private CallTimestamps callTimestamps;
+	private Map<String, SpyLatency> latencies;
+	private CallAwaiting callAwaiting;
+
+	protected AbstractSpy(Map<String, Supplier<?>> defaultReturnValues) {
+		this.defaultReturnValues = defaultReturnValues;
+		setUpMCRAndMRV();
+	}
+
+	private void setUpMCRAndMRV() {
+		recordingMode = RecordingMode.ALL;
+		callLogCapacity = 0;
+		boundedMCR = null;
+		concurrentMCR = null;
+		memoizeDefaultReturnValues = false;
+		callTimestamps = null;
+		latencies = null;
+		callAwaiting = null;
+		lazyMRV = new LazyMethodReturnValues(defaultReturnValues);
+		MRV = lazyMRV;
+		replaceMCR();
+	}
+
+	private SpyMethodCallRecorder createRecorderForMode() {
+		if (recordingMode == RecordingMode.COUNT) {
+			return new CountingMethodCallRecorder();
+		}
+		if (recordingMode == RecordingMode.NONE) {
+			return new NotRecordingMethodCallRecorder();
+		}
+		if (recordingMode == RecordingMode.CONCURRENT) {
+			lazyMRV.installAllDefaults();
+			concurrentMCR = new ConcurrentMethodCallRecorder();
+			return concurrentMCR;
+		}
+		if (callLogCapacity > 0) {
+			boundedMCR = new BoundedMethodCallRecorder(callLogCapacity);
+			return boundedMCR;
+		}
+		return new AllCallsMethodCallRecorder();
+	}
+
+	/**
+	 * setRecordingMode decides how much the spy keeps of the calls made to it. Spies record all
+	 * calls by default, {@link RecordingMode#COUNT} and {@link RecordingMode#NONE} are meant for
+	 * spies that are called so many times that recording every call would use up the heap.
+	 * {@link RecordingMode#CONCURRENT} is for spies called from many threads at the same time.
+	 * <p>
+	 * Changing the mode replaces MCR with a new instance, calls recorded before the change are
+	 * thrown away. Return values set in MRV are kept.
+	 *
+	 * @throws IllegalStateException
+	 *             if the spy records calls for awaiting and the mode is not
+	 *             {@link RecordingMode#CONCURRENT}
+	 */
+	public void setRecordingMode(RecordingMode recordingMode) {
+		if (recordingMode == RecordingMode.CONCURRENT) {
+			ensureNotMemoizingDefaultReturnValues();
+		} else {
+			ensureNotRecordingCallsForAwaiting("Recording mode " + recordingMode);
+		}
+		this.recordingMode = recordingMode;
+		callLogCapacity = 0;
+		replaceMCR();
+	}
+
+	private void replaceMCR() {
+		recorder = createRecorderForMode();
+		recorder.useMRV(MRV);
+		MCR = recorder;
+		if (callTimestamps != null) {
+			callTimestamps = new CallTimestamps();
+		}
+		if (callAwaiting != null) {
+			callAwaiting = new CallAwaiting();
+		}
+	}
+
+	/**
+	 * setCallLogCapacity makes the spy record all calls but only keep the last capacity calls to
+	 * each method, so that the memory used by a spy called in a long running test stays fixed.
+	 * Calls are numbered as usual, asserting on a call that is no longer kept fails with a message
+	 * saying that the call has been evicted. {@link #getNumberOfEvictedCallsToMethod(String)} tells
+	 * how many calls have been evicted.
+	 * <p>
+	 * Setting the capacity replaces MCR in the same way as
+	 * {@link #setRecordingMode(RecordingMode)}, and setting a recording mode removes the capacity.
+	 *
+	 * @param capacity
+	 *            the number of calls to keep for each method, must be greater than zero
+	 * @throws IllegalStateException
+	 *             if the spy records calls for awaiting
+	 */
+	public void setCallLogCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"Call log capacity must be greater than zero, was " + capacity);
+		}
+		ensureNotRecordingCallsForAwaiting("A call log capacity");
+		recordingMode = RecordingMode.ALL;
+		callLogCapacity = capacity;
+		replaceMCR();
+	}
+
+	/**
+	 * getNumberOfEvictedCallsToMethod returns how many calls to the named method that have been
+	 * dropped from the call log, always zero unless a call log capacity is set.
+	 */
+	public long getNumberOfEvictedCallsToMethod(String methodName) {
+		if (callLogCapacity == 0) {
+			return 0;
+		}
+		return boundedMCR.getNumberOfEvictedCallsToMethod(methodName);
+	}
+
+	/**
+	 * getSequenceNumberForCall returns the sequence number of a call made to a spy using
+	 * {@link RecordingMode#CONCURRENT}. Calls to all spies using that mode, to any of their methods
+	 * and from any thread, are numbered from one counter in the order they are recorded, so
+	 * sequence numbers can be used to assert on the order of calls made from different threads,
+	 * also when the calls are made to different spies. The numbers are increasing, but as other
+	 * spies take numbers as well they are not consecutive.
+	 *
+	 * @throws IllegalStateException
+	 *             if the spy is not using {@link RecordingMode#CONCURRENT}
+	 */
+	public long getSequenceNumberForCall(String methodName, int callNumber) {
+		if (recordingMode != RecordingMode.CONCURRENT) {
+			throw new IllegalStateException(
+					"Sequence numbers are only kept in recording mode CONCURRENT, mode is "
+							+ recordingMode);
+		}
+		return concurrentMCR.getSequenceNumberForCall(methodName, callNumber);
+	}
+
+	/**
+	 * memoizeDefaultReturnValues makes the spy keep the first default return value for each method
+	 * and set of parameter values, and return it again for later calls with equal parameter
+	 * values. Without it, a spy returned by default, such as the DataRecordGroupSpy from
+	 * DataRecordSpy.getDataRecordGroup(), is created anew for each call, so code calling the same
+	 * getter in a loop gets a different spy each time. Spies returned as memoized defaults memoize
+	 * their own defaults as well. Return values set in MRV by the test are not memoized.
+	 * <p>
+	 * Memoizing is not supported together with {@link RecordingMode#CONCURRENT}.
+	 */
+	public void memoizeDefaultReturnValues() {
+		if (recordingMode == RecordingMode.CONCURRENT) {
+			throw new IllegalStateException(
+					"Default return values can not be memoized in recording mode CONCURRENT");
+		}
+		memoizeDefaultReturnValues = true;
+		lazyMRV.memoizeDefaults();
+	}
+
+	private void ensureNotRecordingCallsForAwaiting(String setting) {
+		if (callAwaiting != null) {
+			throw new IllegalStateException(
+					setting + " can not be used when recording calls for awaiting");
+		}
+	}
+
+	private void ensureNotMemoizingDefaultReturnValues() {
+		if (memoizeDefaultReturnValues) {
+			throw new IllegalStateException(
+					"Recording mode CONCURRENT can not be used when memoizing defaults");
+		}
+	}
+
+	/**
+	 * recordCallTimestamps makes the spy keep the {@link System#nanoTime()} at which each call is
+	 * made, so that tests can assert on the time between calls, using
+	 * {@link #getTimestampForCall(String, int)} or {@link SpyCallTiming}. Timestamps are numbered
+	 * in the same way as the calls in MCR, and are thrown away together with the recorded calls
+	 * when MCR is replaced. A timestamp is kept for every call, also when a call log capacity is
+	 * set. In {@link RecordingMode#CONCURRENT}, calls made at the same time from different threads
+	 * may be numbered in a different order than in MCR.
+	 */
+	public void recordCallTimestamps() {
+		if (callTimestamps == null) {
+			callTimestamps = new CallTimestamps();
+		}
+	}
+
+	/**
+	 * getTimestampForCall returns the {@link System#nanoTime()} at which the numbered call to the
+	 * named method was made.
+	 *
+	 * @throws IllegalStateException
+	 *             if the spy does not record call timestamps
+	 * @throws IllegalArgumentException
+	 *             if there is no such call
+	 */
+	public long getTimestampForCall(String methodName, int callNumber) {
+		return timestamps().get(methodName, callNumber);
+	}
+
+	CallTimestamps timestamps() {
+		if (callTimestamps == null) {
+			throw new IllegalStateException("Call timestamps are not recorded for "
+					+ getClass().getSimpleName() + ", use recordCallTimestamps()");
+		}
+		return callTimestamps;
+	}
+
+	/**
+	 * recordCallsForAwaiting makes the spy count the calls made to it and wake threads waiting for
+	 * them, so that a test can wait for calls made from other threads using
+	 * {@link #awaitNumberOfCallsToMethod(String, int, Duration)} and
+	 * {@link #awaitCallWithParameters(String, Duration, Object...)}, instead of polling MCR. It
+	 * must be called before the calls to wait for are made. The counts are thrown away together
+	 * with the recorded calls when MCR is replaced.
+	 * <p>
+	 * Awaiting is only supported in {@link RecordingMode#CONCURRENT}, as the calls awaited are made
+	 * from other threads, often from several at the same time, and only that mode records calls
+	 * from many threads safely. The recording mode must therefore be set before awaiting is
+	 * turned on, and can not be changed, nor a call log capacity set, while it is on.
+	 * <p>
+	 * A wait ends once the call has been recorded in MCR, after any latency set for the method.
+	 * For spies answering from MRV, the returned value has been recorded as well, while a fake may
+	 * still be working out the value to return. Return values of calls made from other threads
+	 * are best asserted on once the code under test has finished.
+	 */
+	public void recordCallsForAwaiting() {
+		if (recordingMode != RecordingMode.CONCURRENT) {
+			throw new IllegalStateException(
+					"Calls can only be awaited in recording mode CONCURRENT, mode is "
+							+ recordingMode);
+		}
+		if (callAwaiting == null) {
+			callAwaiting = new CallAwaiting();
+		}
+	}
+
+	/**
+	 * awaitNumberOfCallsToMethod waits until the named method has been called at least
+	 * numberOfCalls times, and returns as soon as it has.
+	 *
+	 * @throws AssertionError
+	 *             if the method has not been called numberOfCalls times within the timeout
+	 * @throws IllegalStateException
+	 *             if the spy does not record calls for awaiting
+	 */
+	public void awaitNumberOfCallsToMethod(String methodName, int numberOfCalls, Duration timeout)
+			throws InterruptedException {
+		long calls = awaiting().awaitNumberOfCalls(methodName, numberOfCalls, timeout.toNanos());
+		if (calls < numberOfCalls) {
+			throw new AssertionError("Method " + methodName + " was called " + calls
+					+ " times within " + timeout + ", expected " + numberOfCalls);
+		}
+	}
+
+	/**
+	 * awaitCallWithParameters waits until the named method has been called with parameter values
+	 * equal to the given ones, in the order of the parameters of the method, and returns as soon
+	 * as it has. Arrays, such as varargs attributes, are compared on their content. Calls made
+	 * before the wait started are looked for among the calls recorded in MCR.
+	 *
+	 * @throws AssertionError
+	 *             if no such call has been made within the timeout
+	 * @throws IllegalStateException
+	 *             if the spy does not record calls for awaiting
+	 */
+	public void awaitCallWithParameters(String methodName, Duration timeout,
+			Object... parameterValues) throws InterruptedException {
+		if (!awaiting().awaitCallWithParameters(methodName, parameterValues, timeout.toNanos(),
+				recorder)) {
+			throw new AssertionError("Method " + methodName + " was not called with parameters "
+					+ Arrays.deepToString(parameterValues) + " within " + timeout);
+		}
+	}
+
+	private CallAwaiting awaiting() {
+		if (callAwaiting == null) {
+			throw new IllegalStateException("Calls are not recorded for awaiting on "
+					+ getClass().getSimpleName() + ", use recordCallsForAwaiting()");
+		}
+		return callAwaiting;
+	}
+
+	/**
+	 * setLatency makes each call to the named method wait for a delay sampled from the latency
+	 * before it is recorded and answered, so that callers can be tested against a slow data layer.
+	 * The timestamp of a delayed call is taken before the delay. Latencies can be set while the
+	 * spy is called from other threads.
+	 */
+	public void setLatency(String methodName, SpyLatency latency) {
+		if (latencies == null) {
+			latencies = new ConcurrentHashMap<>();
+		}
+		latencies.put(methodName, latency);
+	}
+
+	/**
+	 * removeLatency makes calls to the named method answer without delay again.
+	 */
+	public void removeLatency(String methodName) {
+		if (latencies != null) {
+			latencies.remove(methodName);
+		}
+	}
+
+	/**
+	 * reset puts the spy back in the state it was created in, so that it can be reused between
+	 * tests. Recorded calls, call timestamps, latencies and all return values set by tests are
+	 * thrown away, and the spy records all calls again, without a call log capacity, memoizing of
+	 * default return values, call timestamps or recording of calls for awaiting. Only the default
+	 * return values for the spy class are kept. Threads still awaiting calls when the spy is reset
+	 * are not woken by calls made after it.
+	 * <p>
+	 * A reset replaces MCR and MRV with new instances, references to the old ones held by a test
+	 * are no longer connected to the spy.
+	 */
+	public void reset() {
+		setUpMCRAndMRV();
+	}
+
+	/**
+	 * recordCall records a call to the named method, after making sure the default return value
+	 * for that method is in place. The method name and the names and values of the parameters are
+	 * passed explicitly by each spied method, so that recording a call neither walks the stack to
+	 * find the called method nor creates arrays for the parameters. There is one recordCall method
+	 * for each number of parameters up to four, taking the name and value of each parameter in the
+	 * order of the parameters of the spied method.
+	 * <p>
+	 * Each call emits a {@link SpyCallEvent} lasting until the call has been recorded, which is
+	 * only written when a Java Flight Recorder recording has the event enabled, and is counted in
+	 * the running {@link SpyCallProfile}, if any. The timestamp of the call is taken here, when
+	 * call timestamps are recorded, and the call is delayed here, when a latency is set for the
+	 * method. Threads awaiting calls are woken once the call has been recorded.
+	 * <p>
+	 * When a test has replaced MCR, for instance with an MCR spy, the call is passed on to it using
+	 * addCall, and {@link #recordCallAndReturnFromMRV(String)} and
+	 * {@link #recordReturn(String, long, Object)} pass on calls using addCallAndReturnFromMRV and
+	 * addReturned.
+	 */
+	protected void recordCall(String methodName) {
+		record(methodName, 0, null, null, null, null, null, null, null, null);
+	}
+
+	protected void recordCall(String methodName, String name1, Object value1) {
+		record(methodName, 1, name1, value1, null, null, null, null, null, null);
+	}
+
+	protected void recordCall(String methodName, String name1, Object value1, String name2,
+			Object value2) {
+		record(methodName, 2, name1, value1, name2, value2, null, null, null, null);
+	}
+
+	protected void recordCall(String methodName, String name1, Object value1, String name2,
+			Object value2, String name3, Object value3) {
+		record(methodName, 3, name1, value1, name2, value2, name3, value3, null, null);
+	}
+
+	protected void recordCall(String methodName, String name1, Object value1, String name2,
+			Object value2, String name3, Object value3, String name4, Object value4) {
+		record(methodName, 4, name1, value1, name2, value2, name3, value3, name4, value4);
+	}
+
+	/**
+	 * recordCallAndReturnFromMRV records a call to the named method in the same way as
+	 * {@link #recordCall(String)}, and returns the value MRV answers for it.
+	 */
+	protected Object recordCallAndReturnFromMRV(String methodName) {
+		return recordAndAnswer(methodName, 0, null, null, null, null, null, null, null, null);
+	}
+
+	protected Object recordCallAndReturnFromMRV(String methodName, String name1, Object value1) {
+		return recordAndAnswer(methodName, 1, name1, value1, null, null, null, null, null, null);
+	}
+
+	protected Object recordCallAndReturnFromMRV(String methodName, String name1, Object value1,
+			String name2, Object value2) {
+		return recordAndAnswer(methodName, 2, name1, value1, name2, value2, null, null, null,
+				null);
+	}
+
+	protected Object recordCallAndReturnFromMRV(String methodName, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3) {
+		return recordAndAnswer(methodName, 3, name1, value1, name2, value2, name3, value3, null,
+				null);
+	}
+
+	protected Object recordCallAndReturnFromMRV(String methodName, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		return recordAndAnswer(methodName, 4, name1, value1, name2, value2, name3, value3, name4,
+				value4);
+	}
+
+	/**
+	 * startCall records a call to the named method of a fake, which works out the value to return
+	 * itself, in the same way as {@link #recordCall(String)}. The returned number identifies the
+	 * call, and is passed to {@link #recordReturn(String, long, Object)} together with the value
+	 * the call returns.
+	 */
+	protected long startCall(String methodName) {
+		return start(methodName, 0, null, null, null, null, null, null);
+	}
+
+	protected long startCall(String methodName, String name1, Object value1) {
+		return start(methodName, 1, name1, value1, null, null, null, null);
+	}
+
+	protected long startCall(String methodName, String name1, Object value1, String name2,
+			Object value2) {
+		return start(methodName, 2, name1, value1, name2, value2, null, null);
+	}
+
+	protected long startCall(String methodName, String name1, Object value1, String name2,
+			Object value2, String name3, Object value3) {
+		return start(methodName, 3, name1, value1, name2, value2, name3, value3);
+	}
+
+	/**
+	 * recordReturn records the value returned from a call started using
+	 * {@link #startCall(String)}, and returns the value.
+	 */
+	protected <T> T recordReturn(String methodName, long call, T returnValue) {
+		if (MCR == recorder) {
+			recorder.recordReturn(methodName, call, returnValue);
+		} else {
+			MCR.addReturned(returnValue);
+		}
+		SpyCallEvent.commitStarted(this, methodName);
+		return returnValue;
+	}
+
+	private long record(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		SpyCallEvent event = beforeCall(methodName, parameterCount, value1, value2, value3,
+				value4);
+		long call = addCall(methodName, parameterCount, name1, value1, name2, value2, name3,
+				value3, name4, value4);
+		SpyCallEvent.commit(event);
+		return call;
+	}
+
+	private long start(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3) {
+		SpyCallEvent event = beforeCall(methodName, parameterCount, value1, value2, value3,
+				null);
+		long call = addCall(methodName, parameterCount, name1, value1, name2, value2, name3,
+				value3, null, null);
+		SpyCallEvent.keepOpen(event);
+		return call;
+	}
+
+	private long addCall(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		long call = -1;
+		if (MCR == recorder) {
+			call = recorder.recordCall(methodName, parameterCount, name1, value1, name2, value2,
+					name3, value3, name4, value4);
+		} else {
+			MCR.addCall(pairs(parameterCount, name1, value1, name2, value2, name3, value3, name4,
+					value4));
+		}
+		wakeAwaitingThreads(methodName, parameterCount, value1, value2, value3, value4);
+		return call;
+	}
+
+	private Object recordAndAnswer(String methodName, int parameterCount, String name1,
+			Object value1, String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		SpyCallEvent event = beforeCall(methodName, parameterCount, value1, value2, value3,
+				value4);
+		try {
+			if (MCR != recorder) {
+				return MCR.addCallAndReturnFromMRV(pairs(parameterCount, name1, value1, name2,
+						value2, name3, value3, name4, value4));
+			}
+			long call = recorder.recordCall(methodName, parameterCount, name1, value1, name2,
+					value2, name3, value3, name4, value4);
+			Object returnValue = answerFromMRV(methodName, parameterCount, value1, value2,
+					value3, value4);
+			recorder.recordReturn(methodName, call, returnValue);
+			return returnValue;
+		} finally {
+			wakeAwaitingThreads(methodName, parameterCount, value1, value2, value3, value4);
+			SpyCallEvent.commit(event);
+		}
+	}
+
+	private void wakeAwaitingThreads(String methodName, int parameterCount, Object value1,
+			Object value2, Object value3, Object value4) {
+		if (callAwaiting != null) {
+			callAwaiting.called(methodName, parameterCount, value1, value2, value3, value4);
+		}
+	}
+
+	private Object answerFromMRV(String methodName, int parameterCount, Object value1,
+			Object value2, Object value3, Object value4) {
+		if (MRV == lazyMRV) {
+			return lazyMRV.answer(methodName, parameterCount, value1, value2, value3, value4);
+		}
+		synchronized (MRV) {
+			return MRV.getReturnValue(methodName, LazyMethodReturnValues
+					.parameterValues(parameterCount, value1, value2, value3, value4));
+		}
+	}
+
+	private static Object[] pairs(int parameterCount, String name1, Object value1, String name2,
+			Object value2, String name3, Object value3, String name4, Object value4) {
+		return Arrays.copyOf(
+				new Object[] { name1, value1, name2, value2, name3, value3, name4, value4 },
+				parameterCount * 2);
+	}
+
+	private SpyCallEvent beforeCall(String methodName, int parameterCount, Object value1,
+			Object value2, Object value3, Object value4) {
+		SpyCallEvent event = SpyCallEvent.begin(this, methodName, parameterCount);
+		if (callTimestamps != null) {
+			callTimestamps.add(methodName, System.nanoTime());
+		}
+		if (latencies != null) {
+			delayIfLatencySet(methodName);
+		}
+		lazyMRV.useParameterValues(parameterCount, value1, value2, value3, value4);
+		SpyCallProfile.record(getClass(), methodName, parameterCount, value1, value2, value3,
+				value4);
+		if (recordingMode != RecordingMode.CONCURRENT) {
+			lazyMRV.ensureDefaultInstalled(methodName);
+		}
+		return event;
+	}
+
+	private void delayIfLatencySet(String methodName) {
+		SpyLatency latency = latencies.get(methodName);
+		if (latency != null) {
+			latency.delay();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AllCallsMethodCallRecorder is the MCR of a spy using {@link RecordingMode#ALL}. The calls to
+ * each method are kept in a {@link MethodCalls}, created the first time the method is called, so
+ * that recording a later call to the method only stores references into arrays.
+ * <p>
+ * Calls are recorded by one thread at a time, while they may be read from other threads, such as
+ * a thread awaiting calls.
+ */
+class AllCallsMethodCallRecorder extends SpyMethodCallRecorder {
+	private final Map<String, MethodCalls> calls = new ConcurrentHashMap<>();
+	private final int capacity;
+
+	AllCallsMethodCallRecorder() {
+		this(0);
+	}
+
+	/**
+	 * @param capacity
+	 *            the number of calls to keep for each method, or 0 to keep all calls
+	 */
+	AllCallsMethodCallRecorder(int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	long recordCall(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		MethodCalls methodCalls = calls.get(methodName);
+		int signature = methodCalls == null ? MethodCalls.NO_SIGNATURE
+				: methodCalls.signatureOf(parameterCount, name1, name2, name3, name4);
+		if (signature == MethodCalls.NO_SIGNATURE) {
+			methodCalls = addSignature(methodName, methodCalls,
+					MethodCalls.parameterNames(parameterCount, name1, name2, name3, name4));
+			signature = methodCalls.lastSignature();
+		}
+		return methodCalls.add(signature, parameterCount, value1, value2, value3, value4, 0);
+	}
+
+	@Override
+	long recordCall(String methodName, String[] parameterNames, Object[] parameterValues) {
+		MethodCalls methodCalls = calls.get(methodName);
+		int signature = methodCalls == null ? MethodCalls.NO_SIGNATURE
+				: methodCalls.signatureOf(parameterNames);
+		if (signature == MethodCalls.NO_SIGNATURE) {
+			methodCalls = addSignature(methodName, methodCalls, parameterNames);
+			signature = methodCalls.lastSignature();
+		}
+		return methodCalls.add(signature, parameterValues, 0);
+	}
+
+	private MethodCalls addSignature(String methodName, MethodCalls methodCalls,
+			String[] parameterNames) {
+		MethodCalls withSignature = MethodCalls.withSignature(methodCalls, methodName,
+				parameterNames, capacity, false);
+		calls.put(methodName, withSignature);
+		return withSignature;
+	}
+
+	@Override
+	void recordReturn(String methodName, long call, Object returnValue) {
+		calls.get(methodName).setReturnValue(call, returnValue);
+	}
+
+	@Override
+	long numberOfCalls(String methodName) {
+		MethodCalls methodCalls = calls.get(methodName);
+		return methodCalls == null ? 0 : methodCalls.numberOfCalls();
+	}
+
+	long numberOfEvictedCalls(String methodName) {
+		MethodCalls methodCalls = calls.get(methodName);
+		return methodCalls == null ? 0 : methodCalls.numberOfEvictedCalls();
+	}
+
+	@Override
+	RecordedCall keptCall(String methodName, long callNumber) {
+		MethodCalls methodCalls = calls.get(methodName);
+		if (callNumber < methodCalls.numberOfEvictedCalls()) {
+			throw new AssertionError("Call number " + callNumber + " to method " + methodName
+					+ " has been evicted, only the last " + capacity + " of "
+					+ methodCalls.numberOfCalls() + " calls are kept");
+		}
+		return methodCalls.call(callNumber);
+	}
+
+	@Override
+	List<RecordedCall> keptCalls(String methodName) {
+		MethodCalls methodCalls = calls.get(methodName);
+		if (methodCalls == null) {
+			return Collections.emptyList();
+		}
+		long numberOfCalls = methodCalls.numberOfCalls();
+		List<RecordedCall> keptCalls = new ArrayList<>();
+		for (long callNumber = methodCalls.numberOfEvictedCalls(); callNumber < numberOfCalls;
+				callNumber++) {
+			keptCalls.add(methodCalls.call(callNumber));
+		}
+		return keptCalls;
+	}
+}
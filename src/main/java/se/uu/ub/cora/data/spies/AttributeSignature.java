@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import se.uu.ub.cora.data.DataAttribute;
+
+/**
+ * AttributeSignature is a canonical form of a set of attributes, the names and values of the
+ * attributes sorted on name and value, so that two sets of attributes with the same names and
+ * values have equal signatures whatever order the attributes are in. It is used as key when
+ * indexing children on their attributes.
+ */
+final class AttributeSignature {
+	static final AttributeSignature NO_ATTRIBUTES = new AttributeSignature(new String[0]);
+	private static final Comparator<String[]> BY_NAME_AND_VALUE = Comparator
+			.comparing((String[] nameAndValue) -> nameAndValue[0])
+			.thenComparing(nameAndValue -> nameAndValue[1]);
+	private final String[] namesAndValues;
+	private final int hashCode;
+
+	private AttributeSignature(String[] namesAndValues) {
+		this.namesAndValues = namesAndValues;
+		hashCode = Arrays.hashCode(namesAndValues);
+	}
+
+	static AttributeSignature of(DataAttribute... attributes) {
+		if (attributes.length == 0) {
+			return NO_ATTRIBUTES;
+		}
+		String[][] pairs = new String[attributes.length][];
+		for (int i = 0; i < attributes.length; i++) {
+			pairs[i] = new String[] { attributes[i].getNameInData(), attributes[i].getValue() };
+		}
+		return sortedOf(pairs);
+	}
+
+	static AttributeSignature of(Collection<DataAttribute> attributes) {
+		return of(attributes.toArray(new DataAttribute[0]));
+	}
+
+	/**
+	 * ofNamesAndValues returns the signature of attributes given as names and values, in any
+	 * order, each name followed by its value.
+	 */
+	static AttributeSignature ofNamesAndValues(String... namesAndValues) {
+		if (namesAndValues.length == 0) {
+			return NO_ATTRIBUTES;
+		}
+		String[][] pairs = new String[namesAndValues.length / 2][];
+		for (int i = 0; i < pairs.length; i++) {
+			pairs[i] = new String[] { namesAndValues[i * 2], namesAndValues[i * 2 + 1] };
+		}
+		return sortedOf(pairs);
+	}
+
+	private static AttributeSignature sortedOf(String[][] pairs) {
+		Arrays.sort(pairs, BY_NAME_AND_VALUE);
+		String[] namesAndValues = new String[pairs.length * 2];
+		for (int i = 0; i < pairs.length; i++) {
+			namesAndValues[i * 2] = pairs[i][0];
+			namesAndValues[i * 2 + 1] = pairs[i][1];
+		}
+		return new AttributeSignature(namesAndValues);
+	}
+
+	int numberOfAttributes() {
+		return namesAndValues.length / 2;
+	}
+
+	/**
+	 * nameAt returns the name of the attribute at the given position, attributes being sorted on
+	 * name and value.
+	 */
+	String nameAt(int position) {
+		return namesAndValues[position * 2];
+	}
+
+	String valueAt(int position) {
+		return namesAndValues[position * 2 + 1];
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof AttributeSignature)) {
+			return false;
+		}
+		AttributeSignature other = (AttributeSignature) obj;
+		return hashCode == other.hashCode && Arrays.equals(namesAndValues, other.namesAndValues);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(namesAndValues);
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+/**
+ * BoundedMethodCallRecorder is the MCR of a spy with a call log capacity, see
+ * {@link AbstractSpy#setCallLogCapacity(int)}. Only the last calls to each method are kept, in a
+ * ring buffer allocated the first time the method is called, so recording a call never allocates.
+ * Older calls are evicted and only counted.
+ * <p>
+ * Call numbers are the same as if all calls were recorded, asking for an evicted call fails with
+ * an assertion error saying that the call has been evicted.
+ */
+final class BoundedMethodCallRecorder extends AllCallsMethodCallRecorder {
+
+	BoundedMethodCallRecorder(int capacity) {
+		super(capacity);
+	}
+
+	long getNumberOfEvictedCallsToMethod(String methodName) {
+		return numberOfEvictedCalls(methodName);
+	}
+
+	@Override
+	String describeKeptCalls(String methodName) {
+		return " in any of the kept calls, " + getNumberOfEvictedCallsToMethod(methodName)
+				+ " calls have been evicted";
+	}
+}
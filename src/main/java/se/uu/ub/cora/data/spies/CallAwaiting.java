@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * CallAwaiting counts the calls made to each method of a spy and wakes the threads waiting for
+ * calls to that method. Only the number of calls is kept, together with the waiting threads and
+ * what they wait for, so a call made while no thread is waiting costs an increment. Each waiting
+ * thread is parked until a call it waits for is made, and is unparked by the thread making it, so
+ * a wait ends as soon as the call it waits for is made.
+ * <p>
+ * A waiting thread registers before it checks for calls already made, so that a call made while
+ * it checks is either found by the check or wakes it.
+ */
+final class CallAwaiting {
+	private final Map<String, MethodAwaiting> methods = new ConcurrentHashMap<>();
+
+	/**
+	 * called counts a call to the named method and wakes the threads waiting for it, it is called
+	 * once the call has been recorded.
+	 */
+	void called(String methodName, int parameterCount, Object value1, Object value2,
+			Object value3, Object value4) {
+		MethodAwaiting awaiting = forMethod(methodName);
+		long numberOfCalls = awaiting.calls.incrementAndGet();
+		if (!awaiting.waiters.isEmpty()) {
+			for (Waiter waiter : awaiting.waiters) {
+				if (waiter.waitsFor(numberOfCalls, parameterCount, value1, value2, value3,
+						value4)) {
+					waiter.wake();
+				}
+			}
+		}
+	}
+
+	private MethodAwaiting forMethod(String methodName) {
+		MethodAwaiting awaiting = methods.get(methodName);
+		if (awaiting == null) {
+			methods.putIfAbsent(methodName, new MethodAwaiting());
+			awaiting = methods.get(methodName);
+		}
+		return awaiting;
+	}
+
+	/**
+	 * awaitNumberOfCalls waits until the method has been called the number of times or the
+	 * timeout has passed, and returns the number of calls made.
+	 */
+	long awaitNumberOfCalls(String methodName, int numberOfCalls, long timeoutNanos)
+			throws InterruptedException {
+		MethodAwaiting awaiting = forMethod(methodName);
+		Waiter waiter = new NumberOfCallsWaiter(numberOfCalls);
+		await(awaiting, waiter, timeoutNanos, () -> awaiting.calls.get() >= numberOfCalls);
+		return awaiting.calls.get();
+	}
+
+	/**
+	 * awaitCallWithParameters waits until the method has been called with parameter values equal
+	 * to the given ones or the timeout has passed, and returns if such a call was made. Calls made
+	 * before the wait started are looked for among the calls kept by the recorder.
+	 */
+	boolean awaitCallWithParameters(String methodName, Object[] parameterValues,
+			long timeoutNanos, SpyMethodCallRecorder recorder) throws InterruptedException {
+		Waiter waiter = new ParametersWaiter(parameterValues);
+		return await(forMethod(methodName), waiter, timeoutNanos,
+				() -> recorder.wasCalledWithEqualParameters(methodName, parameterValues));
+	}
+
+	private boolean await(MethodAwaiting awaiting, Waiter waiter, long timeoutNanos,
+			CallCheck alreadyCalled) throws InterruptedException {
+		awaiting.waiters.add(waiter);
+		try {
+			if (alreadyCalled.madeBeforeWait()) {
+				return true;
+			}
+			return parkUntilWoken(waiter, System.nanoTime() + timeoutNanos);
+		} finally {
+			awaiting.waiters.remove(waiter);
+		}
+	}
+
+	private boolean parkUntilWoken(Waiter waiter, long deadline) throws InterruptedException {
+		while (!waiter.woken) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return false;
+			}
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return true;
+	}
+
+	private interface CallCheck {
+		boolean madeBeforeWait();
+	}
+
+	private static final class MethodAwaiting {
+		private final AtomicLong calls = new AtomicLong();
+		private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+	}
+
+	private abstract static class Waiter {
+		private final Thread thread = Thread.currentThread();
+		private volatile boolean woken;
+
+		abstract boolean waitsFor(long numberOfCalls, int parameterCount, Object value1,
+				Object value2, Object value3, Object value4);
+
+		void wake() {
+			woken = true;
+			LockSupport.unpark(thread);
+		}
+	}
+
+	private static final class NumberOfCallsWaiter extends Waiter {
+		private final int numberOfCalls;
+
+		NumberOfCallsWaiter(int numberOfCalls) {
+			this.numberOfCalls = numberOfCalls;
+		}
+
+		@Override
+		boolean waitsFor(long calls, int parameterCount, Object value1, Object value2,
+				Object value3, Object value4) {
+			return calls >= numberOfCalls;
+		}
+	}
+
+	private static final class ParametersWaiter extends Waiter {
+		private final Object[] parameterValues;
+
+		ParametersWaiter(Object[] parameterValues) {
+			this.parameterValues = parameterValues;
+		}
+
+		@Override
+		boolean waitsFor(long calls, int parameterCount, Object value1, Object value2,
+				Object value3, Object value4) {
+			return parameterValues.length == parameterCount && matches(0, value1)
+					&& matches(1, value2) && matches(2, value3) && matches(3, value4);
+		}
+
+		private boolean matches(int position, Object value) {
+			return position >= parameterValues.length
+					|| Objects.deepEquals(parameterValues[position], value);
+		}
+	}
+}
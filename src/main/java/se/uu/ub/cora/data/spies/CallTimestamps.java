@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CallTimestamps keeps the {@link System#nanoTime()} of each call made to a spy, per method and
+ * in call number order. Timestamps are kept as arrays of longs, so that keeping them costs eight
+ * bytes per call. Calls can be timestamped from several threads at once.
+ */
+final class CallTimestamps {
+	private final Map<String, Timestamps> timestampsPerMethod = new HashMap<>();
+
+	synchronized void add(String methodName, long nanoTime) {
+		timestampsPerMethod.computeIfAbsent(methodName, name -> new Timestamps()).add(nanoTime);
+	}
+
+	synchronized long get(String methodName, int callNumber) {
+		Timestamps timestamps = timestampsPerMethod.get(methodName);
+		if (timestamps == null || callNumber < 0 || callNumber >= timestamps.size) {
+			throw new IllegalArgumentException(
+					"No timestamp for call number " + callNumber + " to method " + methodName);
+		}
+		return timestamps.values[callNumber];
+	}
+
+	/**
+	 * firstCallAtOrAfter returns the number of the first call to the method made at or after the
+	 * given time, or -1 if there is no such call.
+	 */
+	synchronized int firstCallAtOrAfter(String methodName, long nanoTime) {
+		Timestamps timestamps = timestampsPerMethod.get(methodName);
+		if (timestamps != null) {
+			for (int i = 0; i < timestamps.size; i++) {
+				if (timestamps.values[i] - nanoTime >= 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static final class Timestamps {
+		private long[] values = new long[8];
+		private int size;
+
+		void add(long nanoTime) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = nanoTime;
+		}
+	}
+}
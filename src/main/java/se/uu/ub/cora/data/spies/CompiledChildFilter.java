@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+
+/**
+ * CompiledChildFilter is the immutable, compiled form of a {@link DataChildFilterFake}. A child
+ * matches when it has the nameInData of the filter and exactly one attribute for each attribute in
+ * the filter, with one of the possible values for that attribute, and no other attributes.
+ * <p>
+ * Attribute names are kept sorted, so that they can be compared position by position with an
+ * {@link AttributeSignature}. Names and values are interned, an attribute with a single possible
+ * value is matched using equals and other attributes using a hash set of the possible values.
+ * Attribute names of a child are expected to be unique, as they are in a DataGroup.
+ * Two compiled filters with the same nameInData and possible values are equal, so a compiled
+ * filter can be used as a key.
+ */
+final class CompiledChildFilter {
+	private final String nameInData;
+	private final String[] attributeNames;
+	private final ValueMatcher[] valueMatchers;
+	private final AttributeSignature onlySignature;
+	private final int hashCode;
+
+	static CompiledChildFilter compile(String nameInData,
+			SortedMap<String, Set<String>> possibleValues) {
+		return new CompiledChildFilter(nameInData, possibleValues);
+	}
+
+	private CompiledChildFilter(String nameInData, SortedMap<String, Set<String>> possibleValues) {
+		this.nameInData = nameInData.intern();
+		attributeNames = new String[possibleValues.size()];
+		valueMatchers = new ValueMatcher[possibleValues.size()];
+		int position = 0;
+		for (Map.Entry<String, Set<String>> entry : possibleValues.entrySet()) {
+			attributeNames[position] = entry.getKey().intern();
+			valueMatchers[position] = ValueMatcher.of(entry.getValue());
+			position++;
+		}
+		onlySignature = createOnlySignature();
+		hashCode = Objects.hash(this.nameInData, Arrays.hashCode(attributeNames),
+				Arrays.hashCode(valueMatchers));
+	}
+
+	private AttributeSignature createOnlySignature() {
+		String[] namesAndValues = new String[attributeNames.length * 2];
+		for (int i = 0; i < attributeNames.length; i++) {
+			if (!(valueMatchers[i] instanceof SingleValue singleValue)) {
+				return null;
+			}
+			namesAndValues[i * 2] = attributeNames[i];
+			namesAndValues[i * 2 + 1] = singleValue.value;
+		}
+		return AttributeSignature.ofNamesAndValues(namesAndValues);
+	}
+
+	String getNameInData() {
+		return nameInData;
+	}
+
+	/**
+	 * onlySignature returns the one attribute signature matched by this filter, or null if every
+	 * attribute does not have exactly one possible value.
+	 */
+	AttributeSignature onlySignature() {
+		return onlySignature;
+	}
+
+	boolean matches(DataChild child) {
+		return nameInData.equals(child.getNameInData()) && attributesMatch(child.getAttributes());
+	}
+
+	private boolean attributesMatch(Collection<DataAttribute> attributes) {
+		if (attributes.size() != attributeNames.length) {
+			return false;
+		}
+		for (DataAttribute attribute : attributes) {
+			int position = Arrays.binarySearch(attributeNames, attribute.getNameInData());
+			if (position < 0 || !valueMatchers[position].matches(attribute.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * matches tells if children with the given attributes match the attributes of this filter, the
+	 * nameInData of the children is not checked.
+	 */
+	boolean matches(AttributeSignature signature) {
+		if (signature.numberOfAttributes() != attributeNames.length) {
+			return false;
+		}
+		for (int i = 0; i < attributeNames.length; i++) {
+			if (!attributeNames[i].equals(signature.nameAt(i))
+					|| !valueMatchers[i].matches(signature.valueAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CompiledChildFilter)) {
+			return false;
+		}
+		CompiledChildFilter other = (CompiledChildFilter) obj;
+		return hashCode == other.hashCode && nameInData.equals(other.nameInData)
+				&& Arrays.equals(attributeNames, other.attributeNames)
+				&& Arrays.equals(valueMatchers, other.valueMatchers);
+	}
+
+	private abstract static class ValueMatcher {
+		static ValueMatcher of(Set<String> possibleValues) {
+			if (possibleValues.size() == 1) {
+				return new SingleValue(possibleValues.iterator().next().intern());
+			}
+			Set<String> internedValues = new HashSet<>();
+			for (String value : possibleValues) {
+				internedValues.add(value.intern());
+			}
+			return new ValueSet(internedValues);
+		}
+
+		abstract boolean matches(String value);
+	}
+
+	private static final class SingleValue extends ValueMatcher {
+		private final String value;
+
+		SingleValue(String value) {
+			this.value = value;
+		}
+
+		@Override
+		boolean matches(String candidate) {
+			return value.equals(candidate);
+		}
+
+		@Override
+		public int hashCode() {
+			return value.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof SingleValue other && value.equals(other.value);
+		}
+	}
+
+	private static final class ValueSet extends ValueMatcher {
+		private final Set<String> values;
+
+		ValueSet(Set<String> values) {
+			this.values = values;
+		}
+
+		@Override
+		boolean matches(String candidate) {
+			return values.contains(candidate);
+		}
+
+		@Override
+		public int hashCode() {
+			return values.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ValueSet other && values.equals(other.values);
+		}
+	}
+}
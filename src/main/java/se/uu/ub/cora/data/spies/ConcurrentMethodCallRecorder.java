@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConcurrentMethodCallRecorder is the MCR of a spy using {@link RecordingMode#CONCURRENT}. Each
+ * thread calling the spy records its calls in a buffer of its own, one {@link MethodCalls} per
+ * method, so threads calling the spy at the same time never write to the same memory and never
+ * wait for each other. Each call gets a sequence number from one counter shared by all recorders,
+ * so that the order of calls can be compared across methods and across spies, such as a call to
+ * a record storage spy made before a call to a search spy.
+ * <p>
+ * The buffers of all threads are merged into one list per method, ordered by sequence number,
+ * first when a query or assertion needs them. A merged list is kept and reused for as long as no
+ * more calls have been made to the method. Merging takes no lock, two threads merging at the same
+ * time build equal lists.
+ * <p>
+ * Calls made from other threads are seen by assertions once those threads have finished, for
+ * instance after joining them or closing the executor running them.
+ */
+final class ConcurrentMethodCallRecorder extends SpyMethodCallRecorder {
+	private static final Comparator<RecordedCall> BY_SEQUENCE_NUMBER = Comparator
+			.comparingLong(RecordedCall::sequenceNumber);
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+	private final Queue<ThreadCalls> allThreadCalls = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<ThreadCalls> threadCalls = ThreadLocal
+			.withInitial(this::createThreadCalls);
+	private final Map<String, List<RecordedCall>> mergedCalls = new ConcurrentHashMap<>();
+
+	private ThreadCalls createThreadCalls() {
+		ThreadCalls calls = new ThreadCalls();
+		allThreadCalls.add(calls);
+		return calls;
+	}
+
+	@Override
+	long recordCall(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		Map<String, MethodCalls> methods = threadCalls.get().methods;
+		MethodCalls methodCalls = methods.get(methodName);
+		int signature = methodCalls == null ? MethodCalls.NO_SIGNATURE
+				: methodCalls.signatureOf(parameterCount, name1, name2, name3, name4);
+		if (signature == MethodCalls.NO_SIGNATURE) {
+			methodCalls = addSignature(methods, methodName, methodCalls,
+					MethodCalls.parameterNames(parameterCount, name1, name2, name3, name4));
+			signature = methodCalls.lastSignature();
+		}
+		return methodCalls.add(signature, parameterCount, value1, value2, value3, value4,
+				SEQUENCE.getAndIncrement());
+	}
+
+	@Override
+	long recordCall(String methodName, String[] parameterNames, Object[] parameterValues) {
+		Map<String, MethodCalls> methods = threadCalls.get().methods;
+		MethodCalls methodCalls = methods.get(methodName);
+		int signature = methodCalls == null ? MethodCalls.NO_SIGNATURE
+				: methodCalls.signatureOf(parameterNames);
+		if (signature == MethodCalls.NO_SIGNATURE) {
+			methodCalls = addSignature(methods, methodName, methodCalls, parameterNames);
+			signature = methodCalls.lastSignature();
+		}
+		return methodCalls.add(signature, parameterValues, SEQUENCE.getAndIncrement());
+	}
+
+	private static MethodCalls addSignature(Map<String, MethodCalls> methods, String methodName,
+			MethodCalls methodCalls, String[] parameterNames) {
+		MethodCalls withSignature = MethodCalls.withSignature(methodCalls, methodName,
+				parameterNames, 0, true);
+		methods.put(methodName, withSignature);
+		return withSignature;
+	}
+
+	@Override
+	void recordReturn(String methodName, long call, Object returnValue) {
+		threadCalls.get().methods.get(methodName).setReturnValue(call, returnValue);
+	}
+
+	long getSequenceNumberForCall(String methodName, int callNumber) {
+		List<RecordedCall> calls = merged(methodName);
+		if (callNumber < 0 || callNumber >= calls.size()) {
+			throw new AssertionError("Method " + methodName + " was called " + calls.size()
+					+ " times, there is no call number " + callNumber);
+		}
+		return calls.get(callNumber).sequenceNumber();
+	}
+
+	@Override
+	long numberOfCalls(String methodName) {
+		long numberOfCalls = 0;
+		for (ThreadCalls calls : allThreadCalls) {
+			MethodCalls methodCalls = calls.methods.get(methodName);
+			if (methodCalls != null) {
+				numberOfCalls += methodCalls.numberOfCalls();
+			}
+		}
+		return numberOfCalls;
+	}
+
+	@Override
+	RecordedCall keptCall(String methodName, long callNumber) {
+		return merged(methodName).get((int) callNumber);
+	}
+
+	@Override
+	List<RecordedCall> keptCalls(String methodName) {
+		return merged(methodName);
+	}
+
+	private List<RecordedCall> merged(String methodName) {
+		List<RecordedCall> merged = mergedCalls.get(methodName);
+		if (merged == null || merged.size() != numberOfCalls(methodName)) {
+			merged = merge(methodName);
+			mergedCalls.put(methodName, merged);
+		}
+		return merged;
+	}
+
+	private List<RecordedCall> merge(String methodName) {
+		List<RecordedCall> calls = new ArrayList<>();
+		for (ThreadCalls threadCallsToMerge : allThreadCalls) {
+			MethodCalls methodCalls = threadCallsToMerge.methods.get(methodName);
+			if (methodCalls != null) {
+				long numberOfCalls = methodCalls.numberOfCalls();
+				for (long callNumber = 0; callNumber < numberOfCalls; callNumber++) {
+					calls.add(methodCalls.call(callNumber));
+				}
+			}
+		}
+		calls.sort(BY_SEQUENCE_NUMBER);
+		for (int callNumber = 0; callNumber < calls.size(); callNumber++) {
+			calls.set(callNumber, calls.get(callNumber).withCallNumber(callNumber));
+		}
+		return Collections.unmodifiableList(calls);
+	}
+
+	private static final class ThreadCalls {
+		private final Map<String, MethodCalls> methods = new ConcurrentHashMap<>();
+	}
+}
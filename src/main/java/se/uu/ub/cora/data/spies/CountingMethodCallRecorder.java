@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CountingMethodCallRecorder is the MCR of a spy using {@link RecordingMode#COUNT}. It only keeps
+ * one counter per called method, so memory use does not grow with the number of calls. Assertions
+ * on the number of calls work as usual, while queries and assertions on parameters and return
+ * values throw an IllegalStateException.
+ */
+final class CountingMethodCallRecorder extends SpyMethodCallRecorder {
+	private final Map<String, Counter> counters = new HashMap<>();
+
+	@Override
+	long recordCall(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		Counter counter = counters.get(methodName);
+		if (counter == null) {
+			counter = new Counter();
+			counters.put(methodName, counter);
+		}
+		return counter.calls++;
+	}
+
+	@Override
+	long recordCall(String methodName, String[] parameterNames, Object[] parameterValues) {
+		return recordCall(methodName, 0, null, null, null, null, null, null, null, null);
+	}
+
+	@Override
+	void recordReturn(String methodName, long call, Object returnValue) {
+		// return values are not kept when counting
+	}
+
+	@Override
+	long numberOfCalls(String methodName) {
+		Counter counter = counters.get(methodName);
+		return counter == null ? 0 : counter.calls;
+	}
+
+	@Override
+	RecordedCall keptCall(String methodName, long callNumber) {
+		throw callsNotKept();
+	}
+
+	@Override
+	List<RecordedCall> keptCalls(String methodName) {
+		throw callsNotKept();
+	}
+
+	@Override
+	void ensureCallsKept() {
+		throw callsNotKept();
+	}
+
+	private static IllegalStateException callsNotKept() {
+		return new IllegalStateException(
+				"Parameter and return values are not kept in recording mode COUNT");
+	}
+
+	private static final class Counter {
+		private long calls;
+	}
+}
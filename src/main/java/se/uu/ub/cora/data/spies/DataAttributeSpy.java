@@ -18,28 +18,36 @@
  */
 package se.uu.ub.cora.data.spies;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
 import se.uu.ub.cora.data.DataAttribute;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
-public class DataAttributeSpy implements DataAttribute {
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataAttributeSpy extends AbstractSpy implements DataAttribute {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataAttributeSpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("getNameInData", String::new);
-		MRV.setDefaultReturnValuesSupplier("getValue", String::new);
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("getNameInData", String::new);
+		defaults.put("getValue", String::new);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public String getNameInData() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getNameInData");
 	}
 
 	@Override
 	public String getValue() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getValue");
 	}
 
 }
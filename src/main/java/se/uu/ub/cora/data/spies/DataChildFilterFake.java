@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataChildFilter;
+
+/**
+ * DataChildFilterFake is a working {@link DataChildFilter}, for measuring and testing code that
+ * finds or removes children using filters. A child matches when it has the nameInData of the
+ * filter and exactly the attributes added to the filter, each with one of the possible values
+ * given for it. Adding an attribute with a name already added replaces its possible values.
+ * <p>
+ * Each added attribute compiles the filter into a new immutable {@link CompiledChildFilter}, so
+ * childMatches does not need to look at the added sets again. A {@link DataGroupFake} given a
+ * DataChildFilterFake uses the compiled filter to look up matching children in its index instead
+ * of asking the filter about each child, such calls are not recorded in the MCR of the filter.
+ * <p>
+ * Calls and returned values are recorded in MCR the same way as for the spies.
+ */
+public class DataChildFilterFake extends AbstractSpy implements DataChildFilter {
+	private final String nameInData;
+	private final SortedMap<String, Set<String>> possibleValues = new TreeMap<>();
+	private CompiledChildFilter compiledFilter;
+
+	public static DataChildFilterFake withNameInData(String nameInData) {
+		return new DataChildFilterFake(nameInData);
+	}
+
+	private DataChildFilterFake(String nameInData) {
+		super(Collections.emptyMap());
+		this.nameInData = nameInData;
+		compiledFilter = CompiledChildFilter.compile(nameInData, possibleValues);
+	}
+
+	@Override
+	public String getNameInData() {
+		long call = startCall("getNameInData");
+		return recordReturn("getNameInData", call, nameInData);
+	}
+
+	@Override
+	public void addAttributeUsingNameInDataAndPossibleValues(String nameInData,
+			Set<String> possibleValues) {
+		String methodName = "addAttributeUsingNameInDataAndPossibleValues";
+		recordCall(methodName, "nameInData", nameInData, "possibleValues", possibleValues);
+		this.possibleValues.put(nameInData, new HashSet<>(possibleValues));
+		compiledFilter = CompiledChildFilter.compile(this.nameInData, this.possibleValues);
+	}
+
+	@Override
+	public boolean childMatches(DataChild child) {
+		long call = startCall("childMatches", "child", child);
+		boolean matches = compiledFilter.matches(child);
+		return recordReturn("childMatches", call, matches);
+	}
+
+	CompiledChildFilter compiled() {
+		return compiledFilter;
+	}
+}
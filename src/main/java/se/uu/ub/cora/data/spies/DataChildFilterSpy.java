@@ -18,37 +18,44 @@
  */
 package se.uu.ub.cora.data.spies;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import se.uu.ub.cora.data.DataChild;
 import se.uu.ub.cora.data.DataChildFilter;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
-public class DataChildFilterSpy implements DataChildFilter {
-
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataChildFilterSpy extends AbstractSpy implements DataChildFilter {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataChildFilterSpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
-		MRV.setDefaultReturnValuesSupplier("childMatches", () -> true);
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("getNameInData", () -> "someNameInData");
+		defaults.put("childMatches", () -> true);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public String getNameInData() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getNameInData");
 	}
 
 	@Override
 	public void addAttributeUsingNameInDataAndPossibleValues(String nameInData,
 			Set<String> possibleValues) {
-		MCR.addCall("nameInData", nameInData, "possibleValues", possibleValues);
+		recordCall("addAttributeUsingNameInDataAndPossibleValues", "nameInData", nameInData,
+				"possibleValues", possibleValues);
 	}
 
 	@Override
 	public boolean childMatches(DataChild child) {
-		return (boolean) MCR.addCallAndReturnFromMRV("child", child);
+		return (boolean) recordCallAndReturnFromMRV("childMatches", "child", child);
 	}
 }
@@ -18,6 +18,11 @@
  */
 package se.uu.ub.cora.data.spies;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
 import se.uu.ub.cora.data.DataAtomic;
 import se.uu.ub.cora.data.DataAttribute;
 import se.uu.ub.cora.data.DataChildFilter;
@@ -28,111 +33,116 @@ import se.uu.ub.cora.data.DataRecord;
 import se.uu.ub.cora.data.DataRecordGroup;
 import se.uu.ub.cora.data.DataRecordLink;
 import se.uu.ub.cora.data.DataResourceLink;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
 @SuppressWarnings("exports")
-public class DataFactorySpy implements DataFactory {
-
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataFactorySpy extends AbstractSpy implements DataFactory {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataFactorySpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("factorListUsingNameOfDataType", DataListSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorRecordUsingDataRecordGroup", DataRecordSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorRecordGroupUsingNameInData",
-				DataRecordGroupSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorRecordGroupFromDataGroup",
-				DataRecordGroupSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorGroupFromDataRecordGroup", DataGroupSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorGroupUsingNameInData", DataGroupSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorRecordLinkUsingNameInData",
-				DataRecordLinkSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorRecordLinkUsingNameInDataAndTypeAndId",
-				DataRecordLinkSpy::new);
-		MRV.setDefaultReturnValuesSupplier(
-				"factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType",
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("factorListUsingNameOfDataType", DataListSpy::new);
+		defaults.put("factorRecordUsingDataRecordGroup", DataRecordSpy::new);
+		defaults.put("factorRecordGroupUsingNameInData", DataRecordGroupSpy::new);
+		defaults.put("factorRecordGroupFromDataGroup", DataRecordGroupSpy::new);
+		defaults.put("factorGroupFromDataRecordGroup", DataGroupSpy::new);
+		defaults.put("factorGroupUsingNameInData", DataGroupSpy::new);
+		defaults.put("factorRecordLinkUsingNameInData", DataRecordLinkSpy::new);
+		defaults.put("factorRecordLinkUsingNameInDataAndTypeAndId", DataRecordLinkSpy::new);
+		defaults.put("factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType",
 				DataResourceLinkSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorAtomicUsingNameInDataAndValue",
-				DataAtomicSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorAtomicUsingNameInDataAndValueAndRepeatId",
-				DataAtomicSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorAttributeUsingNameInDataAndValue",
-				DataAttributeSpy::new);
-		MRV.setDefaultReturnValuesSupplier("factorDataChildFilterUsingNameInData",
-				DataChildFilterSpy::new);
+		defaults.put("factorAtomicUsingNameInDataAndValue", DataAtomicSpy::new);
+		defaults.put("factorAtomicUsingNameInDataAndValueAndRepeatId", DataAtomicSpy::new);
+		defaults.put("factorAttributeUsingNameInDataAndValue", DataAttributeSpy::new);
+		defaults.put("factorDataChildFilterUsingNameInData", DataChildFilterSpy::new);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public DataList factorListUsingNameOfDataType(String nameOfDataType) {
-		return (DataList) MCR.addCallAndReturnFromMRV("nameOfDataType", nameOfDataType);
+		return (DataList) recordCallAndReturnFromMRV("factorListUsingNameOfDataType",
+				"nameOfDataType", nameOfDataType);
 	}
 
 	@Override
 	public DataRecord factorRecordUsingDataRecordGroup(DataRecordGroup dataRecordGroup) {
-		return (DataRecord) MCR.addCallAndReturnFromMRV("dataRecordGroup", dataRecordGroup);
+		return (DataRecord) recordCallAndReturnFromMRV("factorRecordUsingDataRecordGroup",
+				"dataRecordGroup", dataRecordGroup);
 	}
 
 	@Override
 	public DataRecordGroup factorRecordGroupUsingNameInData(String nameInData) {
-		return (DataRecordGroup) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataRecordGroup) recordCallAndReturnFromMRV("factorRecordGroupUsingNameInData",
+				"nameInData", nameInData);
 	}
 
 	@Override
 	public DataRecordGroup factorRecordGroupFromDataGroup(DataGroup dataGroup) {
-		return (DataRecordGroup) MCR.addCallAndReturnFromMRV("dataGroup", dataGroup);
+		return (DataRecordGroup) recordCallAndReturnFromMRV("factorRecordGroupFromDataGroup",
+				"dataGroup", dataGroup);
 	}
 
 	@Override
 	public DataGroup factorGroupFromDataRecordGroup(DataRecordGroup dataRecordGroup) {
-		return (DataGroup) MCR.addCallAndReturnFromMRV("dataRecordGroup", dataRecordGroup);
+		return (DataGroup) recordCallAndReturnFromMRV("factorGroupFromDataRecordGroup",
+				"dataRecordGroup", dataRecordGroup);
 	}
 
 	@Override
 	public DataGroup factorGroupUsingNameInData(String nameInData) {
-		return (DataGroup) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataGroup) recordCallAndReturnFromMRV("factorGroupUsingNameInData", "nameInData",
+				nameInData);
 	}
 
 	@Override
 	public DataRecordLink factorRecordLinkUsingNameInData(String nameInData) {
-		return (DataRecordLink) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataRecordLink) recordCallAndReturnFromMRV("factorRecordLinkUsingNameInData",
+				"nameInData", nameInData);
 	}
 
 	@Override
 	public DataRecordLink factorRecordLinkUsingNameInDataAndTypeAndId(String nameInData,
 			String recordType, String recordId) {
-		return (DataRecordLink) MCR.addCallAndReturnFromMRV("nameInData", nameInData, "recordType",
-				recordType, "recordId", recordId);
+		String methodName = "factorRecordLinkUsingNameInDataAndTypeAndId";
+		return (DataRecordLink) recordCallAndReturnFromMRV(methodName, "nameInData", nameInData,
+				"recordType", recordType, "recordId", recordId);
 	}
 
 	@Override
 	public DataResourceLink factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
 			String nameInData, String type, String id, String mimeType) {
-		return (DataResourceLink) MCR.addCallAndReturnFromMRV("nameInData", nameInData,
+		String methodName = "factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType";
+		return (DataResourceLink) recordCallAndReturnFromMRV(methodName, "nameInData", nameInData,
 				"recordType", type, "recordId", id, "mimeType", mimeType);
 	}
 
 	@Override
 	public DataAtomic factorAtomicUsingNameInDataAndValue(String nameInData, String value) {
-		return (DataAtomic) MCR.addCallAndReturnFromMRV("nameInData", nameInData, "value", value);
+		return (DataAtomic) recordCallAndReturnFromMRV("factorAtomicUsingNameInDataAndValue",
+				"nameInData", nameInData, "value", value);
 	}
 
 	@Override
 	public DataAtomic factorAtomicUsingNameInDataAndValueAndRepeatId(String nameInData,
 			String value, String repeatId) {
-		return (DataAtomic) MCR.addCallAndReturnFromMRV("nameInData", nameInData, "value", value,
-				"repeatId", repeatId);
+		String methodName = "factorAtomicUsingNameInDataAndValueAndRepeatId";
+		return (DataAtomic) recordCallAndReturnFromMRV(methodName, "nameInData", nameInData,
+				"value", value, "repeatId", repeatId);
 	}
 
 	@Override
 	public DataAttribute factorAttributeUsingNameInDataAndValue(String nameInData, String value) {
-		return (DataAttribute) MCR.addCallAndReturnFromMRV("nameInData", nameInData, "value",
-				value);
+		return (DataAttribute) recordCallAndReturnFromMRV("factorAttributeUsingNameInDataAndValue",
+				"nameInData", nameInData, "value", value);
 	}
 
 	@Override
 	public DataChildFilter factorDataChildFilterUsingNameInData(String childNameInData) {
-		return (DataChildFilter) MCR.addCallAndReturnFromMRV("childNameInData", childNameInData);
+		return (DataChildFilter) recordCallAndReturnFromMRV("factorDataChildFilterUsingNameInData",
+				"childNameInData", childNameInData);
 	}
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataGroup;
+
+/**
+ * DataGroupFake is a working in memory {@link DataGroup}, for tests of code that navigates real
+ * trees of data, where scripting a {@link DataGroupSpy} call by call would be impractical.
+ * Children are kept in insertion order and indexed on nameInData, and on nameInData together with
+ * attributes, so that finding children by nameInData, with or without attributes, takes the same
+ * time however many children the group has. Children are also partitioned on their type, so that
+ * the calls finding or removing children of type {@link DataAtomic}, {@link DataGroup},
+ * DataRecordLink or DataResourceLink only look at the children of that type. Finding or removing
+ * children using a {@link DataChildFilterFake} looks up the matching children in the index.
+ * <p>
+ * Calls and returned values are recorded in MCR the same way as for the spies, and recording can
+ * be changed using {@link #setRecordingMode(RecordingMode)}. Children are indexed on the
+ * nameInData and attributes they have when they are added, so spies added as children must have
+ * their nameInData and attributes set in MRV before they are added.
+ */
+public class DataGroupFake extends AbstractGroupFake implements DataGroup {
+	private final GroupContent content = new GroupContent();
+	private String repeatId;
+
+	public static DataGroupFake withNameInData(String nameInData) {
+		return new DataGroupFake(nameInData);
+	}
+
+	private DataGroupFake(String nameInData) {
+		super(nameInData);
+	}
+
+	@Override
+	GroupContent content() {
+		return content;
+	}
+
+	@Override
+	public void setRepeatId(String repeatId) {
+		recordCall("setRepeatId", "repeatId", repeatId);
+		this.repeatId = repeatId;
+	}
+
+	@Override
+	public boolean hasRepeatId() {
+		long call = startCall("hasRepeatId");
+		boolean hasRepeatId = repeatId != null && !repeatId.isEmpty();
+		return recordReturn("hasRepeatId", call, hasRepeatId);
+	}
+
+	@Override
+	public String getRepeatId() {
+		long call = startCall("getRepeatId");
+		return recordReturn("getRepeatId", call, repeatId);
+	}
+}
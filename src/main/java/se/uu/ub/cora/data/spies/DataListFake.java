@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.data.Data;
+import se.uu.ub.cora.data.DataList;
+
+/**
+ * DataListFake is a working {@link DataList} for a result set of any size, for measuring and
+ * testing code handling searches with very many hits. The list returned by
+ * {@link #getDataList()} is a view of the window from fromNo to toNo, numbers counted from one,
+ * whose elements are created from their number when they are read. No element is kept, so the
+ * memory used by the fake is the same whatever the total number, and reading an element twice
+ * gives two elements unless the function creating them returns the same one.
+ * <p>
+ * The window is the whole result set unless it is moved using {@link #setFromNo(String)} and
+ * {@link #setToNo(String)}, and it must lie within the total number when the list is read. Data
+ * added using {@link #addData(Data)} is kept and placed after the window, without changing toNo,
+ * in the same way as for a list where toNo is set separately.
+ * <p>
+ * Calls and returned values are recorded in MCR the same way as for the spies.
+ */
+public class DataListFake extends AbstractSpy implements DataList {
+	private final String containDataOfType;
+	private final LongFunction<? extends Data> dataForNumber;
+	private final List<Data> addedData = new ArrayList<>();
+	private long fromNo;
+	private long toNo;
+	private long totalNo;
+
+	/**
+	 * withTotalNoUsingDataForNumber returns a fake with a result set of totalNo elements, each
+	 * created by dataForNumber from its number in the result set, counted from one.
+	 */
+	public static DataListFake withTotalNoUsingDataForNumber(String containDataOfType,
+			long totalNo, LongFunction<? extends Data> dataForNumber) {
+		return new DataListFake(containDataOfType, totalNo, dataForNumber);
+	}
+
+	/**
+	 * withTotalNoUsingDataSupplier returns a fake with a result set of totalNo elements, each
+	 * created by dataSupplier when it is read.
+	 */
+	public static DataListFake withTotalNoUsingDataSupplier(String containDataOfType,
+			long totalNo, Supplier<? extends Data> dataSupplier) {
+		return new DataListFake(containDataOfType, totalNo, number -> dataSupplier.get());
+	}
+
+	private DataListFake(String containDataOfType, long totalNo,
+			LongFunction<? extends Data> dataForNumber) {
+		super(Collections.emptyMap());
+		ensureNotNegative("totalNo", totalNo);
+		this.containDataOfType = containDataOfType;
+		this.dataForNumber = dataForNumber;
+		this.totalNo = totalNo;
+		fromNo = 1;
+		toNo = totalNo;
+	}
+
+	@Override
+	public String getFromNo() {
+		long call = startCall("getFromNo");
+		String returnValue = String.valueOf(fromNo);
+		return recordReturn("getFromNo", call, returnValue);
+	}
+
+	@Override
+	public String getToNo() {
+		long call = startCall("getToNo");
+		String returnValue = String.valueOf(toNo);
+		return recordReturn("getToNo", call, returnValue);
+	}
+
+	@Override
+	public String getTotalNumberOfTypeInStorage() {
+		long call = startCall("getTotalNumberOfTypeInStorage");
+		String returnValue = String.valueOf(totalNo);
+		return recordReturn("getTotalNumberOfTypeInStorage", call, returnValue);
+	}
+
+	@Override
+	public String getContainDataOfType() {
+		long call = startCall("getContainDataOfType");
+		return recordReturn("getContainDataOfType", call, containDataOfType);
+	}
+
+	/**
+	 * getDataList returns a view of the current window followed by the added data. The view keeps
+	 * the window it was created with, later changes to the window are seen in lists returned by
+	 * later calls.
+	 *
+	 * @throws IllegalStateException
+	 *             if the window does not lie within the total number, or holds more elements than
+	 *             a list can hold
+	 */
+	@Override
+	public List<Data> getDataList() {
+		long call = startCall("getDataList");
+		ensureWindowIsValid();
+		List<Data> returnValue = new WindowView(fromNo, (int) (toNo - fromNo + 1));
+		return recordReturn("getDataList", call, returnValue);
+	}
+
+	private void ensureWindowIsValid() {
+		if (fromNo < 1 || toNo < fromNo - 1 || toNo > totalNo) {
+			throw new IllegalStateException("Window from " + fromNo + " to " + toNo
+					+ " does not lie within total number " + totalNo);
+		}
+		if (toNo - fromNo + 1 + addedData.size() > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Window from " + fromNo + " to " + toNo
+					+ " is too big to be read as a list");
+		}
+	}
+
+	@Override
+	public void addData(Data data) {
+		recordCall("addData", "data", data);
+		addedData.add(data);
+	}
+
+	@Override
+	public void setFromNo(String position) {
+		recordCall("setFromNo", "position", position);
+		fromNo = parseNumber("fromNo", position);
+	}
+
+	@Override
+	public void setToNo(String position) {
+		recordCall("setToNo", "position", position);
+		toNo = parseNumber("toNo", position);
+	}
+
+	@Override
+	public void setTotalNo(String totalNumber) {
+		recordCall("setTotalNo", "totalNumber", totalNumber);
+		totalNo = parseNumber("totalNo", totalNumber);
+	}
+
+	private static long parseNumber(String name, String number) {
+		long parsed;
+		try {
+			parsed = Long.parseLong(number);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(name + " must be a number, was " + number, e);
+		}
+		ensureNotNegative(name, parsed);
+		return parsed;
+	}
+
+	private static void ensureNotNegative(String name, long number) {
+		if (number < 0) {
+			throw new IllegalArgumentException(name + " must not be negative, was " + number);
+		}
+	}
+
+	/**
+	 * WindowView is the list returned by getDataList, creating the elements of the window when
+	 * they are read.
+	 */
+	private final class WindowView extends AbstractList<Data> implements RandomAccess {
+		private final long firstNumber;
+		private final int windowSize;
+
+		WindowView(long firstNumber, int windowSize) {
+			this.firstNumber = firstNumber;
+			this.windowSize = windowSize;
+		}
+
+		@Override
+		public Data get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException(
+						"Index " + index + " out of bounds for length " + size());
+			}
+			if (index < windowSize) {
+				return dataForNumber.apply(firstNumber + index);
+			}
+			return addedData.get(index - windowSize);
+		}
+
+		@Override
+		public int size() {
+			return windowSize + addedData.size();
+		}
+	}
+}
@@ -20,68 +20,75 @@
 package se.uu.ub.cora.data.spies;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import se.uu.ub.cora.data.Data;
 import se.uu.ub.cora.data.DataList;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
-public class DataListSpy implements DataList {
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataListSpy extends AbstractSpy implements DataList {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataListSpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("getFromNo", String::new);
-		MRV.setDefaultReturnValuesSupplier("getToNo", String::new);
-		MRV.setDefaultReturnValuesSupplier("getTotalNumberOfTypeInStorage", String::new);
-		MRV.setDefaultReturnValuesSupplier("getContainDataOfType", String::new);
-		MRV.setDefaultReturnValuesSupplier("getDataList", ArrayList<Data>::new);
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("getFromNo", String::new);
+		defaults.put("getToNo", String::new);
+		defaults.put("getTotalNumberOfTypeInStorage", String::new);
+		defaults.put("getContainDataOfType", String::new);
+		defaults.put("getDataList", ArrayList<Data>::new);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public String getFromNo() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getFromNo");
 	}
 
 	@Override
 	public String getToNo() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getToNo");
 	}
 
 	@Override
 	public String getTotalNumberOfTypeInStorage() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getTotalNumberOfTypeInStorage");
 	}
 
 	@Override
 	public String getContainDataOfType() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getContainDataOfType");
 	}
 
 	@Override
 	public List<Data> getDataList() {
-		return (List<Data>) MCR.addCallAndReturnFromMRV();
+		return (List<Data>) recordCallAndReturnFromMRV("getDataList");
 	}
 
 	@Override
 	public void addData(Data data) {
-		MCR.addCall("data", data);
+		recordCall("addData", "data", data);
 	}
 
 	@Override
 	public void setFromNo(String position) {
-		MCR.addCall("position", position);
+		recordCall("setFromNo", "position", position);
 	}
 
 	@Override
 	public void setToNo(String position) {
-		MCR.addCall("position", position);
+		recordCall("setToNo", "position", position);
 	}
 
 	@Override
 	public void setTotalNo(String totalNumber) {
-		MCR.addCall("totalNumber", totalNumber);
+		recordCall("setTotalNo", "totalNumber", totalNumber);
 	}
 }
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataMissingException;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+
+/**
+ * DataRecordGroupFake is a working in memory {@link DataRecordGroup}, for throughput tests of code
+ * that processes many record groups, where looking up return values in MRV for every getter
+ * would dominate the measurement. The record info, type, id, data divider, validation type,
+ * created, updated, overwrite protection, visibility, trash bin and permission unit, is kept in
+ * plain fields that the setters update, and not as a recordInfo child. Getters of record info that
+ * has not been set throw a {@link DataMissingException}, as for a real record group without that
+ * part of the record info. Children and attributes are handled in the same way as by
+ * {@link DataGroupFake}, through {@link AbstractGroupFake}.
+ * <p>
+ * Updates are kept in an append only log of user ids and timestamps. The updated groups returned
+ * by {@link #getAllUpdated()} are only created when asked for, as a group named updated with an
+ * updatedBy link and a tsUpdated atomic, and groups set using
+ * {@link #setAllUpdated(Collection)} are returned as they are, and only read when the latest
+ * update is asked for.
+ * <p>
+ * Calls and returned values are recorded in MCR the same way as for the spies, and recording can
+ * be changed using {@link #setRecordingMode(RecordingMode)}.
+ */
+public class DataRecordGroupFake extends AbstractGroupFake implements DataRecordGroup {
+	private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'").withZone(ZoneOffset.UTC);
+	private final GroupContent content = new GroupContent();
+	private final List<Updated> updatedLog = new ArrayList<>();
+	private String type;
+	private String id;
+	private String dataDivider;
+	private String validationType;
+	private String createdBy;
+	private String tsCreated;
+	private boolean ignoreOverwriteProtection;
+	private String visibility;
+	private String tsVisibility;
+	private Boolean inTrashBin;
+	private String permissionUnit;
+
+	public static DataRecordGroupFake withNameInData(String nameInData) {
+		return new DataRecordGroupFake(nameInData);
+	}
+
+	private DataRecordGroupFake(String nameInData) {
+		super(nameInData);
+	}
+
+	@Override
+	GroupContent content() {
+		return content;
+	}
+
+	@Override
+	public String getType() {
+		long call = startCall("getType");
+		String value = valueOrMissing(type, "type");
+		return recordReturn("getType", call, value);
+	}
+
+	private static String valueOrMissing(String value, String childNameInData) {
+		if (value == null) {
+			throw new DataMissingException(
+					"Element not found for childNameInData:" + childNameInData);
+		}
+		return value;
+	}
+
+	@Override
+	public void setType(String type) {
+		recordCall("setType", "type", type);
+		this.type = type;
+	}
+
+	@Override
+	public String getId() {
+		long call = startCall("getId");
+		String value = valueOrMissing(id, "id");
+		return recordReturn("getId", call, value);
+	}
+
+	@Override
+	public void setId(String id) {
+		recordCall("setId", "id", id);
+		this.id = id;
+	}
+
+	@Override
+	public String getDataDivider() {
+		long call = startCall("getDataDivider");
+		String value = valueOrMissing(dataDivider, "dataDivider");
+		return recordReturn("getDataDivider", call, value);
+	}
+
+	@Override
+	public void setDataDivider(String dataDivider) {
+		recordCall("setDataDivider", "dataDivider", dataDivider);
+		this.dataDivider = dataDivider;
+	}
+
+	@Override
+	public String getValidationType() {
+		long call = startCall("getValidationType");
+		String value = valueOrMissing(validationType, "validationType");
+		return recordReturn("getValidationType", call, value);
+	}
+
+	@Override
+	public void setValidationType(String validationType) {
+		recordCall("setValidationType", "validationType", validationType);
+		this.validationType = validationType;
+	}
+
+	@Override
+	public String getCreatedBy() {
+		long call = startCall("getCreatedBy");
+		String value = valueOrMissing(createdBy, "createdBy");
+		return recordReturn("getCreatedBy", call, value);
+	}
+
+	@Override
+	public void setCreatedBy(String userId) {
+		recordCall("setCreatedBy", "userId", userId);
+		createdBy = userId;
+	}
+
+	@Override
+	public String getTsCreated() {
+		long call = startCall("getTsCreated");
+		String value = valueOrMissing(tsCreated, "tsCreated");
+		return recordReturn("getTsCreated", call, value);
+	}
+
+	@Override
+	public void setTsCreated(String tsCreated) {
+		recordCall("setTsCreated", "tsCreated", tsCreated);
+		this.tsCreated = tsCreated;
+	}
+
+	@Override
+	public void setTsCreatedToNow() {
+		recordCall("setTsCreatedToNow");
+		tsCreated = now();
+	}
+
+	private String now() {
+		return TIMESTAMP_FORMATTER.format(Instant.now());
+	}
+
+	@Override
+	public String getLatestUpdatedBy() {
+		long call = startCall("getLatestUpdatedBy");
+		String latestUpdatedBy = latestUpdated().getUserId();
+		return recordReturn("getLatestUpdatedBy", call, latestUpdatedBy);
+	}
+
+	private Updated latestUpdated() {
+		if (updatedLog.isEmpty()) {
+			throw new DataMissingException("Element not found for childNameInData:updated");
+		}
+		return updatedLog.get(updatedLog.size() - 1);
+	}
+
+	@Override
+	public String getLatestTsUpdated() {
+		long call = startCall("getLatestTsUpdated");
+		String latestTsUpdated = latestUpdated().getTsUpdated();
+		return recordReturn("getLatestTsUpdated", call, latestTsUpdated);
+	}
+
+	@Override
+	public void addUpdatedUsingUserIdAndTs(String userId, String tsUpdated) {
+		recordCall("addUpdatedUsingUserIdAndTs", "userId", userId, "tsUpdated", tsUpdated);
+		updatedLog.add(Updated.usingUserIdAndTs(userId, tsUpdated));
+	}
+
+	@Override
+	public void addUpdatedUsingUserIdAndTsNow(String userId) {
+		recordCall("addUpdatedUsingUserIdAndTsNow", "userId", userId);
+		updatedLog.add(Updated.usingUserIdAndTs(userId, now()));
+	}
+
+	@Override
+	public List<DataChild> getAllUpdated() {
+		long call = startCall("getAllUpdated");
+		List<DataChild> allUpdated = new ArrayList<>(updatedLog.size());
+		for (int i = 0; i < updatedLog.size(); i++) {
+			allUpdated.add(updatedLog.get(i).asChild(i));
+		}
+		return recordReturn("getAllUpdated", call, allUpdated);
+	}
+
+	@Override
+	public void setAllUpdated(Collection<DataChild> updated) {
+		recordCall("setAllUpdated", "updated", updated);
+		updatedLog.clear();
+		for (DataChild updatedChild : updated) {
+			updatedLog.add(Updated.usingChild(updatedChild));
+		}
+	}
+
+	/**
+	 * setIgnoreOverwriteProtection stands in for the ignoreOverwriteProtection atomic in the
+	 * recordInfo of a real record group, as this fake keeps no recordInfo child. Overwrite
+	 * protection is enforced unless it is set to true.
+	 */
+	public void setIgnoreOverwriteProtection(boolean ignoreOverwriteProtection) {
+		recordCall("setIgnoreOverwriteProtection", "ignoreOverwriteProtection",
+				ignoreOverwriteProtection);
+		this.ignoreOverwriteProtection = ignoreOverwriteProtection;
+	}
+
+	@Override
+	public boolean overwriteProtectionShouldBeEnforced() {
+		long call = startCall("overwriteProtectionShouldBeEnforced");
+		boolean enforced = !ignoreOverwriteProtection;
+		return recordReturn("overwriteProtectionShouldBeEnforced", call, enforced);
+	}
+
+	@Override
+	public void removeOverwriteProtection() {
+		recordCall("removeOverwriteProtection");
+		ignoreOverwriteProtection = false;
+	}
+
+	@Override
+	public void setVisibility(String visibility) {
+		recordCall("setVisibility", "visibility", visibility);
+		this.visibility = visibility;
+	}
+
+	@Override
+	public void setTsVisibility(String tsVisibility) {
+		recordCall("setTsVisibility", "tsVisibility", tsVisibility);
+		this.tsVisibility = tsVisibility;
+	}
+
+	@Override
+	public Optional<String> getVisibility() {
+		long call = startCall("getVisibility");
+		Optional<String> optionalVisibility = Optional.ofNullable(visibility);
+		return recordReturn("getVisibility", call, optionalVisibility);
+	}
+
+	@Override
+	public Optional<String> getTsVisibility() {
+		long call = startCall("getTsVisibility");
+		Optional<String> optionalTsVisibility = Optional.ofNullable(tsVisibility);
+		return recordReturn("getTsVisibility", call, optionalTsVisibility);
+	}
+
+	@Override
+	public void setTsVisibilityNow() {
+		recordCall("setTsVisibilityNow");
+		tsVisibility = now();
+	}
+
+	@Override
+	public void setInTrashBin(boolean inTrashBin) {
+		recordCall("setInTrashBin", "inTrashBin", inTrashBin);
+		this.inTrashBin = inTrashBin;
+	}
+
+	@Override
+	public Optional<Boolean> isInTrashBin() {
+		long call = startCall("isInTrashBin");
+		Optional<Boolean> optionalInTrashBin = Optional.ofNullable(inTrashBin);
+		return recordReturn("isInTrashBin", call, optionalInTrashBin);
+	}
+
+	@Override
+	public Optional<String> getPermissionUnit() {
+		long call = startCall("getPermissionUnit");
+		Optional<String> optionalPermissionUnit = Optional.ofNullable(permissionUnit);
+		return recordReturn("getPermissionUnit", call, optionalPermissionUnit);
+	}
+
+	@Override
+	public void setPermissionUnit(String permissionUnit) {
+		recordCall("setPermissionUnit", "permissionUnit", permissionUnit);
+		this.permissionUnit = permissionUnit;
+	}
+
+	private static final class Updated {
+		private String userId;
+		private String tsUpdated;
+		private DataChild child;
+
+		static Updated usingUserIdAndTs(String userId, String tsUpdated) {
+			Updated updated = new Updated();
+			updated.userId = userId;
+			updated.tsUpdated = tsUpdated;
+			return updated;
+		}
+
+		static Updated usingChild(DataChild child) {
+			Updated updated = new Updated();
+			updated.child = child;
+			return updated;
+		}
+
+		String getUserId() {
+			if (userId == null) {
+				userId = asGroup().getFirstChildOfTypeAndName(DataRecordLink.class, "updatedBy")
+						.getLinkedRecordId();
+			}
+			return userId;
+		}
+
+		String getTsUpdated() {
+			if (tsUpdated == null) {
+				tsUpdated = asGroup().getFirstAtomicValueWithNameInData("tsUpdated");
+			}
+			return tsUpdated;
+		}
+
+		private DataGroup asGroup() {
+			return (DataGroup) child;
+		}
+
+		DataChild asChild(int repeatId) {
+			if (child == null) {
+				child = createChild(String.valueOf(repeatId));
+			}
+			return child;
+		}
+
+		private DataChild createChild(String repeatId) {
+			DataGroupFake updated = DataGroupFake.withNameInData("updated");
+			updated.setRepeatId(repeatId);
+			updated.addChild(createUpdatedBy());
+			updated.addChild(createTsUpdated());
+			return updated;
+		}
+
+		private DataRecordLink createUpdatedBy() {
+			DataRecordLinkSpy updatedBy = new DataRecordLinkSpy();
+			updatedBy.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "updatedBy");
+			updatedBy.MRV.setDefaultReturnValuesSupplier("getLinkedRecordType", () -> "user");
+			updatedBy.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> userId);
+			return updatedBy;
+		}
+
+		private DataAtomic createTsUpdated() {
+			DataAtomicSpy atomic = new DataAtomicSpy();
+			atomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "tsUpdated");
+			atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> tsUpdated);
+			return atomic;
+		}
+	}
+}
@@ -21,8 +21,11 @@ package se.uu.ub.cora.data.spies;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import se.uu.ub.cora.data.DataAtomic;
 import se.uu.ub.cora.data.DataAttribute;
@@ -30,401 +33,418 @@ import se.uu.ub.cora.data.DataChild;
 import se.uu.ub.cora.data.DataChildFilter;
 import se.uu.ub.cora.data.DataGroup;
 import se.uu.ub.cora.data.DataRecordGroup;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
-public class DataRecordGroupSpy implements DataRecordGroup {
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataRecordGroupSpy extends AbstractSpy implements DataRecordGroup {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataRecordGroupSpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("getNameInData", String::new);
-		MRV.setDefaultReturnValuesSupplier("hasAttributes", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getAttribute", DataAttributeSpy::new);
-		MRV.setDefaultReturnValuesSupplier("getAttributes", ArrayList<DataAttribute>::new);
-		MRV.setDefaultReturnValuesSupplier("hasChildren", () -> true);
-		MRV.setDefaultReturnValuesSupplier("containsChildWithNameInData", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getChildren", ArrayList<DataChild>::new);
-		MRV.setDefaultReturnValuesSupplier("getAllChildrenWithNameInData",
-				ArrayList<DataChild>::new);
-		MRV.setDefaultReturnValuesSupplier("getAllChildrenWithNameInDataAndAttributes",
-				ArrayList<DataChild>::new);
-		MRV.setDefaultReturnValuesSupplier("getFirstChildWithNameInData", DataChildSpy::new);
-		MRV.setDefaultReturnValuesSupplier("getFirstAtomicValueWithNameInData", String::new);
-		MRV.setDefaultReturnValuesSupplier("getFirstDataAtomicWithNameInData", DataAtomicSpy::new);
-		MRV.setDefaultReturnValuesSupplier("getAllDataAtomicsWithNameInData",
-				ArrayList<DataAtomic>::new);
-		MRV.setDefaultReturnValuesSupplier("getAllDataAtomicsWithNameInDataAndAttributes",
-				ArrayList<DataAtomic>::new);
-		MRV.setDefaultReturnValuesSupplier("getFirstGroupWithNameInData", DataGroupSpy::new);
-		MRV.setDefaultReturnValuesSupplier("getAllGroupsWithNameInData", ArrayList<DataGroup>::new);
-		MRV.setDefaultReturnValuesSupplier("getAllGroupsWithNameInDataAndAttributes",
-				ArrayList<DataGroup>::new);
-		MRV.setDefaultReturnValuesSupplier("removeFirstChildWithNameInData", () -> true);
-		MRV.setDefaultReturnValuesSupplier("removeAllChildrenWithNameInData", () -> true);
-		MRV.setDefaultReturnValuesSupplier("removeAllChildrenWithNameInDataAndAttributes",
-				() -> true);
-		MRV.setDefaultReturnValuesSupplier("getAllChildrenMatchingFilter",
-				ArrayList<DataChild>::new);
-		MRV.setDefaultReturnValuesSupplier("removeAllChildrenMatchingFilter", () -> true);
-		MRV.setDefaultReturnValuesSupplier("containsChildOfTypeAndName", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getFirstChildOfTypeAndName", DataChildSpy::new);
-		MRV.setDefaultReturnValuesSupplier("getChildrenOfType", ArrayList<DataChildSpy>::new);
-		MRV.setDefaultReturnValuesSupplier("getChildrenOfTypeAndName",
-				ArrayList<DataChildSpy>::new);
-		MRV.setDefaultReturnValuesSupplier("removeFirstChildWithTypeAndName", () -> false);
-		MRV.setDefaultReturnValuesSupplier("removeChildrenWithTypeAndName", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getAttributeValue", Optional::empty);
-		MRV.setDefaultReturnValuesSupplier("getType", String::new);
-		MRV.setDefaultReturnValuesSupplier("getId", String::new);
-		MRV.setDefaultReturnValuesSupplier("getDataDivider", String::new);
-		MRV.setDefaultReturnValuesSupplier("getValidationType", String::new);
-		MRV.setDefaultReturnValuesSupplier("getCreatedBy", String::new);
-		MRV.setDefaultReturnValuesSupplier("getTsCreated", String::new);
-		MRV.setDefaultReturnValuesSupplier("getLatestUpdatedBy", String::new);
-		MRV.setDefaultReturnValuesSupplier("getLatestTsUpdated", String::new);
-		MRV.setDefaultReturnValuesSupplier("getAllUpdated", Collections::emptyList);
-		MRV.setDefaultReturnValuesSupplier("overwriteProtectionShouldBeEnforced", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getTsVisibility", Optional::empty);
-		MRV.setDefaultReturnValuesSupplier("getVisibility", Optional::empty);
-		MRV.setDefaultReturnValuesSupplier("isInTrashBin", Optional::empty);
-		MRV.setDefaultReturnValuesSupplier("getPermissionUnit", Optional::empty);
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("getNameInData", String::new);
+		defaults.put("hasAttributes", () -> false);
+		defaults.put("getAttribute", DataAttributeSpy::new);
+		defaults.put("getAttributes", ArrayList<DataAttribute>::new);
+		defaults.put("hasChildren", () -> true);
+		defaults.put("containsChildWithNameInData", () -> false);
+		defaults.put("getChildren", ArrayList<DataChild>::new);
+		defaults.put("getAllChildrenWithNameInData", ArrayList<DataChild>::new);
+		defaults.put("getAllChildrenWithNameInDataAndAttributes", ArrayList<DataChild>::new);
+		defaults.put("getFirstChildWithNameInData", DataChildSpy::new);
+		defaults.put("getFirstAtomicValueWithNameInData", String::new);
+		defaults.put("getFirstDataAtomicWithNameInData", DataAtomicSpy::new);
+		defaults.put("getAllDataAtomicsWithNameInData", ArrayList<DataAtomic>::new);
+		defaults.put("getAllDataAtomicsWithNameInDataAndAttributes", ArrayList<DataAtomic>::new);
+		defaults.put("getFirstGroupWithNameInData", DataGroupSpy::new);
+		defaults.put("getAllGroupsWithNameInData", ArrayList<DataGroup>::new);
+		defaults.put("getAllGroupsWithNameInDataAndAttributes", ArrayList<DataGroup>::new);
+		defaults.put("removeFirstChildWithNameInData", () -> true);
+		defaults.put("removeAllChildrenWithNameInData", () -> true);
+		defaults.put("removeAllChildrenWithNameInDataAndAttributes", () -> true);
+		defaults.put("getAllChildrenMatchingFilter", ArrayList<DataChild>::new);
+		defaults.put("removeAllChildrenMatchingFilter", () -> true);
+		defaults.put("containsChildOfTypeAndName", () -> false);
+		defaults.put("getFirstChildOfTypeAndName", DataChildSpy::new);
+		defaults.put("getChildrenOfType", ArrayList<DataChildSpy>::new);
+		defaults.put("getChildrenOfTypeAndName", ArrayList<DataChildSpy>::new);
+		defaults.put("removeFirstChildWithTypeAndName", () -> false);
+		defaults.put("removeChildrenWithTypeAndName", () -> false);
+		defaults.put("getAttributeValue", Optional::empty);
+		defaults.put("getType", String::new);
+		defaults.put("getId", String::new);
+		defaults.put("getDataDivider", String::new);
+		defaults.put("getValidationType", String::new);
+		defaults.put("getCreatedBy", String::new);
+		defaults.put("getTsCreated", String::new);
+		defaults.put("getLatestUpdatedBy", String::new);
+		defaults.put("getLatestTsUpdated", String::new);
+		defaults.put("getAllUpdated", Collections::emptyList);
+		defaults.put("overwriteProtectionShouldBeEnforced", () -> false);
+		defaults.put("getTsVisibility", Optional::empty);
+		defaults.put("getVisibility", Optional::empty);
+		defaults.put("isInTrashBin", Optional::empty);
+		defaults.put("getPermissionUnit", Optional::empty);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public void addAttributeByIdWithValue(String nameInData, String value) {
-		MCR.addCall("nameInData", nameInData, "value", value);
+		recordCall("addAttributeByIdWithValue", "nameInData", nameInData, "value", value);
 	}
 
 	@Override
 	public boolean hasAttributes() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasAttributes");
 	}
 
 	@Override
 	public DataAttribute getAttribute(String nameInData) {
-		return (DataAttribute) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataAttribute) recordCallAndReturnFromMRV("getAttribute", "nameInData", nameInData);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<DataAttribute> getAttributes() {
-		return (Collection<DataAttribute>) MCR.addCallAndReturnFromMRV();
+		return (Collection<DataAttribute>) recordCallAndReturnFromMRV("getAttributes");
 	}
 
 	@Override
 	public String getNameInData() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getNameInData");
 	}
 
 	@Override
 	public boolean hasChildren() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasChildren");
 	}
 
 	@Override
 	public boolean containsChildWithNameInData(String nameInData) {
-		return (boolean) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (boolean) recordCallAndReturnFromMRV("containsChildWithNameInData", "nameInData",
+				nameInData);
 	}
 
 	@Override
 	public void addChild(DataChild dataChild) {
-		MCR.addCall("dataChild", dataChild);
+		recordCall("addChild", "dataChild", dataChild);
 	}
 
 	@Override
 	public void addChildren(Collection<DataChild> dataChildren) {
-		MCR.addCall("dataChildren", dataChildren);
+		recordCall("addChildren", "dataChildren", dataChildren);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataChild> getChildren() {
-		return (List<DataChild>) MCR.addCallAndReturnFromMRV();
+		return (List<DataChild>) recordCallAndReturnFromMRV("getChildren");
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataChild> getAllChildrenWithNameInData(String nameInData) {
-		return (List<DataChild>) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (List<DataChild>) recordCallAndReturnFromMRV("getAllChildrenWithNameInData",
+				"nameInData", nameInData);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataChild> getAllChildrenWithNameInDataAndAttributes(String nameInData,
 			DataAttribute... childAttributes) {
-		return (List<DataChild>) MCR.addCallAndReturnFromMRV("nameInData", nameInData,
+		String methodName = "getAllChildrenWithNameInDataAndAttributes";
+		return (List<DataChild>) recordCallAndReturnFromMRV(methodName, "nameInData", nameInData,
 				"childAttributes", childAttributes);
 	}
 
 	@Override
 	public DataChild getFirstChildWithNameInData(String nameInData) {
-		return (DataChild) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataChild) recordCallAndReturnFromMRV("getFirstChildWithNameInData", "nameInData",
+				nameInData);
 	}
 
 	@Override
 	public String getFirstAtomicValueWithNameInData(String nameInData) {
-		return (String) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (String) recordCallAndReturnFromMRV("getFirstAtomicValueWithNameInData",
+				"nameInData", nameInData);
 	}
 
 	@Override
 	public DataAtomic getFirstDataAtomicWithNameInData(String nameInData) {
-		return (DataAtomic) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataAtomic) recordCallAndReturnFromMRV("getFirstDataAtomicWithNameInData",
+				"nameInData", nameInData);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataAtomic> getAllDataAtomicsWithNameInData(String nameInData) {
-		return (List<DataAtomic>) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (List<DataAtomic>) recordCallAndReturnFromMRV("getAllDataAtomicsWithNameInData",
+				"nameInData", nameInData);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<DataAtomic> getAllDataAtomicsWithNameInDataAndAttributes(String nameInData,
 			DataAttribute... childAttributes) {
-		return (Collection<DataAtomic>) MCR.addCallAndReturnFromMRV("nameInData", nameInData,
-				"childAttributes", childAttributes);
+		String methodName = "getAllDataAtomicsWithNameInDataAndAttributes";
+		return (Collection<DataAtomic>) recordCallAndReturnFromMRV(methodName, "nameInData",
+				nameInData, "childAttributes", childAttributes);
 	}
 
 	@Override
 	public DataGroup getFirstGroupWithNameInData(String nameInData) {
-		return (DataGroup) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataGroup) recordCallAndReturnFromMRV("getFirstGroupWithNameInData", "nameInData",
+				nameInData);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataGroup> getAllGroupsWithNameInData(String nameInData) {
-		return (List<DataGroup>) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (List<DataGroup>) recordCallAndReturnFromMRV("getAllGroupsWithNameInData",
+				"nameInData", nameInData);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<DataGroup> getAllGroupsWithNameInDataAndAttributes(String nameInData,
 			DataAttribute... childAttributes) {
-		return (Collection<DataGroup>) MCR.addCallAndReturnFromMRV("nameInData", nameInData,
-				"childAttributes", childAttributes);
+		String methodName = "getAllGroupsWithNameInDataAndAttributes";
+		return (Collection<DataGroup>) recordCallAndReturnFromMRV(methodName, "nameInData",
+				nameInData, "childAttributes", childAttributes);
 	}
 
 	@Override
 	public boolean removeFirstChildWithNameInData(String nameInData) {
-		return (boolean) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (boolean) recordCallAndReturnFromMRV("removeFirstChildWithNameInData", "nameInData",
+				nameInData);
 	}
 
 	@Override
 	public boolean removeAllChildrenWithNameInData(String nameInData) {
-		return (boolean) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (boolean) recordCallAndReturnFromMRV("removeAllChildrenWithNameInData", "nameInData",
+				nameInData);
 	}
 
 	@Override
 	public boolean removeAllChildrenWithNameInDataAndAttributes(String nameInData,
 			DataAttribute... childAttributes) {
-		return (boolean) MCR.addCallAndReturnFromMRV("nameInData", nameInData, "childAttributes",
-				childAttributes);
+		String methodName = "removeAllChildrenWithNameInDataAndAttributes";
+		return (boolean) recordCallAndReturnFromMRV(methodName, "nameInData", nameInData,
+				"childAttributes", childAttributes);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataChild> getAllChildrenMatchingFilter(DataChildFilter childFilter) {
-		return (List<DataChild>) MCR.addCallAndReturnFromMRV("childFilter", childFilter);
+		return (List<DataChild>) recordCallAndReturnFromMRV("getAllChildrenMatchingFilter",
+				"childFilter", childFilter);
 	}
 
 	@Override
 	public boolean removeAllChildrenMatchingFilter(DataChildFilter childFilter) {
-		return (boolean) MCR.addCallAndReturnFromMRV("childFilter", childFilter);
+		return (boolean) recordCallAndReturnFromMRV("removeAllChildrenMatchingFilter",
+				"childFilter", childFilter);
 	}
 
 	@Override
 	public <T> boolean containsChildOfTypeAndName(Class<T> type, String name) {
-		return (boolean) MCR.addCallAndReturnFromMRV("type", type, "name", name);
+		return (boolean) recordCallAndReturnFromMRV("containsChildOfTypeAndName", "type", type,
+				"name", name);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends DataChild> T getFirstChildOfTypeAndName(Class<T> type, String name) {
-		return (T) MCR.addCallAndReturnFromMRV("type", type, "name", name);
+		return (T) recordCallAndReturnFromMRV("getFirstChildOfTypeAndName", "type", type, "name",
+				name);
 	}
 
 	@Override
 	public <T extends DataChild> List<T> getChildrenOfType(Class<T> type) {
-		return (List<T>) MCR.addCallAndReturnFromMRV("type", type);
+		return (List<T>) recordCallAndReturnFromMRV("getChildrenOfType", "type", type);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends DataChild> List<T> getChildrenOfTypeAndName(Class<T> type, String name) {
-		return (List<T>) MCR.addCallAndReturnFromMRV("type", type, "name", name);
+		return (List<T>) recordCallAndReturnFromMRV("getChildrenOfTypeAndName", "type", type,
+				"name", name);
 	}
 
 	@Override
 	public <T extends DataChild> boolean removeFirstChildWithTypeAndName(Class<T> type,
 			String name) {
-		return (boolean) MCR.addCallAndReturnFromMRV("type", type, "name", name);
+		return (boolean) recordCallAndReturnFromMRV("removeFirstChildWithTypeAndName", "type", type,
+				"name", name);
 	}
 
 	@Override
 	public <T extends DataChild> boolean removeChildrenWithTypeAndName(Class<T> type, String name) {
-		return (boolean) MCR.addCallAndReturnFromMRV("type", type, "name", name);
+		return (boolean) recordCallAndReturnFromMRV("removeChildrenWithTypeAndName", "type", type,
+				"name", name);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<String> getAttributeValue(String nameInData) {
-		return (Optional<String>) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (Optional<String>) recordCallAndReturnFromMRV("getAttributeValue", "nameInData",
+				nameInData);
 	}
 
 	@Override
 	public String getType() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getType");
 	}
 
 	@Override
 	public void setType(String type) {
-		MCR.addCall("type", type);
+		recordCall("setType", "type", type);
 	}
 
 	@Override
 	public String getId() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getId");
 	}
 
 	@Override
 	public void setId(String id) {
-		MCR.addCall("id", id);
+		recordCall("setId", "id", id);
 	}
 
 	@Override
 	public String getDataDivider() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getDataDivider");
 	}
 
 	@Override
 	public void setDataDivider(String dataDivider) {
-		MCR.addCall("dataDivider", dataDivider);
+		recordCall("setDataDivider", "dataDivider", dataDivider);
 	}
 
 	@Override
 	public String getValidationType() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getValidationType");
 	}
 
 	@Override
 	public void setValidationType(String validationType) {
-		MCR.addCall("validationType", validationType);
+		recordCall("setValidationType", "validationType", validationType);
 	}
 
 	@Override
 	public String getCreatedBy() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getCreatedBy");
 	}
 
 	@Override
 	public void setCreatedBy(String userId) {
-		MCR.addCall("userId", userId);
+		recordCall("setCreatedBy", "userId", userId);
 	}
 
 	@Override
 	public String getTsCreated() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getTsCreated");
 	}
 
 	@Override
 	public void setTsCreated(String tsCreated) {
-		MCR.addCall("tsCreated", tsCreated);
+		recordCall("setTsCreated", "tsCreated", tsCreated);
 	}
 
 	@Override
 	public void setTsCreatedToNow() {
-		MCR.addCall();
+		recordCall("setTsCreatedToNow");
 	}
 
 	@Override
 	public String getLatestUpdatedBy() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getLatestUpdatedBy");
 	}
 
 	@Override
 	public String getLatestTsUpdated() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getLatestTsUpdated");
 	}
 
 	@Override
 	public void addUpdatedUsingUserIdAndTs(String userId, String tsUpdated) {
-		MCR.addCall("userId", userId, "tsUpdated", tsUpdated);
+		recordCall("addUpdatedUsingUserIdAndTs", "userId", userId, "tsUpdated", tsUpdated);
 	}
 
 	@Override
 	public void addUpdatedUsingUserIdAndTsNow(String userId) {
-		MCR.addCall("userId", userId);
+		recordCall("addUpdatedUsingUserIdAndTsNow", "userId", userId);
 	}
 
 	@Override
 	public boolean overwriteProtectionShouldBeEnforced() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("overwriteProtectionShouldBeEnforced");
 	}
 
 	@Override
 	public void removeOverwriteProtection() {
-		MCR.addCall();
+		recordCall("removeOverwriteProtection");
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<DataChild> getAllUpdated() {
-		return (List<DataChild>) MCR.addCallAndReturnFromMRV();
+		return (List<DataChild>) recordCallAndReturnFromMRV("getAllUpdated");
 	}
 
 	@Override
 	public void setAllUpdated(Collection<DataChild> updated) {
-		MCR.addCall("updated", updated);
+		recordCall("setAllUpdated", "updated", updated);
 	}
 
 	@Override
 	public void setVisibility(String visibility) {
-		MCR.addCall("visibility", visibility);
+		recordCall("setVisibility", "visibility", visibility);
 	}
 
 	@Override
 	public void setTsVisibility(String tsVisibility) {
-		MCR.addCall("tsVisibility", tsVisibility);
+		recordCall("setTsVisibility", "tsVisibility", tsVisibility);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<String> getVisibility() {
-		return (Optional<String>) MCR.addCallAndReturnFromMRV();
+		return (Optional<String>) recordCallAndReturnFromMRV("getVisibility");
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<String> getTsVisibility() {
-		return (Optional<String>) MCR.addCallAndReturnFromMRV();
+		return (Optional<String>) recordCallAndReturnFromMRV("getTsVisibility");
 	}
 
 	@Override
 	public void setTsVisibilityNow() {
-		MCR.addCall();
+		recordCall("setTsVisibilityNow");
 	}
 
 	@Override
 	public void setInTrashBin(boolean inTrashBin) {
-		MCR.addCall("inTrashBin", inTrashBin);
+		recordCall("setInTrashBin", "inTrashBin", inTrashBin);
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<Boolean> isInTrashBin() {
-		return (Optional<Boolean>) MCR.addCallAndReturnFromMRV();
+		return (Optional<Boolean>) recordCallAndReturnFromMRV("isInTrashBin");
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Optional<String> getPermissionUnit() {
-		return (Optional<String>) MCR.addCallAndReturnFromMRV();
+		return (Optional<String>) recordCallAndReturnFromMRV("getPermissionUnit");
 	}
 
 	@Override
 	public void setPermissionUnit(String permissionUnit) {
-		MCR.addCall("permissionUnit", permissionUnit);
+		recordCall("setPermissionUnit", "permissionUnit", permissionUnit);
 	}
 }
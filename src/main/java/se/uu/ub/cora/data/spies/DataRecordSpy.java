@@ -20,122 +20,128 @@ package se.uu.ub.cora.data.spies;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import se.uu.ub.cora.data.Action;
 import se.uu.ub.cora.data.DataRecord;
 import se.uu.ub.cora.data.DataRecordGroup;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
-public class DataRecordSpy implements DataRecord {
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataRecordSpy extends AbstractSpy implements DataRecord {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataRecordSpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("getType", String::new);
-		MRV.setDefaultReturnValuesSupplier("getId", String::new);
-		MRV.setDefaultReturnValuesSupplier("getDataRecordGroup", DataRecordGroupSpy::new);
-		MRV.setDefaultReturnValuesSupplier("hasActions", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getActions", Collections::emptyList);
-		MRV.setDefaultReturnValuesSupplier("hasReadPermissions", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getReadPermissions", Collections::emptySet);
-		MRV.setDefaultReturnValuesSupplier("hasWritePermissions", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getWritePermissions", Collections::emptySet);
-		MRV.setDefaultReturnValuesSupplier("getSearchId", String::new);
-		MRV.setDefaultReturnValuesSupplier("getProtocols", Collections::emptySet);
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("getType", String::new);
+		defaults.put("getId", String::new);
+		defaults.put("getDataRecordGroup", DataRecordGroupSpy::new);
+		defaults.put("hasActions", () -> false);
+		defaults.put("getActions", Collections::emptyList);
+		defaults.put("hasReadPermissions", () -> false);
+		defaults.put("getReadPermissions", Collections::emptySet);
+		defaults.put("hasWritePermissions", () -> false);
+		defaults.put("getWritePermissions", Collections::emptySet);
+		defaults.put("getSearchId", String::new);
+		defaults.put("getProtocols", Collections::emptySet);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public String getType() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getType");
 	}
 
 	@Override
 	public String getId() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getId");
 	}
 
 	@Override
 	public void setDataRecordGroup(DataRecordGroup dataRecordGroup) {
-		MCR.addCall("dataGroup", dataRecordGroup);
+		recordCall("setDataRecordGroup", "dataGroup", dataRecordGroup);
 	}
 
 	@Override
 	public DataRecordGroup getDataRecordGroup() {
-		return (DataRecordGroup) MCR.addCallAndReturnFromMRV();
+		return (DataRecordGroup) recordCallAndReturnFromMRV("getDataRecordGroup");
 	}
 
 	@Override
 	public void addAction(Action action) {
-		MCR.addCall("action", action);
+		recordCall("addAction", "action", action);
 	}
 
 	@Override
 	public boolean hasActions() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasActions");
 	}
 
 	@Override
 	public List<Action> getActions() {
-		return (List<Action>) MCR.addCallAndReturnFromMRV();
+		return (List<Action>) recordCallAndReturnFromMRV("getActions");
 	}
 
 	@Override
 	public void addReadPermission(String readPermission) {
-		MCR.addCall("readPermission", readPermission);
+		recordCall("addReadPermission", "readPermission", readPermission);
 	}
 
 	@Override
 	public void addReadPermissions(Collection<String> readPermissions) {
-		MCR.addCall("readPermissions", readPermissions);
+		recordCall("addReadPermissions", "readPermissions", readPermissions);
 	}
 
 	@Override
 	public Set<String> getReadPermissions() {
-		return (Set<String>) MCR.addCallAndReturnFromMRV();
+		return (Set<String>) recordCallAndReturnFromMRV("getReadPermissions");
 	}
 
 	@Override
 	public boolean hasReadPermissions() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasReadPermissions");
 	}
 
 	@Override
 	public void addWritePermission(String writePermission) {
-		MCR.addCall("writePermission", writePermission);
+		recordCall("addWritePermission", "writePermission", writePermission);
 	}
 
 	@Override
 	public void addWritePermissions(Collection<String> writePermissions) {
-		MCR.addCall("writePermissions", writePermissions);
+		recordCall("addWritePermissions", "writePermissions", writePermissions);
 	}
 
 	@Override
 	public Set<String> getWritePermissions() {
-		return (Set<String>) MCR.addCallAndReturnFromMRV();
+		return (Set<String>) recordCallAndReturnFromMRV("getWritePermissions");
 	}
 
 	@Override
 	public boolean hasWritePermissions() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasWritePermissions");
 	}
 
 	@Override
 	public String getSearchId() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getSearchId");
 	}
 
 	@Override
 	public void addProtocol(String protocol) {
-		MCR.addCall("protocol", protocol);
+		recordCall("addProtocol", "protocol", protocol);
 	}
 
 	@Override
 	public Set<String> getProtocols() {
-		return (Set<String>) MCR.addCallAndReturnFromMRV();
+		return (Set<String>) recordCallAndReturnFromMRV("getProtocols");
 	}
 
 }
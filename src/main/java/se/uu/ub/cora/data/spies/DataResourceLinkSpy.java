@@ -20,106 +20,114 @@ package se.uu.ub.cora.data.spies;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import se.uu.ub.cora.data.Action;
 import se.uu.ub.cora.data.DataAttribute;
 import se.uu.ub.cora.data.DataResourceLink;
-import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
-import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
 
-public class DataResourceLinkSpy implements DataResourceLink {
-	public MethodCallRecorder MCR = new MethodCallRecorder();
-	public MethodReturnValues MRV = new MethodReturnValues();
+public class DataResourceLinkSpy extends AbstractSpy implements DataResourceLink {
+	private static final Map<String, Supplier<?>> DEFAULT_RETURN_VALUES =
+			createDefaultReturnValues();
 
 	public DataResourceLinkSpy() {
-		MCR.useMRV(MRV);
-		MRV.setDefaultReturnValuesSupplier("hasReadAction", () -> false);
-		MRV.setDefaultReturnValuesSupplier("hasRepeatId", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getType", () -> "someType");
-		MRV.setDefaultReturnValuesSupplier("getId", () -> "someId");
-		MRV.setDefaultReturnValuesSupplier("getRepeatId", String::new);
-		MRV.setDefaultReturnValuesSupplier("getNameInData", String::new);
-		MRV.setDefaultReturnValuesSupplier("hasAttributes", () -> false);
-		MRV.setDefaultReturnValuesSupplier("getAttribute", DataAttributeSpy::new);
-		MRV.setDefaultReturnValuesSupplier("getAttributes", ArrayList<DataAttribute>::new);
-		MRV.setDefaultReturnValuesSupplier("getMimeType", String::new);
-		MRV.setDefaultReturnValuesSupplier("getAttributeValue", Optional::empty);
+		super(DEFAULT_RETURN_VALUES);
+	}
+
+	private static Map<String, Supplier<?>> createDefaultReturnValues() {
+		Map<String, Supplier<?>> defaults = new HashMap<>();
+		defaults.put("hasReadAction", () -> false);
+		defaults.put("hasRepeatId", () -> false);
+		defaults.put("getType", () -> "someType");
+		defaults.put("getId", () -> "someId");
+		defaults.put("getRepeatId", String::new);
+		defaults.put("getNameInData", String::new);
+		defaults.put("hasAttributes", () -> false);
+		defaults.put("getAttribute", DataAttributeSpy::new);
+		defaults.put("getAttributes", ArrayList<DataAttribute>::new);
+		defaults.put("getMimeType", String::new);
+		defaults.put("getAttributeValue", Optional::empty);
+		return Collections.unmodifiableMap(defaults);
 	}
 
 	@Override
 	public String getType() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getType");
 	}
 
 	@Override
 	public String getId() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getId");
 	}
 
 	@Override
 	public void addAction(Action action) {
-		MCR.addCall("action", action);
+		recordCall("addAction", "action", action);
 	}
 
 	@Override
 	public boolean hasReadAction() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasReadAction");
 	}
 
 	@Override
 	public boolean hasRepeatId() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasRepeatId");
 	}
 
 	@Override
 	public void setRepeatId(String repeatId) {
-		MCR.addCall("repeatId", repeatId);
+		recordCall("setRepeatId", "repeatId", repeatId);
 	}
 
 	@Override
 	public String getRepeatId() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getRepeatId");
 	}
 
 	@Override
 	public String getNameInData() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getNameInData");
 	}
 
 	@Override
 	public void addAttributeByIdWithValue(String nameInData, String value) {
-		MCR.addCall("nameInData", nameInData, "value", value);
+		recordCall("addAttributeByIdWithValue", "nameInData", nameInData, "value", value);
 	}
 
 	@Override
 	public boolean hasAttributes() {
-		return (boolean) MCR.addCallAndReturnFromMRV();
+		return (boolean) recordCallAndReturnFromMRV("hasAttributes");
 	}
 
 	@Override
 	public DataAttribute getAttribute(String nameInData) {
-		return (DataAttribute) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (DataAttribute) recordCallAndReturnFromMRV("getAttribute", "nameInData", nameInData);
 	}
 
 	@Override
 	public Collection<DataAttribute> getAttributes() {
-		return (Collection<DataAttribute>) MCR.addCallAndReturnFromMRV();
+		return (Collection<DataAttribute>) recordCallAndReturnFromMRV("getAttributes");
 	}
 
 	@Override
 	public void setMimeType(String mimeType) {
-		MCR.addCall("mimeType", mimeType);
+		recordCall("setMimeType", "mimeType", mimeType);
 	}
 
 	@Override
 	public String getMimeType() {
-		return (String) MCR.addCallAndReturnFromMRV();
+		return (String) recordCallAndReturnFromMRV("getMimeType");
 	}
 
 	@Override
 	public Optional<String> getAttributeValue(String nameInData) {
-		return (Optional<String>) MCR.addCallAndReturnFromMRV("nameInData", nameInData);
+		return (Optional<String>) recordCallAndReturnFromMRV("getAttributeValue", "nameInData",
+				nameInData);
 	}
 
 }
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * DataTreeGenerator generates synthetic trees of data for load tests, using
+ * {@link DataGroupFake} and {@link DataRecordGroupFake} for groups and spies answering from MRV
+ * for atomics, record links and resource links, as there are no fakes for those.
+ * <p>
+ * Every group above the deepest level has fanOut child slots, each slot holding a group, or one
+ * to three repeated groups with repeatIds when the slot is chosen to repeat. Slots on the deepest
+ * level hold atomics, record links or resource links. Each child gets a type attribute with the
+ * probability set as attribute density.
+ * <p>
+ * Each tree is generated from its own random number generator, seeded from the seed of the
+ * generator and the number of the tree, so tree number n is the same whichever other trees are
+ * generated, in which order and by how many threads. The streams returned generate each tree
+ * when it is reached, so they use memory for the trees being handled only and can be made
+ * parallel to generate trees on all cores.
+ * <p>
+ * A tree has about (fanOut * (1 + repeatDensity))^depth children on its deepest level and at
+ * most (3 * fanOut)^depth, so the size of a tree grows exponentially with the depth. With the
+ * defaults a tree has about 200 children, while fan out 10 and depth 7 gives over ten million.
+ * The groups returned by {@link #generateGroup(long)} and the streams of trees hold their whole
+ * tree in memory, as the fakes hold their children, which limits them to trees fitting on the
+ * heap. {@link #visitGroup(long, DataTreeVisitor)} generates the same tree one node at a time and
+ * hands each node to a visitor, keeping only the groups from the root down to the current node,
+ * so trees of any size can be generated in memory growing with the depth only.
+ */
+public final class DataTreeGenerator {
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private final long seed;
+	private int depth = 3;
+	private int fanOut = 5;
+	private double attributeDensity = 0.2;
+	private double repeatDensity = 0.1;
+	private double recordLinkDensity = 0.1;
+	private double resourceLinkDensity = 0.05;
+	private RecordingMode recordingMode = RecordingMode.ALL;
+
+	public static DataTreeGenerator usingSeed(long seed) {
+		return new DataTreeGenerator(seed);
+	}
+
+	private DataTreeGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * setDepth sets the number of levels of children below the root group, 3 by default. The size
+	 * of each tree grows exponentially with the depth, see the class documentation.
+	 */
+	public void setDepth(int depth) {
+		ensureNotNegative("Depth", depth);
+		this.depth = depth;
+	}
+
+	/**
+	 * setFanOut sets the number of child slots in each group, 5 by default.
+	 */
+	public void setFanOut(int fanOut) {
+		ensureNotNegative("Fan out", fanOut);
+		this.fanOut = fanOut;
+	}
+
+	private void ensureNotNegative(String setting, int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException(setting + " must not be negative, was " + value);
+		}
+	}
+
+	/**
+	 * setAttributeDensity sets the probability for a child to have a type attribute, 0.2 by
+	 * default.
+	 */
+	public void setAttributeDensity(double attributeDensity) {
+		this.attributeDensity = ensureProbability("Attribute density", attributeDensity);
+	}
+
+	/**
+	 * setRepeatDensity sets the probability for a group slot to hold repeated groups with
+	 * repeatIds, 0.1 by default.
+	 */
+	public void setRepeatDensity(double repeatDensity) {
+		this.repeatDensity = ensureProbability("Repeat density", repeatDensity);
+	}
+
+	/**
+	 * setLinkDensities sets the probabilities for a slot on the deepest level to hold a record
+	 * link or a resource link instead of an atomic, 0.1 and 0.05 by default.
+	 */
+	public void setLinkDensities(double recordLinkDensity, double resourceLinkDensity) {
+		ensureProbability("Record link density", recordLinkDensity);
+		ensureProbability("Resource link density", resourceLinkDensity);
+		ensureProbability("Sum of link densities", recordLinkDensity + resourceLinkDensity);
+		this.recordLinkDensity = recordLinkDensity;
+		this.resourceLinkDensity = resourceLinkDensity;
+	}
+
+	private double ensureProbability(String setting, double value) {
+		if (value < 0 || value > 1) {
+			throw new IllegalArgumentException(
+					setting + " must be between 0 and 1, was " + value);
+		}
+		return value;
+	}
+
+	/**
+	 * setRecordingMode sets the recording mode of all generated fakes and spies, which record all
+	 * calls by default. Use {@link RecordingMode#NONE} for trees too big to record calls for.
+	 */
+	public void setRecordingMode(RecordingMode recordingMode) {
+		this.recordingMode = recordingMode;
+	}
+
+	/**
+	 * generateGroup returns the tree with the given number, with a root group named root. The
+	 * whole tree is generated before it is returned and is held in memory.
+	 */
+	public DataGroup generateGroup(long treeNumber) {
+		DataGroupFake root = createGroup("root");
+		TreeAssembler assembler = new TreeAssembler(root::addChild);
+		new TreeBuilder(randomForTree(treeNumber), assembler).addChildren(1);
+		return root;
+	}
+
+	/**
+	 * generateRecordGroup returns the tree with the given number as a record group, with record
+	 * info set from the tree number.
+	 */
+	public DataRecordGroup generateRecordGroup(long treeNumber) {
+		DataRecordGroupFake recordGroup = DataRecordGroupFake.withNameInData("root");
+		recordGroup.setRecordingMode(recordingMode);
+		TreeAssembler assembler = new TreeAssembler(recordGroup::addChild);
+		TreeBuilder builder = new TreeBuilder(randomForTree(treeNumber), assembler);
+		builder.setRecordInfo(recordGroup, treeNumber);
+		builder.addChildren(1);
+		return recordGroup;
+	}
+
+	/**
+	 * visitGroup generates the tree with the given number one node at a time, depth first, and
+	 * hands each group and leaf to the visitor as soon as it is generated, starting with the root
+	 * group. The visitor is handed the same tree as {@link #generateGroup(long)} returns, but no
+	 * part of the tree is kept by the generator once it has been visited, so the memory used
+	 * grows with the depth of the tree and not with its size.
+	 */
+	public void visitGroup(long treeNumber, DataTreeVisitor visitor) {
+		DataGroupFake root = createGroup("root");
+		visitor.enterGroup(root, 0);
+		new TreeBuilder(randomForTree(treeNumber), visitor).addChildren(1);
+		visitor.leaveGroup(root, 0);
+	}
+
+	private DataGroupFake createGroup(String nameInData) {
+		DataGroupFake group = DataGroupFake.withNameInData(nameInData);
+		group.setRecordingMode(recordingMode);
+		return group;
+	}
+
+	private SplittableRandom randomForTree(long treeNumber) {
+		return new SplittableRandom(seed + GOLDEN_GAMMA * (treeNumber + 1));
+	}
+
+	/**
+	 * generateGroups returns an ordered stream of the trees numbered from zero up to, but not
+	 * including, numberOfTrees. Trees are generated one at a time as the stream is consumed, so
+	 * numberOfTrees is not limited by memory, but each tree is held in memory in full while it is
+	 * handled.
+	 */
+	public Stream<DataGroup> generateGroups(long numberOfTrees) {
+		return LongStream.range(0, numberOfTrees).mapToObj(this::generateGroup);
+	}
+
+	/**
+	 * generateRecordGroups returns an ordered stream of record groups in the same way as
+	 * {@link #generateGroups(long)}.
+	 */
+	public Stream<DataRecordGroup> generateRecordGroups(long numberOfTrees) {
+		return LongStream.range(0, numberOfTrees).mapToObj(this::generateRecordGroup);
+	}
+
+	private final class TreeBuilder {
+		private final SplittableRandom random;
+		private final DataTreeVisitor visitor;
+
+		TreeBuilder(SplittableRandom random, DataTreeVisitor visitor) {
+			this.random = random;
+			this.visitor = visitor;
+		}
+
+		void setRecordInfo(DataRecordGroupFake recordGroup, long treeNumber) {
+			recordGroup.setType("type" + random.nextInt(10));
+			recordGroup.setId("id" + treeNumber);
+			recordGroup.setDataDivider("dataDivider" + random.nextInt(3));
+			recordGroup.setValidationType(recordGroup.getType());
+			recordGroup.setCreatedBy("user" + random.nextInt(100));
+			recordGroup.setTsCreated("2026-01-01T00:00:00.000000Z");
+			recordGroup.addUpdatedUsingUserIdAndTs("user" + random.nextInt(100),
+					"2026-01-02T00:00:00.000000Z");
+		}
+
+		void addChildren(int level) {
+			for (int slot = 0; slot < fanOut; slot++) {
+				String nameInData = "level" + level + "slot" + slot;
+				if (level < depth) {
+					addGroups(nameInData, level);
+				} else if (level == depth) {
+					visitor.visitLeaf(createLeaf(nameInData), level);
+				}
+			}
+		}
+
+		private void addGroups(String nameInData, int level) {
+			if (random.nextDouble() < repeatDensity) {
+				int repeats = 1 + random.nextInt(3);
+				for (int repeatId = 0; repeatId < repeats; repeatId++) {
+					addChildGroup(nameInData, String.valueOf(repeatId), level);
+				}
+			} else {
+				addChildGroup(nameInData, null, level);
+			}
+		}
+
+		private void addChildGroup(String nameInData, String repeatId, int level) {
+			DataGroupFake group = createGroup(nameInData);
+			if (hasAttribute()) {
+				group.addAttributeByIdWithValue("type", typeValue());
+			}
+			if (repeatId != null) {
+				group.setRepeatId(repeatId);
+			}
+			visitor.enterGroup(group, level);
+			addChildren(level + 1);
+			visitor.leaveGroup(group, level);
+		}
+
+		private boolean hasAttribute() {
+			return random.nextDouble() < attributeDensity;
+		}
+
+		private String typeValue() {
+			return "type" + random.nextInt(5);
+		}
+
+		private DataChild createLeaf(String nameInData) {
+			List<DataAttribute> attributes = new ArrayList<>(1);
+			if (hasAttribute()) {
+				attributes.add(new GroupContent.Attribute("type", typeValue()));
+			}
+			double kind = random.nextDouble();
+			if (kind < recordLinkDensity) {
+				return createRecordLink(nameInData, attributes);
+			}
+			if (kind < recordLinkDensity + resourceLinkDensity) {
+				return createResourceLink(nameInData, attributes);
+			}
+			return createAtomic(nameInData, attributes);
+		}
+
+		private DataChild createAtomic(String nameInData, List<DataAttribute> attributes) {
+			DataAtomicSpy atomic = new DataAtomicSpy();
+			answerAsChild(atomic, nameInData, attributes);
+			String value = "value" + random.nextInt(1000);
+			atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+			return atomic;
+		}
+
+		private DataChild createRecordLink(String nameInData, List<DataAttribute> attributes) {
+			DataRecordLinkSpy recordLink = new DataRecordLinkSpy();
+			answerAsChild(recordLink, nameInData, attributes);
+			String linkedRecordId = "id" + random.nextInt(1000);
+			recordLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordType", () -> "type");
+			recordLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId",
+					() -> linkedRecordId);
+			return recordLink;
+		}
+
+		private DataChild createResourceLink(String nameInData, List<DataAttribute> attributes) {
+			DataResourceLinkSpy resourceLink = new DataResourceLinkSpy();
+			answerAsChild(resourceLink, nameInData, attributes);
+			String id = "binary" + random.nextInt(1000);
+			resourceLink.MRV.setDefaultReturnValuesSupplier("getType", () -> "binary");
+			resourceLink.MRV.setDefaultReturnValuesSupplier("getId", () -> id);
+			resourceLink.MRV.setDefaultReturnValuesSupplier("getMimeType", () -> "image/png");
+			return resourceLink;
+		}
+
+		private void answerAsChild(AbstractSpy spy, String nameInData,
+				List<DataAttribute> attributes) {
+			spy.setRecordingMode(recordingMode);
+			SpyAnswers.answerAsChild(spy, nameInData, null, attributes);
+		}
+	}
+
+	/**
+	 * TreeAssembler adds each visited node to its parent, building the whole tree in memory.
+	 */
+	private static final class TreeAssembler implements DataTreeVisitor {
+		private final Deque<ChildAdder> parents = new ArrayDeque<>();
+
+		TreeAssembler(ChildAdder root) {
+			parents.push(root);
+		}
+
+		@Override
+		public void enterGroup(DataGroup group, int level) {
+			parents.peek().addChild(group);
+			parents.push(group::addChild);
+		}
+
+		@Override
+		public void visitLeaf(DataChild leaf, int level) {
+			parents.peek().addChild(leaf);
+		}
+
+		@Override
+		public void leaveGroup(DataGroup group, int level) {
+			parents.pop();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ChildAdder {
+		void addChild(DataChild child);
+	}
+}
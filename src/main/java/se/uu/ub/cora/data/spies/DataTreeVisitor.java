@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+
+/**
+ * DataTreeVisitor is handed the groups and leaves of a tree generated by
+ * {@link DataTreeGenerator#visitGroup(long, DataTreeVisitor)}, depth first, in the order they
+ * are generated. The root group is on level zero, its children on level one and so on.
+ * <p>
+ * Groups are handed over without their children, which follow between
+ * {@link #enterGroup(DataGroup, int)} and {@link #leaveGroup(DataGroup, int)} for the group. The
+ * generator keeps no reference to a group once it has been left, nor to a leaf once it has been
+ * visited, so a visitor that does not keep them either handles trees of any size in memory
+ * growing with the depth of the tree only.
+ */
+public interface DataTreeVisitor {
+
+	void enterGroup(DataGroup group, int level);
+
+	void visitLeaf(DataChild leaf, int level);
+
+	void leaveGroup(DataGroup group, int level);
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataChildFilter;
+import se.uu.ub.cora.data.DataMissingException;
+
+/**
+ * GroupContent holds the attributes and children of the group fakes and answers the calls that
+ * DataGroup and DataRecordGroup have in common, so that {@link AbstractGroupFake} only needs to
+ * record the calls and pass them on. Children are kept
+ * in {@link IndexedChildren}. Missing attributes and children are reported using
+ * {@link DataMissingException}, with the same messages as the real implementations.
+ */
+final class GroupContent {
+	private final IndexedChildren children;
+	private final Map<String, DataAttribute> attributes;
+
+	GroupContent() {
+		children = new IndexedChildren();
+		attributes = new LinkedHashMap<>();
+	}
+
+	private GroupContent(IndexedChildren children, Map<String, DataAttribute> attributes) {
+		this.children = children;
+		this.attributes = attributes;
+	}
+
+	/**
+	 * copy returns a copy of this content, sharing the children and their indexes with it as
+	 * described in {@link IndexedChildren#copy()}. Nothing is read from the children.
+	 */
+	GroupContent copy() {
+		return new GroupContent(children.copy(), new LinkedHashMap<>(attributes));
+	}
+
+	void addAttributeByIdWithValue(String nameInData, String value) {
+		attributes.put(nameInData, new Attribute(nameInData, value));
+	}
+
+	boolean hasAttributes() {
+		return !attributes.isEmpty();
+	}
+
+	DataAttribute getAttribute(String nameInData) {
+		DataAttribute attribute = attributes.get(nameInData);
+		if (attribute == null) {
+			throw new DataMissingException("Attribute with id " + nameInData + " not found.");
+		}
+		return attribute;
+	}
+
+	Collection<DataAttribute> getAttributes() {
+		return new ArrayList<>(attributes.values());
+	}
+
+	Optional<String> getAttributeValue(String nameInData) {
+		return Optional.ofNullable(attributes.get(nameInData)).map(DataAttribute::getValue);
+	}
+
+	boolean hasChildren() {
+		return !children.isEmpty();
+	}
+
+	boolean containsChildWithNameInData(String nameInData) {
+		return children.containsNameInData(nameInData);
+	}
+
+	void addChild(DataChild dataChild) {
+		children.add(dataChild);
+	}
+
+	void addChildren(Collection<DataChild> dataChildren) {
+		for (DataChild dataChild : dataChildren) {
+			children.add(dataChild);
+		}
+	}
+
+	void replaceChild(DataChild oldChild, DataChild newChild) {
+		children.replace(oldChild, newChild);
+	}
+
+	List<DataChild> getChildren() {
+		return children.all();
+	}
+
+	List<DataChild> getAllChildrenWithNameInData(String nameInData) {
+		return children.withNameInData(nameInData);
+	}
+
+	<T extends DataChild> List<T> childrenOfTypeWithNameInDataAndAttributes(Class<T> type,
+			String nameInData, DataAttribute... childAttributes) {
+		List<T> matchingChildren = new ArrayList<>();
+		AttributeSignature signature = AttributeSignature.of(childAttributes);
+		for (DataChild child : children.withNameInDataAndAttributes(nameInData, signature)) {
+			if (type.isInstance(child)) {
+				matchingChildren.add(type.cast(child));
+			}
+		}
+		return matchingChildren;
+	}
+
+	DataChild getFirstChildWithNameInData(String nameInData) {
+		DataChild child = children.firstWithNameInData(nameInData);
+		if (child == null) {
+			throw new DataMissingException("Element not found for childNameInData:" + nameInData);
+		}
+		return child;
+	}
+
+	<T extends DataChild> T firstChildOfTypeWithNameInData(Class<T> type, String nameInData) {
+		T child = children.firstOfTypeWithNameInData(type, nameInData);
+		if (child != null) {
+			return child;
+		}
+		throw childOfTypeNotFound(type, nameInData);
+	}
+
+	static DataMissingException childOfTypeNotFound(Class<?> type, String nameInData) {
+		return new DataMissingException("Child of type: " + type.getSimpleName() + " and name: "
+				+ nameInData + " not found as child.");
+	}
+
+	<T> boolean containsChildOfTypeWithNameInData(Class<T> type, String nameInData) {
+		return children.firstOfTypeWithNameInData(type, nameInData) != null;
+	}
+
+	<T> List<T> childrenOfType(Class<T> type) {
+		return children.ofType(type);
+	}
+
+	<T> List<T> childrenOfTypeWithNameInData(Class<T> type, String nameInData) {
+		return children.ofTypeWithNameInData(type, nameInData);
+	}
+
+	boolean removeFirstChildWithNameInData(String nameInData) {
+		return children.removeFirstWithNameInData(nameInData);
+	}
+
+	boolean removeAllChildrenWithNameInData(String nameInData) {
+		return children.removeAllWithNameInData(nameInData);
+	}
+
+	boolean removeAllChildrenWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		return children.removeAllWithNameInDataAndAttributes(nameInData,
+				AttributeSignature.of(childAttributes));
+	}
+
+	List<DataChild> getAllChildrenMatchingFilter(DataChildFilter childFilter) {
+		if (childFilter instanceof DataChildFilterFake filterFake) {
+			return children.matchingFilter(filterFake.compiled());
+		}
+		List<DataChild> matchingChildren = new ArrayList<>();
+		for (DataChild child : children.all()) {
+			if (childFilter.childMatches(child)) {
+				matchingChildren.add(child);
+			}
+		}
+		return matchingChildren;
+	}
+
+	boolean removeAllChildrenMatchingFilter(DataChildFilter childFilter) {
+		if (childFilter instanceof DataChildFilterFake filterFake) {
+			return children.removeMatchingFilter(filterFake.compiled());
+		}
+		return children.removeMatching(null, childFilter::childMatches);
+	}
+
+	boolean removeFirstChildWithTypeAndName(Class<?> type, String nameInData) {
+		return children.removeFirstMatching(nameInData, type::isInstance);
+	}
+
+	boolean removeChildrenWithTypeAndName(Class<?> type, String nameInData) {
+		return children.removeAllOfTypeWithNameInData(type, nameInData);
+	}
+
+	boolean removeFirstChildMatching(String nameInData, Predicate<DataChild> predicate) {
+		return children.removeFirstMatching(nameInData, predicate);
+	}
+
+	/**
+	 * removeChildrenMatching removes all children with the given nameInData, or all children if
+	 * nameInData is null, that the predicate holds for.
+	 */
+	boolean removeChildrenMatching(String nameInData, Predicate<DataChild> predicate) {
+		return children.removeMatching(nameInData, predicate);
+	}
+
+	static final class Attribute implements DataAttribute {
+		private final String nameInData;
+		private final String value;
+
+		Attribute(String nameInData, String value) {
+			this.nameInData = nameInData;
+			this.value = value;
+		}
+
+		@Override
+		public String getNameInData() {
+			return nameInData;
+		}
+
+		@Override
+		public String getValue() {
+			return value;
+		}
+	}
+}
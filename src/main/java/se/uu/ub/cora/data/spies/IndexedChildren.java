@@ -0,0 +1,795 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.DataResourceLink;
+
+/**
+ * IndexedChildren holds the children of a fake group in insertion order, together with an index
+ * from nameInData to the children with that nameInData, and an index from nameInData and
+ * {@link AttributeSignature} to the children with that nameInData and exactly those attributes.
+ * Finding children by nameInData, or by nameInData and attributes, does therefore not need to look
+ * at every child. The nameInData and attributes of a child are read each time the child is added,
+ * and the attributes kept for a child are dropped when its last occurrence is removed.
+ * <p>
+ * Children are also partitioned on the child interfaces {@link DataAtomic}, {@link DataGroup},
+ * {@link DataRecordLink} and {@link DataResourceLink}, each partition keeping its children in
+ * insertion order and indexed on nameInData, so that finding children of one of those types only
+ * looks at the children of that type. A child implementing more than one of the interfaces is in
+ * each of their partitions. Finding children of any other type looks at all children, or all
+ * children with the nameInData.
+ * <p>
+ * Removing children keeps the indexes and partitions up to date, and goes through all children,
+ * and all children of the partitions the removed children are in, once to keep the insertion
+ * order.
+ * <p>
+ * Lists of children returned are snapshots, they are not changed by later changes to the children.
+ * A snapshot shows the first children of a list as it was when the snapshot was taken, so adding
+ * children last after reading them leaves the list in place, and only other changes copy a list
+ * that snapshots have been taken of. Reading and adding children in turn therefore takes time in
+ * proportion to the number of children added, not to its square.
+ * <p>
+ * {@link #copy()} returns a copy sharing all lists and maps with the original, without reading
+ * anything from the children. Both then copy a shared list or map the first time they change it,
+ * so a change only copies the lists of the indexes it touches, such as the children with one
+ * nameInData, and the list of all children.
+ */
+final class IndexedChildren {
+	private static final List<Class<? extends DataChild>> PARTITION_TYPES = List.of(
+			DataAtomic.class, DataGroup.class, DataRecordLink.class, DataResourceLink.class);
+	private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Object> snapshotted = Collections.newSetFromMap(new IdentityHashMap<>());
+	private List<DataChild> children;
+	private Map<String, List<DataChild>> byNameInData;
+	private Map<String, Map<AttributeSignature, List<DataChild>>> byNameAndAttributes;
+	private Map<DataChild, IndexedSignature> attributeSignatures;
+	private final Map<Class<?>, TypePartition> partitions = new LinkedHashMap<>();
+
+	IndexedChildren() {
+		children = ownNew(new ArrayList<>());
+		byNameInData = ownNew(new HashMap<>());
+		byNameAndAttributes = ownNew(new HashMap<>());
+		attributeSignatures = ownNew(new IdentityHashMap<>());
+		for (Class<? extends DataChild> type : PARTITION_TYPES) {
+			partitions.put(type, new TypePartition(type, owned));
+		}
+	}
+
+	private IndexedChildren(IndexedChildren original) {
+		children = original.children;
+		byNameInData = original.byNameInData;
+		byNameAndAttributes = original.byNameAndAttributes;
+		attributeSignatures = original.attributeSignatures;
+		for (TypePartition partition : original.partitions.values()) {
+			partitions.put(partition.type, partition.copy(owned));
+		}
+	}
+
+	/**
+	 * copy returns a copy of these children that shares all lists and maps with them, both the
+	 * copy and the original copy a shared list or map before changing it.
+	 */
+	IndexedChildren copy() {
+		owned.clear();
+		snapshotted.clear();
+		return new IndexedChildren(this);
+	}
+
+	private <C> C ownNew(C container) {
+		owned.add(container);
+		return container;
+	}
+
+	private static <C> C own(Set<Object> owned, C container, UnaryOperator<C> copying) {
+		if (owned.contains(container)) {
+			return container;
+		}
+		C copy = copying.apply(container);
+		owned.add(copy);
+		return copy;
+	}
+
+	private static <K> List<DataChild> writableBucket(Set<Object> owned,
+			Map<K, List<DataChild>> index, K key) {
+		List<DataChild> bucket = index.get(key);
+		List<DataChild> writable = bucket == null ? ownNewList(owned)
+				: own(owned, bucket, ArrayList::new);
+		if (writable != bucket) {
+			index.put(key, writable);
+		}
+		return writable;
+	}
+
+	private static List<DataChild> ownNewList(Set<Object> owned) {
+		List<DataChild> list = new ArrayList<>();
+		owned.add(list);
+		return list;
+	}
+
+	/**
+	 * changeableBucket returns the list for the key in the index, ready for changes other than
+	 * adding children last, copying it first if snapshots have been taken of it.
+	 */
+	private <K> List<DataChild> changeableBucket(Map<K, List<DataChild>> index, K key) {
+		releaseIfSnapshotted(index.get(key));
+		return writableBucket(owned, index, key);
+	}
+
+	private void releaseIfSnapshotted(List<DataChild> list) {
+		if (snapshotted.remove(list)) {
+			owned.remove(list);
+		}
+	}
+
+	private List<DataChild> writableChildren() {
+		releaseIfSnapshotted(children);
+		return appendableChildren();
+	}
+
+	private List<DataChild> appendableChildren() {
+		children = own(owned, children, ArrayList::new);
+		return children;
+	}
+
+	private Map<String, List<DataChild>> writableByNameInData() {
+		byNameInData = own(owned, byNameInData, HashMap::new);
+		return byNameInData;
+	}
+
+	private Map<AttributeSignature, List<DataChild>> writableByAttributes(String nameInData) {
+		byNameAndAttributes = own(owned, byNameAndAttributes, HashMap::new);
+		Map<AttributeSignature, List<DataChild>> childrenByAttributes = byNameAndAttributes
+				.get(nameInData);
+		Map<AttributeSignature, List<DataChild>> writable = childrenByAttributes == null
+				? ownNew(new HashMap<>())
+				: own(owned, childrenByAttributes, HashMap::new);
+		if (writable != childrenByAttributes) {
+			byNameAndAttributes.put(nameInData, writable);
+		}
+		return writable;
+	}
+
+	private Map<DataChild, IndexedSignature> writableAttributeSignatures() {
+		attributeSignatures = own(owned, attributeSignatures, IdentityHashMap::new);
+		return attributeSignatures;
+	}
+
+	private AttributeSignature signatureOf(DataChild child) {
+		return attributeSignatures.get(child).signature;
+	}
+
+	private void addOccurrence(DataChild child, AttributeSignature signature) {
+		IndexedSignature indexed = attributeSignatures.get(child);
+		int occurrences = indexed == null ? 1 : indexed.occurrences + 1;
+		writableAttributeSignatures().put(child, new IndexedSignature(signature, occurrences));
+	}
+
+	private void removeOccurrence(DataChild child) {
+		Map<DataChild, IndexedSignature> signatures = writableAttributeSignatures();
+		IndexedSignature indexed = signatures.get(child);
+		if (indexed.occurrences == 1) {
+			signatures.remove(child);
+		} else {
+			signatures.put(child,
+					new IndexedSignature(indexed.signature, indexed.occurrences - 1));
+		}
+	}
+
+	/**
+	 * add adds the child last, reading its nameInData and attributes. If the child has already
+	 * been added and its attributes have changed since, the earlier occurrences are indexed on the
+	 * new attributes as well.
+	 */
+	void add(DataChild child) {
+		String nameInData = child.getNameInData();
+		AttributeSignature signature = readAttributeSignature(child);
+		IndexedSignature earlier = attributeSignatures.get(child);
+		addOccurrence(child, signature);
+		appendableChildren().add(child);
+		writableBucket(owned, writableByNameInData(), nameInData).add(child);
+		if (earlier == null || earlier.signature.equals(signature)) {
+			writableBucket(owned, writableByAttributes(nameInData), signature).add(child);
+		} else {
+			removeAllFromAttributeIndex(nameInData, child, earlier.signature);
+			indexSignatureInOrder(nameInData, signature);
+		}
+		for (TypePartition partition : partitions.values()) {
+			partition.addIfOfType(nameInData, child);
+		}
+	}
+
+	/**
+	 * replace puts newChild in the place of oldChild, which must be of the same class and have the
+	 * same nameInData. Only the nameInData and attributes of newChild are read.
+	 */
+	void replace(DataChild oldChild, DataChild newChild) {
+		String nameInData = newChild.getNameInData();
+		AttributeSignature signature = readAttributeSignature(newChild);
+		boolean sameSignature = signature.equals(signatureOf(oldChild));
+		if (!sameSignature) {
+			removeFromAttributeIndex(nameInData, oldChild);
+		}
+		removeOccurrence(oldChild);
+		addOccurrence(newChild, signature);
+		replaceFirstByIdentity(writableChildren(), oldChild, newChild);
+		replaceFirstByIdentity(changeableBucket(writableByNameInData(), nameInData), oldChild,
+				newChild);
+		if (sameSignature) {
+			replaceFirstByIdentity(changeableBucket(writableByAttributes(nameInData), signature),
+					oldChild, newChild);
+		} else {
+			indexSignatureInOrder(nameInData, signature);
+		}
+		for (TypePartition partition : partitions.values()) {
+			partition.replace(nameInData, oldChild, newChild);
+		}
+	}
+
+	private void indexSignatureInOrder(String nameInData, AttributeSignature signature) {
+		List<DataChild> childrenWithAttributes = ownNewList(owned);
+		for (DataChild child : byNameInData.get(nameInData)) {
+			if (signature.equals(signatureOf(child))) {
+				childrenWithAttributes.add(child);
+			}
+		}
+		writableByAttributes(nameInData).put(signature, childrenWithAttributes);
+	}
+
+	private AttributeSignature readAttributeSignature(DataChild child) {
+		return AttributeSignature.of(child.getAttributes());
+	}
+
+	/**
+	 * all returns a snapshot of all children in insertion order, see
+	 * {@link #snapshotOf(List)}.
+	 */
+	List<DataChild> all() {
+		return snapshotOf(children);
+	}
+
+	boolean isEmpty() {
+		return children.isEmpty();
+	}
+
+	boolean containsNameInData(String nameInData) {
+		return byNameInData.containsKey(nameInData);
+	}
+
+	/**
+	 * withNameInData returns a snapshot of the children with the nameInData, see
+	 * {@link #snapshotOf(List)}.
+	 */
+	List<DataChild> withNameInData(String nameInData) {
+		return snapshotOf(indexedWithNameInData(nameInData));
+	}
+
+	private List<DataChild> indexedWithNameInData(String nameInData) {
+		return byNameInData.getOrDefault(nameInData, Collections.emptyList());
+	}
+
+	/**
+	 * withNameInDataAndAttributes returns a snapshot of the children with the nameInData and
+	 * exactly the attributes of the signature, see {@link #snapshotOf(List)}.
+	 */
+	List<DataChild> withNameInDataAndAttributes(String nameInData, AttributeSignature signature) {
+		return snapshotOf(indexedWithNameInDataAndAttributes(nameInData, signature));
+	}
+
+	private List<DataChild> indexedWithNameInDataAndAttributes(String nameInData,
+			AttributeSignature signature) {
+		Map<AttributeSignature, List<DataChild>> childrenByAttributes = byNameAndAttributes
+				.get(nameInData);
+		if (childrenByAttributes == null) {
+			return Collections.emptyList();
+		}
+		return childrenByAttributes.getOrDefault(signature, Collections.emptyList());
+	}
+
+	/**
+	 * snapshotOf returns an unmodifiable view of the children now in the list. Children added last
+	 * to the list later are not seen by the view, and any other change to the list is made to a
+	 * copy of it, so the view keeps showing the children as they were. Taking a snapshot copies
+	 * nothing.
+	 */
+	private List<DataChild> snapshotOf(List<DataChild> list) {
+		if (list.isEmpty()) {
+			return Collections.emptyList();
+		}
+		snapshotted.add(list);
+		return new Snapshot(list, list.size());
+	}
+
+	/**
+	 * matchingFilter returns a new list with the children matching the filter, in insertion
+	 * order. The filter is tested once for each distinct set of attributes among the children with
+	 * the nameInData of the filter, and not at all when it only matches one set of attributes.
+	 */
+	List<DataChild> matchingFilter(CompiledChildFilter filter) {
+		String nameInData = filter.getNameInData();
+		if (filter.onlySignature() != null) {
+			return new ArrayList<>(
+					indexedWithNameInDataAndAttributes(nameInData, filter.onlySignature()));
+		}
+		Set<AttributeSignature> matchingSignatures = matchingSignatures(filter);
+		List<DataChild> matching = new ArrayList<>();
+		if (matchingSignatures.isEmpty()) {
+			return matching;
+		}
+		for (DataChild child : byNameInData.get(nameInData)) {
+			if (matchingSignatures.contains(signatureOf(child))) {
+				matching.add(child);
+			}
+		}
+		return matching;
+	}
+
+	private Set<AttributeSignature> matchingSignatures(CompiledChildFilter filter) {
+		Map<AttributeSignature, List<DataChild>> childrenByAttributes = byNameAndAttributes
+				.get(filter.getNameInData());
+		Set<AttributeSignature> matchingSignatures = new HashSet<>();
+		if (childrenByAttributes != null) {
+			for (AttributeSignature signature : childrenByAttributes.keySet()) {
+				if (filter.matches(signature)) {
+					matchingSignatures.add(signature);
+				}
+			}
+		}
+		return matchingSignatures;
+	}
+
+	/**
+	 * removeMatchingFilter removes all children matching the filter.
+	 */
+	boolean removeMatchingFilter(CompiledChildFilter filter) {
+		if (filter.onlySignature() != null) {
+			return removeAllWithNameInDataAndAttributes(filter.getNameInData(),
+					filter.onlySignature());
+		}
+		Set<AttributeSignature> matchingSignatures = matchingSignatures(filter);
+		if (matchingSignatures.isEmpty()) {
+			return false;
+		}
+		return removeMatching(filter.getNameInData(),
+				child -> matchingSignatures.contains(signatureOf(child)));
+	}
+
+	/**
+	 * ofType returns a new list with the children that are instances of type, in insertion order.
+	 */
+	<T> List<T> ofType(Class<T> type) {
+		TypePartition partition = partitions.get(type);
+		if (partition != null) {
+			return castAll(type, partition.children);
+		}
+		return filterOnType(type, children);
+	}
+
+	/**
+	 * ofTypeWithNameInData returns a new list with the children with the given nameInData that are
+	 * instances of type, in insertion order.
+	 */
+	<T> List<T> ofTypeWithNameInData(Class<T> type, String nameInData) {
+		TypePartition partition = partitions.get(type);
+		if (partition != null) {
+			return castAll(type, partition.withNameInData(nameInData));
+		}
+		return filterOnType(type, indexedWithNameInData(nameInData));
+	}
+
+	private <T> List<T> castAll(Class<T> type, List<DataChild> childrenOfType) {
+		List<T> cast = new ArrayList<>(childrenOfType.size());
+		for (DataChild child : childrenOfType) {
+			cast.add(type.cast(child));
+		}
+		return cast;
+	}
+
+	private <T> List<T> filterOnType(Class<T> type, List<DataChild> candidates) {
+		List<T> childrenOfType = new ArrayList<>();
+		for (DataChild child : candidates) {
+			if (type.isInstance(child)) {
+				childrenOfType.add(type.cast(child));
+			}
+		}
+		return childrenOfType;
+	}
+
+	/**
+	 * firstOfTypeWithNameInData returns the first child with the given nameInData that is an
+	 * instance of type, or null if there is none.
+	 */
+	<T> T firstOfTypeWithNameInData(Class<T> type, String nameInData) {
+		TypePartition partition = partitions.get(type);
+		List<DataChild> candidates = partition != null ? partition.withNameInData(nameInData)
+				: indexedWithNameInData(nameInData);
+		for (DataChild child : candidates) {
+			if (type.isInstance(child)) {
+				return type.cast(child);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * removeAllOfTypeWithNameInData removes all children with the given nameInData that are
+	 * instances of type.
+	 */
+	boolean removeAllOfTypeWithNameInData(Class<?> type, String nameInData) {
+		TypePartition partition = partitions.get(type);
+		if (partition == null) {
+			return removeMatching(nameInData, type::isInstance);
+		}
+		List<DataChild> childrenOfType = partition.withNameInData(nameInData);
+		if (childrenOfType.isEmpty()) {
+			return false;
+		}
+		return removeMatching(nameInData, identitySetOf(childrenOfType)::contains);
+	}
+
+	DataChild firstWithNameInData(String nameInData) {
+		List<DataChild> childrenWithNameInData = byNameInData.get(nameInData);
+		return childrenWithNameInData == null ? null : childrenWithNameInData.get(0);
+	}
+
+	boolean removeFirstWithNameInData(String nameInData) {
+		return removeFirstMatching(nameInData, child -> true);
+	}
+
+	boolean removeAllWithNameInData(String nameInData) {
+		if (!byNameInData.containsKey(nameInData)) {
+			return false;
+		}
+		List<DataChild> removed = writableByNameInData().remove(nameInData);
+		byNameAndAttributes = own(owned, byNameAndAttributes, HashMap::new);
+		byNameAndAttributes.remove(nameInData);
+		removeFromChildren(identitySetOf(removed));
+		return true;
+	}
+
+	boolean removeAllWithNameInDataAndAttributes(String nameInData,
+			AttributeSignature signature) {
+		Map<AttributeSignature, List<DataChild>> childrenByAttributes = byNameAndAttributes
+				.get(nameInData);
+		if (childrenByAttributes == null || !childrenByAttributes.containsKey(signature)) {
+			return false;
+		}
+		childrenByAttributes = writableByAttributes(nameInData);
+		Set<DataChild> removed = identitySetOf(childrenByAttributes.remove(signature));
+		if (childrenByAttributes.isEmpty()) {
+			byNameAndAttributes.remove(nameInData);
+		}
+		List<DataChild> childrenWithNameInData = changeableBucket(writableByNameInData(),
+				nameInData);
+		childrenWithNameInData.removeIf(removed::contains);
+		removeIndexEntryIfEmpty(nameInData, childrenWithNameInData);
+		removeFromChildren(removed);
+		return true;
+	}
+
+	/**
+	 * removeFirstMatching removes the first child with the given nameInData that matches the
+	 * predicate.
+	 */
+	boolean removeFirstMatching(String nameInData, Predicate<DataChild> predicate) {
+		List<DataChild> childrenWithNameInData = byNameInData.get(nameInData);
+		if (childrenWithNameInData == null) {
+			return false;
+		}
+		for (int i = 0; i < childrenWithNameInData.size(); i++) {
+			DataChild child = childrenWithNameInData.get(i);
+			if (predicate.test(child)) {
+				List<DataChild> writable = changeableBucket(writableByNameInData(), nameInData);
+				writable.remove(i);
+				removeIndexEntryIfEmpty(nameInData, writable);
+				removeFromAttributeIndex(nameInData, child);
+				removeFirstFromChildren(child);
+				removeFirstFromPartitions(nameInData, child);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * removeMatching removes all children matching the predicate. The predicate is only tested
+	 * against children with the given nameInData, or against all children if nameInData is null.
+	 */
+	boolean removeMatching(String nameInData, Predicate<DataChild> predicate) {
+		Set<DataChild> removed = identitySetOf(Collections.emptyList());
+		if (nameInData == null) {
+			for (String indexedNameInData : new ArrayList<>(byNameInData.keySet())) {
+				removeMatchingFromIndex(indexedNameInData, predicate, removed);
+			}
+		} else if (byNameInData.containsKey(nameInData)) {
+			removeMatchingFromIndex(nameInData, predicate, removed);
+		}
+		if (removed.isEmpty()) {
+			return false;
+		}
+		removeFromChildren(removed);
+		return true;
+	}
+
+	private void removeMatchingFromIndex(String nameInData, Predicate<DataChild> predicate,
+			Set<DataChild> removed) {
+		List<DataChild> matching = new ArrayList<>();
+		for (DataChild child : byNameInData.get(nameInData)) {
+			if (predicate.test(child)) {
+				matching.add(child);
+			}
+		}
+		if (matching.isEmpty()) {
+			return;
+		}
+		Set<DataChild> matchingSet = identitySetOf(matching);
+		List<DataChild> childrenWithNameInData = changeableBucket(writableByNameInData(),
+				nameInData);
+		childrenWithNameInData.removeIf(matchingSet::contains);
+		for (DataChild child : matching) {
+			removeFromAttributeIndex(nameInData, child);
+		}
+		removed.addAll(matchingSet);
+		removeIndexEntryIfEmpty(nameInData, childrenWithNameInData);
+	}
+
+	private void removeIndexEntryIfEmpty(String nameInData,
+			List<DataChild> childrenWithNameInData) {
+		if (childrenWithNameInData.isEmpty()) {
+			writableByNameInData().remove(nameInData);
+		}
+	}
+
+	private void removeFromAttributeIndex(String nameInData, DataChild child) {
+		AttributeSignature signature = signatureOf(child);
+		Map<AttributeSignature, List<DataChild>> childrenByAttributes = writableByAttributes(
+				nameInData);
+		List<DataChild> childrenWithAttributes = changeableBucket(childrenByAttributes, signature);
+		removeFirstByIdentity(childrenWithAttributes, child);
+		removeAttributeIndexEntriesIfEmpty(nameInData, signature, childrenWithAttributes);
+	}
+
+	private void removeAllFromAttributeIndex(String nameInData, DataChild child,
+			AttributeSignature signature) {
+		List<DataChild> childrenWithAttributes = changeableBucket(writableByAttributes(nameInData),
+				signature);
+		childrenWithAttributes.removeIf(candidate -> candidate == child);
+		removeAttributeIndexEntriesIfEmpty(nameInData, signature, childrenWithAttributes);
+	}
+
+	private void removeAttributeIndexEntriesIfEmpty(String nameInData,
+			AttributeSignature signature, List<DataChild> childrenWithAttributes) {
+		Map<AttributeSignature, List<DataChild>> childrenByAttributes = byNameAndAttributes
+				.get(nameInData);
+		if (childrenWithAttributes.isEmpty()) {
+			childrenByAttributes.remove(signature);
+		}
+		if (childrenByAttributes.isEmpty()) {
+			byNameAndAttributes.remove(nameInData);
+		}
+	}
+
+	private void removeFirstFromChildren(DataChild child) {
+		removeFirstByIdentity(writableChildren(), child);
+		removeOccurrence(child);
+	}
+
+	private void removeFirstFromPartitions(String nameInData, DataChild child) {
+		for (TypePartition partition : partitions.values()) {
+			if (partition.type.isInstance(child)) {
+				partition.removeFirst(nameInData, child);
+			}
+		}
+	}
+
+	private static void removeFirstByIdentity(List<DataChild> list, DataChild child) {
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == child) {
+				list.remove(i);
+				return;
+			}
+		}
+	}
+
+	private static void replaceFirstByIdentity(List<DataChild> list, DataChild oldChild,
+			DataChild newChild) {
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == oldChild) {
+				list.set(i, newChild);
+				return;
+			}
+		}
+	}
+
+	private void removeFromChildren(Set<DataChild> removed) {
+		Iterator<DataChild> iterator = writableChildren().iterator();
+		while (iterator.hasNext()) {
+			DataChild child = iterator.next();
+			if (removed.contains(child)) {
+				iterator.remove();
+				removeOccurrence(child);
+			}
+		}
+		for (TypePartition partition : partitions.values()) {
+			if (partition.containsAnyOfType(removed)) {
+				partition.removeAll(removed);
+			}
+		}
+	}
+
+	private Set<DataChild> identitySetOf(List<DataChild> list) {
+		Set<DataChild> set = Collections.newSetFromMap(new IdentityHashMap<>());
+		set.addAll(list);
+		return set;
+	}
+
+	/**
+	 * onlyForTestNumberOfIndexedChildren returns the number of distinct children that attribute
+	 * signatures are kept for.
+	 */
+	int onlyForTestNumberOfIndexedChildren() {
+		return attributeSignatures.size();
+	}
+
+	/**
+	 * Snapshot is a view of the first children of a list, which children may be added last to but
+	 * which is otherwise not changed while the snapshot is in use.
+	 */
+	private static final class Snapshot extends AbstractList<DataChild> implements RandomAccess {
+		private final List<DataChild> list;
+		private final int size;
+
+		Snapshot(List<DataChild> list, int size) {
+			this.list = list;
+			this.size = size;
+		}
+
+		@Override
+		public DataChild get(int index) {
+			Objects.checkIndex(index, size);
+			return list.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private static final class IndexedSignature {
+		private final AttributeSignature signature;
+		private final int occurrences;
+
+		IndexedSignature(AttributeSignature signature, int occurrences) {
+			this.signature = signature;
+			this.occurrences = occurrences;
+		}
+	}
+
+	private static final class TypePartition {
+		private final Class<? extends DataChild> type;
+		private final Set<Object> owned;
+		private List<DataChild> children;
+		private Map<String, List<DataChild>> byNameInData;
+
+		TypePartition(Class<? extends DataChild> type, Set<Object> owned) {
+			this(type, owned, ownNewList(owned), new HashMap<>());
+			owned.add(byNameInData);
+		}
+
+		private TypePartition(Class<? extends DataChild> type, Set<Object> owned,
+				List<DataChild> children, Map<String, List<DataChild>> byNameInData) {
+			this.type = type;
+			this.owned = owned;
+			this.children = children;
+			this.byNameInData = byNameInData;
+		}
+
+		TypePartition copy(Set<Object> ownedByCopy) {
+			return new TypePartition(type, ownedByCopy, children, byNameInData);
+		}
+
+		private List<DataChild> writableChildren() {
+			children = own(owned, children, ArrayList::new);
+			return children;
+		}
+
+		private List<DataChild> writableWithNameInData(String nameInData) {
+			byNameInData = own(owned, byNameInData, HashMap::new);
+			return writableBucket(owned, byNameInData, nameInData);
+		}
+
+		void addIfOfType(String nameInData, DataChild child) {
+			if (type.isInstance(child)) {
+				writableChildren().add(child);
+				writableWithNameInData(nameInData).add(child);
+			}
+		}
+
+		void replace(String nameInData, DataChild oldChild, DataChild newChild) {
+			if (type.isInstance(newChild)) {
+				replaceFirstByIdentity(writableChildren(), oldChild, newChild);
+				replaceFirstByIdentity(writableWithNameInData(nameInData), oldChild, newChild);
+			}
+		}
+
+		List<DataChild> withNameInData(String nameInData) {
+			return byNameInData.getOrDefault(nameInData, Collections.emptyList());
+		}
+
+		boolean containsAnyOfType(Set<DataChild> candidates) {
+			for (DataChild candidate : candidates) {
+				if (type.isInstance(candidate)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void removeFirst(String nameInData, DataChild child) {
+			removeFirstByIdentity(writableChildren(), child);
+			List<DataChild> childrenWithNameInData = writableWithNameInData(nameInData);
+			removeFirstByIdentity(childrenWithNameInData, child);
+			if (childrenWithNameInData.isEmpty()) {
+				byNameInData.remove(nameInData);
+			}
+		}
+
+		void removeAll(Set<DataChild> removed) {
+			writableChildren().removeIf(removed::contains);
+			for (String nameInData : new ArrayList<>(byNameInData.keySet())) {
+				if (containsAny(byNameInData.get(nameInData), removed)) {
+					List<DataChild> childrenWithNameInData = writableWithNameInData(nameInData);
+					childrenWithNameInData.removeIf(removed::contains);
+					if (childrenWithNameInData.isEmpty()) {
+						byNameInData.remove(nameInData);
+					}
+				}
+			}
+		}
+
+		private static boolean containsAny(List<DataChild> list, Set<DataChild> candidates) {
+			for (DataChild child : list) {
+				if (candidates.contains(child)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,565 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import se.uu.ub.cora.data.Data;
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataList;
+import se.uu.ub.cora.data.DataRecord;
+import se.uu.ub.cora.data.DataRecordGroup;
+
+/**
+ * JsonDataLoader reads groups, record groups, records and lists in the Cora JSON data format and
+ * builds them as fakes or as spies with their return values set in MRV, so that exports from a
+ * running system can be replayed in tests.
+ * <p>
+ * Documents are read in a single pass using {@link JsonStreamReader}, each element is built as
+ * soon as it has been read, and no tree of the JSON document is kept, so the memory used is the
+ * memory of the built data. {@link #forEachRecordInList(Reader, Consumer)} hands over the records
+ * of a list one at a time, for lists too big to keep in memory.
+ * <p>
+ * When loading fakes, groups become {@link DataGroupFake} and record groups
+ * {@link DataRecordGroupFake}, with the record info set in its fields and the recordInfo group
+ * left out of its children. When loading spies, groups become {@link DataGroupSpy} and record
+ * groups {@link DataRecordGroupSpy}, answering getChildren, the calls finding the first or all
+ * children by nameInData and, for record groups, the record info getters. Atomics, links,
+ * records and lists are always spies, as there are no fakes for them. A group with atomic
+ * children linkedRecordType and linkedRecordId is loaded as a record link, or as a resource link
+ * if it also has a mimeType child.
+ */
+public final class JsonDataLoader {
+	private final boolean loadFakes;
+
+	/**
+	 * loadingFakes returns a loader building groups and record groups as fakes.
+	 */
+	public static JsonDataLoader loadingFakes() {
+		return new JsonDataLoader(true);
+	}
+
+	/**
+	 * loadingSpies returns a loader building groups and record groups as spies.
+	 */
+	public static JsonDataLoader loadingSpies() {
+		return new JsonDataLoader(false);
+	}
+
+	private JsonDataLoader(boolean loadFakes) {
+		this.loadFakes = loadFakes;
+	}
+
+	public DataGroup loadGroup(Reader json) {
+		JsonStreamReader reader = new JsonStreamReader(json);
+		DataGroup group = createGroup(readElement(reader));
+		reader.endDocument();
+		return group;
+	}
+
+	public DataRecordGroup loadRecordGroup(Reader json) {
+		JsonStreamReader reader = new JsonStreamReader(json);
+		DataRecordGroup recordGroup = createRecordGroup(readElement(reader));
+		reader.endDocument();
+		return recordGroup;
+	}
+
+	/**
+	 * loadRecord loads a record, an object with a record holding the data of the record and its
+	 * permissions. Action links are not loaded.
+	 */
+	public DataRecord loadRecord(Reader json) {
+		JsonStreamReader reader = new JsonStreamReader(json);
+		reader.beginObject();
+		DataRecord dataRecord = readRecordField(reader, reader.nextName());
+		reader.endObject();
+		reader.endDocument();
+		return dataRecord;
+	}
+
+	/**
+	 * loadList loads a list, an object with a dataList holding records or groups. All data in the
+	 * list is kept in the returned list.
+	 */
+	public DataList loadList(Reader json) {
+		List<Data> data = new ArrayList<>();
+		Map<String, String> listInfo = readList(json, data::add, data::add);
+		DataListSpy dataList = new DataListSpy();
+		dataList.MRV.setDefaultReturnValuesSupplier("getFromNo", () -> listInfo.get("fromNo"));
+		dataList.MRV.setDefaultReturnValuesSupplier("getToNo", () -> listInfo.get("toNo"));
+		dataList.MRV.setDefaultReturnValuesSupplier("getTotalNumberOfTypeInStorage",
+				() -> listInfo.get("totalNo"));
+		dataList.MRV.setDefaultReturnValuesSupplier("getContainDataOfType",
+				() -> listInfo.get("containDataOfType"));
+		dataList.MRV.setDefaultReturnValuesSupplier("getDataList", () -> data);
+		return dataList;
+	}
+
+	/**
+	 * forEachRecordInList reads a list and hands each record to the consumer as soon as it has
+	 * been read, so that the list never needs to be kept in memory. Groups in the list are
+	 * skipped.
+	 */
+	public void forEachRecordInList(Reader json, Consumer<DataRecord> recordConsumer) {
+		readList(json, recordConsumer, group -> {
+		});
+	}
+
+	private Map<String, String> readList(Reader json, Consumer<DataRecord> recordConsumer,
+			Consumer<DataGroup> groupConsumer) {
+		JsonStreamReader reader = new JsonStreamReader(json);
+		Map<String, String> listInfo = new HashMap<>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			if ("dataList".equals(reader.nextName())) {
+				readListContent(reader, listInfo, recordConsumer, groupConsumer);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		reader.endDocument();
+		return listInfo;
+	}
+
+	private void readListContent(JsonStreamReader reader, Map<String, String> listInfo,
+			Consumer<DataRecord> recordConsumer, Consumer<DataGroup> groupConsumer) {
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if ("data".equals(name)) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					readListItem(reader, recordConsumer, groupConsumer);
+				}
+				reader.endArray();
+			} else if (reader.peek() == JsonStreamReader.Token.STRING
+					|| reader.peek() == JsonStreamReader.Token.LITERAL) {
+				listInfo.put(name, reader.nextString());
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+	}
+
+	private void readListItem(JsonStreamReader reader, Consumer<DataRecord> recordConsumer,
+			Consumer<DataGroup> groupConsumer) {
+		reader.beginObject();
+		String firstName = reader.nextName();
+		if ("record".equals(firstName)) {
+			recordConsumer.accept(readRecordField(reader, firstName));
+			reader.endObject();
+		} else {
+			Element element = new Element();
+			readElementField(reader, element, firstName);
+			readElementFields(reader, element);
+			groupConsumer.accept(createGroup(element));
+		}
+	}
+
+	private DataRecord readRecordField(JsonStreamReader reader, String name) {
+		if (!"record".equals(name)) {
+			throw new IllegalArgumentException("Expected record but found " + name);
+		}
+		DataRecordGroup recordGroup = null;
+		Map<String, Set<String>> permissions = Collections.emptyMap();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String fieldName = reader.nextName();
+			if ("data".equals(fieldName)) {
+				recordGroup = createRecordGroup(readElement(reader));
+			} else if ("permissions".equals(fieldName)) {
+				permissions = readPermissions(reader);
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return createRecord(recordGroup, permissions);
+	}
+
+	private Map<String, Set<String>> readPermissions(JsonStreamReader reader) {
+		Map<String, Set<String>> permissions = new HashMap<>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String kind = reader.nextName();
+			Set<String> values = new LinkedHashSet<>();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				values.add(reader.nextString());
+			}
+			reader.endArray();
+			permissions.put(kind, values);
+		}
+		reader.endObject();
+		return permissions;
+	}
+
+	private DataRecord createRecord(DataRecordGroup recordGroup,
+			Map<String, Set<String>> permissions) {
+		DataRecordSpy dataRecord = new DataRecordSpy();
+		if (recordGroup != null) {
+			dataRecord.MRV.setDefaultReturnValuesSupplier("getDataRecordGroup", () -> recordGroup);
+			dataRecord.MRV.setDefaultReturnValuesSupplier("getType", recordGroup::getType);
+			dataRecord.MRV.setDefaultReturnValuesSupplier("getId", recordGroup::getId);
+		}
+		answerWithPermissions(dataRecord, "Read", permissions.get("read"));
+		answerWithPermissions(dataRecord, "Write", permissions.get("write"));
+		return dataRecord;
+	}
+
+	private void answerWithPermissions(DataRecordSpy dataRecord, String kind,
+			Set<String> permissions) {
+		if (permissions != null && !permissions.isEmpty()) {
+			dataRecord.MRV.setDefaultReturnValuesSupplier("has" + kind + "Permissions",
+					() -> true);
+			dataRecord.MRV.setDefaultReturnValuesSupplier("get" + kind + "Permissions",
+					() -> permissions);
+		}
+	}
+
+	private Element readElement(JsonStreamReader reader) {
+		Element element = new Element();
+		reader.beginObject();
+		readElementFields(reader, element);
+		return element;
+	}
+
+	private void readElementFields(JsonStreamReader reader, Element element) {
+		while (reader.hasNext()) {
+			readElementField(reader, element, reader.nextName());
+		}
+		reader.endObject();
+	}
+
+	private void readElementField(JsonStreamReader reader, Element element, String fieldName) {
+		switch (fieldName) {
+			case "name":
+				element.name = reader.nextString();
+				break;
+			case "value":
+				element.value = reader.nextString();
+				break;
+			case "repeatId":
+				element.repeatId = reader.nextString();
+				break;
+			case "attributes":
+				readAttributes(reader, element);
+				break;
+			case "children":
+				readChildren(reader, element);
+				break;
+			default:
+				reader.skipValue();
+		}
+	}
+
+	private void readAttributes(JsonStreamReader reader, Element element) {
+		element.attributes = new ArrayList<>();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			element.attributes.add(new GroupContent.Attribute(name, reader.nextString()));
+		}
+		reader.endObject();
+	}
+
+	private void readChildren(JsonStreamReader reader, Element element) {
+		element.children = new ArrayList<>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			Element childElement = readElement(reader);
+			element.addChild(childElement, createChild(childElement));
+		}
+		reader.endArray();
+	}
+
+	private DataChild createChild(Element element) {
+		if (element.value != null) {
+			return createAtomic(element);
+		}
+		if (element.isLink()) {
+			return element.atomicValues.containsKey("mimeType") ? createResourceLink(element)
+					: createRecordLink(element);
+		}
+		return createGroup(element);
+	}
+
+	private DataChild createAtomic(Element element) {
+		DataAtomicSpy atomic = new DataAtomicSpy();
+		SpyAnswers.answerAsChild(atomic, element.name, element.repeatId, element.attributes);
+		String value = element.value;
+		atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return atomic;
+	}
+
+	private DataChild createRecordLink(Element element) {
+		DataRecordLinkSpy recordLink = new DataRecordLinkSpy();
+		SpyAnswers.answerAsChild(recordLink, element.name, element.repeatId, element.attributes);
+		String linkedRecordType = element.atomicValues.get("linkedRecordType");
+		String linkedRecordId = element.atomicValues.get("linkedRecordId");
+		recordLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordType",
+				() -> linkedRecordType);
+		recordLink.MRV.setDefaultReturnValuesSupplier("getLinkedRecordId", () -> linkedRecordId);
+		return recordLink;
+	}
+
+	private DataChild createResourceLink(Element element) {
+		DataResourceLinkSpy resourceLink = new DataResourceLinkSpy();
+		SpyAnswers.answerAsChild(resourceLink, element.name, element.repeatId,
+				element.attributes);
+		String type = element.atomicValues.get("linkedRecordType");
+		String id = element.atomicValues.get("linkedRecordId");
+		String mimeType = element.atomicValues.get("mimeType");
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getType", () -> type);
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getId", () -> id);
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getMimeType", () -> mimeType);
+		return resourceLink;
+	}
+
+	private DataGroup createGroup(Element element) {
+		if (loadFakes) {
+			DataGroupFake group = DataGroupFake.withNameInData(element.name);
+			if (element.repeatId != null) {
+				group.setRepeatId(element.repeatId);
+			}
+			addAttributesAndChildren(group::addAttributeByIdWithValue, group::addChild, element);
+			return group;
+		}
+		DataGroupSpy group = new DataGroupSpy();
+		SpyAnswers.answerAsChild(group, element.name, element.repeatId, element.attributes);
+		answerWithChildren(group, element.children);
+		return group;
+	}
+
+	private void addAttributesAndChildren(AttributeAdder attributeAdder,
+			Consumer<DataChild> childAdder, Element element) {
+		for (DataAttribute attribute : element.attributes) {
+			attributeAdder.add(attribute.getNameInData(), attribute.getValue());
+		}
+		for (DataChild child : element.children) {
+			childAdder.accept(child);
+		}
+	}
+
+	private void answerWithChildren(AbstractSpy spy, List<DataChild> children) {
+		spy.MRV.setDefaultReturnValuesSupplier("getChildren", () -> children);
+		spy.MRV.setDefaultReturnValuesSupplier("hasChildren", () -> !children.isEmpty());
+		Map<String, List<DataChild>> byNameInData = new HashMap<>();
+		for (DataChild child : children) {
+			byNameInData.computeIfAbsent(child.getNameInData(), name -> new ArrayList<>())
+					.add(child);
+		}
+		for (Map.Entry<String, List<DataChild>> entry : byNameInData.entrySet()) {
+			answerWithChildrenNamed(spy, entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void answerWithChildrenNamed(AbstractSpy spy, String name, List<DataChild> named) {
+		spy.MRV.setSpecificReturnValuesSupplier("containsChildWithNameInData", () -> true, name);
+		spy.MRV.setSpecificReturnValuesSupplier("getFirstChildWithNameInData", () -> named.get(0),
+				name);
+		spy.MRV.setSpecificReturnValuesSupplier("getAllChildrenWithNameInData", () -> named,
+				name);
+		List<DataAtomic> atomics = ofType(DataAtomic.class, named);
+		if (!atomics.isEmpty()) {
+			String firstValue = atomics.get(0).getValue();
+			spy.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+					() -> firstValue, name);
+			spy.MRV.setSpecificReturnValuesSupplier("getFirstDataAtomicWithNameInData",
+					() -> atomics.get(0), name);
+			spy.MRV.setSpecificReturnValuesSupplier("getAllDataAtomicsWithNameInData",
+					() -> atomics, name);
+		}
+		List<DataGroup> groups = ofType(DataGroup.class, named);
+		if (!groups.isEmpty()) {
+			spy.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+					() -> groups.get(0), name);
+			spy.MRV.setSpecificReturnValuesSupplier("getAllGroupsWithNameInData", () -> groups,
+					name);
+		}
+	}
+
+	private <T> List<T> ofType(Class<T> type, List<DataChild> children) {
+		List<T> childrenOfType = new ArrayList<>();
+		for (DataChild child : children) {
+			if (type.isInstance(child)) {
+				childrenOfType.add(type.cast(child));
+			}
+		}
+		return childrenOfType;
+	}
+
+	private DataRecordGroup createRecordGroup(Element element) {
+		RecordInfo recordInfo = new RecordInfo(element.recordInfo);
+		if (loadFakes) {
+			return createRecordGroupFake(element, recordInfo);
+		}
+		DataRecordGroupSpy recordGroup = new DataRecordGroupSpy();
+		String nameInData = element.name;
+		recordGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		SpyAnswers.answerWithAttributes(recordGroup, element.attributes);
+		answerWithChildren(recordGroup, element.children);
+		recordInfo.answerFrom(recordGroup);
+		return recordGroup;
+	}
+
+	private DataRecordGroup createRecordGroupFake(Element element, RecordInfo recordInfo) {
+		DataRecordGroupFake recordGroup = DataRecordGroupFake.withNameInData(element.name);
+		Element withoutRecordInfo = element.withoutChild(element.recordInfoChild);
+		addAttributesAndChildren(recordGroup::addAttributeByIdWithValue, recordGroup::addChild,
+				withoutRecordInfo);
+		recordInfo.setIn(recordGroup);
+		return recordGroup;
+	}
+
+	@FunctionalInterface
+	private interface AttributeAdder {
+		void add(String nameInData, String value);
+	}
+
+	/**
+	 * Element holds the fields read for one element of the data, until the element has been read
+	 * to its end and can be built. Only the direct children of the element are kept, as built
+	 * data, together with the values of its atomic children and the linked ids of its link
+	 * children, which are needed to tell links from groups and to read record info.
+	 */
+	private static final class Element {
+		private String name;
+		private String value;
+		private String repeatId;
+		private List<DataAttribute> attributes = Collections.emptyList();
+		private List<DataChild> children = Collections.emptyList();
+		private final Map<String, String> atomicValues = new HashMap<>();
+		private final Map<String, String> linkedRecordIds = new HashMap<>();
+		private final List<DataChild> updated = new ArrayList<>();
+		private Element recordInfo;
+		private DataChild recordInfoChild;
+		private Element latestUpdated;
+
+		void addChild(Element childElement, DataChild child) {
+			children.add(child);
+			if (childElement.value != null) {
+				atomicValues.putIfAbsent(childElement.name, childElement.value);
+			} else if (childElement.isLink()) {
+				linkedRecordIds.putIfAbsent(childElement.name,
+						childElement.atomicValues.get("linkedRecordId"));
+			} else if ("recordInfo".equals(childElement.name)) {
+				recordInfo = childElement;
+				recordInfoChild = child;
+			} else if ("updated".equals(childElement.name)) {
+				updated.add(child);
+				latestUpdated = childElement;
+			}
+		}
+
+		boolean isLink() {
+			return atomicValues.containsKey("linkedRecordType")
+					&& atomicValues.containsKey("linkedRecordId");
+		}
+
+		Element withoutChild(DataChild child) {
+			if (child == null) {
+				return this;
+			}
+			Element copy = new Element();
+			copy.attributes = attributes;
+			copy.children = new ArrayList<>(children);
+			copy.children.remove(child);
+			return copy;
+		}
+	}
+
+	/**
+	 * RecordInfo holds the record info read from the recordInfo group of a record group.
+	 */
+	private static final class RecordInfo {
+		private final Element recordInfo;
+		private final Element latestUpdated;
+
+		RecordInfo(Element recordInfo) {
+			this.recordInfo = recordInfo == null ? new Element() : recordInfo;
+			latestUpdated = this.recordInfo.latestUpdated == null ? new Element()
+					: this.recordInfo.latestUpdated;
+		}
+
+		private String link(String name) {
+			return recordInfo.linkedRecordIds.get(name);
+		}
+
+		private String atomic(String name) {
+			return recordInfo.atomicValues.get(name);
+		}
+
+		void answerFrom(DataRecordGroupSpy recordGroup) {
+			answer(recordGroup, "getType", link("type"));
+			answer(recordGroup, "getId", atomic("id"));
+			answer(recordGroup, "getDataDivider", link("dataDivider"));
+			answer(recordGroup, "getValidationType", link("validationType"));
+			answer(recordGroup, "getCreatedBy", link("createdBy"));
+			answer(recordGroup, "getTsCreated", atomic("tsCreated"));
+			answer(recordGroup, "getLatestUpdatedBy",
+					latestUpdated.linkedRecordIds.get("updatedBy"));
+			answer(recordGroup, "getLatestTsUpdated", latestUpdated.atomicValues.get("tsUpdated"));
+			List<DataChild> allUpdated = recordInfo.updated;
+			recordGroup.MRV.setDefaultReturnValuesSupplier("getAllUpdated", () -> allUpdated);
+			answer(recordGroup, "getVisibility", Optional.ofNullable(atomic("visibility")));
+			answer(recordGroup, "getTsVisibility", Optional.ofNullable(atomic("tsVisibility")));
+			answer(recordGroup, "isInTrashBin", inTrashBin());
+			answer(recordGroup, "getPermissionUnit", Optional.ofNullable(link("permissionUnit")));
+		}
+
+		private Optional<Boolean> inTrashBin() {
+			return Optional.ofNullable(atomic("inTrashBin")).map(Boolean::valueOf);
+		}
+
+		private void answer(DataRecordGroupSpy recordGroup, String methodName, Object value) {
+			if (value != null) {
+				recordGroup.MRV.setDefaultReturnValuesSupplier(methodName, () -> value);
+			}
+		}
+
+		void setIn(DataRecordGroupFake recordGroup) {
+			recordGroup.setType(link("type"));
+			recordGroup.setId(atomic("id"));
+			recordGroup.setDataDivider(link("dataDivider"));
+			recordGroup.setValidationType(link("validationType"));
+			recordGroup.setCreatedBy(link("createdBy"));
+			recordGroup.setTsCreated(atomic("tsCreated"));
+			recordGroup.setAllUpdated(recordInfo.updated);
+			recordGroup.setVisibility(atomic("visibility"));
+			recordGroup.setTsVisibility(atomic("tsVisibility"));
+			inTrashBin().ifPresent(recordGroup::setInTrashBin);
+			recordGroup.setPermissionUnit(link("permissionUnit"));
+		}
+	}
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.regex.Pattern;
+
+/**
+ * JsonStreamReader reads JSON one token at a time from a {@link Reader}, without building a tree
+ * of the document, so that documents of any size can be read using a fixed amount of memory. It
+ * is a pull reader in the style of the streaming readers of the common JSON libraries, values are
+ * read using {@link #beginObject()}, {@link #nextName()}, {@link #nextString()} and so on, in the
+ * order they appear in the document.
+ * <p>
+ * Numbers, booleans and null are read as their text using {@link #nextString()}, as the Cora data
+ * format keeps all values as strings, but only the literals allowed by JSON are accepted.
+ * Malformed documents, such as bare words, misplaced commas or unescaped control characters in
+ * strings, are reported using IllegalArgumentException with the position in the document, and
+ * read errors using UncheckedIOException.
+ */
+final class JsonStreamReader {
+	enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, LITERAL, END_DOCUMENT
+	}
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int NONEMPTY_OBJECT = 3;
+	private static final int DANGLING_NAME = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+	private static final int END_OF_INPUT = -1;
+	private static final Pattern VALID_LITERAL = Pattern
+			.compile("true|false|null|-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+	private final Reader reader;
+	private final char[] buffer = new char[8192];
+	private int position;
+	private int limit;
+	private long offset;
+	private int[] stack = new int[32];
+	private int stackSize;
+	private Token peeked;
+	private final StringBuilder text = new StringBuilder();
+
+	JsonStreamReader(Reader reader) {
+		this.reader = reader;
+		stack[stackSize++] = EMPTY_DOCUMENT;
+	}
+
+	Token peek() {
+		if (peeked == null) {
+			peeked = readToken();
+		}
+		return peeked;
+	}
+
+	private Token readToken() {
+		int context = stack[stackSize - 1];
+		if (context == EMPTY_ARRAY || context == NONEMPTY_ARRAY) {
+			return readTokenInArray(context);
+		}
+		if (context == EMPTY_OBJECT || context == NONEMPTY_OBJECT) {
+			return readTokenInObject(context);
+		}
+		if (context == DANGLING_NAME) {
+			stack[stackSize - 1] = NONEMPTY_OBJECT;
+			expect(':');
+			return readValue(nextNonWhitespace());
+		}
+		if (context == EMPTY_DOCUMENT) {
+			stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+			return readValue(nextNonWhitespace());
+		}
+		int c = nextNonWhitespace();
+		if (c != END_OF_INPUT) {
+			throw malformed("expected end of document");
+		}
+		return Token.END_DOCUMENT;
+	}
+
+	private Token readTokenInArray(int context) {
+		stack[stackSize - 1] = NONEMPTY_ARRAY;
+		int c = nextNonWhitespace();
+		if (c == ']') {
+			return Token.END_ARRAY;
+		}
+		if (context == NONEMPTY_ARRAY) {
+			if (c != ',') {
+				throw malformed("expected , or ]");
+			}
+			c = nextNonWhitespace();
+		}
+		return readValue(c);
+	}
+
+	private Token readTokenInObject(int context) {
+		int c = nextNonWhitespace();
+		if (c == '}') {
+			return Token.END_OBJECT;
+		}
+		if (context == NONEMPTY_OBJECT) {
+			if (c != ',') {
+				throw malformed("expected , or }");
+			}
+			c = nextNonWhitespace();
+		}
+		if (c != '"') {
+			throw malformed("expected name");
+		}
+		readString();
+		stack[stackSize - 1] = DANGLING_NAME;
+		return Token.NAME;
+	}
+
+	private Token readValue(int c) {
+		if (c == '{') {
+			push(EMPTY_OBJECT);
+			return Token.BEGIN_OBJECT;
+		}
+		if (c == '[') {
+			push(EMPTY_ARRAY);
+			return Token.BEGIN_ARRAY;
+		}
+		if (c == '"') {
+			readString();
+			return Token.STRING;
+		}
+		if (c == END_OF_INPUT) {
+			throw malformed("unexpected end of document");
+		}
+		if (isDelimiter(c)) {
+			throw malformed("expected value");
+		}
+		readLiteral((char) c);
+		return Token.LITERAL;
+	}
+
+	private void push(int context) {
+		if (stackSize == stack.length) {
+			int[] larger = new int[stack.length * 2];
+			System.arraycopy(stack, 0, larger, 0, stackSize);
+			stack = larger;
+		}
+		stack[stackSize++] = context;
+	}
+
+	private void readString() {
+		text.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				return;
+			}
+			if (c == END_OF_INPUT) {
+				throw malformed("unterminated string");
+			}
+			if (c < ' ') {
+				throw malformed("unescaped control character in string");
+			}
+			if (c == '\\') {
+				text.append(readEscaped());
+			} else {
+				text.append((char) c);
+			}
+		}
+	}
+
+	private char readEscaped() {
+		int c = read();
+		switch (c) {
+			case '"', '\\', '/':
+				return (char) c;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				return readUnicodeEscape();
+			default:
+				throw malformed("invalid escape sequence");
+		}
+	}
+
+	private char readUnicodeEscape() {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int digit = Character.digit(read(), 16);
+			if (digit < 0) {
+				throw malformed("invalid unicode escape");
+			}
+			value = value * 16 + digit;
+		}
+		return (char) value;
+	}
+
+	private void readLiteral(char first) {
+		text.setLength(0);
+		text.append(first);
+		while (true) {
+			int c = read();
+			if (c == END_OF_INPUT || isDelimiter(c)) {
+				unread(c);
+				ensureValidLiteral();
+				return;
+			}
+			text.append((char) c);
+		}
+	}
+
+	private void ensureValidLiteral() {
+		if (!VALID_LITERAL.matcher(text).matches()) {
+			throw malformedAt(offset - text.length() + 1,
+					"expected value but was " + text);
+		}
+	}
+
+	private boolean isDelimiter(int c) {
+		return c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c);
+	}
+
+	private void expect(char expected) {
+		if (nextNonWhitespace() != expected) {
+			throw malformed("expected " + expected);
+		}
+	}
+
+	private int nextNonWhitespace() {
+		int c = read();
+		while (c != END_OF_INPUT && Character.isWhitespace(c)) {
+			c = read();
+		}
+		return c;
+	}
+
+	private int read() {
+		if (position == limit && !fillBuffer()) {
+			return END_OF_INPUT;
+		}
+		offset++;
+		return buffer[position++];
+	}
+
+	private void unread(int c) {
+		if (c != END_OF_INPUT) {
+			position--;
+			offset--;
+		}
+	}
+
+	private boolean fillBuffer() {
+		try {
+			int read = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			limit = Math.max(read, 0);
+			return read > 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private IllegalArgumentException malformed(String problem) {
+		return malformedAt(offset, problem);
+	}
+
+	private IllegalArgumentException malformedAt(long at, String problem) {
+		return new IllegalArgumentException("Malformed JSON at character " + at + ": " + problem);
+	}
+
+	void beginObject() {
+		consume(Token.BEGIN_OBJECT);
+	}
+
+	void endObject() {
+		consume(Token.END_OBJECT);
+		stackSize--;
+	}
+
+	void beginArray() {
+		consume(Token.BEGIN_ARRAY);
+	}
+
+	void endArray() {
+		consume(Token.END_ARRAY);
+		stackSize--;
+	}
+
+	/**
+	 * endDocument makes sure nothing but whitespace follows the value that has been read.
+	 */
+	void endDocument() {
+		consume(Token.END_DOCUMENT);
+	}
+
+	/**
+	 * hasNext tells if the current object or array has more names or values.
+	 */
+	boolean hasNext() {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY
+				&& token != Token.END_DOCUMENT;
+	}
+
+	String nextName() {
+		consume(Token.NAME);
+		return text.toString();
+	}
+
+	String nextString() {
+		Token token = peek();
+		if (token != Token.STRING && token != Token.LITERAL) {
+			throw malformed("expected a string but was " + token);
+		}
+		peeked = null;
+		return text.toString();
+	}
+
+	/**
+	 * skipValue skips the next value, including all values nested in it.
+	 */
+	void skipValue() {
+		int depth = 0;
+		do {
+			Token token = peek();
+			peeked = null;
+			if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+				depth++;
+			} else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+				stackSize--;
+				depth--;
+			}
+		} while (depth > 0);
+	}
+
+	private void consume(Token expected) {
+		Token token = peek();
+		if (token != expected) {
+			throw malformed("expected " + expected + " but was " + token);
+		}
+		peeked = null;
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+/**
+ * LazyMethodReturnValues is a {@link MethodReturnValues} that holds on to a spy class shared table
+ * of default return values and only installs the default for a method the first time that method
+ * is called. A default set by a test always wins over the one from the shared table, whenever it
+ * is set.
+ * <p>
+ * When memoizing, the first value returned from a shared default for a method and set of
+ * parameter values is kept and returned for later calls with equal parameter values, instead of
+ * asking the default supplier for a new value each time. Spies returned from memoized defaults are
+ * memoizing as well, so that a whole graph of spies reached through defaults stays the same.
+ * <p>
+ * Calls to methods the test has not set any return values for are answered straight from the
+ * installed shared default, see {@link #answer(String, int, Object, Object, Object, Object)}, so
+ * that answering them neither creates an array of parameter values nor looks them up in MRV.
+ */
+final class LazyMethodReturnValues extends MethodReturnValues {
+	private static final Object[] NO_VALUES = new Object[0];
+	private final Map<String, Supplier<?>> defaultReturnValues;
+	private Set<String> handledMethods;
+	private Set<String> methodsUsingSharedDefault;
+	private Map<String, Map<MemoKey, Object>> memoizedDefaults;
+	private ParameterValues parameterValues;
+	private Set<String> methodsSetByTest;
+	private volatile Map<String, Supplier<?>> answeringDefaults;
+
+	LazyMethodReturnValues(Map<String, Supplier<?>> defaultReturnValues) {
+		this.defaultReturnValues = defaultReturnValues;
+	}
+
+	void ensureDefaultInstalled(String methodName) {
+		if (firstTimeHandled(methodName)) {
+			Supplier<?> supplier = defaultReturnValues.get(methodName);
+			if (supplier != null) {
+				installSharedDefault(methodName, supplier);
+			}
+		}
+	}
+
+	private void installSharedDefault(String methodName, Supplier<?> supplier) {
+		Supplier<?> installedSupplier = supplier;
+		if (memoizedDefaults != null) {
+			installedSupplier = () -> memoizedDefault(methodName, supplier);
+		}
+		super.setDefaultReturnValuesSupplier(methodName, installedSupplier);
+		if (methodsSetByTest == null || !methodsSetByTest.contains(methodName)) {
+			answerFromDefault(methodName, installedSupplier);
+		}
+		if (methodsUsingSharedDefault == null) {
+			methodsUsingSharedDefault = new HashSet<>();
+		}
+		methodsUsingSharedDefault.add(methodName);
+	}
+
+	private void answerFromDefault(String methodName, Supplier<?> supplier) {
+		if (answeringDefaults == null) {
+			answeringDefaults = new ConcurrentHashMap<>();
+		}
+		answeringDefaults.put(methodName, supplier);
+	}
+
+	private Object memoizedDefault(String methodName, Supplier<?> supplier) {
+		Map<MemoKey, Object> memoizedForMethod = memoizedDefaults
+				.computeIfAbsent(methodName, name -> new HashMap<>());
+		return memoizedForMethod.computeIfAbsent(parameterValues.toKey(),
+				key -> createMemoizedValue(supplier));
+	}
+
+	private Object createMemoizedValue(Supplier<?> supplier) {
+		Object value = supplier.get();
+		if (value instanceof AbstractSpy spy) {
+			spy.memoizeDefaultReturnValues();
+		}
+		return value;
+	}
+
+	/**
+	 * memoizeDefaults makes shared defaults, already installed or not, memoizing.
+	 */
+	void memoizeDefaults() {
+		if (memoizedDefaults != null) {
+			return;
+		}
+		memoizedDefaults = new HashMap<>();
+		parameterValues = new ParameterValues();
+		if (methodsUsingSharedDefault != null) {
+			for (String methodName : methodsUsingSharedDefault) {
+				installSharedDefault(methodName, defaultReturnValues.get(methodName));
+			}
+		}
+	}
+
+	/**
+	 * useParameterValues sets the parameter values of the call about to ask this MRV for a return
+	 * value, used as key for memoized defaults. Values are only kept when memoizing, and values
+	 * after numberOfValues are ignored.
+	 */
+	void useParameterValues(int numberOfValues, Object value1, Object value2, Object value3,
+			Object value4) {
+		if (parameterValues != null) {
+			parameterValues.set(numberOfValues, value1, value2, value3, value4);
+		}
+	}
+
+	/**
+	 * installAllDefaults installs the defaults for all methods not yet handled at once, so that
+	 * calls made after it only read from this MRV.
+	 */
+	void installAllDefaults() {
+		for (String methodName : defaultReturnValues.keySet()) {
+			ensureDefaultInstalled(methodName);
+		}
+	}
+
+	private boolean firstTimeHandled(String methodName) {
+		if (handledMethods == null) {
+			handledMethods = new HashSet<>();
+		}
+		return handledMethods.add(methodName);
+	}
+
+	/**
+	 * answer returns the value for a call to the named method. When the test has not set any
+	 * return values for the method, the installed shared default answers directly, otherwise the
+	 * call is answered by {@link #getReturnValue(String, Object...)} with the parameter values,
+	 * under the lock of this MRV, also taken by the methods setting return values. Answering can
+	 * therefore be done from many threads at the same time.
+	 */
+	Object answer(String methodName, int numberOfValues, Object value1, Object value2,
+			Object value3, Object value4) {
+		Map<String, Supplier<?>> defaults = answeringDefaults;
+		if (defaults != null) {
+			Supplier<?> supplier = defaults.get(methodName);
+			if (supplier != null) {
+				return supplier.get();
+			}
+		}
+		synchronized (this) {
+			return getReturnValue(methodName,
+					parameterValues(numberOfValues, value1, value2, value3, value4));
+		}
+	}
+
+	/**
+	 * parameterValues returns the first numberOfValues values as an array, to pass to
+	 * {@link #getReturnValue(String, Object...)}.
+	 */
+	static Object[] parameterValues(int numberOfValues, Object value1, Object value2,
+			Object value3, Object value4) {
+		if (numberOfValues == 0) {
+			return NO_VALUES;
+		}
+		return Arrays.copyOf(new Object[] { value1, value2, value3, value4 }, numberOfValues);
+	}
+
+	private void setByTest(String methodName) {
+		if (methodsSetByTest == null) {
+			methodsSetByTest = new HashSet<>();
+		}
+		methodsSetByTest.add(methodName);
+		if (answeringDefaults != null) {
+			answeringDefaults.remove(methodName);
+		}
+	}
+
+	@Override
+	public synchronized void setDefaultReturnValuesSupplier(String methodName,
+			Supplier<? extends Object> supplier) {
+		setByTest(methodName);
+		firstTimeHandled(methodName);
+		if (methodsUsingSharedDefault != null) {
+			methodsUsingSharedDefault.remove(methodName);
+		}
+		super.setDefaultReturnValuesSupplier(methodName, supplier);
+	}
+
+	@Override
+	public synchronized void setSpecificReturnValuesSupplier(String methodName,
+			Supplier<? extends Object> supplier, Object... parameterValues) {
+		setByTest(methodName);
+		super.setSpecificReturnValuesSupplier(methodName, supplier, parameterValues);
+	}
+
+	@Override
+	public synchronized void setReturnValues(String methodName, List<Object> returnValues,
+			Object... parameterValues) {
+		setByTest(methodName);
+		super.setReturnValues(methodName, returnValues, parameterValues);
+	}
+
+	@Override
+	public synchronized void setAlwaysThrowException(String methodName,
+			RuntimeException returnException) {
+		setByTest(methodName);
+		super.setAlwaysThrowException(methodName, returnException);
+	}
+
+	@Override
+	public synchronized void setThrowException(String methodName,
+			RuntimeException returnException, Object... parameterValues) {
+		setByTest(methodName);
+		super.setThrowException(methodName, returnException, parameterValues);
+	}
+
+	private static final class ParameterValues {
+		private int numberOfValues;
+		private Object value1;
+		private Object value2;
+		private Object value3;
+		private Object value4;
+
+		void set(int numberOfValues, Object value1, Object value2, Object value3,
+				Object value4) {
+			this.numberOfValues = numberOfValues;
+			this.value1 = value1;
+			this.value2 = value2;
+			this.value3 = value3;
+			this.value4 = value4;
+		}
+
+		MemoKey toKey() {
+			Object[] values = { value1, value2, value3, value4 };
+			return new MemoKey(Arrays.copyOf(values, numberOfValues));
+		}
+	}
+
+	/**
+	 * MemoKey compares parameter values deeply, so that parameter values that are arrays, such as
+	 * varargs, with equal content give the same memoized value.
+	 */
+	private static final class MemoKey {
+		private final Object[] values;
+		private final int hashCode;
+
+		MemoKey(Object[] values) {
+			this.values = values;
+			this.hashCode = Arrays.deepHashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof MemoKey otherKey
+					&& Arrays.deepEquals(values, otherKey.values);
+		}
+	}
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import se.uu.ub.cora.data.DataRecord;
+
+/**
+ * MappedDataListFile is a list of records kept in a memory mapped file, for replaying search
+ * results too big to be kept on the heap. The file is written once from a list in the Cora JSON
+ * format using {@link #writeFromJsonList(Reader, Path)}, and opened using
+ * {@link #open(Path, JsonDataLoader)}. Records are decoded by the loader when they are read,
+ * straight from the mapped file without copying the record to the heap first.
+ * <p>
+ * The file holds each record as compact JSON, without whitespace, followed by an index holding
+ * the offset of each record, so that reading any record takes the same time whatever its number.
+ * Files bigger than what can be mapped at once are mapped in several parts, each part starting at
+ * a record, and the index is mapped in parts of the same size.
+ * <p>
+ * The file is mapped when opened and the file itself is closed right away, the mapping is
+ * released when the MappedDataListFile is garbage collected.
+ */
+public final class MappedDataListFile {
+	/**
+	 * MAX_NUMBER_OF_RECORDS is the number of records a file can hold, limited by the offsets of
+	 * the records being kept in one array while the file is written.
+	 */
+	public static final int MAX_NUMBER_OF_RECORDS = Integer.MAX_VALUE - 9;
+	private static final int MAGIC = 0x43444c46;
+	private static final int HEADER_SIZE = Integer.BYTES;
+	private static final int TRAILER_SIZE = 2 * Long.BYTES;
+	private static final long MAX_PART_SIZE = Integer.MAX_VALUE;
+	private final JsonDataLoader loader;
+	private final long totalNo;
+	private final String containDataOfType;
+	private final LongBuffer[] indexParts;
+	private final int offsetsPerIndexPart;
+	private final long[] partStarts;
+	private final MappedByteBuffer[] parts;
+
+	/**
+	 * writeFromJsonList writes the records in a list in the Cora JSON format to a file that can be
+	 * opened using {@link #open(Path, JsonDataLoader)}. The list is read in one pass and only the
+	 * offsets of the records are kept in memory, eight bytes per record, so lists of up to
+	 * {@value #MAX_NUMBER_OF_RECORDS} records can be written.
+	 *
+	 * @return the number of records written
+	 * @throws IllegalStateException
+	 *             if the list holds more than {@value #MAX_NUMBER_OF_RECORDS} records, the file is
+	 *             then left incomplete
+	 */
+	public static long writeFromJsonList(Reader jsonList, Path file) {
+		return writeFromJsonList(jsonList, file, MAX_NUMBER_OF_RECORDS);
+	}
+
+	static long writeFromJsonList(Reader jsonList, Path file, int maxNumberOfRecords) {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			RecordFileWriter writer = new RecordFileWriter(
+					new DataOutputStream(new BufferedOutputStream(out)), maxNumberOfRecords);
+			writer.write(new JsonStreamReader(jsonList));
+			return writer.numberOfRecords();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * open maps a file written using {@link #writeFromJsonList(Reader, Path)}, records read from
+	 * it are decoded using the given loader.
+	 * <p>
+	 * Opening reads every offset in the index once, to check the size of each record and find
+	 * where each mapped part of the file starts, so it takes time in proportion to the number of
+	 * records, and reads the whole index from disk if it is not in the page cache. Reading a
+	 * record after that takes the same time whatever its number.
+	 */
+	public static MappedDataListFile open(Path file, JsonDataLoader loader) {
+		return open(file, loader, MAX_PART_SIZE);
+	}
+
+	static MappedDataListFile open(Path file, JsonDataLoader loader, long maxPartSize) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new MappedDataListFile(channel, loader, maxPartSize);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private MappedDataListFile(FileChannel channel, JsonDataLoader loader, long maxPartSize)
+			throws IOException {
+		this.loader = loader;
+		long size = channel.size();
+		ensureIsRecordFile(channel, size);
+		ByteBuffer trailer = channel.map(MapMode.READ_ONLY, size - TRAILER_SIZE, TRAILER_SIZE);
+		long indexPosition = trailer.getLong();
+		totalNo = trailer.getLong();
+		long indexSize = (totalNo + 1) * Long.BYTES;
+		offsetsPerIndexPart = (int) (maxPartSize / Long.BYTES);
+		indexParts = mapIndex(channel, indexPosition, totalNo + 1);
+		long typePosition = indexPosition + indexSize;
+		ByteBuffer type = channel.map(MapMode.READ_ONLY, typePosition,
+				size - TRAILER_SIZE - typePosition);
+		containDataOfType = StandardCharsets.UTF_8.decode(type).toString();
+		List<Long> starts = findPartStarts(maxPartSize);
+		partStarts = starts.stream().mapToLong(Long::longValue).toArray();
+		parts = new MappedByteBuffer[partStarts.length];
+		for (int i = 0; i < partStarts.length; i++) {
+			long partEnd = i + 1 < partStarts.length ? partStarts[i + 1] : indexPosition;
+			parts[i] = channel.map(MapMode.READ_ONLY, partStarts[i], partEnd - partStarts[i]);
+		}
+	}
+
+	private void ensureIsRecordFile(FileChannel channel, long size) throws IOException {
+		if (size < HEADER_SIZE + TRAILER_SIZE
+				|| channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE).getInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a mapped data list file");
+		}
+	}
+
+	private LongBuffer[] mapIndex(FileChannel channel, long indexPosition, long numberOfOffsets)
+			throws IOException {
+		int numberOfParts = (int) ((numberOfOffsets + offsetsPerIndexPart - 1)
+				/ offsetsPerIndexPart);
+		LongBuffer[] mappedParts = new LongBuffer[numberOfParts];
+		for (int i = 0; i < numberOfParts; i++) {
+			long firstOffset = (long) i * offsetsPerIndexPart;
+			long offsetsInPart = Math.min(offsetsPerIndexPart, numberOfOffsets - firstOffset);
+			mappedParts[i] = channel.map(MapMode.READ_ONLY,
+					indexPosition + firstOffset * Long.BYTES, offsetsInPart * Long.BYTES)
+					.asLongBuffer();
+		}
+		return mappedParts;
+	}
+
+	private long offsetOf(long offsetNumber) {
+		return indexParts[(int) (offsetNumber / offsetsPerIndexPart)]
+				.get((int) (offsetNumber % offsetsPerIndexPart));
+	}
+
+	private List<Long> findPartStarts(long maxPartSize) {
+		List<Long> starts = new ArrayList<>();
+		long partStart = offsetOf(0);
+		starts.add(partStart);
+		for (long i = 0; i < totalNo; i++) {
+			long recordStart = offsetOf(i);
+			long recordEnd = offsetOf(i + 1);
+			if (recordEnd - recordStart > maxPartSize) {
+				throw new IllegalArgumentException(
+						"Record " + (i + 1) + " is too big to be mapped, "
+								+ (recordEnd - recordStart) + " bytes");
+			}
+			if (recordEnd - partStart > maxPartSize) {
+				partStart = recordStart;
+				starts.add(partStart);
+			}
+		}
+		return starts;
+	}
+
+	public long getTotalNo() {
+		return totalNo;
+	}
+
+	public String getContainDataOfType() {
+		return containDataOfType;
+	}
+
+	/**
+	 * readRecord decodes the record with the given number, counted from one.
+	 */
+	public DataRecord readRecord(long number) {
+		if (number < 1 || number > totalNo) {
+			throw new IndexOutOfBoundsException(
+					"Record number " + number + " out of bounds for total number " + totalNo);
+		}
+		long recordStart = offsetOf(number - 1);
+		long recordEnd = offsetOf(number);
+		int part = partHolding(recordStart);
+		ByteBuffer recordBytes = parts[part].duplicate();
+		recordBytes.limit((int) (recordEnd - partStarts[part]));
+		recordBytes.position((int) (recordStart - partStarts[part]));
+		InputStream recordStream = new ByteBufferInputStream(recordBytes);
+		return loader.loadRecord(new InputStreamReader(recordStream, StandardCharsets.UTF_8));
+	}
+
+	private int partHolding(long offset) {
+		int found = Arrays.binarySearch(partStarts, offset);
+		return found >= 0 ? found : -found - 2;
+	}
+
+	int onlyForTestNumberOfIndexParts() {
+		return indexParts.length;
+	}
+
+	/**
+	 * asDataList returns a {@link DataListFake} whose elements are read from this file when they
+	 * are read from the list, the window of the list can be moved using setFromNo and setToNo.
+	 */
+	public DataListFake asDataList() {
+		return DataListFake.withTotalNoUsingDataForNumber(containDataOfType, totalNo,
+				this::readRecord);
+	}
+
+	/**
+	 * ByteBufferInputStream reads the bytes of a buffer, so that a record can be decoded straight
+	 * from the mapped file.
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int read = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, read);
+			return read;
+		}
+	}
+
+	/**
+	 * RecordFileWriter writes the records of a JSON list as compact JSON, keeping the offset of
+	 * each record for the index written after them. The offsets are kept in a growing array of
+	 * primitive longs, using eight bytes for each record.
+	 */
+	private static final class RecordFileWriter {
+		private final DataOutputStream out;
+		private final int maxNumberOfRecords;
+		private long[] offsets = new long[1024];
+		private int numberOfOffsets;
+		private final StringBuilder json = new StringBuilder();
+		private long position;
+		private String containDataOfType = "";
+
+		RecordFileWriter(DataOutputStream out, int maxNumberOfRecords) {
+			this.out = out;
+			this.maxNumberOfRecords = maxNumberOfRecords;
+		}
+
+		void write(JsonStreamReader reader) throws IOException {
+			out.writeInt(MAGIC);
+			position = HEADER_SIZE;
+			addOffset(position);
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if ("dataList".equals(reader.nextName())) {
+					writeListContent(reader);
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			reader.endDocument();
+			writeIndexAndTrailer();
+		}
+
+		private void writeListContent(JsonStreamReader reader) throws IOException {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String name = reader.nextName();
+				if ("data".equals(name)) {
+					writeRecords(reader);
+				} else if ("containDataOfType".equals(name)) {
+					containDataOfType = reader.nextString();
+				} else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+
+		private void writeRecords(JsonStreamReader reader) throws IOException {
+			reader.beginArray();
+			while (reader.hasNext()) {
+				json.setLength(0);
+				copyValue(reader);
+				byte[] recordBytes = json.toString().getBytes(StandardCharsets.UTF_8);
+				out.write(recordBytes);
+				position += recordBytes.length;
+				addOffset(position);
+			}
+			reader.endArray();
+		}
+
+		private void addOffset(long offset) {
+			if (numberOfOffsets > maxNumberOfRecords) {
+				throw new IllegalStateException("A mapped data list file can hold at most "
+						+ maxNumberOfRecords + " records");
+			}
+			if (numberOfOffsets == offsets.length) {
+				offsets = Arrays.copyOf(offsets,
+						(int) Math.min(2L * offsets.length, MAX_NUMBER_OF_RECORDS + 1L));
+			}
+			offsets[numberOfOffsets++] = offset;
+		}
+
+		long numberOfRecords() {
+			return numberOfOffsets - 1L;
+		}
+
+		private void copyValue(JsonStreamReader reader) {
+			switch (reader.peek()) {
+				case BEGIN_OBJECT -> copyObject(reader);
+				case BEGIN_ARRAY -> copyArray(reader);
+				case STRING -> appendQuoted(reader.nextString());
+				default -> json.append(reader.nextString());
+			}
+		}
+
+		private void copyObject(JsonStreamReader reader) {
+			reader.beginObject();
+			json.append('{');
+			while (reader.hasNext()) {
+				appendQuoted(reader.nextName());
+				json.append(':');
+				copyValue(reader);
+				json.append(reader.hasNext() ? "," : "");
+			}
+			reader.endObject();
+			json.append('}');
+		}
+
+		private void copyArray(JsonStreamReader reader) {
+			reader.beginArray();
+			json.append('[');
+			while (reader.hasNext()) {
+				copyValue(reader);
+				json.append(reader.hasNext() ? "," : "");
+			}
+			reader.endArray();
+			json.append(']');
+		}
+
+		private void appendQuoted(String text) {
+			json.append('"');
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '"' || c == '\\') {
+					json.append('\\').append(c);
+				} else if (c < 0x20) {
+					json.append(String.format("\\u%04x", (int) c));
+				} else {
+					json.append(c);
+				}
+			}
+			json.append('"');
+		}
+
+		private void writeIndexAndTrailer() throws IOException {
+			long indexPosition = position;
+			for (int i = 0; i < numberOfOffsets; i++) {
+				out.writeLong(offsets[i]);
+			}
+			out.write(containDataOfType.getBytes(StandardCharsets.UTF_8));
+			out.writeLong(indexPosition);
+			out.writeLong(numberOfRecords());
+			out.flush();
+		}
+	}
+}
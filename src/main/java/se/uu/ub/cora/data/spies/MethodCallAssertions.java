@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * MethodCallAssertions implements the queries and assertions of MCR on top of the calls kept by a
+ * {@link SpyMethodCallRecorder}, it is the one implementation all recorders delegate to.
+ * Assertions pass and fail as they do in the MCR of testutils: calls are numbered per method
+ * name from zero, whatever parameters they were made with, parameter values are compared in the
+ * order of the parameters, and values such as strings and numbers are compared using equals
+ * while other objects must be the same instance, unless asserted as equal. Failing assertions
+ * throw an AssertionError with a message describing the call.
+ */
+final class MethodCallAssertions {
+	private final SpyMethodCallRecorder recorder;
+
+	MethodCallAssertions(SpyMethodCallRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	int getNumberOfCallsToMethod(String methodName) {
+		return (int) Math.min(recorder.numberOfCalls(methodName), Integer.MAX_VALUE);
+	}
+
+	boolean methodWasCalled(String methodName) {
+		return recorder.numberOfCalls(methodName) > 0;
+	}
+
+	void assertNumberOfCallsToMethod(String methodName, int expectedNumberOfCalls) {
+		int numberOfCalls = getNumberOfCallsToMethod(methodName);
+		if (numberOfCalls != expectedNumberOfCalls) {
+			throw new AssertionError("Method " + methodName + " was called " + numberOfCalls
+					+ " times, expected " + expectedNumberOfCalls);
+		}
+	}
+
+	void assertMethodWasCalled(String methodName) {
+		if (!methodWasCalled(methodName)) {
+			throw new AssertionError("Method " + methodName + " was not called");
+		}
+	}
+
+	void assertMethodNotCalled(String methodName) {
+		if (methodWasCalled(methodName)) {
+			throw new AssertionError("Method " + methodName + " was called");
+		}
+	}
+
+	Object getValueForMethodNameAndCallNumberAndParameterName(String methodName, int callNumber,
+			String parameterName) {
+		return call(methodName, callNumber).parameterValue(parameterName);
+	}
+
+	Object getParameterForMethodAndCallNumberAndParameter(String methodName, int callNumber,
+			String parameterName) {
+		return call(methodName, callNumber).parameterValue(parameterName);
+	}
+
+	Map<String, Object> getParametersForMethodAndCallNumber(String methodName, int callNumber) {
+		return call(methodName, callNumber).parameters();
+	}
+
+	void assertParameter(String methodName, int callNumber, String parameterName,
+			Object expectedValue) {
+		RecordedCall call = call(methodName, callNumber);
+		Object value = call.parameterValue(parameterName);
+		if (!sameValue(value, expectedValue)) {
+			throw parameterError(call, parameterName, value, expectedValue);
+		}
+	}
+
+	void assertParameterAsEqual(String methodName, int callNumber, String parameterName,
+			Object expectedValue) {
+		RecordedCall call = call(methodName, callNumber);
+		Object value = call.parameterValue(parameterName);
+		if (!Objects.deepEquals(value, expectedValue)) {
+			throw parameterError(call, parameterName, value, expectedValue);
+		}
+	}
+
+	private AssertionError parameterError(RecordedCall call, String parameterName, Object value,
+			Object expectedValue) {
+		return new AssertionError("Parameter " + parameterName + " of " + call.describe()
+				+ " was " + deepToString(value) + ", expected " + deepToString(expectedValue));
+	}
+
+	void assertParameters(String methodName, int callNumber, Object... expectedValues) {
+		RecordedCall call = call(methodName, callNumber);
+		if (!hasParameterValues(call, expectedValues, false)) {
+			throw parametersError(call, expectedValues);
+		}
+	}
+
+	void assertParametersAsEqual(String methodName, int callNumber, Object... expectedValues) {
+		RecordedCall call = call(methodName, callNumber);
+		if (!hasParameterValues(call, expectedValues, true)) {
+			throw parametersError(call, expectedValues);
+		}
+	}
+
+	private AssertionError parametersError(RecordedCall call, Object... expectedValues) {
+		return new AssertionError("Parameters of " + call.describe() + " were "
+				+ deepToString(call.parameters().values().toArray()) + ", expected "
+				+ deepToString(expectedValues));
+	}
+
+	void assertCalledParameters(String methodName, Object... expectedValues) {
+		calledWithParameters(methodName, expectedValues);
+	}
+
+	Object assertCalledParametersReturn(String methodName, Object... expectedValues) {
+		return calledWithParameters(methodName, expectedValues).returnValue();
+	}
+
+	private RecordedCall calledWithParameters(String methodName, Object... expectedValues) {
+		recorder.ensureCallsKept();
+		assertMethodWasCalled(methodName);
+		for (RecordedCall call : recorder.keptCalls(methodName)) {
+			if (hasParameterValues(call, expectedValues, false)) {
+				return call;
+			}
+		}
+		throw new AssertionError("Method " + methodName + " was not called with parameters "
+				+ deepToString(expectedValues) + recorder.describeKeptCalls(methodName));
+	}
+
+	/**
+	 * wasCalledWithEqualParameters returns if any of the calls kept for the named method has
+	 * parameter values equal to the expected ones, arrays compared on their content.
+	 */
+	boolean wasCalledWithEqualParameters(String methodName, Object... expectedValues) {
+		recorder.ensureCallsKept();
+		for (RecordedCall call : recorder.keptCalls(methodName)) {
+			if (hasParameterValues(call, expectedValues, true)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasParameterValues(RecordedCall call, Object[] expectedValues,
+			boolean asEqual) {
+		if (call.numberOfParameters() != expectedValues.length) {
+			return false;
+		}
+		for (int i = 0; i < expectedValues.length; i++) {
+			Object value = call.parameterValue(i);
+			boolean matches = asEqual ? Objects.deepEquals(value, expectedValues[i])
+					: sameValue(value, expectedValues[i]);
+			if (!matches) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * sameValue compares values the way MCR does, values such as strings and numbers are compared
+	 * using equals while other objects must be the same instance.
+	 */
+	private static boolean sameValue(Object value, Object expectedValue) {
+		if (isComparedAsValue(expectedValue)) {
+			return expectedValue.equals(value);
+		}
+		return value == expectedValue;
+	}
+
+	private static boolean isComparedAsValue(Object value) {
+		return value instanceof String || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum;
+	}
+
+	private static String deepToString(Object value) {
+		if (value instanceof Object[] values) {
+			return Arrays.deepToString(values);
+		}
+		return String.valueOf(value);
+	}
+
+	Object getReturnValue(String methodName, int callNumber) {
+		return call(methodName, callNumber).returnValue();
+	}
+
+	void assertReturn(String methodName, int callNumber, Object expectedValue) {
+		RecordedCall call = call(methodName, callNumber);
+		Object returnValue = call.returnValue();
+		if (!sameValue(returnValue, expectedValue)) {
+			throw new AssertionError("Return value of " + call.describe() + " was "
+					+ deepToString(returnValue) + ", expected " + deepToString(expectedValue));
+		}
+	}
+
+	private RecordedCall call(String methodName, int callNumber) {
+		recorder.ensureCallsKept();
+		assertMethodWasCalled(methodName);
+		long numberOfCalls = recorder.numberOfCalls(methodName);
+		if (callNumber < 0 || callNumber >= numberOfCalls) {
+			throw new AssertionError("Method " + methodName + " was called " + numberOfCalls
+					+ " times, there is no call number " + callNumber);
+		}
+		return recorder.keptCall(methodName, callNumber);
+	}
+}
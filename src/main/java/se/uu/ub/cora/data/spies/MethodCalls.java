@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * MethodCalls keeps the calls made to one method in columns, one array of parameter values with
+ * the values of each call after each other and one array of returned values, so that recording a
+ * call stores references into arrays that are only reallocated when they grow. With a capacity,
+ * the arrays are a ring buffer keeping the last capacity calls, and never grow.
+ * <p>
+ * Calls are numbered per method name, as in MCR. Calls made with a different list of parameter
+ * names, such as calls to an overloaded method or calls recorded by a subclass with parameters of
+ * its own, are kept as calls with another signature. A MethodCalls is created for the first
+ * signature of a method, and when a call with a new signature is made,
+ * {@link #withSignature(String[])} returns a copy that also keeps the signature of each call.
+ * <p>
+ * Calls are added by one thread at a time, and the number of calls is published after the values
+ * of a call have been stored, so that other threads reading the calls see complete calls.
+ */
+final class MethodCalls {
+	static final int NO_SIGNATURE = -1;
+	private static final int INITIAL_NUMBER_OF_CALLS = 4;
+	private static final VarHandle NUMBER_OF_CALLS;
+	static {
+		try {
+			NUMBER_OF_CALLS = MethodHandles.lookup().findVarHandle(MethodCalls.class,
+					"numberOfCalls", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	private final String methodName;
+	private final String[][] signatures;
+	private final int stride;
+	private final int capacity;
+	private volatile Object[] parameterValues;
+	private volatile Object[] returnValues;
+	private volatile long[] sequenceNumbers;
+	private volatile int[] signatureOfCall;
+	@SuppressWarnings("unused")
+	private long numberOfCalls;
+
+	/**
+	 * @param capacity
+	 *            the number of calls to keep, or 0 to keep all calls
+	 * @param sequenced
+	 *            if a sequence number is kept for each call
+	 */
+	MethodCalls(String methodName, String[] parameterNames, int capacity, boolean sequenced) {
+		this.methodName = methodName;
+		this.signatures = new String[][] { parameterNames };
+		this.stride = parameterNames.length;
+		this.capacity = capacity;
+		int slots = capacity > 0 ? capacity : INITIAL_NUMBER_OF_CALLS;
+		parameterValues = new Object[slots * stride];
+		returnValues = new Object[slots];
+		if (sequenced) {
+			sequenceNumbers = new long[slots];
+		}
+	}
+
+	private MethodCalls(MethodCalls calls, String[] addedSignature) {
+		methodName = calls.methodName;
+		capacity = calls.capacity;
+		int numberOfSignatures = calls.signatures.length;
+		signatures = Arrays.copyOf(calls.signatures, numberOfSignatures + 1);
+		signatures[numberOfSignatures] = addedSignature;
+		stride = Math.max(calls.stride, addedSignature.length);
+		int slots = calls.returnValues.length;
+		parameterValues = new Object[slots * stride];
+		for (int slot = 0; slot < slots; slot++) {
+			System.arraycopy(calls.parameterValues, slot * calls.stride, parameterValues,
+					slot * stride, calls.stride);
+		}
+		returnValues = calls.returnValues.clone();
+		if (calls.sequenceNumbers != null) {
+			sequenceNumbers = calls.sequenceNumbers.clone();
+		}
+		signatureOfCall = calls.signatureOfCall != null ? calls.signatureOfCall.clone()
+				: new int[slots];
+		numberOfCalls = calls.numberOfCalls();
+	}
+
+	static String[] parameterNames(int parameterCount, String name1, String name2, String name3,
+			String name4) {
+		return Arrays.copyOf(new String[] { name1, name2, name3, name4 }, parameterCount);
+	}
+
+	/**
+	 * withSignature returns MethodCalls keeping the calls kept by calls, or no calls if calls is
+	 * null, that can also keep calls with the given parameter names. The added signature is the
+	 * last one, see {@link #lastSignature()}. It is called by the thread recording calls, which
+	 * from then on records calls in the returned MethodCalls.
+	 */
+	static MethodCalls withSignature(MethodCalls calls, String methodName,
+			String[] parameterNames, int capacity, boolean sequenced) {
+		if (calls == null) {
+			return new MethodCalls(methodName, parameterNames, capacity, sequenced);
+		}
+		return new MethodCalls(calls, parameterNames);
+	}
+
+	int lastSignature() {
+		return signatures.length - 1;
+	}
+
+	/**
+	 * signatureOf returns the signature of calls with the given parameter names, or
+	 * {@link #NO_SIGNATURE} if no call with those names has been kept. Names after parameterCount
+	 * are ignored.
+	 */
+	int signatureOf(int parameterCount, String name1, String name2, String name3, String name4) {
+		for (int signature = 0; signature < signatures.length; signature++) {
+			if (hasNames(signatures[signature], parameterCount, name1, name2, name3, name4)) {
+				return signature;
+			}
+		}
+		return NO_SIGNATURE;
+	}
+
+	private static boolean hasNames(String[] names, int parameterCount, String name1,
+			String name2, String name3, String name4) {
+		return names.length == parameterCount && (parameterCount < 1 || sameName(names[0], name1))
+				&& (parameterCount < 2 || sameName(names[1], name2))
+				&& (parameterCount < 3 || sameName(names[2], name3))
+				&& (parameterCount < 4 || sameName(names[3], name4));
+	}
+
+	private static boolean sameName(String name, String otherName) {
+		return name == otherName || name.equals(otherName);
+	}
+
+	int signatureOf(String[] parameterNames) {
+		for (int signature = 0; signature < signatures.length; signature++) {
+			if (Arrays.equals(signatures[signature], parameterNames)) {
+				return signature;
+			}
+		}
+		return NO_SIGNATURE;
+	}
+
+	/**
+	 * add keeps a call with the given signature and returns its call number, used to record the
+	 * value it returns.
+	 */
+	long add(int signature, int parameterCount, Object value1, Object value2, Object value3,
+			Object value4, long sequenceNumber) {
+		long callNumber = (long) NUMBER_OF_CALLS.getOpaque(this);
+		int slot = capacity > 0 ? slot(callNumber) : slotGrowingIfNeeded(callNumber);
+		if (parameterCount > 0) {
+			storeParameterValues(slot * stride, parameterCount, value1, value2, value3, value4);
+		}
+		return publish(callNumber, slot, signature, sequenceNumber);
+	}
+
+	/**
+	 * add keeps a call with the given signature and any number of parameter values, used for
+	 * calls recorded through the methods inherited from MCR.
+	 */
+	long add(int signature, Object[] values, long sequenceNumber) {
+		long callNumber = (long) NUMBER_OF_CALLS.getOpaque(this);
+		int slot = capacity > 0 ? slot(callNumber) : slotGrowingIfNeeded(callNumber);
+		System.arraycopy(values, 0, parameterValues, slot * stride, values.length);
+		return publish(callNumber, slot, signature, sequenceNumber);
+	}
+
+	private long publish(long callNumber, int slot, int signature, long sequenceNumber) {
+		returnValues[slot] = RecordedCall.NOT_RETURNED;
+		if (sequenceNumbers != null) {
+			sequenceNumbers[slot] = sequenceNumber;
+		}
+		if (signatureOfCall != null) {
+			signatureOfCall[slot] = signature;
+		}
+		NUMBER_OF_CALLS.setRelease(this, callNumber + 1);
+		return callNumber;
+	}
+
+	private int slotGrowingIfNeeded(long callNumber) {
+		if (callNumber >= Integer.MAX_VALUE) {
+			throw new IllegalStateException("Method " + methodName + " was called more than "
+					+ Integer.MAX_VALUE + " times, use a call log capacity");
+		}
+		int slot = (int) callNumber;
+		if (slot == returnValues.length) {
+			int slots = slot * 2;
+			parameterValues = Arrays.copyOf(parameterValues, slots * stride);
+			if (sequenceNumbers != null) {
+				sequenceNumbers = Arrays.copyOf(sequenceNumbers, slots);
+			}
+			if (signatureOfCall != null) {
+				signatureOfCall = Arrays.copyOf(signatureOfCall, slots);
+			}
+			returnValues = Arrays.copyOf(returnValues, slots);
+		}
+		return slot;
+	}
+
+	private void storeParameterValues(int start, int parameterCount, Object value1,
+			Object value2, Object value3, Object value4) {
+		Object[] values = parameterValues;
+		values[start] = value1;
+		if (parameterCount > 1) {
+			values[start + 1] = value2;
+		}
+		if (parameterCount > 2) {
+			values[start + 2] = value3;
+		}
+		if (parameterCount > 3) {
+			values[start + 3] = value4;
+		}
+	}
+
+	/**
+	 * setReturnValue keeps the value returned from a call, unless the call has been evicted.
+	 */
+	void setReturnValue(long callNumber, Object returnValue) {
+		if (callNumber >= numberOfEvictedCalls()) {
+			returnValues[slot(callNumber)] = returnValue;
+		}
+	}
+
+	/**
+	 * numberOfCalls returns the number of calls made, including calls no longer kept.
+	 */
+	long numberOfCalls() {
+		return (long) NUMBER_OF_CALLS.getAcquire(this);
+	}
+
+	long numberOfEvictedCalls() {
+		return capacity > 0 ? Math.max(0, numberOfCalls() - capacity) : 0;
+	}
+
+	int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * call returns a copy of a kept call, the callNumber must be between
+	 * {@link #numberOfEvictedCalls()} and {@link #numberOfCalls()}.
+	 */
+	RecordedCall call(long callNumber) {
+		int slot = slot(callNumber);
+		long[] sequences = sequenceNumbers;
+		int[] signatureIndexes = signatureOfCall;
+		String[] parameterNames = signatures[signatureIndexes == null ? 0
+				: signatureIndexes[slot]];
+		return new RecordedCall(methodName, callNumber, parameterNames,
+				valuesInSlot(slot, parameterNames.length), returnValues[slot],
+				sequences == null ? 0 : sequences[slot]);
+	}
+
+	private int slot(long callNumber) {
+		return capacity > 0 ? (int) (callNumber % capacity) : (int) callNumber;
+	}
+
+	private Object[] valuesInSlot(int slot, int numberOfValues) {
+		int start = slot * stride;
+		return Arrays.copyOfRange(parameterValues, start, start + numberOfValues);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.List;
+
+/**
+ * NotRecordingMethodCallRecorder is the MCR of a spy using {@link RecordingMode#NONE}, it keeps
+ * nothing of the calls made to the spy, which answers from MRV only. Methods are reported as not
+ * called, and queries and assertions on parameters and return values throw an
+ * IllegalStateException.
+ */
+final class NotRecordingMethodCallRecorder extends SpyMethodCallRecorder {
+
+	@Override
+	long recordCall(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4,
+			Object value4) {
+		return 0;
+	}
+
+	@Override
+	long recordCall(String methodName, String[] parameterNames, Object[] parameterValues) {
+		return 0;
+	}
+
+	@Override
+	void recordReturn(String methodName, long call, Object returnValue) {
+		// nothing is kept
+	}
+
+	@Override
+	long numberOfCalls(String methodName) {
+		return 0;
+	}
+
+	@Override
+	RecordedCall keptCall(String methodName, long callNumber) {
+		throw callsNotKept();
+	}
+
+	@Override
+	List<RecordedCall> keptCalls(String methodName) {
+		throw callsNotKept();
+	}
+
+	@Override
+	void ensureCallsKept() {
+		throw callsNotKept();
+	}
+
+	private static IllegalStateException callsNotKept() {
+		return new IllegalStateException(
+				"Parameter and return values are not kept in recording mode NONE");
+	}
+}
@@ -0,0 +1,553 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataChildFilter;
+import se.uu.ub.cora.data.DataGroup;
+
+/**
+ * PersistentDataGroupFake is a working {@link DataGroup} that can be forked, for tests that take
+ * a base record, change a few things in it and assert on the result. {@link #fork()} returns a new
+ * group with the same content in constant time however big the group is, and changes made to the
+ * fork, or to the groups in it, are not seen in the group it was forked from, nor the other way
+ * around.
+ * <p>
+ * The content of the group is kept in immutable nodes. A change copies the node of the changed
+ * group and the nodes of its parents up to the top group, all other nodes are shared with earlier
+ * versions and forks. A copied node shares its children and their indexes with the node it was
+ * copied from, and only copies the parts it changes, such as the list of children with the
+ * nameInData of an added child and the list of all children, without reading anything from the
+ * children. Groups with very many children are best built using
+ * {@link #addChildren(Collection)}, which copies the group once for all added children.
+ * <p>
+ * A PersistentDataGroupFake is a view of one node in a tree of nodes. Groups read from it are new
+ * views of their node, so two reads of the same child give two different objects viewing the same
+ * group. A view of a group that is removed from its parent keeps working as a top group of its
+ * own, in the same way as a removed {@link DataGroupFake}.
+ * <p>
+ * A PersistentDataGroupFake added as child is added as it is at the time, and is from then on a
+ * view of the added child, so that changes made to it are seen in its new parent. Other children,
+ * such as atomic spies, are shared as they are between versions and forks. Children are kept and
+ * found in the same way as in {@link DataGroupFake}, groups of this fake are found as
+ * PersistentDataGroupFake and as {@link DataGroup}.
+ * <p>
+ * Calls and returned values are recorded in MCR the same way as for the spies.
+ */
+public class PersistentDataGroupFake extends AbstractGroupFake implements DataGroup {
+	private static final long[] NO_PATH = new long[0];
+	private static final String[] NO_PATH_NAMES = new String[0];
+	private Tree tree;
+	private long[] path;
+	private String[] pathNames;
+	private GroupNode node;
+	private long resolvedAtModification;
+
+	public static PersistentDataGroupFake withNameInData(String nameInData) {
+		GroupNode node = new GroupNode(nameInData);
+		return new PersistentDataGroupFake(new Tree(node), NO_PATH, NO_PATH_NAMES, node);
+	}
+
+	private PersistentDataGroupFake(Tree tree, long[] path, String[] pathNames, GroupNode node) {
+		super(node.nameInData);
+		bindTo(tree, path, pathNames, node);
+	}
+
+	private void bindTo(Tree tree, long[] path, String[] pathNames, GroupNode node) {
+		this.tree = tree;
+		this.path = path;
+		this.pathNames = pathNames;
+		this.node = node;
+		resolvedAtModification = tree.modifications;
+	}
+
+	/**
+	 * fork returns a new top group with the same content as this group, sharing all nodes with
+	 * it, so that forking takes the same time whatever the size of the group.
+	 */
+	public PersistentDataGroupFake fork() {
+		long call = startCall("fork");
+		GroupNode current = resolve();
+		PersistentDataGroupFake fork = new PersistentDataGroupFake(new Tree(current), NO_PATH,
+				NO_PATH_NAMES, current);
+		return recordReturn("fork", call, fork);
+	}
+
+	@Override
+	GroupContent content() {
+		return resolve().content;
+	}
+
+	private GroupNode resolve() {
+		if (resolvedAtModification != tree.modifications) {
+			GroupNode[] nodesFromTop = resolveFromTop();
+			node = nodesFromTop[nodesFromTop.length - 1];
+			resolvedAtModification = tree.modifications;
+		}
+		return node;
+	}
+
+	private GroupNode[] resolveFromTop() {
+		GroupNode[] nodesFromTop = new GroupNode[path.length + 1];
+		nodesFromTop[0] = tree.top;
+		for (int i = 0; i < path.length; i++) {
+			nodesFromTop[i + 1] = nodesFromTop[i].childWithId(pathNames[i], path[i]);
+			if (nodesFromTop[i + 1] == null) {
+				bindTo(new Tree(node), NO_PATH, NO_PATH_NAMES, node);
+				return new GroupNode[] { node };
+			}
+		}
+		return nodesFromTop;
+	}
+
+	private boolean change(Predicate<GroupNode> changeOfCopy) {
+		GroupNode[] nodesFromTop = resolveFromTop();
+		GroupNode changed = nodesFromTop[nodesFromTop.length - 1].copy();
+		if (!changeOfCopy.test(changed)) {
+			return false;
+		}
+		GroupNode replacement = changed;
+		for (int i = nodesFromTop.length - 1; i > 0; i--) {
+			replacement = nodesFromTop[i - 1].copyReplacing(nodesFromTop[i], replacement);
+		}
+		tree.top = replacement;
+		tree.modifications++;
+		node = changed;
+		resolvedAtModification = tree.modifications;
+		return true;
+	}
+
+	private DataChild viewOf(DataChild child) {
+		if (child instanceof GroupNode childNode) {
+			return viewOf(childNode);
+		}
+		return child;
+	}
+
+	private PersistentDataGroupFake viewOf(GroupNode childNode) {
+		return new PersistentDataGroupFake(tree, pathTo(childNode), pathNamesTo(childNode),
+				childNode);
+	}
+
+	private long[] pathTo(GroupNode childNode) {
+		long[] childPath = Arrays.copyOf(path, path.length + 1);
+		childPath[path.length] = childNode.id;
+		return childPath;
+	}
+
+	private String[] pathNamesTo(GroupNode childNode) {
+		String[] childPathNames = Arrays.copyOf(pathNames, pathNames.length + 1);
+		childPathNames[pathNames.length] = childNode.nameInData;
+		return childPathNames;
+	}
+
+	private List<DataChild> viewsOf(Collection<DataChild> children) {
+		List<DataChild> views = new ArrayList<>(children.size());
+		for (DataChild child : children) {
+			views.add(viewOf(child));
+		}
+		return views;
+	}
+
+	private static boolean isOfType(Class<?> type, DataChild child) {
+		if (child instanceof GroupNode) {
+			return type.isAssignableFrom(PersistentDataGroupFake.class);
+		}
+		return type.isInstance(child);
+	}
+
+	private <T> List<T> viewsOfType(Class<T> type, Collection<DataChild> children) {
+		List<T> views = new ArrayList<>();
+		for (DataChild child : children) {
+			if (isOfType(type, child)) {
+				views.add(type.cast(viewOf(child)));
+			}
+		}
+		return views;
+	}
+
+	private <T> T firstViewOfType(Class<T> type, String nameInData) {
+		for (DataChild child : content().getAllChildrenWithNameInData(nameInData)) {
+			if (isOfType(type, child)) {
+				return type.cast(viewOf(child));
+			}
+		}
+		throw GroupContent.childOfTypeNotFound(type, nameInData);
+	}
+
+	@Override
+	public void setRepeatId(String repeatId) {
+		recordCall("setRepeatId", "repeatId", repeatId);
+		change(copy -> {
+			copy.repeatId = repeatId;
+			return true;
+		});
+	}
+
+	@Override
+	public boolean hasRepeatId() {
+		long call = startCall("hasRepeatId");
+		boolean hasRepeatId = resolve().hasRepeatId();
+		return recordReturn("hasRepeatId", call, hasRepeatId);
+	}
+
+	@Override
+	public String getRepeatId() {
+		long call = startCall("getRepeatId");
+		String repeatId = resolve().repeatId;
+		return recordReturn("getRepeatId", call, repeatId);
+	}
+
+	@Override
+	public void addAttributeByIdWithValue(String nameInData, String value) {
+		recordCall("addAttributeByIdWithValue", "nameInData", nameInData, "value", value);
+		change(copy -> {
+			copy.content.addAttributeByIdWithValue(nameInData, value);
+			return true;
+		});
+	}
+
+	@Override
+	public void addChild(DataChild dataChild) {
+		recordCall("addChild", "dataChild", dataChild);
+		addAll(List.of(dataChild));
+	}
+
+	@Override
+	public void addChildren(Collection<DataChild> dataChildren) {
+		recordCall("addChildren", "dataChildren", dataChildren);
+		addAll(dataChildren);
+	}
+
+	private void addAll(Collection<DataChild> dataChildren) {
+		Map<PersistentDataGroupFake, GroupNode> addedViews = new HashMap<>();
+		change(copy -> {
+			for (DataChild dataChild : dataChildren) {
+				copy.content.addChild(nodeToAdd(copy, dataChild, addedViews));
+			}
+			return true;
+		});
+		for (Map.Entry<PersistentDataGroupFake, GroupNode> added : addedViews.entrySet()) {
+			GroupNode childNode = added.getValue();
+			added.getKey().bindTo(tree, pathTo(childNode), pathNamesTo(childNode), childNode);
+		}
+	}
+
+	private DataChild nodeToAdd(GroupNode copy, DataChild dataChild,
+			Map<PersistentDataGroupFake, GroupNode> addedViews) {
+		if (!(dataChild instanceof PersistentDataGroupFake view)) {
+			return dataChild;
+		}
+		GroupNode childNode = view.resolve();
+		if (copy.childWithId(childNode.nameInData, childNode.id) != null) {
+			childNode = childNode.copyWithNewId();
+		}
+		addedViews.put(view, childNode);
+		return childNode;
+	}
+
+	@Override
+	public List<DataChild> getChildren() {
+		long call = startCall("getChildren");
+		List<DataChild> allChildren = viewsOf(content().getChildren());
+		return recordReturn("getChildren", call, allChildren);
+	}
+
+	@Override
+	public List<DataChild> getAllChildrenWithNameInData(String nameInData) {
+		long call = startCall("getAllChildrenWithNameInData", "nameInData", nameInData);
+		List<DataChild> childrenWithNameInData = viewsOf(
+				content().getAllChildrenWithNameInData(nameInData));
+		return recordReturn("getAllChildrenWithNameInData", call, childrenWithNameInData);
+	}
+
+	@Override
+	public List<DataChild> getAllChildrenWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "getAllChildrenWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		List<DataChild> matchingChildren = viewsOf(childrenWithNameInDataAndAttributes(nameInData,
+				childAttributes));
+		return recordReturn(methodName, call, matchingChildren);
+	}
+
+	private List<DataChild> childrenWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		return content().childrenOfTypeWithNameInDataAndAttributes(DataChild.class,
+				nameInData, childAttributes);
+	}
+
+	@Override
+	public DataChild getFirstChildWithNameInData(String nameInData) {
+		long call = startCall("getFirstChildWithNameInData", "nameInData", nameInData);
+		DataChild child = viewOf(content().getFirstChildWithNameInData(nameInData));
+		return recordReturn("getFirstChildWithNameInData", call, child);
+	}
+
+	@Override
+	public DataGroup getFirstGroupWithNameInData(String nameInData) {
+		long call = startCall("getFirstGroupWithNameInData", "nameInData", nameInData);
+		DataGroup group = firstViewOfType(DataGroup.class, nameInData);
+		return recordReturn("getFirstGroupWithNameInData", call, group);
+	}
+
+	@Override
+	public List<DataGroup> getAllGroupsWithNameInData(String nameInData) {
+		long call = startCall("getAllGroupsWithNameInData", "nameInData", nameInData);
+		List<DataGroup> groups = viewsOfType(DataGroup.class,
+				content().getAllChildrenWithNameInData(nameInData));
+		return recordReturn("getAllGroupsWithNameInData", call, groups);
+	}
+
+	@Override
+	public Collection<DataGroup> getAllGroupsWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "getAllGroupsWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		Collection<DataGroup> groups = viewsOfType(DataGroup.class,
+				childrenWithNameInDataAndAttributes(nameInData, childAttributes));
+		return recordReturn(methodName, call, groups);
+	}
+
+	@Override
+	public boolean removeFirstChildWithNameInData(String nameInData) {
+		long call = startCall("removeFirstChildWithNameInData", "nameInData", nameInData);
+		boolean removed = change(copy -> copy.content.removeFirstChildWithNameInData(nameInData));
+		return recordReturn("removeFirstChildWithNameInData", call, removed);
+	}
+
+	@Override
+	public boolean removeAllChildrenWithNameInData(String nameInData) {
+		long call = startCall("removeAllChildrenWithNameInData", "nameInData", nameInData);
+		boolean removed = change(copy -> copy.content.removeAllChildrenWithNameInData(nameInData));
+		return recordReturn("removeAllChildrenWithNameInData", call, removed);
+	}
+
+	@Override
+	public boolean removeAllChildrenWithNameInDataAndAttributes(String nameInData,
+			DataAttribute... childAttributes) {
+		String methodName = "removeAllChildrenWithNameInDataAndAttributes";
+		long call = startCall(methodName, "nameInData", nameInData, "childAttributes",
+				childAttributes);
+		boolean removed = change(copy -> copy.content
+				.removeAllChildrenWithNameInDataAndAttributes(nameInData, childAttributes));
+		return recordReturn(methodName, call, removed);
+	}
+
+	@Override
+	public List<DataChild> getAllChildrenMatchingFilter(DataChildFilter childFilter) {
+		long call = startCall("getAllChildrenMatchingFilter", "childFilter", childFilter);
+		List<DataChild> matchingChildren = childrenMatchingFilter(childFilter);
+		return recordReturn("getAllChildrenMatchingFilter", call, matchingChildren);
+	}
+
+	private List<DataChild> childrenMatchingFilter(DataChildFilter childFilter) {
+		if (childFilter instanceof DataChildFilterFake) {
+			return viewsOf(content().getAllChildrenMatchingFilter(childFilter));
+		}
+		List<DataChild> matchingChildren = new ArrayList<>();
+		for (DataChild child : viewsOf(content().getChildren())) {
+			if (childFilter.childMatches(child)) {
+				matchingChildren.add(child);
+			}
+		}
+		return matchingChildren;
+	}
+
+	@Override
+	public boolean removeAllChildrenMatchingFilter(DataChildFilter childFilter) {
+		long call = startCall("removeAllChildrenMatchingFilter", "childFilter", childFilter);
+		boolean removed = change(copy -> removeMatchingFilter(copy, childFilter));
+		return recordReturn("removeAllChildrenMatchingFilter", call, removed);
+	}
+
+	private boolean removeMatchingFilter(GroupNode copy, DataChildFilter childFilter) {
+		if (childFilter instanceof DataChildFilterFake) {
+			return copy.content.removeAllChildrenMatchingFilter(childFilter);
+		}
+		return copy.content.removeChildrenMatching(null,
+				child -> childFilter.childMatches(viewOf(child)));
+	}
+
+	@Override
+	public <T> boolean containsChildOfTypeAndName(Class<T> type, String name) {
+		long call = startCall("containsChildOfTypeAndName", "type", type, "name", name);
+		boolean containsChild = content().getAllChildrenWithNameInData(name).stream()
+				.anyMatch(child -> isOfType(type, child));
+		return recordReturn("containsChildOfTypeAndName", call, containsChild);
+	}
+
+	@Override
+	public <T extends DataChild> T getFirstChildOfTypeAndName(Class<T> type, String name) {
+		long call = startCall("getFirstChildOfTypeAndName", "type", type, "name", name);
+		T child = firstViewOfType(type, name);
+		return recordReturn("getFirstChildOfTypeAndName", call, child);
+	}
+
+	@Override
+	public <T extends DataChild> List<T> getChildrenOfType(Class<T> type) {
+		long call = startCall("getChildrenOfType", "type", type);
+		List<T> childrenOfType = viewsOfType(type, content().getChildren());
+		return recordReturn("getChildrenOfType", call, childrenOfType);
+	}
+
+	@Override
+	public <T extends DataChild> List<T> getChildrenOfTypeAndName(Class<T> type, String name) {
+		long call = startCall("getChildrenOfTypeAndName", "type", type, "name", name);
+		List<T> childrenOfType = viewsOfType(type,
+				content().getAllChildrenWithNameInData(name));
+		return recordReturn("getChildrenOfTypeAndName", call, childrenOfType);
+	}
+
+	@Override
+	public <T extends DataChild> boolean removeFirstChildWithTypeAndName(Class<T> type,
+			String name) {
+		long call = startCall("removeFirstChildWithTypeAndName", "type", type, "name", name);
+		boolean removed = change(copy -> copy.content.removeFirstChildMatching(name,
+				child -> isOfType(type, child)));
+		return recordReturn("removeFirstChildWithTypeAndName", call, removed);
+	}
+
+	@Override
+	public <T extends DataChild> boolean removeChildrenWithTypeAndName(Class<T> type, String name) {
+		long call = startCall("removeChildrenWithTypeAndName", "type", type, "name", name);
+		boolean removed = change(copy -> copy.content.removeChildrenMatching(name,
+				child -> isOfType(type, child)));
+		return recordReturn("removeChildrenWithTypeAndName", call, removed);
+	}
+
+	/**
+	 * Tree holds the current top node of a tree of nodes, shared by all views of groups in the
+	 * tree, and counts the changes made to it so that views know when to find their node again.
+	 */
+	private static final class Tree {
+		private GroupNode top;
+		private long modifications;
+
+		Tree(GroupNode top) {
+			this.top = top;
+		}
+	}
+
+	/**
+	 * GroupNode holds the content of one version of a group. A node is only changed while it is a
+	 * new copy, never once it is part of a tree. Copies of a node keep its id and share its
+	 * content, so that views can find the current version of their group by the nameInData and
+	 * ids of the groups on the path to it.
+	 */
+	private static final class GroupNode implements DataChild {
+		private static final AtomicLong NEXT_ID = new AtomicLong();
+		private final long id;
+		private final String nameInData;
+		private final GroupContent content;
+		private String repeatId;
+
+		GroupNode(String nameInData) {
+			this(NEXT_ID.incrementAndGet(), nameInData, null, new GroupContent());
+		}
+
+		private GroupNode(long id, String nameInData, String repeatId, GroupContent content) {
+			this.id = id;
+			this.nameInData = nameInData;
+			this.repeatId = repeatId;
+			this.content = content;
+		}
+
+		GroupNode copy() {
+			return new GroupNode(id, nameInData, repeatId, content.copy());
+		}
+
+		GroupNode copyWithNewId() {
+			return new GroupNode(NEXT_ID.incrementAndGet(), nameInData, repeatId, content.copy());
+		}
+
+		GroupNode copyReplacing(GroupNode oldChild, GroupNode newChild) {
+			GroupNode copy = copy();
+			copy.content.replaceChild(oldChild, newChild);
+			return copy;
+		}
+
+		GroupNode childWithId(String childNameInData, long childId) {
+			for (DataChild child : content.getAllChildrenWithNameInData(childNameInData)) {
+				if (child instanceof GroupNode childNode && childNode.id == childId) {
+					return childNode;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public String getNameInData() {
+			return nameInData;
+		}
+
+		@Override
+		public boolean hasRepeatId() {
+			return repeatId != null && !repeatId.isEmpty();
+		}
+
+		@Override
+		public void setRepeatId(String repeatId) {
+			this.repeatId = repeatId;
+		}
+
+		@Override
+		public String getRepeatId() {
+			return repeatId;
+		}
+
+		@Override
+		public void addAttributeByIdWithValue(String nameInData, String value) {
+			content.addAttributeByIdWithValue(nameInData, value);
+		}
+
+		@Override
+		public boolean hasAttributes() {
+			return content.hasAttributes();
+		}
+
+		@Override
+		public DataAttribute getAttribute(String nameInData) {
+			return content.getAttribute(nameInData);
+		}
+
+		@Override
+		public Collection<DataAttribute> getAttributes() {
+			return content.getAttributes();
+		}
+
+		@Override
+		public Optional<String> getAttributeValue(String nameInData) {
+			return content.getAttributeValue(nameInData);
+		}
+	}
+}
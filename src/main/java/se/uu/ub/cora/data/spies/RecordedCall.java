@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RecordedCall is a copy of one call kept by a {@link SpyMethodCallRecorder}, made when an
+ * assertion or query asks for it, holding the parameter names and values of the call and the
+ * value it returned.
+ */
+final class RecordedCall {
+	static final Object NOT_RETURNED = new Object() {
+		@Override
+		public String toString() {
+			return "nothing";
+		}
+	};
+	private final String methodName;
+	private final long callNumber;
+	private final String[] parameterNames;
+	private final Object[] parameterValues;
+	private final Object returnValue;
+	private final long sequenceNumber;
+
+	RecordedCall(String methodName, long callNumber, String[] parameterNames,
+			Object[] parameterValues, Object returnValue, long sequenceNumber) {
+		this.methodName = methodName;
+		this.callNumber = callNumber;
+		this.parameterNames = parameterNames;
+		this.parameterValues = parameterValues;
+		this.returnValue = returnValue;
+		this.sequenceNumber = sequenceNumber;
+	}
+
+	RecordedCall withCallNumber(long callNumber) {
+		return new RecordedCall(methodName, callNumber, parameterNames, parameterValues,
+				returnValue, sequenceNumber);
+	}
+
+	long sequenceNumber() {
+		return sequenceNumber;
+	}
+
+	int numberOfParameters() {
+		return parameterValues.length;
+	}
+
+	Object parameterValue(int position) {
+		return parameterValues[position];
+	}
+
+	Object parameterValue(String parameterName) {
+		for (int i = 0; i < parameterNames.length; i++) {
+			if (parameterNames[i].equals(parameterName)) {
+				return parameterValues[i];
+			}
+		}
+		throw new AssertionError("Method " + methodName + " has no parameter named "
+				+ parameterName);
+	}
+
+	Map<String, Object> parameters() {
+		Map<String, Object> parameters = new LinkedHashMap<>();
+		for (int i = 0; i < parameterNames.length; i++) {
+			parameters.put(parameterNames[i], parameterValues[i]);
+		}
+		return parameters;
+	}
+
+	boolean hasReturned() {
+		return returnValue != NOT_RETURNED;
+	}
+
+	Object returnValue() {
+		if (!hasReturned()) {
+			throw new AssertionError(
+					"Call number " + callNumber + " to method " + methodName + " has not returned");
+		}
+		return returnValue;
+	}
+
+	String describe() {
+		return "call number " + callNumber + " to method " + methodName;
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+/**
+ * RecordingMode decides how much a spy keeps of the calls made to it, see
+ * {@link AbstractSpy#setRecordingMode(RecordingMode)}.
+ */
+public enum RecordingMode {
+	/**
+	 * All calls are recorded in MCR together with their parameters and return values, this is how
+	 * spies work by default.
+	 */
+	ALL,
+	/**
+	 * Only the number of calls to each method is kept, so that MCR can still answer how many times
+	 * a method was called. Queries and assertions on parameters and return values throw an
+	 * IllegalStateException.
+	 */
+	COUNT,
+	/**
+	 * Nothing is recorded, the spy only answers from MRV. Methods are reported as not called, and
+	 * queries and assertions on parameters and return values throw an IllegalStateException.
+	 */
+	NONE,
+	/**
+	 * All calls are recorded, and the spy can be called from many threads at the same time. Each
+	 * thread records its calls in a buffer of its own, and MRV is read under its lock. Return
+	 * values should be set in MRV before the spy is called from more than one thread.
+	 */
+	CONCURRENT
+}
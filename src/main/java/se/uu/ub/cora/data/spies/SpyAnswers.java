@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.List;
+import java.util.Optional;
+
+import se.uu.ub.cora.data.DataAttribute;
+
+/**
+ * SpyAnswers sets up the MRV of spies used as children in generated or loaded trees of data, so
+ * that they answer the calls common to all children as a child with the given nameInData,
+ * repeatId and attributes would.
+ */
+final class SpyAnswers {
+	private SpyAnswers() {
+	}
+
+	static void answerAsChild(AbstractSpy spy, String nameInData, String repeatId,
+			List<DataAttribute> attributes) {
+		spy.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		if (repeatId != null) {
+			spy.MRV.setDefaultReturnValuesSupplier("hasRepeatId", () -> true);
+			spy.MRV.setDefaultReturnValuesSupplier("getRepeatId", () -> repeatId);
+		}
+		answerWithAttributes(spy, attributes);
+	}
+
+	static void answerWithAttributes(AbstractSpy spy, List<DataAttribute> attributes) {
+		if (attributes.isEmpty()) {
+			return;
+		}
+		spy.MRV.setDefaultReturnValuesSupplier("hasAttributes", () -> true);
+		spy.MRV.setDefaultReturnValuesSupplier("getAttributes", () -> attributes);
+		for (DataAttribute attribute : attributes) {
+			String name = attribute.getNameInData();
+			Optional<String> value = Optional.of(attribute.getValue());
+			spy.MRV.setSpecificReturnValuesSupplier("getAttribute", () -> attribute, name);
+			spy.MRV.setSpecificReturnValuesSupplier("getAttributeValue", () -> value, name);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SpyCallEvent is the Java Flight Recorder event emitted each time a spy or fake in this package
+ * records a call, carrying the class of the spy, the called method and its number of parameters.
+ * JFR adds the thread and the stack trace, so that a recording of a test suite shows which code
+ * calls the spies, and how often.
+ * <p>
+ * The event lasts from the start of the call until the call has been recorded, or for calls
+ * returning a value, until the returned value has been recorded. Its duration therefore includes
+ * any latency set for the method, the time spent waking threads awaiting the call and, for fakes,
+ * the time spent working out the value to return. Calls started by a fake are closed when the fake
+ * records their return, on the same thread. A started call that never has its return recorded,
+ * because the fake threw an exception, is dropped when an enclosing call on the same thread is
+ * closed.
+ * <p>
+ * The event is disabled by default, as it is emitted for every call. It is enabled and disabled
+ * at runtime through the recording settings, by enabling the event named {@value #NAME} in a JFR
+ * configuration, on the command line using
+ * {@code -XX:StartFlightRecording:+se.uu.ub.cora.data.spies.SpyCall#enabled=true} (JDK 17 and
+ * later), or in code using {@code recording.enable(SpyCallEvent.NAME)}. When no running recording
+ * has the event enabled, beginning and closing it costs a check of a flag, and no event object is
+ * created.
+ */
+@Name(SpyCallEvent.NAME)
+@Label("Spy Call")
+@Category({ "Cora", "Spies" })
+@Description("A call recorded by a spy or fake")
+@Enabled(false)
+@StackTrace(true)
+public final class SpyCallEvent extends Event {
+	public static final String NAME = "se.uu.ub.cora.data.spies.SpyCall";
+
+	@Label("Spy Class")
+	Class<?> spyClass;
+
+	@Label("Method")
+	String methodName;
+
+	@Label("Parameter Count")
+	int parameterCount;
+
+	private static final ThreadLocal<Deque<SpyCallEvent>> STARTED_CALLS = ThreadLocal
+			.withInitial(ArrayDeque::new);
+
+	transient Object spy;
+
+	/**
+	 * begin begins an event for a call to the spy, or returns null when no recording has the event
+	 * enabled. The event is written using {@link #commit(SpyCallEvent)} when the call ends.
+	 */
+	static SpyCallEvent begin(Object spy, String methodName, int parameterCount) {
+		if (!EventTypeHolder.EVENT_TYPE.isEnabled()) {
+			return null;
+		}
+		SpyCallEvent event = new SpyCallEvent();
+		event.spy = spy;
+		event.spyClass = spy.getClass();
+		event.methodName = methodName;
+		event.parameterCount = parameterCount;
+		event.begin();
+		return event;
+	}
+
+	static void commit(SpyCallEvent event) {
+		if (event != null) {
+			event.spy = null;
+			event.commit();
+		}
+	}
+
+	/**
+	 * keepOpen keeps an event begun for a call started by a fake open, until the fake records the
+	 * return of the call and {@link #commitStarted(Object, String)} writes it.
+	 */
+	static void keepOpen(SpyCallEvent event) {
+		if (event != null) {
+			STARTED_CALLS.get().push(event);
+		}
+	}
+
+	static void commitStarted(Object spy, String methodName) {
+		if (EventTypeHolder.EVENT_TYPE.isEnabled()) {
+			Deque<SpyCallEvent> started = STARTED_CALLS.get();
+			if (started.stream().anyMatch(event -> event.isCallTo(spy, methodName))) {
+				commitLastStartedCallTo(started, spy, methodName);
+			}
+		}
+	}
+
+	private static void commitLastStartedCallTo(Deque<SpyCallEvent> started, Object spy,
+			String methodName) {
+		SpyCallEvent event = started.pop();
+		while (!event.isCallTo(spy, methodName)) {
+			event = started.pop();
+		}
+		commit(event);
+	}
+
+	private boolean isCallTo(Object spy, String methodName) {
+		return this.spy == spy && this.methodName.equals(methodName);
+	}
+
+	/**
+	 * EventTypeHolder holds the registered type of the event, read before an event is created so
+	 * that no event object is allocated for calls made while no recording has it enabled.
+	 */
+	private static final class EventTypeHolder {
+		private static final EventType EVENT_TYPE = EventType.getEventType(SpyCallEvent.class);
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SpyCallProfile counts the calls made to spies and fakes while it is running, per spy class and
+ * method, together with the number of distinct values given for each parameter. It is meant to
+ * be run over a whole test suite, using {@link SpyCallProfileListener}, to find the calls that
+ * code under test repeats most, such as the same DataGroup navigation done over and over.
+ * <p>
+ * Parameter values are told apart by equals for strings, numbers, booleans, enums and classes,
+ * and by identity for all other values, such as spies, arrays are compared element by element in
+ * the same way. Values told apart by identity are held through weak references, so that a
+ * running profile does not keep spies from being garbage collected, and a value that has been
+ * collected still counts as one distinct value. At most
+ * {@value #DISTINCT_VALUE_LIMIT} distinct values are counted for each parameter, a count equal to
+ * the limit means at least that many.
+ * <p>
+ * Only one profile runs at a time. Calls are counted from all threads, and when no profile is
+ * running counting a call costs a read of a volatile field.
+ */
+public final class SpyCallProfile {
+	public static final int DISTINCT_VALUE_LIMIT = 1000;
+	private static volatile SpyCallProfile running;
+	private final Map<CallKey, MethodProfile> methodProfiles = new ConcurrentHashMap<>();
+
+	/**
+	 * start starts a new profile, replacing the running profile if there is one.
+	 */
+	public static SpyCallProfile start() {
+		SpyCallProfile profile = new SpyCallProfile();
+		running = profile;
+		return profile;
+	}
+
+	private SpyCallProfile() {
+	}
+
+	/**
+	 * stop stops counting calls in this profile, counts made so far are kept.
+	 */
+	public void stop() {
+		if (running == this) {
+			running = null;
+		}
+	}
+
+	static void record(Class<?> spyClass, String methodName, int parameterCount, Object value1,
+			Object value2, Object value3, Object value4) {
+		SpyCallProfile profile = running;
+		if (profile != null) {
+			profile.count(new CallKey(spyClass.getName(), methodName, parameterCount), value1,
+					value2, value3, value4);
+		}
+	}
+
+	private void count(CallKey key, Object value1, Object value2, Object value3,
+			Object value4) {
+		MethodProfile methodProfile = methodProfiles.computeIfAbsent(key, MethodProfile::new);
+		methodProfile.calls.increment();
+		Object[] values = { value1, value2, value3, value4 };
+		for (int i = 0; i < key.parameterCount; i++) {
+			methodProfile.addValue(i, values[i]);
+		}
+	}
+
+	/**
+	 * getCallCount returns the number of calls counted to the named method of the spy class, for
+	 * all numbers of parameters.
+	 */
+	public long getCallCount(Class<?> spyClass, String methodName) {
+		long calls = 0;
+		for (MethodProfile methodProfile : methodProfiles.values()) {
+			if (methodProfile.key.spyClassName.equals(spyClass.getName())
+					&& methodProfile.key.methodName.equals(methodName)) {
+				calls += methodProfile.calls.sum();
+			}
+		}
+		return calls;
+	}
+
+	/**
+	 * getDistinctValueCounts returns the number of distinct values counted for each parameter of
+	 * the named method of the spy class, taking the given number of parameters.
+	 */
+	public int[] getDistinctValueCounts(Class<?> spyClass, String methodName,
+			int parameterCount) {
+		MethodProfile methodProfile = methodProfiles
+				.get(new CallKey(spyClass.getName(), methodName, parameterCount));
+		return methodProfile == null ? new int[parameterCount] : methodProfile.distinctCounts();
+	}
+
+	private List<MethodProfile> hottestFirst() {
+		List<MethodProfile> sorted = new ArrayList<>(methodProfiles.values());
+		sorted.sort(Comparator.comparingLong((MethodProfile profile) -> -profile.calls.sum())
+				.thenComparing(profile -> profile.key.spyClassName)
+				.thenComparing(profile -> profile.key.methodName)
+				.thenComparingInt(profile -> profile.key.parameterCount));
+		return sorted;
+	}
+
+	/**
+	 * writeCsv writes one line per spy class and method, the most called first, with the number
+	 * of calls and the number of distinct values for each parameter.
+	 */
+	public void writeCsv(Writer writer) {
+		try {
+			writer.write("spyClass,method,parameterCount,calls,"
+					+ "distinctValues1,distinctValues2,distinctValues3,distinctValues4\n");
+			for (MethodProfile methodProfile : hottestFirst()) {
+				writeCsvLine(writer, methodProfile);
+			}
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeCsvLine(Writer writer, MethodProfile methodProfile) throws IOException {
+		StringBuilder line = new StringBuilder();
+		appendCsvValue(line, methodProfile.key.spyClassName);
+		line.append(',');
+		appendCsvValue(line, methodProfile.key.methodName);
+		line.append(',').append(methodProfile.key.parameterCount).append(',')
+				.append(methodProfile.calls.sum());
+		int[] distinctCounts = methodProfile.distinctCounts();
+		for (int i = 0; i < 4; i++) {
+			line.append(',');
+			if (i < distinctCounts.length) {
+				line.append(distinctCounts[i]);
+			}
+		}
+		writer.write(line.append('\n').toString());
+	}
+
+	private static void appendCsvValue(StringBuilder line, String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			line.append(value);
+		} else {
+			line.append('"').append(value.replace("\"", "\"\"")).append('"');
+		}
+	}
+
+	/**
+	 * writeJson writes the calls per spy class and per method, the most called first, with the
+	 * number of distinct values for each parameter of each method.
+	 */
+	public void writeJson(Writer writer) {
+		List<MethodProfile> sorted = hottestFirst();
+		StringBuilder json = new StringBuilder("{\"distinctValueLimit\":")
+				.append(DISTINCT_VALUE_LIMIT).append(",\"spyClasses\":[");
+		appendSpyClasses(json, sorted);
+		json.append("],\"methods\":[");
+		for (int i = 0; i < sorted.size(); i++) {
+			MethodProfile methodProfile = sorted.get(i);
+			json.append(i == 0 ? "" : ",").append("{\"spyClass\":");
+			appendJsonString(json, methodProfile.key.spyClassName);
+			json.append(",\"method\":");
+			appendJsonString(json, methodProfile.key.methodName);
+			json.append(",\"parameterCount\":").append(methodProfile.key.parameterCount)
+					.append(",\"calls\":").append(methodProfile.calls.sum())
+					.append(",\"distinctValues\":")
+					.append(Arrays.toString(methodProfile.distinctCounts()).replace(" ", ""))
+					.append('}');
+		}
+		json.append("]}\n");
+		try {
+			writer.write(json.toString());
+			writer.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void appendSpyClasses(StringBuilder json, List<MethodProfile> sorted) {
+		Map<String, Long> callsPerClass = new LinkedHashMap<>();
+		for (MethodProfile methodProfile : sorted) {
+			callsPerClass.merge(methodProfile.key.spyClassName, methodProfile.calls.sum(),
+					Long::sum);
+		}
+		List<Map.Entry<String, Long>> classes = new ArrayList<>(callsPerClass.entrySet());
+		classes.sort(Map.Entry.<String, Long> comparingByValue().reversed()
+				.thenComparing(Map.Entry.comparingByKey()));
+		for (int i = 0; i < classes.size(); i++) {
+			json.append(i == 0 ? "" : ",").append("{\"spyClass\":");
+			appendJsonString(json, classes.get(i).getKey());
+			json.append(",\"calls\":").append(classes.get(i).getValue()).append('}');
+		}
+	}
+
+	private static void appendJsonString(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (character == '"' || character == '\\') {
+				json.append('\\').append(character);
+			} else if (character < 0x20) {
+				json.append(String.format("\\u%04x", (int) character));
+			} else {
+				json.append(character);
+			}
+		}
+		json.append('"');
+	}
+
+	private static Object distinctKey(Object value) {
+		if (value == null) {
+			return NullKey.NULL;
+		}
+		if (value instanceof String || value instanceof Number || value instanceof Boolean
+				|| value instanceof Enum || value instanceof Class) {
+			return value;
+		}
+		if (value instanceof Object[] values) {
+			List<Object> keys = new ArrayList<>(values.length);
+			for (Object element : values) {
+				keys.add(distinctKey(element));
+			}
+			return keys;
+		}
+		return new IdentityKey(value);
+	}
+
+	private enum NullKey {
+		NULL
+	}
+
+	/**
+	 * IdentityKey tells values apart by identity, without keeping them from being garbage
+	 * collected. A key whose value has been collected is only equal to itself.
+	 */
+	private static final class IdentityKey extends WeakReference<Object> {
+		private final int hashCode;
+
+		IdentityKey(Object value) {
+			super(value);
+			hashCode = System.identityHashCode(value);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			Object value = get();
+			return value != null && obj instanceof IdentityKey other && other.get() == value;
+		}
+	}
+
+	private static final class CallKey {
+		private final String spyClassName;
+		private final String methodName;
+		private final int parameterCount;
+
+		CallKey(String spyClassName, String methodName, int parameterCount) {
+			this.spyClassName = spyClassName;
+			this.methodName = methodName;
+			this.parameterCount = parameterCount;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(spyClassName, methodName, parameterCount);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof CallKey other && spyClassName.equals(other.spyClassName)
+					&& methodName.equals(other.methodName)
+					&& parameterCount == other.parameterCount;
+		}
+	}
+
+	private static final class MethodProfile {
+		private final CallKey key;
+		private final LongAdder calls = new LongAdder();
+		private final List<Set<Object>> distinctValues = new ArrayList<>();
+
+		MethodProfile(CallKey key) {
+			this.key = key;
+			for (int i = 0; i < key.parameterCount; i++) {
+				distinctValues.add(ConcurrentHashMap.newKeySet());
+			}
+		}
+
+		void addValue(int parameter, Object value) {
+			Set<Object> values = distinctValues.get(parameter);
+			if (values.size() < DISTINCT_VALUE_LIMIT) {
+				values.add(distinctKey(value));
+			}
+		}
+
+		int[] distinctCounts() {
+			int[] counts = new int[distinctValues.size()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = Math.min(distinctValues.get(i).size(), DISTINCT_VALUE_LIMIT);
+			}
+			return counts;
+		}
+	}
+}
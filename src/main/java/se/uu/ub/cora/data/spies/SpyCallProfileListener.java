@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.testng.IExecutionListener;
+
+/**
+ * SpyCallProfileListener runs a {@link SpyCallProfile} over a whole TestNG run and writes the
+ * report as spy-call-profile.csv and spy-call-profile.json when the run is finished. The reports
+ * are written to the directory given by the system property {@value #DIRECTORY_PROPERTY}, or to
+ * target if it is not set.
+ * <p>
+ * The listener is added to a run in the same way as other TestNG listeners, for instance through
+ * the listener property of the surefire plugin.
+ */
+public class SpyCallProfileListener implements IExecutionListener {
+	public static final String DIRECTORY_PROPERTY = "spyCallProfile.directory";
+	private SpyCallProfile profile;
+
+	@Override
+	public void onExecutionStart() {
+		profile = SpyCallProfile.start();
+	}
+
+	@Override
+	public void onExecutionFinish() {
+		profile.stop();
+		Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "target"));
+		try {
+			Files.createDirectories(directory);
+			try (Writer csv = Files.newBufferedWriter(directory.resolve("spy-call-profile.csv"))) {
+				profile.writeCsv(csv);
+			}
+			try (Writer json = Files
+					.newBufferedWriter(directory.resolve("spy-call-profile.json"))) {
+				profile.writeJson(json);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
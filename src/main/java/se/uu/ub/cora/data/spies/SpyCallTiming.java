@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.time.Duration;
+
+/**
+ * SpyCallTiming is used to assert on the time between two calls made to spies that record call
+ * timestamps, such as a latency budget for the code between creating a record and adding its
+ * first action:
+ *
+ * <pre>
+ * SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+ * 		.assertNextCallWithin(dataRecord, "addAction", Duration.ofMillis(2));
+ * </pre>
+ *
+ * Both spies must have had {@link AbstractSpy#recordCallTimestamps()} called before the calls
+ * were made. Elapsed time is measured from the start of one spied call to the start of the other.
+ */
+public final class SpyCallTiming {
+	private final String fromDescription;
+	private final long fromTimestamp;
+
+	private SpyCallTiming(String fromDescription, long fromTimestamp) {
+		this.fromDescription = fromDescription;
+		this.fromTimestamp = fromTimestamp;
+	}
+
+	/**
+	 * fromCall returns a SpyCallTiming measuring from the numbered call to the named method.
+	 *
+	 * @throws IllegalStateException
+	 *             if the spy does not record call timestamps
+	 * @throws IllegalArgumentException
+	 *             if there is no such call
+	 */
+	public static SpyCallTiming fromCall(AbstractSpy spy, String methodName, int callNumber) {
+		return new SpyCallTiming(describe(spy, methodName, callNumber),
+				spy.getTimestampForCall(methodName, callNumber));
+	}
+
+	private static String describe(AbstractSpy spy, String methodName, int callNumber) {
+		return spy.getClass().getSimpleName() + "." + methodName + " call " + callNumber;
+	}
+
+	/**
+	 * toCall returns the time elapsed from the call this timing measures from to the numbered
+	 * call to the named method, negative if that call was made before.
+	 */
+	public Duration toCall(AbstractSpy spy, String methodName, int callNumber) {
+		return Duration.ofNanos(spy.getTimestampForCall(methodName, callNumber) - fromTimestamp);
+	}
+
+	/**
+	 * toNextCall returns the time elapsed from the call this timing measures from to the first
+	 * call to the named method made at or after it.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if no such call has been made
+	 */
+	public Duration toNextCall(AbstractSpy spy, String methodName) {
+		return toCall(spy, methodName, nextCallNumber(spy, methodName));
+	}
+
+	private int nextCallNumber(AbstractSpy spy, String methodName) {
+		int callNumber = spy.timestamps().firstCallAtOrAfter(methodName, fromTimestamp);
+		if (callNumber == -1) {
+			throw new IllegalArgumentException("No call to " + spy.getClass().getSimpleName()
+					+ "." + methodName + " made after " + fromDescription);
+		}
+		return callNumber;
+	}
+
+	/**
+	 * assertCallWithin asserts that the numbered call to the named method was made after the call
+	 * this timing measures from, and no later than the budget after it.
+	 */
+	public void assertCallWithin(AbstractSpy spy, String methodName, int callNumber,
+			Duration budget) {
+		assertWithin(describe(spy, methodName, callNumber),
+				toCall(spy, methodName, callNumber), budget);
+	}
+
+	/**
+	 * assertNextCallWithin asserts that a call to the named method was made after the call this
+	 * timing measures from, and that the first such call was made no later than the budget after
+	 * it.
+	 */
+	public void assertNextCallWithin(AbstractSpy spy, String methodName, Duration budget) {
+		int callNumber = spy.timestamps().firstCallAtOrAfter(methodName, fromTimestamp);
+		if (callNumber == -1) {
+			throw new AssertionError("Expected a call to " + spy.getClass().getSimpleName() + "."
+					+ methodName + " after " + fromDescription + " but none was made");
+		}
+		assertCallWithin(spy, methodName, callNumber, budget);
+	}
+
+	private void assertWithin(String toDescription, Duration elapsed, Duration budget) {
+		if (elapsed.isNegative()) {
+			throw new AssertionError("Expected " + toDescription + " to be made after "
+					+ fromDescription + " but it was made " + elapsed.negated().toNanos()
+					+ " ns before");
+		}
+		if (elapsed.compareTo(budget) > 0) {
+			throw new AssertionError("Expected " + toDescription + " within " + budget.toNanos()
+					+ " ns of " + fromDescription + " but it took " + elapsed.toNanos() + " ns");
+		}
+	}
+}
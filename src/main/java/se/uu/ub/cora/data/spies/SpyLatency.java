@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SpyLatency is a distribution of delays injected into calls to a spy method, set using
+ * {@link AbstractSpy#setLatency(String, SpyLatency)}. A latency is either fixed, uniform between
+ * two durations or sampled from a histogram given as percentiles, such as 5 ms at the 50th
+ * percentile and 50 ms at the 99th:
+ *
+ * <pre>
+ * SpyLatency.percentile(50, Duration.ofMillis(5)).andPercentile(99, Duration.ofMillis(50))
+ * </pre>
+ *
+ * All latencies are kept as points on the inverse of the cumulative distribution, with delays
+ * between two points interpolated linearly. A histogram starts at zero delay unless a delay is
+ * given for percentile 0, and delays above the highest given percentile are the delay given for
+ * it.
+ * <p>
+ * A delayed thread is parked using {@link LockSupport#parkNanos(long)}, so that a virtual thread
+ * is unmounted from its carrier while it waits. An interrupted thread stops waiting and keeps its
+ * interrupt status.
+ */
+public final class SpyLatency {
+	private static final double HIGHEST_PERCENTILE = 100;
+	private final double[] percentiles;
+	private final long[] nanos;
+
+	private SpyLatency(double[] percentiles, long[] nanos) {
+		this.percentiles = percentiles;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * fixed returns a latency delaying each call by the same duration.
+	 */
+	public static SpyLatency fixed(Duration latency) {
+		long latencyNanos = toNanos(latency);
+		return new SpyLatency(new double[] { 0, HIGHEST_PERCENTILE },
+				new long[] { latencyNanos, latencyNanos });
+	}
+
+	/**
+	 * uniform returns a latency delaying each call by a duration taken uniformly from min to max.
+	 */
+	public static SpyLatency uniform(Duration min, Duration max) {
+		long minNanos = toNanos(min);
+		long maxNanos = toNanos(max);
+		if (maxNanos < minNanos) {
+			throw new IllegalArgumentException(
+					"Max latency " + max + " must not be less than min latency " + min);
+		}
+		return new SpyLatency(new double[] { 0, HIGHEST_PERCENTILE },
+				new long[] { minNanos, maxNanos });
+	}
+
+	/**
+	 * percentile returns a histogram latency with one percentile, use
+	 * {@link #andPercentile(double, Duration)} to add more.
+	 *
+	 * @param percentile
+	 *            the percentile, from 0 to 100
+	 * @param latency
+	 *            the delay at the percentile
+	 */
+	public static SpyLatency percentile(double percentile, Duration latency) {
+		return new SpyLatency(new double[0], new long[0]).andPercentile(percentile, latency);
+	}
+
+	/**
+	 * andPercentile returns a new latency with the delay at the given percentile added, or
+	 * replaced if the percentile is already given. Delays must not decrease as percentiles
+	 * increase.
+	 */
+	public SpyLatency andPercentile(double percentile, Duration latency) {
+		ensurePercentileInRange(percentile);
+		long latencyNanos = toNanos(latency);
+		int position = Arrays.binarySearch(percentiles, percentile);
+		double[] newPercentiles;
+		long[] newNanos;
+		if (position >= 0) {
+			newPercentiles = percentiles.clone();
+			newNanos = nanos.clone();
+		} else {
+			position = -position - 1;
+			newPercentiles = insert(percentiles, position, percentile);
+			newNanos = insert(nanos, position, latencyNanos);
+		}
+		newNanos[position] = latencyNanos;
+		ensureNotDecreasing(newPercentiles, newNanos);
+		return new SpyLatency(newPercentiles, newNanos);
+	}
+
+	private static void ensurePercentileInRange(double percentile) {
+		if (!(percentile >= 0 && percentile <= HIGHEST_PERCENTILE)) {
+			throw new IllegalArgumentException(
+					"Percentile must be from 0 to 100, was " + percentile);
+		}
+	}
+
+	private static long toNanos(Duration latency) {
+		if (latency.isNegative()) {
+			throw new IllegalArgumentException("Latency must not be negative, was " + latency);
+		}
+		return latency.toNanos();
+	}
+
+	private static double[] insert(double[] values, int position, double value) {
+		double[] inserted = new double[values.length + 1];
+		System.arraycopy(values, 0, inserted, 0, position);
+		inserted[position] = value;
+		System.arraycopy(values, position, inserted, position + 1, values.length - position);
+		return inserted;
+	}
+
+	private static long[] insert(long[] values, int position, long value) {
+		long[] inserted = new long[values.length + 1];
+		System.arraycopy(values, 0, inserted, 0, position);
+		inserted[position] = value;
+		System.arraycopy(values, position, inserted, position + 1, values.length - position);
+		return inserted;
+	}
+
+	private static void ensureNotDecreasing(double[] percentiles, long[] nanos) {
+		for (int i = 1; i < nanos.length; i++) {
+			if (nanos[i] < nanos[i - 1]) {
+				throw new IllegalArgumentException("Latency at percentile " + percentiles[i]
+						+ " must not be less than latency at percentile " + percentiles[i - 1]
+						+ ", was " + Duration.ofNanos(nanos[i]) + " and "
+						+ Duration.ofNanos(nanos[i - 1]));
+			}
+		}
+	}
+
+	/**
+	 * nanosAt returns the delay at the given percentile, interpolated between the given points.
+	 */
+	long nanosAt(double percentile) {
+		int position = Arrays.binarySearch(percentiles, percentile);
+		if (position >= 0) {
+			return nanos[position];
+		}
+		int above = -position - 1;
+		if (above == nanos.length) {
+			return nanos[nanos.length - 1];
+		}
+		double lowerPercentile = above == 0 ? 0 : percentiles[above - 1];
+		long lowerNanos = above == 0 ? 0 : nanos[above - 1];
+		double fraction = (percentile - lowerPercentile) / (percentiles[above] - lowerPercentile);
+		return lowerNanos + Math.round(fraction * (nanos[above] - lowerNanos));
+	}
+
+	/**
+	 * sampleNanos returns a delay sampled from this latency.
+	 */
+	long sampleNanos() {
+		return nanosAt(ThreadLocalRandom.current().nextDouble(HIGHEST_PERCENTILE));
+	}
+
+	/**
+	 * delay parks the calling thread for a delay sampled from this latency.
+	 */
+	void delay() {
+		long remaining = sampleNanos();
+		long deadline = System.nanoTime() + remaining;
+		while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(remaining);
+			remaining = deadline - System.nanoTime();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder("SpyLatency[");
+		for (int i = 0; i < percentiles.length; i++) {
+			if (i > 0) {
+				description.append(", ");
+			}
+			description.append("p").append(percentiles[i]).append('=')
+					.append(Duration.ofNanos(nanos[i]));
+		}
+		return description.append(']').toString();
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+
+/**
+ * SpyMethodCallRecorder is the base for the MCRs of the spies in this package. Spies record each
+ * call using {@link #recordCall(String, int, String, Object, String, Object, String, Object,
+ * String, Object)}, passing the name of the called method and the names and values of up to four
+ * parameters, so that recording a call neither walks the stack to find the called method nor
+ * creates arrays for the parameters. Subclasses decide how calls are kept.
+ * <p>
+ * Every public method of MCR is overridden, as the calls are not kept in the state of MCR itself.
+ * All queries and assertions are delegated to one {@link MethodCallAssertions}, which works on
+ * the calls kept by the subclass and passes and fails as MCR does.
+ * <p>
+ * Calls recorded through the methods inherited from MCR, such as
+ * {@link #addCallAndReturnFromMRV(Object...)}, are kept in the same way, with the name of the
+ * method calling them taken from the stack as MCR does, and with any number of parameters. A
+ * method may be recorded with different parameters, such as an overloaded method, the calls are
+ * then numbered together as in MCR.
+ */
+abstract class SpyMethodCallRecorder extends MethodCallRecorder {
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+	private final MethodCallAssertions assertions = new MethodCallAssertions(this);
+
+	/**
+	 * recordCall keeps a call to the named method, and returns a number identifying the call, to
+	 * be passed to {@link #recordReturn(String, long, Object)} when the call returns. Names and
+	 * values after parameterCount are ignored.
+	 */
+	abstract long recordCall(String methodName, int parameterCount, String name1, Object value1,
+			String name2, Object value2, String name3, Object value3, String name4, Object value4);
+
+	/**
+	 * recordCall keeps a call to the named method with any number of parameters, in the same way
+	 * as {@link #recordCall(String, int, String, Object, String, Object, String, Object, String,
+	 * Object)}.
+	 */
+	abstract long recordCall(String methodName, String[] parameterNames,
+			Object[] parameterValues);
+
+	/**
+	 * recordReturn keeps the value returned from a call recorded using
+	 * {@link #recordCall(String, int, String, Object, String, Object, String, Object, String,
+	 * Object)}, made from the same thread.
+	 */
+	abstract void recordReturn(String methodName, long call, Object returnValue);
+
+	/**
+	 * numberOfCalls returns the number of calls made to the named method, including calls that
+	 * are no longer kept.
+	 */
+	abstract long numberOfCalls(String methodName);
+
+	/**
+	 * keptCall returns a made call, or throws an AssertionError if the call is no longer kept.
+	 */
+	abstract RecordedCall keptCall(String methodName, long callNumber);
+
+	/**
+	 * keptCalls returns the calls kept for the named method, in call order.
+	 */
+	abstract List<RecordedCall> keptCalls(String methodName);
+
+	String describeKeptCalls(String methodName) {
+		return "";
+	}
+
+	/**
+	 * ensureCallsKept is called first by all queries and assertions on parameters and return
+	 * values, recorders that do not keep them throw an IllegalStateException.
+	 */
+	void ensureCallsKept() {
+		// calls are kept
+	}
+
+	@Override
+	public int getNumberOfCallsToMethod(String methodName) {
+		return assertions.getNumberOfCallsToMethod(methodName);
+	}
+
+	@Override
+	public boolean methodWasCalled(String methodName) {
+		return assertions.methodWasCalled(methodName);
+	}
+
+	@Override
+	public void assertNumberOfCallsToMethod(String methodName, int expectedNumberOfCalls) {
+		assertions.assertNumberOfCallsToMethod(methodName, expectedNumberOfCalls);
+	}
+
+	@Override
+	public void assertMethodWasCalled(String methodName) {
+		assertions.assertMethodWasCalled(methodName);
+	}
+
+	@Override
+	public void assertMethodNotCalled(String methodName) {
+		assertions.assertMethodNotCalled(methodName);
+	}
+
+	@Override
+	public Object getValueForMethodNameAndCallNumberAndParameterName(String methodName,
+			int callNumber, String parameterName) {
+		return assertions.getValueForMethodNameAndCallNumberAndParameterName(methodName,
+				callNumber, parameterName);
+	}
+
+	@Override
+	public Object getParameterForMethodAndCallNumberAndParameter(String methodName,
+			int callNumber, String parameterName) {
+		return assertions.getParameterForMethodAndCallNumberAndParameter(methodName, callNumber,
+				parameterName);
+	}
+
+	@Override
+	public Map<String, Object> getParametersForMethodAndCallNumber(String methodName,
+			int callNumber) {
+		return assertions.getParametersForMethodAndCallNumber(methodName, callNumber);
+	}
+
+	@Override
+	public void assertParameter(String methodName, int callNumber, String parameterName,
+			Object expectedValue) {
+		assertions.assertParameter(methodName, callNumber, parameterName, expectedValue);
+	}
+
+	@Override
+	public void assertParameterAsEqual(String methodName, int callNumber, String parameterName,
+			Object expectedValue) {
+		assertions.assertParameterAsEqual(methodName, callNumber, parameterName, expectedValue);
+	}
+
+	@Override
+	public void assertParameters(String methodName, int callNumber, Object... expectedValues) {
+		assertions.assertParameters(methodName, callNumber, expectedValues);
+	}
+
+	@Override
+	public void assertParametersAsEqual(String methodName, int callNumber,
+			Object... expectedValues) {
+		assertions.assertParametersAsEqual(methodName, callNumber, expectedValues);
+	}
+
+	@Override
+	public void assertCalledParameters(String methodName, Object... expectedValues) {
+		assertions.assertCalledParameters(methodName, expectedValues);
+	}
+
+	@Override
+	public Object assertCalledParametersReturn(String methodName, Object... expectedValues) {
+		return assertions.assertCalledParametersReturn(methodName, expectedValues);
+	}
+
+	/**
+	 * wasCalledWithEqualParameters returns if any of the calls kept for the named method has
+	 * parameter values equal to the expected ones, arrays compared on their content.
+	 */
+	boolean wasCalledWithEqualParameters(String methodName, Object... expectedValues) {
+		return assertions.wasCalledWithEqualParameters(methodName, expectedValues);
+	}
+
+	@Override
+	public Object getReturnValue(String methodName, int callNumber) {
+		return assertions.getReturnValue(methodName, callNumber);
+	}
+
+	@Override
+	public void assertReturn(String methodName, int callNumber, Object expectedValue) {
+		assertions.assertReturn(methodName, callNumber, expectedValue);
+	}
+
+	@Override
+	public void addCall(Object... parameters) {
+		recordCallFromStack(callingMethodName(), parameters);
+	}
+
+	@Override
+	public Object addCallAndReturnFromMRV(Object... parameters) {
+		String methodName = callingMethodName();
+		long call = recordCallFromStack(methodName, parameters);
+		Object[] values = new Object[parameters.length / 2];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = parameters[i * 2 + 1];
+		}
+		Object returnValue = onlyForTestGetMRV().getReturnValue(methodName, values);
+		recordReturn(methodName, call, returnValue);
+		return returnValue;
+	}
+
+	@Override
+	public void addReturned(Object returnValue) {
+		String methodName = callingMethodName();
+		recordReturn(methodName, numberOfCalls(methodName) - 1, returnValue);
+	}
+
+	private static String callingMethodName() {
+		return STACK_WALKER.walk(frames -> frames.skip(2).findFirst()).orElseThrow()
+				.getMethodName();
+	}
+
+	private long recordCallFromStack(String methodName, Object... parameters) {
+		if (parameters.length % 2 != 0) {
+			throw new IllegalArgumentException("Calls are recorded with pairs of parameter name "
+					+ "and value, got " + parameters.length + " arguments");
+		}
+		String[] names = new String[parameters.length / 2];
+		Object[] values = new Object[names.length];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = (String) parameters[i * 2];
+			values[i] = parameters[i * 2 + 1];
+		}
+		return recordCall(methodName, names, values);
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * SpyPool hands out spies of one class and takes them all back, reset, when the test using them
+ * is done, so that the same spies can be reused by many test methods instead of being created
+ * anew for each one.
+ * <p>
+ * A pool is confined to the thread that created it, use one pool per thread, for instance through
+ * a ThreadLocal, when tests run in parallel. A typical use is to call {@link #releaseAll()}
+ * followed by {@link #borrow()} from a TestNG method annotated with BeforeMethod.
+ *
+ * @param <T>
+ *            the spy class handed out by the pool
+ */
+public final class SpyPool<T extends AbstractSpy> {
+	private final Supplier<T> spyFactory;
+	private final Thread owner = Thread.currentThread();
+	private final Deque<T> available = new ArrayDeque<>();
+	private final List<T> borrowed = new ArrayList<>();
+
+	/**
+	 * @param spyFactory
+	 *            creates new spies when there is no released spy to reuse, for instance
+	 *            DataGroupSpy::new
+	 */
+	public SpyPool(Supplier<T> spyFactory) {
+		this.spyFactory = spyFactory;
+	}
+
+	/**
+	 * borrow returns a spy in the same state as a newly created spy, reusing a released spy if
+	 * there is one.
+	 */
+	public T borrow() {
+		ensureCalledFromOwner();
+		T spy = available.isEmpty() ? spyFactory.get() : available.pop();
+		borrowed.add(spy);
+		return spy;
+	}
+
+	/**
+	 * releaseAll resets all borrowed spies and makes them available for reuse. A reset puts back
+	 * the recording mode, call log capacity and other settings changed by the test, as described
+	 * for {@link AbstractSpy#reset()}. Spies borrowed before the call must not be used after it.
+	 */
+	public void releaseAll() {
+		ensureCalledFromOwner();
+		for (T spy : borrowed) {
+			spy.reset();
+			available.push(spy);
+		}
+		borrowed.clear();
+	}
+
+	private void ensureCalledFromOwner() {
+		if (Thread.currentThread() != owner) {
+			throw new IllegalStateException(
+					"SpyPool used from thread " + Thread.currentThread().getName()
+							+ " but is confined to thread " + owner.getName());
+		}
+	}
+}
@@ -0,0 +1,689 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAttribute;
+
+public class AbstractSpyTest {
+	private DataGroupSpy dataGroup;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataGroup = new DataGroupSpy();
+	}
+
+	@Test
+	public void testResetThrowsAwayRecordedCalls() {
+		dataGroup.getNameInData();
+		var mcrBeforeReset = dataGroup.MCR;
+
+		dataGroup.reset();
+
+		assertNotSame(dataGroup.MCR, mcrBeforeReset);
+		dataGroup.MCR.assertMethodNotCalled("getNameInData");
+	}
+
+	@Test
+	public void testResetConnectsNewMCRAndMRV() {
+		var mrvBeforeReset = dataGroup.MRV;
+
+		dataGroup.reset();
+
+		assertNotSame(dataGroup.MRV, mrvBeforeReset);
+		assertTrue(dataGroup.MRV instanceof LazyMethodReturnValues);
+		assertSame(dataGroup.MCR.onlyForTestGetMRV(), dataGroup.MRV);
+	}
+
+	@Test
+	public void testResetThrowsAwayReturnValuesSetByTest() {
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+
+		dataGroup.reset();
+
+		assertEquals(dataGroup.getNameInData(), "");
+	}
+
+	@Test
+	public void testResetKeepsDefaultReturnValues() {
+		dataGroup.getFirstGroupWithNameInData("someChild");
+
+		dataGroup.reset();
+
+		assertTrue(dataGroup.getFirstGroupWithNameInData("someChild") instanceof DataGroupSpy);
+		dataGroup.MCR.assertParameter("getFirstGroupWithNameInData", 0, "nameInData",
+				"someChild");
+	}
+
+	@Test
+	public void testDefaultRecordingModeRecordsAllCalls() {
+		dataGroup.getFirstAtomicValueWithNameInData("someChild");
+
+		assertFalse(dataGroup.MCR instanceof CountingMethodCallRecorder);
+		dataGroup.MCR.assertParameter("getFirstAtomicValueWithNameInData", 0, "nameInData",
+				"someChild");
+	}
+
+	@Test
+	public void testSetRecordingModeCountKeepsOnlyNumberOfCalls() {
+		dataGroup.setRecordingMode(RecordingMode.COUNT);
+
+		dataGroup.getFirstAtomicValueWithNameInData("someChild");
+		dataGroup.getFirstAtomicValueWithNameInData("someOtherChild");
+
+		assertTrue(dataGroup.MCR instanceof CountingMethodCallRecorder);
+		dataGroup.MCR.assertNumberOfCallsToMethod("getFirstAtomicValueWithNameInData", 2);
+		dataGroup.MCR.assertMethodNotCalled("getNameInData");
+	}
+
+	@Test
+	public void testSetRecordingModeNoneRecordsNothing() {
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+
+		dataGroup.getFirstAtomicValueWithNameInData("someChild");
+
+		dataGroup.MCR.assertMethodNotCalled("getFirstAtomicValueWithNameInData");
+	}
+
+	@Test
+	public void testNotRecordingStillAnswersFromMRV() {
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstAtomicValueWithNameInData",
+				() -> "someValue", "someChild");
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+
+		assertEquals(dataGroup.getFirstAtomicValueWithNameInData("someChild"), "someValue");
+		assertEquals(dataGroup.getFirstAtomicValueWithNameInData("someOtherChild"), "");
+		assertTrue(dataGroup.getFirstGroupWithNameInData("someChild") instanceof DataGroupSpy);
+	}
+
+	@Test
+	public void testSetRecordingModeThrowsAwayRecordedCalls() {
+		dataGroup.getNameInData();
+
+		dataGroup.setRecordingMode(RecordingMode.COUNT);
+
+		dataGroup.MCR.assertMethodNotCalled("getNameInData");
+		assertSame(dataGroup.MCR.onlyForTestGetMRV(), dataGroup.MRV);
+	}
+
+	@Test
+	public void testResetRecordsAllCallsAgain() {
+		dataGroup.setRecordingMode(RecordingMode.COUNT);
+		dataGroup.getNameInData();
+
+		dataGroup.reset();
+		dataGroup.getNameInData();
+
+		assertTrue(dataGroup.MCR instanceof AllCallsMethodCallRecorder);
+		dataGroup.MCR.assertNumberOfCallsToMethod("getNameInData", 1);
+		dataGroup.MCR.assertParameters("getNameInData", 0);
+	}
+
+	@Test
+	public void testSetCallLogCapacityKeepsOnlyLastCalls() {
+		dataGroup.setCallLogCapacity(2);
+
+		dataGroup.getFirstAtomicValueWithNameInData("first");
+		dataGroup.getFirstAtomicValueWithNameInData("second");
+		dataGroup.getFirstAtomicValueWithNameInData("third");
+
+		assertTrue(dataGroup.MCR instanceof BoundedMethodCallRecorder);
+		dataGroup.MCR.assertNumberOfCallsToMethod("getFirstAtomicValueWithNameInData", 3);
+		dataGroup.MCR.assertParameter("getFirstAtomicValueWithNameInData", 2, "nameInData",
+				"third");
+		assertEquals(dataGroup.getNumberOfEvictedCallsToMethod(
+				"getFirstAtomicValueWithNameInData"), 1);
+	}
+
+	@Test
+	public void testCallLogKeepsReturnValuesFromMRV() {
+		dataGroup.setCallLogCapacity(1);
+
+		var returnedGroup = dataGroup.getFirstGroupWithNameInData("someChild");
+
+		assertTrue(returnedGroup instanceof DataGroupSpy);
+		dataGroup.MCR.assertReturn("getFirstGroupWithNameInData", 0, returnedGroup);
+		assertSame(dataGroup.MCR.onlyForTestGetMRV(), dataGroup.MRV);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Call log capacity must be greater than zero, was 0")
+	public void testSetCallLogCapacityZeroIsNotAllowed() {
+		dataGroup.setCallLogCapacity(0);
+	}
+
+	@Test
+	public void testNoEvictedCallsWithoutCallLogCapacity() {
+		dataGroup.getNameInData();
+
+		assertEquals(dataGroup.getNumberOfEvictedCallsToMethod("getNameInData"), 0);
+	}
+
+	@Test
+	public void testSetRecordingModeRemovesCallLogCapacity() {
+		dataGroup.setCallLogCapacity(1);
+
+		dataGroup.setRecordingMode(RecordingMode.ALL);
+		dataGroup.getNameInData();
+		dataGroup.getNameInData();
+
+		assertFalse(dataGroup.MCR instanceof BoundedMethodCallRecorder);
+		dataGroup.MCR.assertNumberOfCallsToMethod("getNameInData", 2);
+	}
+
+	@Test
+	public void testResetRemovesCallLogCapacity() {
+		dataGroup.setCallLogCapacity(1);
+
+		dataGroup.reset();
+		dataGroup.getNameInData();
+		dataGroup.getNameInData();
+
+		assertFalse(dataGroup.MCR instanceof BoundedMethodCallRecorder);
+		assertEquals(dataGroup.getNumberOfEvictedCallsToMethod("getNameInData"), 0);
+		dataGroup.MCR.assertParameters("getNameInData", 0);
+	}
+
+	@Test
+	public void testResetAfterRecordingModeConcurrent() {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+
+		dataGroup.reset();
+		dataGroup.memoizeDefaultReturnValues();
+
+		assertTrue(dataGroup.MCR instanceof AllCallsMethodCallRecorder);
+	}
+
+	@Test
+	public void testConcurrentRecordingMode() throws Exception {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataFactory.setRecordingMode(RecordingMode.CONCURRENT);
+
+		Thread thread = new Thread(
+				() -> dataFactory.factorAtomicUsingNameInDataAndValue("someName", "someValue"));
+		thread.start();
+		thread.join();
+		var factoredAtomic = dataFactory.factorAtomicUsingNameInDataAndValue("otherName",
+				"otherValue");
+
+		assertTrue(dataFactory.MCR instanceof ConcurrentMethodCallRecorder);
+		dataFactory.MCR.assertNumberOfCallsToMethod("factorAtomicUsingNameInDataAndValue", 2);
+		dataFactory.MCR.assertParameters("factorAtomicUsingNameInDataAndValue", 0, "someName",
+				"someValue");
+		dataFactory.MCR.assertReturn("factorAtomicUsingNameInDataAndValue", 1, factoredAtomic);
+		assertTrue(factoredAtomic instanceof DataAtomicSpy);
+		String methodName = "factorAtomicUsingNameInDataAndValue";
+		assertTrue(dataFactory.getSequenceNumberForCall(methodName, 0) < dataFactory
+				.getSequenceNumberForCall(methodName, 1));
+	}
+
+	@Test
+	public void testSequenceNumbersOrderCallsToDifferentSpies() {
+		DataGroupSpy otherGroup = new DataGroupSpy();
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		otherGroup.setRecordingMode(RecordingMode.CONCURRENT);
+
+		dataGroup.getNameInData();
+		otherGroup.getNameInData();
+		dataGroup.hasChildren();
+
+		long otherCall = otherGroup.getSequenceNumberForCall("getNameInData", 0);
+		assertTrue(dataGroup.getSequenceNumberForCall("getNameInData", 0) < otherCall);
+		assertTrue(otherCall < dataGroup.getSequenceNumberForCall("hasChildren", 0));
+	}
+
+	@Test
+	public void testConcurrentRecordingModeInstallsAllDefaults() {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+
+		assertEquals(dataGroup.getNameInData(), "someNameInData");
+		assertTrue(dataGroup.getFirstGroupWithNameInData("someChild") instanceof DataGroupSpy);
+	}
+
+	@Test
+	public void testConcurrentRecordingModeAnswersFromMRVUnderLock() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		List<Object> names = new ArrayList<>();
+		for (int i = 0; i < 4000; i++) {
+			names.add("name" + i);
+		}
+		dataGroup.MRV.setReturnValues("getNameInData", names);
+		Set<String> returnedNames = ConcurrentHashMap.newKeySet();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread(() -> {
+				for (int call = 0; call < 1000; call++) {
+					returnedNames.add(dataGroup.getNameInData());
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(returnedNames.size(), 4000);
+		dataGroup.MCR.assertNumberOfCallsToMethod("getNameInData", 4000);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Sequence numbers are only kept in recording mode CONCURRENT, mode is ALL")
+	public void testSequenceNumbersOnlyInConcurrentMode() {
+		dataGroup.getNameInData();
+
+		dataGroup.getSequenceNumberForCall("getNameInData", 0);
+	}
+
+	@Test
+	public void testResetStopsMemoizing() {
+		dataGroup.memoizeDefaultReturnValues();
+		var beforeReset = dataGroup.getFirstGroupWithNameInData("someChild");
+
+		dataGroup.reset();
+		var first = dataGroup.getFirstGroupWithNameInData("someChild");
+
+		assertNotSame(first, beforeReset);
+		assertNotSame(dataGroup.getFirstGroupWithNameInData("someChild"), first);
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+	}
+
+	@Test
+	public void testMemoizingWorksWhenNotRecordingAllCalls() {
+		dataGroup.memoizeDefaultReturnValues();
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+
+		assertSame(dataGroup.getFirstGroupWithNameInData("someChild"),
+				dataGroup.getFirstGroupWithNameInData("someChild"));
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Default return values can not be memoized in recording mode CONCURRENT")
+	public void testMemoizingNotAllowedInConcurrentMode() {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+
+		dataGroup.memoizeDefaultReturnValues();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Recording mode CONCURRENT can not be used when memoizing defaults")
+	public void testConcurrentModeNotAllowedWhenMemoizing() {
+		dataGroup.memoizeDefaultReturnValues();
+
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Call timestamps are not recorded for DataGroupSpy, use recordCallTimestamps\\(\\)")
+	public void testCallTimestampsNotRecordedByDefault() {
+		dataGroup.getNameInData();
+
+		dataGroup.getTimestampForCall("getNameInData", 0);
+	}
+
+	@Test
+	public void testRecordCallTimestamps() {
+		dataGroup.recordCallTimestamps();
+		long before = System.nanoTime();
+
+		dataGroup.getNameInData();
+		dataGroup.getNameInData();
+		long after = System.nanoTime();
+
+		long first = dataGroup.getTimestampForCall("getNameInData", 0);
+		long second = dataGroup.getTimestampForCall("getNameInData", 1);
+		assertTrue(first - before >= 0);
+		assertTrue(second - first >= 0);
+		assertTrue(after - second >= 0);
+	}
+
+	@Test
+	public void testRecordCallTimestampsForMoreCallsThanInitialCapacity() {
+		dataGroup.recordCallTimestamps();
+
+		for (int i = 0; i < 20; i++) {
+			dataGroup.hasChildren();
+		}
+
+		assertTrue(dataGroup.getTimestampForCall("hasChildren", 19)
+				- dataGroup.getTimestampForCall("hasChildren", 0) >= 0);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "No timestamp for call number 1 to method getNameInData")
+	public void testTimestampForCallNotMade() {
+		dataGroup.recordCallTimestamps();
+		dataGroup.getNameInData();
+
+		dataGroup.getTimestampForCall("getNameInData", 1);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Call timestamps are not recorded for DataGroupSpy, use recordCallTimestamps\\(\\)")
+	public void testResetStopsRecordingTimestamps() {
+		dataGroup.recordCallTimestamps();
+		dataGroup.getNameInData();
+
+		dataGroup.reset();
+		dataGroup.getNameInData();
+
+		dataGroup.getTimestampForCall("getNameInData", 0);
+	}
+
+	@Test
+	public void testTimestampsKeptForCallsEvictedFromCallLog() {
+		dataGroup.recordCallTimestamps();
+		dataGroup.setCallLogCapacity(1);
+
+		dataGroup.getNameInData();
+		dataGroup.getNameInData();
+
+		assertEquals(dataGroup.getNumberOfEvictedCallsToMethod("getNameInData"), 1);
+		dataGroup.getTimestampForCall("getNameInData", 0);
+	}
+
+	@Test
+	public void testSetLatencyDelaysCallsToMethod() {
+		dataGroup.setLatency("getNameInData", SpyLatency.fixed(Duration.ofMillis(20)));
+		long before = System.nanoTime();
+
+		dataGroup.getNameInData();
+
+		assertTrue(System.nanoTime() - before >= Duration.ofMillis(20).toNanos());
+		dataGroup.MCR.assertMethodWasCalled("getNameInData");
+	}
+
+	@Test
+	public void testSetLatencyDoesNotDelayOtherMethods() {
+		dataGroup.setLatency("getNameInData", SpyLatency.fixed(Duration.ofMinutes(1)));
+
+		dataGroup.hasChildren();
+
+		dataGroup.MCR.assertMethodWasCalled("hasChildren");
+	}
+
+	@Test
+	public void testTimestampTakenBeforeDelay() {
+		dataGroup.recordCallTimestamps();
+		dataGroup.setLatency("getNameInData", SpyLatency.fixed(Duration.ofMillis(20)));
+
+		dataGroup.getNameInData();
+		dataGroup.hasChildren();
+
+		assertTrue(dataGroup.getTimestampForCall("hasChildren", 0)
+				- dataGroup.getTimestampForCall("getNameInData", 0) >= Duration.ofMillis(20)
+						.toNanos());
+	}
+
+	@Test
+	public void testRemoveLatency() {
+		dataGroup.setLatency("getNameInData", SpyLatency.fixed(Duration.ofMinutes(1)));
+
+		dataGroup.removeLatency("getNameInData");
+
+		dataGroup.getNameInData();
+	}
+
+	@Test
+	public void testResetThrowsAwayLatencies() {
+		dataGroup.setLatency("getNameInData", SpyLatency.fixed(Duration.ofMinutes(1)));
+
+		dataGroup.reset();
+
+		dataGroup.getNameInData();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Calls are not recorded for awaiting on DataGroupSpy, "
+			+ "use recordCallsForAwaiting\\(\\)")
+	public void testAwaitingNotRecordedByDefault() throws Exception {
+		dataGroup.awaitNumberOfCallsToMethod("getNameInData", 1, Duration.ZERO);
+	}
+
+	@Test
+	public void testAwaitNumberOfCallsAlreadyMade() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+		dataGroup.getNameInData();
+		dataGroup.getNameInData();
+
+		dataGroup.awaitNumberOfCallsToMethod("getNameInData", 2, Duration.ZERO);
+	}
+
+	@Test
+	public void testAwaitNumberOfCallsMadeFromOtherThread() throws Exception {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataFactory.setRecordingMode(RecordingMode.CONCURRENT);
+		dataFactory.recordCallsForAwaiting();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 3; i++) {
+				executor.execute(() -> dataFactory.factorGroupUsingNameInData("someNameInData"));
+			}
+
+			dataFactory.awaitNumberOfCallsToMethod("factorGroupUsingNameInData", 3,
+					Duration.ofMinutes(1));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testAwaitNumberOfCallsTimesOut() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+		dataGroup.getNameInData();
+		long before = System.nanoTime();
+		try {
+			dataGroup.awaitNumberOfCallsToMethod("getNameInData", 2, Duration.ofMillis(20));
+			fail("Expected an AssertionError");
+		} catch (AssertionError e) {
+			assertEquals(e.getMessage(),
+					"Method getNameInData was called 1 times within PT0.02S, expected 2");
+		}
+		assertTrue(System.nanoTime() - before >= Duration.ofMillis(20).toNanos());
+	}
+
+	@Test
+	public void testAwaitCallWithParametersMadeFromOtherThread() throws Exception {
+		DataListSpy dataList = new DataListSpy();
+		dataList.setRecordingMode(RecordingMode.CONCURRENT);
+		dataList.recordCallsForAwaiting();
+		DataRecordSpy first = new DataRecordSpy();
+		DataRecordSpy second = new DataRecordSpy();
+		Thread thread = new Thread(() -> {
+			dataList.addData(first);
+			dataList.addData(second);
+		});
+		thread.start();
+
+		dataList.awaitCallWithParameters("addData", Duration.ofMinutes(1), second);
+
+		thread.join();
+	}
+
+	@Test
+	public void testAwaitCallWithParametersComparesArraysOnContent() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+		DataAttributeSpy attribute = new DataAttributeSpy();
+		dataGroup.getAllChildrenWithNameInDataAndAttributes("someNameInData", attribute);
+
+		dataGroup.awaitCallWithParameters("getAllChildrenWithNameInDataAndAttributes",
+				Duration.ZERO, "someNameInData", new DataAttribute[] { attribute });
+	}
+
+	@Test
+	public void testAwaitCallWithParametersTimesOut() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+		dataGroup.getFirstGroupWithNameInData("someChild");
+		try {
+			dataGroup.awaitCallWithParameters("getFirstGroupWithNameInData",
+					Duration.ofMillis(1), "otherChild");
+			fail("Expected an AssertionError");
+		} catch (AssertionError e) {
+			assertEquals(e.getMessage(), "Method getFirstGroupWithNameInData was not called "
+					+ "with parameters [otherChild] within PT0.001S");
+		}
+	}
+
+	@Test
+	public void testResetStopsRecordingForAwaiting() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+		dataGroup.getNameInData();
+
+		dataGroup.reset();
+		dataGroup.setCallLogCapacity(1);
+
+		try {
+			dataGroup.awaitNumberOfCallsToMethod("getNameInData", 1, Duration.ZERO);
+			fail("Expected an IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertEquals(e.getMessage(), "Calls are not recorded for awaiting on DataGroupSpy,"
+					+ " use recordCallsForAwaiting()");
+		}
+	}
+
+	@Test
+	public void testAwaitedCallIsRecordedWithItsReturnValue() throws Exception {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataFactory.setRecordingMode(RecordingMode.CONCURRENT);
+		dataFactory.recordCallsForAwaiting();
+		Thread thread = new Thread(() -> dataFactory.factorGroupUsingNameInData("someNameInData"));
+		thread.start();
+
+		dataFactory.awaitCallWithParameters("factorGroupUsingNameInData", Duration.ofMinutes(1),
+				"someNameInData");
+
+		dataFactory.MCR.assertParameters("factorGroupUsingNameInData", 0, "someNameInData");
+		assertTrue(dataFactory.MCR.getReturnValue("factorGroupUsingNameInData",
+				0) instanceof DataGroupSpy);
+		thread.join();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Calls can only be awaited in recording mode CONCURRENT, mode is ALL")
+	public void testAwaitingRequiresRecordingModeConcurrent() {
+		dataGroup.recordCallsForAwaiting();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Calls can only be awaited in recording mode CONCURRENT, mode is COUNT")
+	public void testAwaitingInRecordingModeCount() {
+		dataGroup.setRecordingMode(RecordingMode.COUNT);
+
+		dataGroup.recordCallsForAwaiting();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Recording mode ALL can not be used when recording calls for awaiting")
+	public void testRecordingModeCanNotBeChangedWhileAwaiting() {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+
+		dataGroup.setRecordingMode(RecordingMode.ALL);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "A call log capacity can not be used when recording calls for awaiting")
+	public void testCallLogCapacityCanNotBeSetWhileAwaiting() {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+
+		dataGroup.setCallLogCapacity(1);
+	}
+
+	@Test
+	public void testAwaitCallsFromManyWritingThreads() throws Exception {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataFactory.setRecordingMode(RecordingMode.CONCURRENT);
+		dataFactory.recordCallsForAwaiting();
+		int numberOfThreads = 4;
+		int callsPerThread = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			for (int thread = 0; thread < numberOfThreads; thread++) {
+				String value = "value" + thread;
+				executor.execute(() -> {
+					for (int call = 0; call < callsPerThread; call++) {
+						dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", value);
+					}
+				});
+			}
+
+			dataFactory.awaitNumberOfCallsToMethod("factorAtomicUsingNameInDataAndValue",
+					numberOfThreads * callsPerThread, Duration.ofMinutes(1));
+
+			dataFactory.MCR.assertNumberOfCallsToMethod("factorAtomicUsingNameInDataAndValue",
+					numberOfThreads * callsPerThread);
+			for (int thread = 0; thread < numberOfThreads; thread++) {
+				dataFactory.MCR.assertCalledParameters("factorAtomicUsingNameInDataAndValue",
+						"someNameInData", "value" + thread);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testAwaitCallWithParametersMadeToFake() throws Exception {
+		DataGroupFake dataGroupFake = DataGroupFake.withNameInData("someNameInData");
+		dataGroupFake.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroupFake.recordCallsForAwaiting();
+		Thread thread = new Thread(() -> dataGroupFake.setRepeatId("someRepeatId"));
+		thread.start();
+
+		dataGroupFake.awaitCallWithParameters("setRepeatId", Duration.ofMinutes(1),
+				"someRepeatId");
+
+		dataGroupFake.MCR.assertParameters("setRepeatId", 0, "someRepeatId");
+		thread.join();
+	}
+
+	@Test(expectedExceptions = InterruptedException.class)
+	public void testInterruptedWhileAwaiting() throws Exception {
+		dataGroup.setRecordingMode(RecordingMode.CONCURRENT);
+		dataGroup.recordCallsForAwaiting();
+		Thread.currentThread().interrupt();
+
+		dataGroup.awaitNumberOfCallsToMethod("getNameInData", 1, Duration.ofMinutes(1));
+	}
+}
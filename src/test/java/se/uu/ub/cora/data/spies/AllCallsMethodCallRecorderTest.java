@@ -0,0 +1,323 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+public class AllCallsMethodCallRecorderTest {
+	private static final String METHOD_NAME = "someMethod";
+	private AllCallsMethodCallRecorder recorder;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recorder = new AllCallsMethodCallRecorder();
+	}
+
+	@Test
+	public void testNoCalls() {
+		assertEquals(recorder.getNumberOfCallsToMethod(METHOD_NAME), 0);
+		assertFalse(recorder.methodWasCalled(METHOD_NAME));
+		recorder.assertMethodNotCalled(METHOD_NAME);
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 0);
+	}
+
+	@Test
+	public void testFullMCRSurface() {
+		MethodCallRecorderSurface surface = new MethodCallRecorderSurface(recorder);
+
+		surface.recordCalls();
+
+		surface.assertCallsAreKept();
+	}
+
+	@Test
+	public void testCallsAreKeptInCallOrder() {
+		Object returned0 = someMethod("value0", 0);
+		Object returned1 = someMethod("value1", 1);
+
+		recorder.assertMethodWasCalled(METHOD_NAME);
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 2);
+		recorder.assertParameter(METHOD_NAME, 0, "value", "value0");
+		recorder.assertParameter(METHOD_NAME, 1, "number", 1);
+		recorder.assertParameters(METHOD_NAME, 1, "value1", 1);
+		recorder.assertReturn(METHOD_NAME, 0, returned0);
+		assertSame(recorder.getReturnValue(METHOD_NAME, 1), returned1);
+	}
+
+	@Test
+	public void testManyCallsAreKept() {
+		for (int i = 0; i < 100; i++) {
+			someMethod("value" + i, i);
+		}
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 100);
+		recorder.assertParameters(METHOD_NAME, 0, "value0", 0);
+		recorder.assertParameters(METHOD_NAME, 99, "value99", 99);
+	}
+
+	@Test
+	public void testGetParameters() {
+		someMethod("value0", 0);
+
+		assertEquals(recorder.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 0,
+				"value"), "value0");
+		assertEquals(recorder.getValueForMethodNameAndCallNumberAndParameterName(METHOD_NAME, 0,
+				"number"), 0);
+		Map<String, Object> parameters = recorder.getParametersForMethodAndCallNumber(METHOD_NAME,
+				0);
+		assertEquals(List.copyOf(parameters.keySet()), List.of("value", "number"));
+		assertEquals(List.copyOf(parameters.values()), List.of("value0", 0));
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod has no parameter named other")
+	public void testGetUnknownParameterFails() {
+		someMethod("value0", 0);
+
+		recorder.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 0, "other");
+	}
+
+	@Test
+	public void testAssertParameterComparesObjectsByIdentity() {
+		List<String> value = List.of("a");
+		recordCallWithObject(value);
+
+		recorder.assertParameter(METHOD_NAME, 0, "object", value);
+		try {
+			recorder.assertParameter(METHOD_NAME, 0, "object", List.of("a"));
+			fail();
+		} catch (AssertionError e) {
+			assertEquals(e.getMessage(), "Parameter object of call number 0 to method someMethod "
+					+ "was [a], expected [a]");
+		}
+	}
+
+	@Test
+	public void testAssertParameterAsEqualComparesContent() {
+		recordCallWithObject(new String[] { "a", "b" });
+
+		recorder.assertParameterAsEqual(METHOD_NAME, 0, "object", new String[] { "a", "b" });
+		recorder.assertParametersAsEqual(METHOD_NAME, 0, (Object) new String[] { "a", "b" });
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Parameter object of call number 0 to method someMethod was \\[a, b\\], "
+			+ "expected \\[a\\]")
+	public void testAssertParameterAsEqualFails() {
+		recordCallWithObject(new String[] { "a", "b" });
+
+		recorder.assertParameterAsEqual(METHOD_NAME, 0, "object", new String[] { "a" });
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Parameters of call number 0 to method someMethod were \\[value0, 0\\], "
+			+ "expected \\[value0\\]")
+	public void testAssertParametersFailsOnNumberOfParameters() {
+		someMethod("value0", 0);
+
+		recorder.assertParameters(METHOD_NAME, 0, "value0");
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Parameters of call number 0 to method someMethod were \\[\\[a\\]\\], "
+			+ "expected \\[\\[b\\]\\]")
+	public void testAssertParametersAsEqualFails() {
+		recordCallWithObject(new String[] { "a" });
+
+		recorder.assertParametersAsEqual(METHOD_NAME, 0, (Object) new String[] { "b" });
+	}
+
+	@Test
+	public void testAssertCalledParameters() {
+		someMethod("value0", 0);
+		Object returned1 = someMethod("value1", 1);
+
+		recorder.assertCalledParameters(METHOD_NAME, "value1", 1);
+		assertSame(recorder.assertCalledParametersReturn(METHOD_NAME, "value1", 1), returned1);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was not called with parameters \\[value1, 0\\]")
+	public void testAssertCalledParametersFails() {
+		someMethod("value0", 0);
+
+		recorder.assertCalledParameters(METHOD_NAME, "value1", 0);
+	}
+
+	@Test
+	public void testWasCalledWithEqualParameters() {
+		recordCallWithObject(new String[] { "a" });
+
+		assertTrue(recorder.wasCalledWithEqualParameters(METHOD_NAME,
+				(Object) new String[] { "a" }));
+		assertFalse(recorder.wasCalledWithEqualParameters(METHOD_NAME,
+				(Object) new String[] { "b" }));
+		assertFalse(recorder.wasCalledWithEqualParameters("someOtherMethod"));
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Return value of call number 0 to method someMethod was .*, expected other")
+	public void testAssertReturnFails() {
+		someMethod("value0", 0);
+
+		recorder.assertReturn(METHOD_NAME, 0, "other");
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Call number 0 to method someMethod has not returned")
+	public void testReturnValueOfCallNotReturnedFails() {
+		recorder.recordCall(METHOD_NAME, 0, null, null, null, null, null, null, null, null);
+
+		recorder.getReturnValue(METHOD_NAME, 0);
+	}
+
+	@Test
+	public void testNullReturnValueIsKept() {
+		long call = recorder.recordCall(METHOD_NAME, 0, null, null, null, null, null, null, null,
+				null);
+		recorder.recordReturn(METHOD_NAME, call, null);
+
+		recorder.assertReturn(METHOD_NAME, 0, null);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was called 1 times, there is no call number 1")
+	public void testAssertOnCallNotMadeFails() {
+		someMethod("value0", 0);
+
+		recorder.assertParameter(METHOD_NAME, 1, "value", "value0");
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was not called")
+	public void testAssertOnMethodNotCalledFails() {
+		recorder.getReturnValue(METHOD_NAME, 0);
+	}
+
+	@Test
+	public void testOverloadsAreNumberedTogether() {
+		Object returned0 = someMethod("value0", 0);
+		Object object = new Object();
+		recordCallWithObject(object);
+		Object returned2 = someMethod("value2", 2);
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 3);
+		recorder.assertParameters(METHOD_NAME, 0, "value0", 0);
+		recorder.assertParameters(METHOD_NAME, 1, object);
+		assertEquals(recorder.getParametersForMethodAndCallNumber(METHOD_NAME, 1),
+				Map.of("object", object));
+		recorder.assertParameters(METHOD_NAME, 2, "value2", 2);
+		recorder.assertReturn(METHOD_NAME, 0, returned0);
+		recorder.assertReturn(METHOD_NAME, 2, returned2);
+		recorder.assertCalledParameters(METHOD_NAME, object);
+	}
+
+	@Test
+	public void testOverloadsWithSameNumberOfParametersAreKeptApart() {
+		recordCallWithObject("value0");
+		recorder.recordCall(METHOD_NAME, 1, "other", "value1", null, null, null, null, null,
+				null);
+
+		recorder.assertParameter(METHOD_NAME, 0, "object", "value0");
+		recorder.assertParameter(METHOD_NAME, 1, "other", "value1");
+	}
+
+	@Test
+	public void testOverloadAfterManyCalls() {
+		for (int i = 0; i < 10; i++) {
+			someMethod("value" + i, i);
+		}
+		recordCallWithObject("object");
+		someMethod("value11", 11);
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 12);
+		recorder.assertParameters(METHOD_NAME, 9, "value9", 9);
+		recorder.assertParameters(METHOD_NAME, 10, "object");
+		recorder.assertParameters(METHOD_NAME, 11, "value11", 11);
+	}
+
+	@Test
+	public void testCallsRecordedThroughMCRMethodsAreKept() {
+		MethodReturnValues mrv = new MethodReturnValues();
+		recorder.useMRV(mrv);
+		mrv.setDefaultReturnValuesSupplier("calledThroughMCR", () -> "returnedFromMRV");
+
+		Object returnValue = calledThroughMCR("value0");
+		calledWithAddCall();
+
+		recorder.assertParameters("calledThroughMCR", 0, "value0");
+		assertEquals(returnValue, "returnedFromMRV");
+		recorder.assertReturn("calledThroughMCR", 0, returnValue);
+		recorder.assertParameters("calledWithAddCall", 0, "value");
+		recorder.assertReturn("calledWithAddCall", 0, "returned");
+	}
+
+	private Object calledThroughMCR(String value) {
+		return recorder.addCallAndReturnFromMRV("value", value);
+	}
+
+	private void calledWithAddCall() {
+		recorder.addCall("value", "value");
+		recorder.addReturned("returned");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Calls are recorded with pairs of parameter name and value, got 3 arguments")
+	public void testAddCallWithOddNumberOfArgumentsFails() {
+		recorder.addCall("value", "value", "other");
+	}
+
+	@Test
+	public void testAddCallWithMoreThanFourParameters() {
+		calledWithFiveParameters();
+		calledWithFiveParameters();
+
+		recorder.assertNumberOfCallsToMethod("calledWithFiveParameters", 2);
+		recorder.assertParameters("calledWithFiveParameters", 1, "a", "b", "c", "d", "e");
+		recorder.assertParameter("calledWithFiveParameters", 0, "fifth", "e");
+	}
+
+	private void calledWithFiveParameters() {
+		recorder.addCall("first", "a", "second", "b", "third", "c", "fourth", "d", "fifth", "e");
+	}
+
+	private Object someMethod(String value, int number) {
+		long call = recorder.recordCall(METHOD_NAME, 2, "value", value, "number", number, null,
+				null, null, null);
+		Object returnValue = new Object();
+		recorder.recordReturn(METHOD_NAME, call, returnValue);
+		return returnValue;
+	}
+
+	private void recordCallWithObject(Object object) {
+		recorder.recordCall(METHOD_NAME, 1, "object", object, null, null, null, null, null, null);
+	}
+}
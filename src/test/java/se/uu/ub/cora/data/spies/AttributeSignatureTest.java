@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAttribute;
+
+public class AttributeSignatureTest {
+
+	private DataAttribute createAttribute(String nameInData, String value) {
+		DataAttributeSpy attribute = new DataAttributeSpy();
+		attribute.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		attribute.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return attribute;
+	}
+
+	@Test
+	public void testNoAttributes() {
+		assertSame(AttributeSignature.of(), AttributeSignature.NO_ATTRIBUTES);
+		assertSame(AttributeSignature.of(List.of()), AttributeSignature.NO_ATTRIBUTES);
+	}
+
+	@Test
+	public void testOrderOfAttributesDoesNotMatter() {
+		DataAttribute type = createAttribute("type", "someType");
+		DataAttribute language = createAttribute("language", "sv");
+
+		AttributeSignature signature = AttributeSignature.of(type, language);
+
+		assertEquals(AttributeSignature.of(language, type), signature);
+		assertEquals(AttributeSignature.of(List.of(language, type)).hashCode(),
+				signature.hashCode());
+		assertEquals(signature.toString(), "[language, sv, type, someType]");
+	}
+
+	@Test
+	public void testDifferentValuesGiveDifferentSignatures() {
+		AttributeSignature signature = AttributeSignature.of(createAttribute("type", "someType"));
+
+		assertNotEquals(AttributeSignature.of(createAttribute("type", "otherType")), signature);
+		assertNotEquals(AttributeSignature.of(createAttribute("other", "someType")), signature);
+		assertNotEquals(AttributeSignature.NO_ATTRIBUTES, signature);
+		assertNotEquals(signature, "[type, someType]");
+	}
+
+	@Test
+	public void testAttributesAreReadOnce() {
+		DataAttributeSpy type = (DataAttributeSpy) createAttribute("type", "someType");
+
+		AttributeSignature.of(type, createAttribute("language", "sv"));
+
+		type.MCR.assertNumberOfCallsToMethod("getValue", 1);
+	}
+
+	@Test
+	public void testOfNamesAndValues() {
+		DataAttribute type = createAttribute("type", "someType");
+		DataAttribute language = createAttribute("language", "sv");
+
+		AttributeSignature signature = AttributeSignature.ofNamesAndValues("type", "someType",
+				"language", "sv");
+
+		assertEquals(signature, AttributeSignature.of(type, language));
+		assertSame(AttributeSignature.ofNamesAndValues(), AttributeSignature.NO_ATTRIBUTES);
+	}
+
+	@Test
+	public void testAttributesAtPosition() {
+		AttributeSignature signature = AttributeSignature.ofNamesAndValues("type", "someType",
+				"language", "sv");
+
+		assertEquals(signature.numberOfAttributes(), 2);
+		assertEquals(signature.nameAt(0), "language");
+		assertEquals(signature.valueAt(0), "sv");
+		assertEquals(signature.nameAt(1), "type");
+		assertEquals(signature.valueAt(1), "someType");
+	}
+}
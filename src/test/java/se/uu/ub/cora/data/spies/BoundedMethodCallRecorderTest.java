@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BoundedMethodCallRecorderTest {
+	private static final String METHOD_NAME = "someMethod";
+	private BoundedMethodCallRecorder recorder;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recorder = new BoundedMethodCallRecorder(2);
+	}
+
+	@Test
+	public void testNoCalls() {
+		assertEquals(recorder.getNumberOfCallsToMethod(METHOD_NAME), 0);
+		assertEquals(recorder.getNumberOfEvictedCallsToMethod(METHOD_NAME), 0);
+		assertFalse(recorder.methodWasCalled(METHOD_NAME));
+		recorder.assertMethodNotCalled(METHOD_NAME);
+	}
+
+	@Test
+	public void testFullMCRSurface() {
+		MethodCallRecorderSurface surface = new MethodCallRecorderSurface(recorder);
+
+		surface.recordCalls();
+
+		surface.assertCallsAreKept();
+	}
+
+	@Test
+	public void testCallsWithinCapacityAreKept() {
+		Object returned0 = someMethod("value0");
+		Object returned1 = someMethod("value1");
+
+		recorder.assertMethodWasCalled(METHOD_NAME);
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 2);
+		assertEquals(recorder.getNumberOfEvictedCallsToMethod(METHOD_NAME), 0);
+		recorder.assertParameter(METHOD_NAME, 0, "value", "value0");
+		recorder.assertParameters(METHOD_NAME, 1, "value1");
+		recorder.assertReturn(METHOD_NAME, 0, returned0);
+		assertSame(recorder.getReturnValue(METHOD_NAME, 1), returned1);
+	}
+
+	@Test
+	public void testOldestCallsAreEvicted() {
+		someMethod("value0");
+		someMethod("value1");
+		someMethod("value2");
+		Object returned3 = someMethod("value3");
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 4);
+		assertEquals(recorder.getNumberOfEvictedCallsToMethod(METHOD_NAME), 2);
+		assertEquals(recorder.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 2,
+				"value"), "value2");
+		recorder.assertParameterAsEqual(METHOD_NAME, 3, "value", "value3");
+		assertEquals(recorder.getParametersForMethodAndCallNumber(METHOD_NAME, 3).get("value"),
+				"value3");
+		recorder.assertReturn(METHOD_NAME, 3, returned3);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Call number 0 to method someMethod has been evicted, only the last 2 of 3 calls "
+			+ "are kept")
+	public void testAssertOnEvictedCallFails() {
+		someMethod("value0");
+		someMethod("value1");
+		someMethod("value2");
+
+		recorder.assertParameter(METHOD_NAME, 0, "value", "value0");
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was called 1 times, there is no call number 1")
+	public void testAssertOnCallNotMadeFails() {
+		someMethod("value0");
+
+		recorder.getReturnValue(METHOD_NAME, 1);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was not called")
+	public void testAssertOnMethodNotCalledFails() {
+		recorder.assertParameter(METHOD_NAME, 0, "value", "value0");
+	}
+
+	@Test
+	public void testMethodsAreKeptSeparately() {
+		someMethod("value0");
+		someMethod("value1");
+		someMethod("value2");
+		recorder.recordCall("someOtherMethod", 1, "value", "otherValue", null, null, null, null,
+				null, null);
+
+		assertTrue(recorder.methodWasCalled("someOtherMethod"));
+		recorder.assertNumberOfCallsToMethod("someOtherMethod", 1);
+		assertEquals(recorder.getNumberOfEvictedCallsToMethod("someOtherMethod"), 0);
+	}
+
+	@Test
+	public void testReturnOfEvictedCallIsNotKept() {
+		long call = recorder.recordCall(METHOD_NAME, 1, "value", "value0", null, null, null, null,
+				null, null);
+		someMethod("value1");
+		Object returned2 = someMethod("value2");
+
+		recorder.recordReturn(METHOD_NAME, call, "returnedAfterEviction");
+
+		recorder.assertReturn(METHOD_NAME, 2, returned2);
+	}
+
+	@Test
+	public void testAssertCalledParametersOnlySearchesKeptCalls() {
+		someMethod("value0");
+		someMethod("value1");
+		someMethod("value2");
+
+		recorder.assertCalledParameters(METHOD_NAME, "value1");
+		try {
+			recorder.assertCalledParameters(METHOD_NAME, "value0");
+			fail();
+		} catch (AssertionError e) {
+			assertEquals(e.getMessage(), "Method someMethod was not called with parameters "
+					+ "[value0] in any of the kept calls, 1 calls have been evicted");
+		}
+	}
+
+	@Test
+	public void testOverloadsAreEvictedTogether() {
+		someMethod("value0");
+		recorder.recordCall(METHOD_NAME, 2, "value", "value1", "number", 1, null, null, null,
+				null);
+		someMethod("value2");
+		recorder.recordCall(METHOD_NAME, 0, null, null, null, null, null, null, null, null);
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 4);
+		assertEquals(recorder.getNumberOfEvictedCallsToMethod(METHOD_NAME), 2);
+		recorder.assertParameters(METHOD_NAME, 2, "value2");
+		recorder.assertParameters(METHOD_NAME, 3);
+	}
+
+	private Object someMethod(String value) {
+		long call = recorder.recordCall(METHOD_NAME, 1, "value", value, null, null, null, null,
+				null, null);
+		Object returnValue = new Object();
+		recorder.recordReturn(METHOD_NAME, call, returnValue);
+		return returnValue;
+	}
+}
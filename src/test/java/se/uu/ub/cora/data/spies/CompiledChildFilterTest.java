@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CompiledChildFilterTest {
+	private SortedMap<String, Set<String>> possibleValues;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		possibleValues = new TreeMap<>();
+	}
+
+	private DataGroupFake createChild(String nameInData, String... namesAndValues) {
+		DataGroupFake child = DataGroupFake.withNameInData(nameInData);
+		for (int i = 0; i < namesAndValues.length; i += 2) {
+			child.addAttributeByIdWithValue(namesAndValues[i], namesAndValues[i + 1]);
+		}
+		return child;
+	}
+
+	@Test
+	public void testNoAttributes() {
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+
+		assertEquals(filter.getNameInData(), "someChild");
+		assertTrue(filter.matches(createChild("someChild")));
+		assertFalse(filter.matches(createChild("otherChild")));
+		assertFalse(filter.matches(createChild("someChild", "type", "someType")));
+		assertSame(filter.onlySignature(), AttributeSignature.NO_ATTRIBUTES);
+	}
+
+	@Test
+	public void testSingleValues() {
+		possibleValues.put("type", Set.of("someType"));
+		possibleValues.put("language", Set.of("sv"));
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+
+		assertTrue(filter.matches(createChild("someChild", "type", "someType", "language", "sv")));
+		assertFalse(filter.matches(createChild("someChild", "type", "someType", "language", "en")));
+		assertFalse(filter.matches(createChild("someChild", "type", "someType")));
+		assertFalse(filter.matches(
+				createChild("someChild", "type", "someType", "language", "sv", "extra", "x")));
+		assertEquals(filter.onlySignature(),
+				AttributeSignature.ofNamesAndValues("language", "sv", "type", "someType"));
+	}
+
+	@Test
+	public void testPossibleValues() {
+		possibleValues.put("type", Set.of("someType", "otherType"));
+		possibleValues.put("language", Set.of("sv"));
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+
+		assertTrue(filter.matches(createChild("someChild", "type", "otherType", "language", "sv")));
+		assertFalse(
+				filter.matches(createChild("someChild", "type", "thirdType", "language", "sv")));
+		assertFalse(
+				filter.matches(createChild("someChild", "other", "someType", "language", "sv")));
+		assertNull(filter.onlySignature());
+	}
+
+	@Test
+	public void testNoPossibleValuesMatchesNothing() {
+		possibleValues.put("type", Set.of());
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+
+		assertFalse(filter.matches(createChild("someChild", "type", "someType")));
+		assertNull(filter.onlySignature());
+	}
+
+	@Test
+	public void testMatchesSignature() {
+		possibleValues.put("type", Set.of("someType", "otherType"));
+		possibleValues.put("language", Set.of("sv"));
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+
+		assertTrue(filter.matches(
+				AttributeSignature.ofNamesAndValues("type", "someType", "language", "sv")));
+		assertFalse(filter.matches(
+				AttributeSignature.ofNamesAndValues("type", "someType", "language", "en")));
+		assertFalse(filter.matches(AttributeSignature.ofNamesAndValues("type", "someType")));
+		assertFalse(filter.matches(
+				AttributeSignature.ofNamesAndValues("type", "someType", "other", "sv")));
+	}
+
+	@Test
+	public void testEqualFiltersCanBeUsedAsKeys() {
+		possibleValues.put("type", Set.of("someType", "otherType"));
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+		SortedMap<String, Set<String>> samePossibleValues = new TreeMap<>();
+		samePossibleValues.put("type", Set.of("otherType", "someType"));
+
+		CompiledChildFilter sameFilter = CompiledChildFilter.compile("someChild",
+				samePossibleValues);
+
+		assertEquals(sameFilter, filter);
+		assertEquals(sameFilter.hashCode(), filter.hashCode());
+		assertNotEquals(CompiledChildFilter.compile("otherChild", possibleValues), filter);
+		samePossibleValues.put("type", Set.of("someType"));
+		assertNotEquals(CompiledChildFilter.compile("someChild", samePossibleValues), filter);
+	}
+
+	@Test
+	public void testLaterChangesToPossibleValuesDoNotChangeFilter() {
+		Set<String> types = new HashSet<>(Set.of("someType"));
+		possibleValues.put("type", types);
+		CompiledChildFilter filter = CompiledChildFilter.compile("someChild", possibleValues);
+
+		types.add("otherType");
+		possibleValues.put("language", Set.of("sv"));
+
+		assertFalse(filter.matches(createChild("someChild", "type", "otherType")));
+		assertTrue(filter.matches(createChild("someChild", "type", "someType")));
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ConcurrentMethodCallRecorderTest {
+	private static final String METHOD_NAME = "someMethod";
+	private ConcurrentMethodCallRecorder recorder;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recorder = new ConcurrentMethodCallRecorder();
+	}
+
+	@Test
+	public void testNoCalls() {
+		assertEquals(recorder.getNumberOfCallsToMethod(METHOD_NAME), 0);
+		assertFalse(recorder.methodWasCalled(METHOD_NAME));
+		recorder.assertMethodNotCalled(METHOD_NAME);
+	}
+
+	@Test
+	public void testFullMCRSurface() {
+		MethodCallRecorderSurface surface = new MethodCallRecorderSurface(recorder);
+
+		surface.recordCalls();
+
+		surface.assertCallsAreKept();
+	}
+
+	@Test
+	public void testCallsAreMergedInSequenceOrder() {
+		Object returned0 = someMethod("value0");
+		someMethod("value1");
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 2);
+		recorder.assertParameter(METHOD_NAME, 0, "value", "value0");
+		recorder.assertParameters(METHOD_NAME, 1, "value1");
+		recorder.assertReturn(METHOD_NAME, 0, returned0);
+		assertTrue(recorder.getSequenceNumberForCall(METHOD_NAME, 0) < recorder
+				.getSequenceNumberForCall(METHOD_NAME, 1));
+	}
+
+	@Test
+	public void testCallsMadeAfterMergeAreMerged() {
+		someMethod("value0");
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 1);
+
+		someMethod("value1");
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 2);
+		recorder.assertParameter(METHOD_NAME, 1, "value", "value1");
+	}
+
+	@Test
+	public void testSequenceNumbersAreSharedBetweenRecorders() {
+		ConcurrentMethodCallRecorder otherRecorder = new ConcurrentMethodCallRecorder();
+		someMethod("value0");
+		otherRecorder.recordCall(METHOD_NAME, 0, null, null, null, null, null, null, null, null);
+		someMethod("value1");
+
+		long otherCall = otherRecorder.getSequenceNumberForCall(METHOD_NAME, 0);
+		assertEquals(otherCall, recorder.getSequenceNumberForCall(METHOD_NAME, 0) + 1);
+		assertEquals(recorder.getSequenceNumberForCall(METHOD_NAME, 1), otherCall + 1);
+	}
+
+	@Test
+	public void testSequenceNumbersAreSharedBetweenMethods() {
+		someMethod("value0");
+		recorder.recordCall("someOtherMethod", 0, null, null, null, null, null, null, null, null);
+		someMethod("value1");
+
+		long firstCall = recorder.getSequenceNumberForCall(METHOD_NAME, 0);
+		assertEquals(recorder.getSequenceNumberForCall("someOtherMethod", 0), firstCall + 1);
+		assertEquals(recorder.getSequenceNumberForCall(METHOD_NAME, 1), firstCall + 2);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was called 1 times, there is no call number 1")
+	public void testSequenceNumberForCallNotMade() {
+		someMethod("value0");
+
+		recorder.getSequenceNumberForCall(METHOD_NAME, 1);
+	}
+
+	@Test
+	public void testCallsFromManyThreads() throws Exception {
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			threads.add(new Thread(this::callSomeMethodManyTimes));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 8000);
+		for (int callNumber = 1; callNumber < 8000; callNumber++) {
+			assertTrue(recorder.getSequenceNumberForCall(METHOD_NAME, callNumber - 1) < recorder
+					.getSequenceNumberForCall(METHOD_NAME, callNumber));
+			assertTrue(recorder.getReturnValue(METHOD_NAME, callNumber) instanceof String);
+		}
+		recorder.assertCalledParameters(METHOD_NAME, "value999");
+	}
+
+	private void callSomeMethodManyTimes() {
+		for (int i = 0; i < 1000; i++) {
+			someMethod("value" + i);
+		}
+	}
+
+	@Test
+	public void testOverloadsAreMergedInSequenceOrder() {
+		someMethod("value0");
+		recorder.recordCall(METHOD_NAME, 2, "value", "value1", "number", 1, null, null, null,
+				null);
+		someMethod("value2");
+
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 3);
+		recorder.assertParameters(METHOD_NAME, 1, "value1", 1);
+		recorder.assertParameters(METHOD_NAME, 2, "value2");
+		assertEquals(recorder.getSequenceNumberForCall(METHOD_NAME, 2),
+				recorder.getSequenceNumberForCall(METHOD_NAME, 0) + 2);
+	}
+
+	private Object someMethod(String value) {
+		long call = recorder.recordCall(METHOD_NAME, 1, "value", value, null, null, null, null,
+				null, null);
+		Object returnValue = "returned" + value;
+		recorder.recordReturn(METHOD_NAME, call, returnValue);
+		return returnValue;
+	}
+}
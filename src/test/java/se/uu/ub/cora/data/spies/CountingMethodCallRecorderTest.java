@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CountingMethodCallRecorderTest {
+	private CountingMethodCallRecorder recorder;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recorder = new CountingMethodCallRecorder();
+	}
+
+	@Test
+	public void testNoCalls() {
+		assertEquals(recorder.getNumberOfCallsToMethod("someMethod"), 0);
+		assertFalse(recorder.methodWasCalled("someMethod"));
+		recorder.assertMethodNotCalled("someMethod");
+		recorder.assertNumberOfCallsToMethod("someMethod", 0);
+	}
+
+	@Test
+	public void testFullMCRSurface() {
+		MethodCallRecorderSurface surface = new MethodCallRecorderSurface(recorder);
+
+		surface.recordCalls();
+
+		surface.assertCallsAreCounted();
+		surface.assertParameterAndReturnValuesAreNotKept("COUNT");
+	}
+
+	@Test
+	public void testCountCall() {
+		countCall("someMethod");
+		countCall("someMethod");
+		countCall("someOtherMethod");
+
+		assertEquals(recorder.getNumberOfCallsToMethod("someMethod"), 2);
+		assertEquals(recorder.getNumberOfCallsToMethod("someOtherMethod"), 1);
+		assertTrue(recorder.methodWasCalled("someMethod"));
+		recorder.assertMethodWasCalled("someMethod");
+		recorder.assertNumberOfCallsToMethod("someMethod", 2);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was called 1 times, expected 2")
+	public void testAssertNumberOfCallsToMethodFails() {
+		countCall("someMethod");
+
+		recorder.assertNumberOfCallsToMethod("someMethod", 2);
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was not called")
+	public void testAssertMethodWasCalledFails() {
+		recorder.assertMethodWasCalled("someMethod");
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was called")
+	public void testAssertMethodNotCalledFails() {
+		countCall("someMethod");
+
+		recorder.assertMethodNotCalled("someMethod");
+	}
+
+	@Test
+	public void testReturnValuesAreNotKept() {
+		long call = recorder.recordCall("someMethod", 1, "value", "someValue", null, null, null,
+				null, null, null);
+		recorder.recordReturn("someMethod", call, "someReturnValue");
+
+		recorder.assertNumberOfCallsToMethod("someMethod", 1);
+	}
+
+	private void countCall(String methodName) {
+		recorder.recordCall(methodName, 0, null, null, null, null, null, null, null, null);
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataChildFilter;
+
+public class DataChildFilterFakeTest {
+	private DataChildFilterFake childFilter;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		childFilter = DataChildFilterFake.withNameInData("someChild");
+	}
+
+	private DataGroupFake createChildWithType(String nameInData, String type) {
+		DataGroupFake child = DataGroupFake.withNameInData(nameInData);
+		child.addAttributeByIdWithValue("type", type);
+		return child;
+	}
+
+	@Test
+	public void testMakeSureFakeIsRecording() {
+		assertTrue(childFilter instanceof AbstractSpy);
+		assertTrue(childFilter instanceof DataChildFilter);
+	}
+
+	@Test
+	public void testNameInData() {
+		assertEquals(childFilter.getNameInData(), "someChild");
+
+		childFilter.MCR.assertReturn("getNameInData", 0, "someChild");
+	}
+
+	@Test
+	public void testChildMatches() {
+		Set<String> possibleValues = Set.of("someType", "otherType");
+		childFilter.addAttributeUsingNameInDataAndPossibleValues("type", possibleValues);
+		DataGroupFake child = createChildWithType("someChild", "otherType");
+
+		assertTrue(childFilter.childMatches(child));
+		assertFalse(childFilter.childMatches(createChildWithType("someChild", "thirdType")));
+		assertFalse(childFilter.childMatches(createChildWithType("otherChild", "someType")));
+		childFilter.MCR.assertParameters("addAttributeUsingNameInDataAndPossibleValues", 0,
+				"type", possibleValues);
+		childFilter.MCR.assertParameters("childMatches", 0, child);
+		childFilter.MCR.assertReturn("childMatches", 0, true);
+	}
+
+	@Test
+	public void testAddingAttributeCompilesNewFilter() {
+		CompiledChildFilter withoutAttributes = childFilter.compiled();
+
+		childFilter.addAttributeUsingNameInDataAndPossibleValues("type", Set.of("someType"));
+
+		assertNotSame(childFilter.compiled(), withoutAttributes);
+		assertTrue(withoutAttributes.matches(DataGroupFake.withNameInData("someChild")));
+		assertFalse(childFilter.childMatches(DataGroupFake.withNameInData("someChild")));
+	}
+
+	@Test
+	public void testAddingAttributeAgainReplacesPossibleValues() {
+		childFilter.addAttributeUsingNameInDataAndPossibleValues("type", Set.of("someType"));
+
+		childFilter.addAttributeUsingNameInDataAndPossibleValues("type", Set.of("otherType"));
+
+		assertTrue(childFilter.childMatches(createChildWithType("someChild", "otherType")));
+		assertFalse(childFilter.childMatches(createChildWithType("someChild", "someType")));
+	}
+
+	@Test
+	public void testLaterChangesToAddedSetDoNotChangeFilter() {
+		Set<String> possibleValues = new HashSet<>(Set.of("someType"));
+		childFilter.addAttributeUsingNameInDataAndPossibleValues("type", possibleValues);
+
+		possibleValues.add("otherType");
+
+		assertFalse(childFilter.childMatches(createChildWithType("someChild", "otherType")));
+	}
+}
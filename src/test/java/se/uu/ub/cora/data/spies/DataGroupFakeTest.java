@@ -0,0 +1,354 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataMissingException;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.DataResourceLink;
+
+public class DataGroupFakeTest {
+	private DataGroupFake dataGroup;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataGroup = DataGroupFake.withNameInData("someGroup");
+	}
+
+	private DataAtomicSpy createAtomic(String nameInData, String value) {
+		DataAtomicSpy atomic = new DataAtomicSpy();
+		atomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return atomic;
+	}
+
+	private DataGroupFake createGroupWithAttribute(String nameInData, String attributeName,
+			String attributeValue) {
+		DataGroupFake group = DataGroupFake.withNameInData(nameInData);
+		group.addAttributeByIdWithValue(attributeName, attributeValue);
+		return group;
+	}
+
+	private DataAttribute createAttribute(String nameInData, String value) {
+		DataAttributeSpy attribute = new DataAttributeSpy();
+		attribute.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		attribute.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return attribute;
+	}
+
+	@Test
+	public void testMakeSureFakeIsRecording() {
+		assertTrue(dataGroup instanceof AbstractSpy);
+	}
+
+	@Test
+	public void testNameInData() {
+		assertEquals(dataGroup.getNameInData(), "someGroup");
+
+		dataGroup.MCR.assertMethodWasCalled("getNameInData");
+		dataGroup.MCR.assertReturn("getNameInData", 0, "someGroup");
+	}
+
+	@Test
+	public void testRepeatId() {
+		assertFalse(dataGroup.hasRepeatId());
+
+		dataGroup.setRepeatId("1");
+
+		assertTrue(dataGroup.hasRepeatId());
+		assertEquals(dataGroup.getRepeatId(), "1");
+		dataGroup.MCR.assertParameters("setRepeatId", 0, "1");
+	}
+
+	@Test
+	public void testEmptyRepeatIdIsNoRepeatId() {
+		dataGroup.setRepeatId("");
+
+		assertFalse(dataGroup.hasRepeatId());
+	}
+
+	@Test
+	public void testAttributes() {
+		assertFalse(dataGroup.hasAttributes());
+		assertEquals(dataGroup.getAttributeValue("type"), Optional.empty());
+
+		dataGroup.addAttributeByIdWithValue("type", "someType");
+
+		assertTrue(dataGroup.hasAttributes());
+		assertEquals(dataGroup.getAttribute("type").getValue(), "someType");
+		assertEquals(dataGroup.getAttributes().size(), 1);
+		assertEquals(dataGroup.getAttributeValue("type"), Optional.of("someType"));
+		dataGroup.MCR.assertParameters("addAttributeByIdWithValue", 0, "type", "someType");
+	}
+
+	@Test(expectedExceptions = DataMissingException.class, expectedExceptionsMessageRegExp = ""
+			+ "Attribute with id type not found.")
+	public void testGetMissingAttribute() {
+		dataGroup.getAttribute("type");
+	}
+
+	@Test
+	public void testAddChildren() {
+		assertFalse(dataGroup.hasChildren());
+		DataAtomicSpy atomic = createAtomic("someAtomic", "someValue");
+		DataGroupFake childGroup = DataGroupFake.withNameInData("someChildGroup");
+
+		dataGroup.addChild(atomic);
+		dataGroup.addChildren(List.of(childGroup));
+
+		List<DataChild> children = dataGroup.getChildren();
+		assertTrue(dataGroup.hasChildren());
+		assertEquals(children, List.of(atomic, childGroup));
+		dataGroup.MCR.assertParameters("addChild", 0, atomic);
+		dataGroup.MCR.assertReturn("getChildren", 0, children);
+	}
+
+	@Test
+	public void testFindChildrenByNameInData() {
+		DataAtomicSpy first = createAtomic("someAtomic", "firstValue");
+		DataAtomicSpy second = createAtomic("someAtomic", "secondValue");
+		DataGroupFake childGroup = DataGroupFake.withNameInData("someChildGroup");
+		dataGroup.addChildren(List.of(first, childGroup, second));
+
+		assertTrue(dataGroup.containsChildWithNameInData("someAtomic"));
+		assertFalse(dataGroup.containsChildWithNameInData("missing"));
+		assertSame(dataGroup.getFirstChildWithNameInData("someAtomic"), first);
+		assertEquals(dataGroup.getAllChildrenWithNameInData("someAtomic"), List.of(first, second));
+		assertEquals(dataGroup.getFirstAtomicValueWithNameInData("someAtomic"), "firstValue");
+		assertSame(dataGroup.getFirstDataAtomicWithNameInData("someAtomic"), first);
+		assertEquals(dataGroup.getAllDataAtomicsWithNameInData("someAtomic"),
+				List.of(first, second));
+		assertSame(dataGroup.getFirstGroupWithNameInData("someChildGroup"), childGroup);
+		assertEquals(dataGroup.getAllGroupsWithNameInData("someChildGroup"), List.of(childGroup));
+		dataGroup.MCR.assertParameters("getFirstChildWithNameInData", 0, "someAtomic");
+		dataGroup.MCR.assertReturn("getFirstChildWithNameInData", 0, first);
+	}
+
+	@Test(expectedExceptions = DataMissingException.class, expectedExceptionsMessageRegExp = ""
+			+ "Element not found for childNameInData:missing")
+	public void testGetFirstChildWithNameInDataMissing() {
+		dataGroup.getFirstChildWithNameInData("missing");
+	}
+
+	@Test(expectedExceptions = DataMissingException.class, expectedExceptionsMessageRegExp = ""
+			+ "Child of type: DataGroup and name: someAtomic not found as child.")
+	public void testGetFirstGroupWithNameInDataOfOtherType() {
+		dataGroup.addChild(createAtomic("someAtomic", "someValue"));
+
+		dataGroup.getFirstGroupWithNameInData("someAtomic");
+	}
+
+	@Test
+	public void testFindChildrenByNameInDataAndAttributes() {
+		DataGroupFake withAttribute = createGroupWithAttribute("someChild", "type", "someType");
+		DataGroupFake withOtherAttribute = createGroupWithAttribute("someChild", "type",
+				"otherType");
+		DataGroupFake withoutAttribute = DataGroupFake.withNameInData("someChild");
+		dataGroup.addChildren(List.of(withAttribute, withOtherAttribute, withoutAttribute));
+		DataAttribute attribute = createAttribute("type", "someType");
+
+		assertEquals(dataGroup.getAllChildrenWithNameInDataAndAttributes("someChild", attribute),
+				List.of(withAttribute));
+		assertEquals(dataGroup.getAllGroupsWithNameInDataAndAttributes("someChild", attribute),
+				List.of(withAttribute));
+		assertEquals(dataGroup.getAllChildrenWithNameInDataAndAttributes("someChild"),
+				List.of(withoutAttribute));
+		assertTrue(dataGroup.getAllDataAtomicsWithNameInDataAndAttributes("someChild", attribute)
+				.isEmpty());
+		dataGroup.MCR.assertParameter("getAllChildrenWithNameInDataAndAttributes", 0,
+				"nameInData", "someChild");
+	}
+
+	@Test
+	public void testRemoveChildrenByNameInData() {
+		DataAtomicSpy first = createAtomic("someAtomic", "firstValue");
+		DataAtomicSpy second = createAtomic("someAtomic", "secondValue");
+		DataAtomicSpy other = createAtomic("otherAtomic", "otherValue");
+		dataGroup.addChildren(List.of(first, other, second));
+
+		assertTrue(dataGroup.removeFirstChildWithNameInData("someAtomic"));
+		assertEquals(dataGroup.getChildren(), List.of(other, second));
+		assertTrue(dataGroup.removeAllChildrenWithNameInData("someAtomic"));
+		assertEquals(dataGroup.getChildren(), List.of(other));
+		assertFalse(dataGroup.removeAllChildrenWithNameInData("someAtomic"));
+		assertFalse(dataGroup.containsChildWithNameInData("someAtomic"));
+		dataGroup.MCR.assertReturn("removeAllChildrenWithNameInData", 1, false);
+	}
+
+	@Test
+	public void testRemoveChildrenByNameInDataAndAttributes() {
+		DataGroupFake withAttribute = createGroupWithAttribute("someChild", "type", "someType");
+		DataGroupFake withoutAttribute = DataGroupFake.withNameInData("someChild");
+		dataGroup.addChildren(List.of(withAttribute, withoutAttribute));
+
+		assertTrue(dataGroup.removeAllChildrenWithNameInDataAndAttributes("someChild",
+				createAttribute("type", "someType")));
+
+		assertEquals(dataGroup.getChildren(), List.of(withoutAttribute));
+	}
+
+	@Test
+	public void testChildrenMatchingFilter() {
+		DataAtomicSpy atomic = createAtomic("someAtomic", "someValue");
+		DataAtomicSpy other = createAtomic("otherAtomic", "otherValue");
+		dataGroup.addChildren(List.of(atomic, other));
+		DataChildFilterSpy childFilter = new DataChildFilterSpy();
+		childFilter.MRV.setSpecificReturnValuesSupplier("childMatches", () -> false, other);
+
+		assertEquals(dataGroup.getAllChildrenMatchingFilter(childFilter), List.of(atomic));
+		assertTrue(dataGroup.removeAllChildrenMatchingFilter(childFilter));
+		assertEquals(dataGroup.getChildren(), List.of(other));
+	}
+
+	@Test
+	public void testChildrenOfTypeAndName() {
+		DataAtomicSpy atomic = createAtomic("someChild", "someValue");
+		DataGroupFake childGroup = DataGroupFake.withNameInData("someChild");
+		DataGroupFake otherGroup = DataGroupFake.withNameInData("otherChild");
+		dataGroup.addChildren(List.of(atomic, childGroup, otherGroup));
+
+		assertTrue(dataGroup.containsChildOfTypeAndName(DataGroup.class, "someChild"));
+		assertFalse(dataGroup.containsChildOfTypeAndName(DataAtomic.class, "otherChild"));
+		assertSame(dataGroup.getFirstChildOfTypeAndName(DataGroup.class, "someChild"),
+				childGroup);
+		assertEquals(dataGroup.getChildrenOfType(DataGroup.class), List.of(childGroup, otherGroup));
+		assertEquals(dataGroup.getChildrenOfTypeAndName(DataChild.class, "someChild"),
+				List.of(atomic, childGroup));
+		dataGroup.MCR.assertParameters("getChildrenOfType", 0, DataGroup.class);
+	}
+
+	@Test
+	public void testRemoveChildrenOfTypeAndName() {
+		DataAtomicSpy atomic = createAtomic("someChild", "someValue");
+		DataGroupFake childGroup = DataGroupFake.withNameInData("someChild");
+		DataGroupFake secondGroup = DataGroupFake.withNameInData("someChild");
+		dataGroup.addChildren(List.of(atomic, childGroup, secondGroup));
+
+		assertTrue(dataGroup.removeFirstChildWithTypeAndName(DataGroup.class, "someChild"));
+		assertEquals(dataGroup.getChildren(), List.of(atomic, secondGroup));
+		assertTrue(dataGroup.removeChildrenWithTypeAndName(DataGroup.class, "someChild"));
+		assertEquals(dataGroup.getChildren(), List.of(atomic));
+		assertFalse(dataGroup.removeFirstChildWithTypeAndName(DataGroup.class, "someChild"));
+	}
+
+	@Test
+	public void testRecordingCanBeTurnedOff() {
+		dataGroup.setRecordingMode(RecordingMode.NONE);
+
+		dataGroup.addChild(createAtomic("someAtomic", "someValue"));
+
+		assertTrue(dataGroup.containsChildWithNameInData("someAtomic"));
+		dataGroup.MCR.assertMethodNotCalled("addChild");
+	}
+
+	@Test
+	public void testFindChildrenByAttributesInAnyOrder() {
+		DataGroupFake child = createGroupWithAttribute("someChild", "type", "someType");
+		child.addAttributeByIdWithValue("language", "sv");
+		dataGroup.addChild(child);
+
+		assertEquals(dataGroup.getAllChildrenWithNameInDataAndAttributes("someChild",
+				createAttribute("language", "sv"), createAttribute("type", "someType")),
+				List.of(child));
+		assertTrue(dataGroup.getAllChildrenWithNameInDataAndAttributes("someChild",
+				createAttribute("type", "someType")).isEmpty());
+	}
+
+	@Test
+	public void testRemovedChildrenAreNotFoundByAttributes() {
+		DataGroupFake withAttribute = createGroupWithAttribute("someChild", "type", "someType");
+		dataGroup.addChild(withAttribute);
+		DataAttribute attribute = createAttribute("type", "someType");
+
+		dataGroup.removeAllChildrenWithNameInData("someChild");
+
+		assertTrue(dataGroup.getAllChildrenWithNameInDataAndAttributes("someChild", attribute)
+				.isEmpty());
+		assertFalse(dataGroup.removeAllChildrenWithNameInDataAndAttributes("someChild",
+				attribute));
+	}
+
+	@Test
+	public void testChildrenOfLinkTypes() {
+		DataRecordLinkSpy recordLink = new DataRecordLinkSpy();
+		recordLink.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someLink");
+		DataResourceLinkSpy resourceLink = new DataResourceLinkSpy();
+		resourceLink.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someLink");
+		DataAtomicSpy atomic = createAtomic("someLink", "someValue");
+		dataGroup.addChildren(List.of(recordLink, atomic, resourceLink));
+
+		assertEquals(dataGroup.getChildrenOfType(DataRecordLink.class), List.of(recordLink));
+		assertSame(dataGroup.getFirstChildOfTypeAndName(DataResourceLink.class, "someLink"),
+				resourceLink);
+		assertTrue(dataGroup.removeChildrenWithTypeAndName(DataRecordLink.class, "someLink"));
+		assertEquals(dataGroup.getChildren(), List.of(atomic, resourceLink));
+		assertFalse(dataGroup.containsChildOfTypeAndName(DataRecordLink.class, "someLink"));
+	}
+
+	@Test
+	public void testChildrenMatchingFilterFake() {
+		DataGroupFake someType = createGroupWithAttribute("someChild", "type", "someType");
+		DataGroupFake otherType = createGroupWithAttribute("someChild", "type", "otherType");
+		DataGroupFake thirdType = createGroupWithAttribute("someChild", "type", "thirdType");
+		dataGroup.addChildren(List.of(someType, otherType, thirdType));
+		DataChildFilterFake childFilter = DataChildFilterFake.withNameInData("someChild");
+		childFilter.addAttributeUsingNameInDataAndPossibleValues("type",
+				Set.of("someType", "thirdType"));
+
+		assertEquals(dataGroup.getAllChildrenMatchingFilter(childFilter),
+				List.of(someType, thirdType));
+		assertTrue(dataGroup.removeAllChildrenMatchingFilter(childFilter));
+		assertEquals(dataGroup.getChildren(), List.of(otherType));
+		childFilter.MCR.assertMethodNotCalled("childMatches");
+	}
+
+	@Test
+	public void testReturnedChildListsAreSnapshots() {
+		DataAtomicSpy atomic = createAtomic("someAtomic", "someValue");
+		dataGroup.addChild(atomic);
+		List<DataChild> children = dataGroup.getChildren();
+		List<DataChild> childrenWithNameInData = dataGroup
+				.getAllChildrenWithNameInData("someAtomic");
+		List<DataChild> childrenWithAttributes = dataGroup
+				.getAllChildrenWithNameInDataAndAttributes("someAtomic");
+
+		dataGroup.addChild(createAtomic("someAtomic", "otherValue"));
+		dataGroup.removeFirstChildWithNameInData("someAtomic");
+
+		assertEquals(children, List.of(atomic));
+		assertEquals(childrenWithNameInData, List.of(atomic));
+		assertEquals(childrenWithAttributes, List.of(atomic));
+		assertEquals(dataGroup.getChildren().size(), 1);
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.Data;
+import se.uu.ub.cora.data.DataList;
+
+public class DataListFakeTest {
+	private static final long MILLION = 1_000_000;
+	private DataListFake dataList;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataList = DataListFake.withTotalNoUsingDataForNumber("book", MILLION,
+				this::createGroupForNumber);
+	}
+
+	private Data createGroupForNumber(long number) {
+		return DataGroupFake.withNameInData("book" + number);
+	}
+
+	private String nameOf(Data data) {
+		return ((DataGroupFake) data).getNameInData();
+	}
+
+	@Test
+	public void testMakeSureFakeIsRecording() {
+		assertTrue(dataList instanceof AbstractSpy);
+		assertTrue(dataList instanceof DataList);
+	}
+
+	@Test
+	public void testWholeResultSetByDefault() {
+		assertEquals(dataList.getContainDataOfType(), "book");
+		assertEquals(dataList.getFromNo(), "1");
+		assertEquals(dataList.getToNo(), "1000000");
+		assertEquals(dataList.getTotalNumberOfTypeInStorage(), "1000000");
+
+		assertEquals(dataList.MCR.getReturnValue("getToNo", 0), "1000000");
+		dataList.MCR.assertReturn("getContainDataOfType", 0, "book");
+	}
+
+	@Test
+	public void testDataListIsLazyRandomAccessView() {
+		List<Data> list = dataList.getDataList();
+
+		assertTrue(list instanceof RandomAccess);
+		assertEquals(list.size(), 1_000_000);
+		assertEquals(nameOf(list.get(0)), "book1");
+		assertEquals(nameOf(list.get(999_999)), "book1000000");
+		assertEquals(nameOf(list.get(4711)), "book4712");
+		dataList.MCR.assertReturn("getDataList", 0, list);
+	}
+
+	@Test
+	public void testElementsAreCreatedWhenRead() {
+		AtomicInteger created = new AtomicInteger();
+		DataListFake counted = DataListFake.withTotalNoUsingDataSupplier("book", MILLION, () -> {
+			created.incrementAndGet();
+			return new DataGroupSpy();
+		});
+
+		List<Data> list = counted.getDataList();
+		assertEquals(created.get(), 0);
+
+		Data first = list.get(10);
+		Data second = list.get(10);
+		assertEquals(created.get(), 2);
+		assertNotSame(first, second);
+	}
+
+	@Test
+	public void testWindow() {
+		dataList.setFromNo("101");
+		dataList.setToNo("200");
+
+		List<Data> list = dataList.getDataList();
+
+		assertEquals(list.size(), 100);
+		assertEquals(nameOf(list.get(0)), "book101");
+		assertEquals(nameOf(list.get(99)), "book200");
+		assertEquals(dataList.getFromNo(), "101");
+		assertEquals(dataList.getToNo(), "200");
+		dataList.MCR.assertParameters("setFromNo", 0, "101");
+		dataList.MCR.assertParameters("setToNo", 0, "200");
+	}
+
+	@Test
+	public void testViewKeepsItsWindow() {
+		List<Data> list = dataList.getDataList();
+
+		dataList.setFromNo("11");
+		dataList.setToNo("20");
+
+		assertEquals(list.size(), 1_000_000);
+		assertEquals(dataList.getDataList().size(), 10);
+	}
+
+	@Test
+	public void testEmptyWindow() {
+		DataListFake empty = DataListFake.withTotalNoUsingDataForNumber("book", 0,
+				this::createGroupForNumber);
+
+		assertEquals(empty.getDataList().size(), 0);
+		assertEquals(empty.getFromNo(), "1");
+		assertEquals(empty.getToNo(), "0");
+	}
+
+	@Test
+	public void testAddedDataIsPlacedAfterWindow() {
+		dataList.setToNo("2");
+		DataGroupSpy added = new DataGroupSpy();
+
+		dataList.addData(added);
+
+		List<Data> list = dataList.getDataList();
+		assertEquals(list.size(), 3);
+		assertSame(list.get(2), added);
+		assertEquals(dataList.getToNo(), "2");
+		dataList.MCR.assertParameters("addData", 0, added);
+	}
+
+	@Test
+	public void testSetTotalNo() {
+		dataList.setTotalNo("50");
+		dataList.setToNo("50");
+
+		assertEquals(dataList.getTotalNumberOfTypeInStorage(), "50");
+		assertEquals(dataList.getDataList().size(), 50);
+		dataList.MCR.assertParameters("setTotalNo", 0, "50");
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class,
+			expectedExceptionsMessageRegExp = "Index 1000000 out of bounds for length 1000000")
+	public void testReadOutsideView() {
+		dataList.getDataList().get(1_000_000);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class,
+			expectedExceptionsMessageRegExp = ""
+					+ "Window from 1 to 1000001 does not lie within total number 1000000")
+	public void testWindowOutsideTotalNo() {
+		dataList.setToNo("1000001");
+
+		dataList.getDataList();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class,
+			expectedExceptionsMessageRegExp = ""
+					+ "Window from 0 to 10 does not lie within total number 1000000")
+	public void testWindowStartingAtZero() {
+		dataList.setFromNo("0");
+		dataList.setToNo("10");
+
+		dataList.getDataList();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class,
+			expectedExceptionsMessageRegExp = ""
+					+ "Window from 1 to 3000000000 is too big to be read as a list")
+	public void testWindowTooBigForList() {
+		DataListFake huge = DataListFake.withTotalNoUsingDataForNumber("book", 3_000_000_000L,
+				this::createGroupForNumber);
+
+		assertEquals(huge.getTotalNumberOfTypeInStorage(), "3000000000");
+		huge.getDataList();
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "fromNo must be a number, was one")
+	public void testFromNoNotANumber() {
+		dataList.setFromNo("one");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "totalNo must not be negative, was -1")
+	public void testNegativeTotalNo() {
+		DataListFake.withTotalNoUsingDataForNumber("book", -1, this::createGroupForNumber);
+	}
+}
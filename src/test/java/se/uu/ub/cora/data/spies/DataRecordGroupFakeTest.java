@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataMissingException;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+
+public class DataRecordGroupFakeTest {
+	private static final String TIMESTAMP_REGEX = ""
+			+ "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{6}Z$";
+	private DataRecordGroupFake recordGroup;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recordGroup = DataRecordGroupFake.withNameInData("someRecord");
+	}
+
+	@Test
+	public void testMakeSureFakeIsRecording() {
+		assertTrue(recordGroup instanceof AbstractSpy);
+		assertTrue(recordGroup instanceof DataRecordGroup);
+	}
+
+	@Test
+	public void testRecordInfoIsEmptyFromStart() {
+		assertEquals(recordGroup.getNameInData(), "someRecord");
+		assertMissing(recordGroup::getType, "type");
+		assertMissing(recordGroup::getId, "id");
+		assertMissing(recordGroup::getDataDivider, "dataDivider");
+		assertMissing(recordGroup::getValidationType, "validationType");
+		assertMissing(recordGroup::getCreatedBy, "createdBy");
+		assertMissing(recordGroup::getTsCreated, "tsCreated");
+		assertTrue(recordGroup.getAllUpdated().isEmpty());
+		assertEquals(recordGroup.getVisibility(), Optional.empty());
+		assertEquals(recordGroup.getTsVisibility(), Optional.empty());
+		assertEquals(recordGroup.isInTrashBin(), Optional.empty());
+		assertEquals(recordGroup.getPermissionUnit(), Optional.empty());
+	}
+
+	private void assertMissing(Supplier<String> getter, String childNameInData) {
+		try {
+			getter.get();
+			fail("DataMissingException expected");
+		} catch (DataMissingException e) {
+			assertEquals(e.getMessage(),
+					"Element not found for childNameInData:" + childNameInData);
+		}
+	}
+
+	@Test
+	public void testSettersUpdateRecordInfo() {
+		recordGroup.setType("someType");
+		recordGroup.setId("someId");
+		recordGroup.setDataDivider("someDataDivider");
+		recordGroup.setValidationType("someValidationType");
+		recordGroup.setCreatedBy("someUserId");
+		recordGroup.setTsCreated("2026-01-01T00:00:00.000000Z");
+		recordGroup.setVisibility("published");
+		recordGroup.setTsVisibility("2026-01-02T00:00:00.000000Z");
+		recordGroup.setInTrashBin(true);
+		recordGroup.setPermissionUnit("someUnit");
+
+		assertEquals(recordGroup.getType(), "someType");
+		assertEquals(recordGroup.getId(), "someId");
+		assertEquals(recordGroup.getDataDivider(), "someDataDivider");
+		assertEquals(recordGroup.getValidationType(), "someValidationType");
+		assertEquals(recordGroup.getCreatedBy(), "someUserId");
+		assertEquals(recordGroup.getTsCreated(), "2026-01-01T00:00:00.000000Z");
+		assertEquals(recordGroup.getVisibility(), Optional.of("published"));
+		assertEquals(recordGroup.getTsVisibility(), Optional.of("2026-01-02T00:00:00.000000Z"));
+		assertEquals(recordGroup.isInTrashBin(), Optional.of(true));
+		assertEquals(recordGroup.getPermissionUnit(), Optional.of("someUnit"));
+	}
+
+	@Test
+	public void testCallsAreRecorded() {
+		recordGroup.setType("someType");
+
+		assertEquals(recordGroup.getType(), "someType");
+
+		recordGroup.MCR.assertParameters("setType", 0, "someType");
+		recordGroup.MCR.assertReturn("getType", 0, "someType");
+	}
+
+	@Test
+	public void testTimestampsSetToNow() {
+		recordGroup.setTsCreatedToNow();
+		recordGroup.setTsVisibilityNow();
+		recordGroup.addUpdatedUsingUserIdAndTsNow("someUserId");
+
+		assertTrue(recordGroup.getTsCreated().matches(TIMESTAMP_REGEX));
+		assertTrue(recordGroup.getTsVisibility().get().matches(TIMESTAMP_REGEX));
+		assertTrue(recordGroup.getLatestTsUpdated().matches(TIMESTAMP_REGEX));
+		assertEquals(recordGroup.getLatestUpdatedBy(), "someUserId");
+	}
+
+	@Test
+	public void testLatestUpdatedIsLastAdded() {
+		recordGroup.addUpdatedUsingUserIdAndTs("firstUserId", "firstTs");
+		recordGroup.addUpdatedUsingUserIdAndTs("secondUserId", "secondTs");
+
+		assertEquals(recordGroup.getLatestUpdatedBy(), "secondUserId");
+		assertEquals(recordGroup.getLatestTsUpdated(), "secondTs");
+	}
+
+	@Test(expectedExceptions = DataMissingException.class, expectedExceptionsMessageRegExp = ""
+			+ "Element not found for childNameInData:updated")
+	public void testLatestUpdatedWithoutUpdates() {
+		recordGroup.getLatestUpdatedBy();
+	}
+
+	@Test
+	public void testGetAllUpdatedCreatesUpdatedGroups() {
+		recordGroup.addUpdatedUsingUserIdAndTs("firstUserId", "firstTs");
+		recordGroup.addUpdatedUsingUserIdAndTs("secondUserId", "secondTs");
+
+		List<DataChild> allUpdated = recordGroup.getAllUpdated();
+
+		assertEquals(allUpdated.size(), 2);
+		DataGroup secondUpdated = (DataGroup) allUpdated.get(1);
+		assertEquals(secondUpdated.getNameInData(), "updated");
+		assertEquals(secondUpdated.getRepeatId(), "1");
+		assertEquals(secondUpdated.getFirstChildOfTypeAndName(DataRecordLink.class, "updatedBy")
+				.getLinkedRecordId(), "secondUserId");
+		assertEquals(secondUpdated.getFirstAtomicValueWithNameInData("tsUpdated"), "secondTs");
+		assertSame(recordGroup.getAllUpdated().get(0), allUpdated.get(0));
+	}
+
+	@Test
+	public void testSetAllUpdatedReplacesLog() {
+		recordGroup.addUpdatedUsingUserIdAndTs("someUserId", "someTs");
+		DataRecordGroupFake other = DataRecordGroupFake.withNameInData("otherRecord");
+		other.addUpdatedUsingUserIdAndTs("firstUserId", "firstTs");
+		other.addUpdatedUsingUserIdAndTs("secondUserId", "secondTs");
+		List<DataChild> updated = other.getAllUpdated();
+
+		recordGroup.setAllUpdated(updated);
+
+		assertEquals(recordGroup.getAllUpdated(), updated);
+		assertEquals(recordGroup.getLatestUpdatedBy(), "secondUserId");
+		assertEquals(recordGroup.getLatestTsUpdated(), "secondTs");
+		recordGroup.addUpdatedUsingUserIdAndTs("thirdUserId", "thirdTs");
+		assertEquals(recordGroup.getAllUpdated().size(), 3);
+		assertEquals(recordGroup.getLatestUpdatedBy(), "thirdUserId");
+	}
+
+	@Test
+	public void testOverwriteProtection() {
+		assertTrue(recordGroup.overwriteProtectionShouldBeEnforced());
+
+		recordGroup.setIgnoreOverwriteProtection(true);
+		assertFalse(recordGroup.overwriteProtectionShouldBeEnforced());
+
+		recordGroup.removeOverwriteProtection();
+		assertTrue(recordGroup.overwriteProtectionShouldBeEnforced());
+	}
+
+	@Test
+	public void testChildrenAndAttributes() {
+		DataGroupFake child = DataGroupFake.withNameInData("someChild");
+		recordGroup.addChild(child);
+		recordGroup.addAttributeByIdWithValue("type", "someType");
+
+		assertTrue(recordGroup.hasChildren());
+		assertSame(recordGroup.getFirstGroupWithNameInData("someChild"), child);
+		assertEquals(recordGroup.getChildrenOfType(DataGroup.class), List.of(child));
+		assertEquals(recordGroup.getAttributeValue("type"), Optional.of("someType"));
+		assertTrue(recordGroup.removeAllChildrenWithNameInData("someChild"));
+		assertFalse(recordGroup.hasChildren());
+	}
+
+	@Test
+	public void testRecordGroupsDoNotShareState() {
+		recordGroup.setId("someId");
+		DataRecordGroupFake otherRecordGroup = DataRecordGroupFake.withNameInData("someRecord");
+
+		otherRecordGroup.setId("otherId");
+
+		assertEquals(recordGroup.getId(), "someId");
+		assertEquals(otherRecordGroup.getId(), "otherId");
+	}
+}
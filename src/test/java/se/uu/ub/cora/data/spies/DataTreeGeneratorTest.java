@@ -0,0 +1,298 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.DataResourceLink;
+
+public class DataTreeGeneratorTest {
+	private DataTreeGenerator generator;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		generator = DataTreeGenerator.usingSeed(42);
+	}
+
+	private String describe(DataChild child) {
+		StringBuilder description = new StringBuilder(describeNode(child));
+		if (child instanceof DataGroup group) {
+			description.append(" (");
+			for (DataChild groupChild : group.getChildren()) {
+				description.append(describe(groupChild)).append(", ");
+			}
+			description.append(")");
+		}
+		return description.toString();
+	}
+
+	private String describeNode(DataChild child) {
+		StringBuilder description = new StringBuilder(child.getNameInData());
+		for (DataAttribute attribute : child.getAttributes()) {
+			description.append(" ").append(attribute.getNameInData()).append("=")
+					.append(attribute.getValue());
+		}
+		if (child instanceof DataGroup group) {
+			description.append(" repeatId=").append(group.getRepeatId());
+		} else if (child instanceof DataAtomic atomic) {
+			description.append(" value=").append(atomic.getValue());
+		} else if (child instanceof DataRecordLink recordLink) {
+			description.append(" link=").append(recordLink.getLinkedRecordId());
+		} else if (child instanceof DataResourceLink resourceLink) {
+			description.append(" resource=").append(resourceLink.getId());
+		}
+		return description.toString();
+	}
+
+	private List<String> describeAll(List<DataGroup> groups) {
+		return groups.stream().map(this::describe).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testSameSeedGivesSameTree() {
+		DataTreeGenerator sameSeed = DataTreeGenerator.usingSeed(42);
+
+		assertEquals(describe(sameSeed.generateGroup(7)), describe(generator.generateGroup(7)));
+	}
+
+	@Test
+	public void testOtherSeedOrTreeNumberGivesOtherTree() {
+		DataTreeGenerator otherSeed = DataTreeGenerator.usingSeed(43);
+		String tree = describe(generator.generateGroup(7));
+
+		assertNotEquals(describe(otherSeed.generateGroup(7)), tree);
+		assertNotEquals(describe(generator.generateGroup(8)), tree);
+	}
+
+	@Test
+	public void testParallelStreamGivesSameTreesAsSequential() {
+		List<DataGroup> sequential = generator.generateGroups(50).collect(Collectors.toList());
+
+		List<DataGroup> parallel = generator.generateGroups(50).parallel()
+				.collect(Collectors.toList());
+
+		assertEquals(describeAll(parallel), describeAll(sequential));
+		assertEquals(describe(sequential.get(30)), describe(generator.generateGroup(30)));
+	}
+
+	@Test
+	public void testDepthAndFanOut() {
+		generator.setDepth(2);
+		generator.setFanOut(3);
+		generator.setRepeatDensity(0);
+
+		DataGroup root = generator.generateGroup(0);
+
+		assertEquals(root.getNameInData(), "root");
+		List<DataGroup> groups = root.getChildrenOfType(DataGroup.class);
+		assertEquals(groups.size(), 3);
+		assertEquals(groups.get(2).getNameInData(), "level1slot2");
+		assertEquals(groups.get(0).getChildren().size(), 3);
+		assertTrue(groups.get(0).getChildrenOfType(DataGroup.class).isEmpty());
+		assertEquals(groups.get(0).getChildren().get(1).getNameInData(), "level2slot1");
+	}
+
+	@Test
+	public void testDepthZeroGivesEmptyRoot() {
+		generator.setDepth(0);
+
+		assertFalse(generator.generateGroup(0).hasChildren());
+	}
+
+	@Test
+	public void testRepeatedGroupsGetRepeatIds() {
+		generator.setDepth(2);
+		generator.setRepeatDensity(1);
+
+		DataGroup root = generator.generateGroup(0);
+
+		for (DataGroup group : root.getChildrenOfType(DataGroup.class)) {
+			List<DataGroup> repeated = root.getAllGroupsWithNameInData(group.getNameInData());
+			assertEquals(repeated.get(0).getRepeatId(), "0");
+			assertEquals(repeated.get(repeated.size() - 1).getRepeatId(),
+					String.valueOf(repeated.size() - 1));
+		}
+	}
+
+	@Test
+	public void testAttributeDensity() {
+		generator.setDepth(2);
+		generator.setAttributeDensity(1);
+		DataGroup root = generator.generateGroup(0);
+		DataGroup group = root.getChildrenOfType(DataGroup.class).get(0);
+
+		assertTrue(group.hasAttributes());
+		assertTrue(group.getChildren().get(0).getAttributeValue("type").isPresent());
+
+		generator.setAttributeDensity(0);
+		DataGroup withoutAttributes = generator.generateGroup(0)
+				.getChildrenOfType(DataGroup.class).get(0);
+		assertFalse(withoutAttributes.hasAttributes());
+		assertTrue(withoutAttributes.getChildren().get(0).getAttributes().isEmpty());
+	}
+
+	@Test
+	public void testLinkDensities() {
+		generator.setDepth(1);
+		generator.setLinkDensities(1, 0);
+		assertEquals(generator.generateGroup(0).getChildrenOfType(DataRecordLink.class).size(), 5);
+
+		generator.setLinkDensities(0, 1);
+		assertEquals(generator.generateGroup(0).getChildrenOfType(DataResourceLink.class).size(),
+				5);
+
+		generator.setLinkDensities(0, 0);
+		assertEquals(generator.generateGroup(0).getChildrenOfType(DataAtomic.class).size(), 5);
+	}
+
+	@Test
+	public void testVisitorIsHandedSameTreeAsGenerated() {
+		generator.setDepth(4);
+		generator.setRepeatDensity(0.3);
+		generator.setAttributeDensity(0.5);
+		DescribingVisitor visitor = new DescribingVisitor();
+
+		generator.visitGroup(7, visitor);
+
+		assertEquals(visitor.description.toString(), describe(generator.generateGroup(7)));
+	}
+
+	private class DescribingVisitor implements DataTreeVisitor {
+		private StringBuilder description = new StringBuilder();
+
+		@Override
+		public void enterGroup(DataGroup group, int level) {
+			description.append(describeNode(group)).append(" (");
+		}
+
+		@Override
+		public void visitLeaf(DataChild leaf, int level) {
+			description.append(describeNode(leaf)).append(", ");
+		}
+
+		@Override
+		public void leaveGroup(DataGroup group, int level) {
+			description.append(")");
+			if (level > 0) {
+				description.append(", ");
+			}
+		}
+	}
+
+	@Test
+	public void testVisitedGroupsAreHandedOverWithoutChildren() {
+		generator.setDepth(5);
+		generator.setFanOut(8);
+		generator.setRepeatDensity(0);
+		generator.setRecordingMode(RecordingMode.NONE);
+		CountingVisitor visitor = new CountingVisitor();
+
+		generator.visitGroup(0, visitor);
+
+		assertEquals(visitor.groups, 1 + 8 + 64 + 512 + 4096);
+		assertEquals(visitor.leaves, 32768);
+		assertEquals(visitor.deepestLevel, 5);
+		assertEquals(visitor.openGroups, 0);
+	}
+
+	private class CountingVisitor implements DataTreeVisitor {
+		private int groups;
+		private int leaves;
+		private int openGroups;
+		private int deepestLevel;
+
+		@Override
+		public void enterGroup(DataGroup group, int level) {
+			assertFalse(group.hasChildren());
+			assertEquals(level, openGroups);
+			groups++;
+			openGroups++;
+		}
+
+		@Override
+		public void visitLeaf(DataChild leaf, int level) {
+			assertEquals(level, openGroups);
+			deepestLevel = Math.max(deepestLevel, level);
+			leaves++;
+		}
+
+		@Override
+		public void leaveGroup(DataGroup group, int level) {
+			openGroups--;
+			assertEquals(level, openGroups);
+		}
+	}
+
+	@Test
+	public void testRecordGroup() {
+		DataRecordGroup recordGroup = generator.generateRecordGroup(12);
+
+		assertEquals(recordGroup.getId(), "id12");
+		assertEquals(recordGroup.getValidationType(), recordGroup.getType());
+		assertEquals(recordGroup.getAllUpdated().size(), 1);
+		assertTrue(recordGroup.hasChildren());
+		assertEquals(generator.generateRecordGroups(13).skip(12).findFirst().get().getType(),
+				recordGroup.getType());
+	}
+
+	@Test
+	public void testRecordingModeIsUsedForAllNodes() {
+		generator.setDepth(1);
+		generator.setRecordingMode(RecordingMode.COUNT);
+
+		DataGroupFake root = (DataGroupFake) generator.generateGroup(0);
+
+		assertTrue(root.MCR instanceof CountingMethodCallRecorder);
+		AbstractSpy leaf = (AbstractSpy) root.getChildren().get(0);
+		assertTrue(leaf.MCR instanceof CountingMethodCallRecorder);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Fan out must not be negative, was -1")
+	public void testNegativeFanOut() {
+		generator.setFanOut(-1);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Attribute density must be between 0 and 1, was 1.5")
+	public void testAttributeDensityAboveOne() {
+		generator.setAttributeDensity(1.5);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Sum of link densities must be between 0 and 1, was 1.2")
+	public void testLinkDensitiesAboveOne() {
+		generator.setLinkDensities(0.6, 0.6);
+	}
+}
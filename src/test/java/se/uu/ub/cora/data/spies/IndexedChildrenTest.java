@@ -0,0 +1,642 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataAttribute;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.DataResourceLink;
+
+public class IndexedChildrenTest {
+	private IndexedChildren children;
+	private DataChildSpy first;
+	private DataChildSpy second;
+	private DataChildSpy other;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		children = new IndexedChildren();
+		first = createChildWithNameInData("someName");
+		other = createChildWithNameInData("otherName");
+		second = createChildWithNameInData("someName");
+	}
+
+	private DataChildSpy createChildWithNameInData(String nameInData) {
+		DataChildSpy child = new DataChildSpy();
+		child.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		return child;
+	}
+
+	private void addAll() {
+		children.add(first);
+		children.add(other);
+		children.add(second);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(children.isEmpty());
+		assertTrue(children.all().isEmpty());
+		assertFalse(children.containsNameInData("someName"));
+		assertTrue(children.withNameInData("someName").isEmpty());
+		assertNull(children.firstWithNameInData("someName"));
+	}
+
+	@Test
+	public void testAddKeepsInsertionOrder() {
+		addAll();
+
+		assertFalse(children.isEmpty());
+		assertEquals(children.all(), List.of(first, other, second));
+		assertEquals(children.withNameInData("someName"), List.of(first, second));
+		assertSame(children.firstWithNameInData("someName"), first);
+		assertTrue(children.containsNameInData("otherName"));
+	}
+
+	@Test
+	public void testNameInDataIsReadOnceWhenAdded() {
+		addAll();
+
+		children.withNameInData("someName");
+		children.removeAllWithNameInData("someName");
+
+		first.MCR.assertNumberOfCallsToMethod("getNameInData", 1);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testAllCanNotBeModified() {
+		children.all().add(first);
+	}
+
+	@Test
+	public void testRemoveFirstWithNameInData() {
+		addAll();
+
+		assertTrue(children.removeFirstWithNameInData("someName"));
+
+		assertEquals(children.all(), List.of(other, second));
+		assertEquals(children.withNameInData("someName"), List.of(second));
+		assertFalse(children.removeFirstWithNameInData("missingName"));
+	}
+
+	@Test
+	public void testRemoveLastChildWithNameInDataRemovesIndexEntry() {
+		addAll();
+
+		assertTrue(children.removeFirstWithNameInData("otherName"));
+
+		assertFalse(children.containsNameInData("otherName"));
+	}
+
+	@Test
+	public void testRemoveAllWithNameInData() {
+		addAll();
+
+		assertTrue(children.removeAllWithNameInData("someName"));
+
+		assertEquals(children.all(), List.of(other));
+		assertFalse(children.containsNameInData("someName"));
+		assertFalse(children.removeAllWithNameInData("someName"));
+	}
+
+	@Test
+	public void testRemoveFirstMatching() {
+		addAll();
+
+		assertTrue(children.removeFirstMatching("someName", child -> child == second));
+
+		assertEquals(children.all(), List.of(first, other));
+		assertFalse(children.removeFirstMatching("someName", child -> false));
+		assertFalse(children.removeFirstMatching("missingName", child -> true));
+	}
+
+	@Test
+	public void testRemoveMatchingWithNameInData() {
+		addAll();
+
+		assertTrue(children.removeMatching("someName", child -> true));
+
+		assertEquals(children.all(), List.of(other));
+		assertFalse(children.containsNameInData("someName"));
+		assertFalse(children.removeMatching("missingName", child -> true));
+	}
+
+	@Test
+	public void testRemoveMatchingAllNames() {
+		addAll();
+
+		assertTrue(children.removeMatching(null, child -> child != second));
+
+		List<DataChild> remaining = children.all();
+		assertEquals(remaining, List.of(second));
+		assertFalse(children.containsNameInData("otherName"));
+		assertFalse(children.removeMatching(null, child -> false));
+	}
+
+	private DataChildSpy createChildWithAttribute(String nameInData, String attributeValue) {
+		DataChildSpy child = createChildWithNameInData(nameInData);
+		List<DataAttribute> attributes = List.of(createAttribute("type", attributeValue));
+		child.MRV.setDefaultReturnValuesSupplier("getAttributes", () -> attributes);
+		return child;
+	}
+
+	private DataAttribute createAttribute(String nameInData, String value) {
+		DataAttributeSpy attribute = new DataAttributeSpy();
+		attribute.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		attribute.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return attribute;
+	}
+
+	private AttributeSignature typeSignature(String value) {
+		return AttributeSignature.of(createAttribute("type", value));
+	}
+
+	@Test
+	public void testWithNameInDataAndAttributes() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		DataChildSpy otherType = createChildWithAttribute("someName", "otherType");
+		DataChildSpy secondSomeType = createChildWithAttribute("someName", "someType");
+		children.add(someType);
+		children.add(first);
+		children.add(otherType);
+		children.add(secondSomeType);
+
+		assertEquals(children.withNameInDataAndAttributes("someName", typeSignature("someType")),
+				List.of(someType, secondSomeType));
+		assertEquals(children.withNameInDataAndAttributes("someName",
+				AttributeSignature.NO_ATTRIBUTES), List.of(first));
+		assertTrue(children.withNameInDataAndAttributes("someName", typeSignature("missing"))
+				.isEmpty());
+		assertTrue(children.withNameInDataAndAttributes("missingName", typeSignature("someType"))
+				.isEmpty());
+	}
+
+	@Test
+	public void testAttributesAreReadOnceWhenAdded() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		children.add(someType);
+
+		children.withNameInDataAndAttributes("someName", typeSignature("someType"));
+		children.removeAllWithNameInDataAndAttributes("someName", typeSignature("someType"));
+
+		someType.MCR.assertNumberOfCallsToMethod("getAttributes", 1);
+	}
+
+	@Test
+	public void testRemoveAllWithNameInDataAndAttributes() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		DataChildSpy otherType = createChildWithAttribute("someName", "otherType");
+		children.add(someType);
+		children.add(otherType);
+		children.add(first);
+
+		assertTrue(children.removeAllWithNameInDataAndAttributes("someName",
+				typeSignature("someType")));
+
+		assertEquals(children.all(), List.of(otherType, first));
+		assertEquals(children.withNameInData("someName"), List.of(otherType, first));
+		assertTrue(children.withNameInDataAndAttributes("someName", typeSignature("someType"))
+				.isEmpty());
+		assertFalse(children.removeAllWithNameInDataAndAttributes("someName",
+				typeSignature("someType")));
+		assertFalse(children.removeAllWithNameInDataAndAttributes("missingName",
+				typeSignature("someType")));
+	}
+
+	@Test
+	public void testRemoveLastChildWithNameInDataAndAttributesRemovesIndexEntries() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		children.add(someType);
+
+		children.removeAllWithNameInDataAndAttributes("someName", typeSignature("someType"));
+
+		assertFalse(children.containsNameInData("someName"));
+		assertTrue(children.isEmpty());
+	}
+
+	@Test
+	public void testOtherRemovalsKeepAttributeIndexUpToDate() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		DataChildSpy secondSomeType = createChildWithAttribute("someName", "someType");
+		DataChildSpy otherType = createChildWithAttribute("someName", "otherType");
+		children.add(someType);
+		children.add(secondSomeType);
+		children.add(otherType);
+
+		children.removeFirstWithNameInData("someName");
+		children.removeMatching(null, child -> child == otherType);
+
+		assertEquals(children.withNameInDataAndAttributes("someName", typeSignature("someType")),
+				List.of(secondSomeType));
+		assertTrue(children.withNameInDataAndAttributes("someName", typeSignature("otherType"))
+				.isEmpty());
+		children.removeAllWithNameInData("someName");
+		assertTrue(children.withNameInDataAndAttributes("someName", typeSignature("someType"))
+				.isEmpty());
+	}
+
+	private <T extends AbstractSpy> T withNameInData(T child, String nameInData) {
+		child.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		return child;
+	}
+
+	@Test
+	public void testOfTypeKeepsInsertionOrder() {
+		DataAtomicSpy atomic = withNameInData(new DataAtomicSpy(), "someName");
+		DataGroupSpy group = withNameInData(new DataGroupSpy(), "someName");
+		DataRecordLinkSpy recordLink = withNameInData(new DataRecordLinkSpy(), "otherName");
+		DataResourceLinkSpy resourceLink = withNameInData(new DataResourceLinkSpy(), "someName");
+		DataAtomicSpy secondAtomic = withNameInData(new DataAtomicSpy(), "otherName");
+		children.add(atomic);
+		children.add(first);
+		children.add(group);
+		children.add(recordLink);
+		children.add(resourceLink);
+		children.add(secondAtomic);
+
+		assertEquals(children.ofType(DataAtomic.class), List.of(atomic, secondAtomic));
+		assertEquals(children.ofType(DataGroup.class), List.of(group));
+		assertEquals(children.ofType(DataRecordLink.class), List.of(recordLink));
+		assertEquals(children.ofType(DataResourceLink.class), List.of(resourceLink));
+		assertEquals(children.ofType(DataChild.class),
+				List.of(atomic, first, group, recordLink, resourceLink, secondAtomic));
+		assertEquals(children.ofType(DataChildSpy.class), List.of(first));
+	}
+
+	@Test
+	public void testOfTypeWithNameInData() {
+		DataAtomicSpy atomic = withNameInData(new DataAtomicSpy(), "someName");
+		DataGroupSpy group = withNameInData(new DataGroupSpy(), "someName");
+		DataAtomicSpy otherAtomic = withNameInData(new DataAtomicSpy(), "otherName");
+		DataAtomicSpy secondAtomic = withNameInData(new DataAtomicSpy(), "someName");
+		children.add(atomic);
+		children.add(group);
+		children.add(otherAtomic);
+		children.add(secondAtomic);
+
+		assertEquals(children.ofTypeWithNameInData(DataAtomic.class, "someName"),
+				List.of(atomic, secondAtomic));
+		assertEquals(children.ofTypeWithNameInData(DataChild.class, "someName"),
+				List.of(atomic, group, secondAtomic));
+		assertTrue(children.ofTypeWithNameInData(DataRecordLink.class, "someName").isEmpty());
+		assertSame(children.firstOfTypeWithNameInData(DataGroup.class, "someName"), group);
+		assertSame(children.firstOfTypeWithNameInData(DataAtomicSpy.class, "otherName"),
+				otherAtomic);
+		assertNull(children.firstOfTypeWithNameInData(DataGroup.class, "otherName"));
+	}
+
+	@Test
+	public void testOfTypeReturnsNewList() {
+		DataAtomicSpy atomic = withNameInData(new DataAtomicSpy(), "someName");
+		children.add(atomic);
+
+		children.ofType(DataAtomic.class).clear();
+		children.ofTypeWithNameInData(DataAtomic.class, "someName").clear();
+
+		assertEquals(children.ofType(DataAtomic.class), List.of(atomic));
+		assertEquals(children.ofTypeWithNameInData(DataAtomic.class, "someName"),
+				List.of(atomic));
+	}
+
+	@Test
+	public void testRemoveAllOfTypeWithNameInData() {
+		DataAtomicSpy atomic = withNameInData(new DataAtomicSpy(), "someName");
+		DataGroupSpy group = withNameInData(new DataGroupSpy(), "someName");
+		DataAtomicSpy otherAtomic = withNameInData(new DataAtomicSpy(), "otherName");
+		DataAtomicSpy secondAtomic = withNameInData(new DataAtomicSpy(), "someName");
+		children.add(atomic);
+		children.add(group);
+		children.add(otherAtomic);
+		children.add(secondAtomic);
+
+		assertTrue(children.removeAllOfTypeWithNameInData(DataAtomic.class, "someName"));
+
+		assertEquals(children.all(), List.of(group, otherAtomic));
+		assertEquals(children.withNameInData("someName"), List.of(group));
+		assertEquals(children.ofType(DataAtomic.class), List.of(otherAtomic));
+		assertTrue(children.ofTypeWithNameInData(DataAtomic.class, "someName").isEmpty());
+		assertFalse(children.removeAllOfTypeWithNameInData(DataAtomic.class, "someName"));
+		assertTrue(children.removeAllOfTypeWithNameInData(DataGroupSpy.class, "someName"));
+		assertTrue(children.ofType(DataGroup.class).isEmpty());
+	}
+
+	@Test
+	public void testOtherRemovalsKeepPartitionsUpToDate() {
+		DataAtomicSpy atomic = withNameInData(new DataAtomicSpy(), "someName");
+		DataGroupSpy group = withNameInData(new DataGroupSpy(), "someName");
+		DataAtomicSpy secondAtomic = withNameInData(new DataAtomicSpy(), "someName");
+		DataRecordLinkSpy recordLink = withNameInData(new DataRecordLinkSpy(), "otherName");
+		children.add(atomic);
+		children.add(group);
+		children.add(secondAtomic);
+		children.add(recordLink);
+
+		children.removeFirstWithNameInData("someName");
+		assertEquals(children.ofTypeWithNameInData(DataAtomic.class, "someName"),
+				List.of(secondAtomic));
+
+		children.removeMatching(null, child -> child == group);
+		assertTrue(children.ofType(DataGroup.class).isEmpty());
+
+		children.removeAllWithNameInData("otherName");
+		assertTrue(children.ofType(DataRecordLink.class).isEmpty());
+		assertEquals(children.ofType(DataAtomic.class), List.of(secondAtomic));
+	}
+
+	private CompiledChildFilter compileTypeFilter(String nameInData, String... types) {
+		SortedMap<String, Set<String>> possibleValues = new TreeMap<>();
+		possibleValues.put("type", Set.of(types));
+		return CompiledChildFilter.compile(nameInData, possibleValues);
+	}
+
+	@Test
+	public void testMatchingFilterKeepsInsertionOrder() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		DataChildSpy otherType = createChildWithAttribute("someName", "otherType");
+		DataChildSpy thirdType = createChildWithAttribute("someName", "thirdType");
+		DataChildSpy secondSomeType = createChildWithAttribute("someName", "someType");
+		children.add(someType);
+		children.add(otherType);
+		children.add(first);
+		children.add(thirdType);
+		children.add(secondSomeType);
+
+		assertEquals(children.matchingFilter(compileTypeFilter("someName", "someType",
+				"thirdType")), List.of(someType, thirdType, secondSomeType));
+		assertEquals(children.matchingFilter(compileTypeFilter("someName", "otherType")),
+				List.of(otherType));
+		assertTrue(children.matchingFilter(compileTypeFilter("someName", "missing", "other"))
+				.isEmpty());
+		assertTrue(children.matchingFilter(compileTypeFilter("missingName", "someType", "x"))
+				.isEmpty());
+	}
+
+	@Test
+	public void testRemoveMatchingFilter() {
+		DataChildSpy someType = createChildWithAttribute("someName", "someType");
+		DataChildSpy otherType = createChildWithAttribute("someName", "otherType");
+		DataChildSpy thirdType = createChildWithAttribute("someName", "thirdType");
+		children.add(someType);
+		children.add(otherType);
+		children.add(first);
+		children.add(thirdType);
+
+		assertTrue(children.removeMatchingFilter(compileTypeFilter("someName", "someType",
+				"thirdType")));
+		assertEquals(children.all(), List.of(otherType, first));
+		assertTrue(children.removeMatchingFilter(compileTypeFilter("someName", "otherType")));
+		assertEquals(children.all(), List.of(first));
+		assertFalse(children.removeMatchingFilter(compileTypeFilter("someName", "someType",
+				"otherType")));
+		assertFalse(children.removeMatchingFilter(compileTypeFilter("someName", "someType")));
+	}
+
+	@Test
+	public void testCopyHasSameChildren() {
+		addAll();
+
+		IndexedChildren copy = children.copy();
+
+		assertEquals(copy.all(), List.of(first, other, second));
+		assertEquals(copy.withNameInData("someName"), List.of(first, second));
+		first.MCR.assertNumberOfCallsToMethod("getNameInData", 1);
+		first.MCR.assertNumberOfCallsToMethod("getAttributes", 1);
+	}
+
+	@Test
+	public void testChangesToCopyAreNotSeenInOriginal() {
+		addAll();
+		IndexedChildren copy = children.copy();
+		DataChildSpy added = createChildWithNameInData("someName");
+
+		copy.add(added);
+		copy.removeFirstWithNameInData("otherName");
+
+		assertEquals(copy.all(), List.of(first, second, added));
+		assertEquals(copy.withNameInData("someName"), List.of(first, second, added));
+		assertEquals(children.all(), List.of(first, other, second));
+		assertEquals(children.withNameInData("someName"), List.of(first, second));
+		assertTrue(children.containsNameInData("otherName"));
+	}
+
+	@Test
+	public void testChangesToOriginalAreNotSeenInCopy() {
+		addAll();
+		IndexedChildren copy = children.copy();
+
+		children.removeAllWithNameInData("someName");
+		children.add(createChildWithNameInData("otherName"));
+
+		assertEquals(copy.all(), List.of(first, other, second));
+		assertEquals(copy.withNameInData("someName"), List.of(first, second));
+		assertEquals(copy.withNameInData("otherName"), List.of(other));
+	}
+
+	@Test
+	public void testChangesToCopyOfCopyAreOnlySeenThere() {
+		addAll();
+		IndexedChildren copy = children.copy();
+		IndexedChildren copyOfCopy = copy.copy();
+
+		copyOfCopy.removeMatching("someName", child -> child == second);
+
+		assertEquals(copyOfCopy.all(), List.of(first, other));
+		assertEquals(copy.all(), List.of(first, other, second));
+		assertEquals(children.all(), List.of(first, other, second));
+	}
+
+	@Test
+	public void testReplaceKeepsPlaceAndReadsOnlyNewChild() {
+		addAll();
+		DataChildSpy replacement = createChildWithNameInData("someName");
+		IndexedChildren copy = children.copy();
+
+		copy.replace(first, replacement);
+
+		assertEquals(copy.all(), List.of(replacement, other, second));
+		assertEquals(copy.withNameInData("someName"), List.of(replacement, second));
+		assertEquals(copy.withNameInDataAndAttributes("someName", AttributeSignature.of()),
+				List.of(replacement, second));
+		assertEquals(children.all(), List.of(first, other, second));
+		second.MCR.assertNumberOfCallsToMethod("getNameInData", 1);
+		second.MCR.assertNumberOfCallsToMethod("getAttributes", 1);
+	}
+
+	@Test
+	public void testReplaceWithChildWithOtherAttributes() {
+		addAll();
+		DataChildSpy replacement = createChildWithNameInData("someName");
+		replacement.MRV.setDefaultReturnValuesSupplier("getAttributes",
+				() -> List.of(new GroupContent.Attribute("type", "someType")));
+
+		children.replace(second, replacement);
+
+		assertEquals(children.all(), List.of(first, other, replacement));
+		assertEquals(children.withNameInDataAndAttributes("someName", AttributeSignature.of()),
+				List.of(first));
+		assertEquals(children.withNameInDataAndAttributes("someName",
+				AttributeSignature.ofNamesAndValues("type", "someType")), List.of(replacement));
+	}
+
+	@Test
+	public void testAttributesAreDroppedOnEveryRemoval() {
+		assertAttributesDroppedAfter(() -> children.removeFirstWithNameInData("someName"));
+		assertAttributesDroppedAfter(() -> children.removeAllWithNameInData("someName"));
+		assertAttributesDroppedAfter(() -> children.removeAllWithNameInDataAndAttributes(
+				"someName", AttributeSignature.NO_ATTRIBUTES));
+		assertAttributesDroppedAfter(() -> children.removeFirstMatching("someName", c -> true));
+		assertAttributesDroppedAfter(() -> children.removeMatching(null, c -> true));
+		assertAttributesDroppedAfter(() -> children.removeMatching("someName", c -> true));
+		assertAttributesDroppedAfter(
+				() -> children.removeMatchingFilter(CompiledChildFilter.compile("someName",
+						new TreeMap<>())));
+		assertAttributesDroppedAfter(
+				() -> children.removeAllOfTypeWithNameInData(DataChild.class, "someName"));
+	}
+
+	private void assertAttributesDroppedAfter(Runnable removal) {
+		DataChildSpy child = createChildWithNameInData("someName");
+		children.add(child);
+		assertEquals(children.onlyForTestNumberOfIndexedChildren(), 1);
+
+		removal.run();
+
+		assertTrue(children.isEmpty());
+		assertEquals(children.onlyForTestNumberOfIndexedChildren(), 0);
+	}
+
+	@Test
+	public void testAttributesOfChildAddedTwiceAreKeptUntilLastIsRemoved() {
+		children.add(first);
+		children.add(first);
+
+		children.removeFirstWithNameInData("someName");
+
+		assertEquals(children.onlyForTestNumberOfIndexedChildren(), 1);
+		assertEquals(children.withNameInDataAndAttributes("someName",
+				AttributeSignature.NO_ATTRIBUTES), List.of(first));
+		children.removeFirstWithNameInData("someName");
+		assertEquals(children.onlyForTestNumberOfIndexedChildren(), 0);
+	}
+
+	@Test
+	public void testAttributesAreReadAgainWhenChildIsAddedAgain() {
+		children.add(first);
+		children.removeFirstWithNameInData("someName");
+		List<DataAttribute> attributes = List.of(createAttribute("type", "someType"));
+		first.MRV.setDefaultReturnValuesSupplier("getAttributes", () -> attributes);
+
+		children.add(first);
+
+		assertEquals(children.withNameInDataAndAttributes("someName", typeSignature("someType")),
+				List.of(first));
+		assertTrue(children.withNameInDataAndAttributes("someName",
+				AttributeSignature.NO_ATTRIBUTES).isEmpty());
+	}
+
+	@Test
+	public void testEarlierOccurrencesAreIndexedOnChangedAttributes() {
+		children.add(first);
+		children.add(second);
+		List<DataAttribute> attributes = List.of(createAttribute("type", "someType"));
+		first.MRV.setDefaultReturnValuesSupplier("getAttributes", () -> attributes);
+
+		children.add(first);
+
+		assertEquals(children.withNameInDataAndAttributes("someName", typeSignature("someType")),
+				List.of(first, first));
+		assertEquals(children.withNameInDataAndAttributes("someName",
+				AttributeSignature.NO_ATTRIBUTES), List.of(second));
+	}
+
+	@Test
+	public void testReturnedListsAreSnapshots() {
+		addAll();
+		List<DataChild> all = children.all();
+		List<DataChild> withNameInData = children.withNameInData("someName");
+		List<DataChild> withAttributes = children.withNameInDataAndAttributes("someName",
+				AttributeSignature.NO_ATTRIBUTES);
+
+		children.removeFirstWithNameInData("someName");
+		children.add(createChildWithNameInData("someName"));
+
+		assertEquals(all, List.of(first, other, second));
+		assertEquals(withNameInData, List.of(first, second));
+		assertEquals(withAttributes, List.of(first, second));
+		assertEquals(children.withNameInData("someName").size(), 2);
+		assertSame(children.firstWithNameInData("someName"), second);
+	}
+
+	@Test
+	public void testSnapshotsDoNotSeeChildrenAddedLater() {
+		List<List<DataChild>> snapshots = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			children.add(createChildWithNameInData("someName"));
+			snapshots.add(children.withNameInData("someName"));
+		}
+
+		assertEquals(snapshots.get(0).size(), 1);
+		assertEquals(snapshots.get(1).size(), 2);
+		assertEquals(snapshots.get(2), children.all());
+		assertSame(snapshots.get(1).get(0), snapshots.get(2).get(0));
+	}
+
+	@Test
+	public void testSnapshotIsNotChangedByReplace() {
+		addAll();
+		List<DataChild> all = children.all();
+		List<DataChild> withAttributes = children.withNameInDataAndAttributes("someName",
+				AttributeSignature.NO_ATTRIBUTES);
+		DataChildSpy replacement = createChildWithNameInData("someName");
+
+		children.replace(first, replacement);
+		children.add(createChildWithNameInData("someName"));
+
+		assertEquals(all, List.of(first, other, second));
+		assertEquals(withAttributes, List.of(first, second));
+		assertSame(children.all().get(0), replacement);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testSnapshotDoesNotReachChildrenAddedLater() {
+		addAll();
+		List<DataChild> all = children.all();
+
+		children.add(createChildWithNameInData("someName"));
+
+		all.get(3);
+	}
+}
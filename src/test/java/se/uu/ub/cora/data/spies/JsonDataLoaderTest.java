@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataList;
+import se.uu.ub.cora.data.DataMissingException;
+import se.uu.ub.cora.data.DataRecord;
+import se.uu.ub.cora.data.DataRecordGroup;
+import se.uu.ub.cora.data.DataRecordLink;
+import se.uu.ub.cora.data.DataResourceLink;
+
+public class JsonDataLoaderTest {
+	private static final String GROUP = """
+			{"name":"book","attributes":{"type":"novel"},"children":[
+			 {"name":"title","value":"someTitle","attributes":{"language":"sv"}},
+			 {"name":"title","value":"otherTitle","repeatId":"1"},
+			 {"name":"author","repeatId":"0","children":[
+			  {"name":"linkedRecordType","value":"person"},
+			  {"name":"linkedRecordId","value":"person:1"}]},
+			 {"name":"cover","children":[
+			  {"name":"linkedRecordType","value":"binary"},
+			  {"name":"linkedRecordId","value":"binary:1"},
+			  {"name":"mimeType","value":"image/png"}]},
+			 {"name":"note","children":[{"name":"text","value":"someText"}],"extra":[1,2]}]}
+			""";
+	private static final String RECORD_GROUP = """
+			{"name":"book","children":[
+			 {"name":"recordInfo","children":[
+			  {"name":"id","value":"book:1"},
+			  {"name":"type","children":[
+			   {"name":"linkedRecordType","value":"recordType"},
+			   {"name":"linkedRecordId","value":"book"}]},
+			  {"name":"dataDivider","children":[
+			   {"name":"linkedRecordType","value":"system"},
+			   {"name":"linkedRecordId","value":"cora"}]},
+			  {"name":"createdBy","children":[
+			   {"name":"linkedRecordType","value":"user"},
+			   {"name":"linkedRecordId","value":"user:1"}]},
+			  {"name":"tsCreated","value":"2026-01-01T10:00:00.000000Z"},
+			  {"name":"updated","repeatId":"0","children":[
+			   {"name":"updatedBy","children":[
+			    {"name":"linkedRecordType","value":"user"},
+			    {"name":"linkedRecordId","value":"user:1"}]},
+			   {"name":"tsUpdated","value":"2026-01-01T10:00:00.000000Z"}]},
+			  {"name":"updated","repeatId":"1","children":[
+			   {"name":"updatedBy","children":[
+			    {"name":"linkedRecordType","value":"user"},
+			    {"name":"linkedRecordId","value":"user:2"}]},
+			   {"name":"tsUpdated","value":"2026-02-01T10:00:00.000000Z"}]},
+			  {"name":"inTrashBin","value":"false"}]},
+			 {"name":"title","value":"someTitle"}]}
+			""";
+
+	@Test
+	public void testLoadGroupAsFake() {
+		DataGroup group = JsonDataLoader.loadingFakes().loadGroup(new StringReader(GROUP));
+
+		assertTrue(group instanceof DataGroupFake);
+		assertLoadedGroup(group);
+		assertEquals(group.getAllChildrenWithNameInData("title").size(), 2);
+	}
+
+	@Test
+	public void testLoadGroupAsSpy() {
+		DataGroup group = JsonDataLoader.loadingSpies().loadGroup(new StringReader(GROUP));
+
+		assertTrue(group instanceof DataGroupSpy);
+		assertLoadedGroup(group);
+		assertEquals(group.getAllChildrenWithNameInData("title").size(), 2);
+		assertTrue(group.containsChildWithNameInData("author"));
+		assertEquals(group.getAllDataAtomicsWithNameInData("title").size(), 2);
+		assertEquals(group.getAllGroupsWithNameInData("note").size(), 1);
+	}
+
+	private void assertLoadedGroup(DataGroup group) {
+		assertEquals(group.getNameInData(), "book");
+		assertEquals(group.getAttributeValue("type"), Optional.of("novel"));
+		assertEquals(group.getChildren().size(), 5);
+
+		DataAtomic title = (DataAtomic) group.getFirstChildWithNameInData("title");
+		assertEquals(title.getValue(), "someTitle");
+		assertEquals(title.getAttributeValue("language"), Optional.of("sv"));
+		assertEquals(group.getFirstAtomicValueWithNameInData("title"), "someTitle");
+		DataAtomic secondTitle = (DataAtomic) group.getChildren().get(1);
+		assertEquals(secondTitle.getRepeatId(), "1");
+
+		DataRecordLink author = (DataRecordLink) group.getFirstChildWithNameInData("author");
+		assertEquals(author.getLinkedRecordType(), "person");
+		assertEquals(author.getLinkedRecordId(), "person:1");
+		assertEquals(author.getRepeatId(), "0");
+
+		DataResourceLink cover = (DataResourceLink) group.getFirstChildWithNameInData("cover");
+		assertEquals(cover.getType(), "binary");
+		assertEquals(cover.getId(), "binary:1");
+		assertEquals(cover.getMimeType(), "image/png");
+
+		DataGroup note = group.getFirstGroupWithNameInData("note");
+		assertEquals(note.getFirstAtomicValueWithNameInData("text"), "someText");
+	}
+
+	@Test
+	public void testLoadRecordGroupAsFake() {
+		DataRecordGroup recordGroup = JsonDataLoader.loadingFakes()
+				.loadRecordGroup(new StringReader(RECORD_GROUP));
+
+		assertTrue(recordGroup instanceof DataRecordGroupFake);
+		assertLoadedRecordInfo(recordGroup);
+		assertFalse(recordGroup.containsChildWithNameInData("recordInfo"));
+		assertEquals(recordGroup.getChildren().size(), 1);
+	}
+
+	@Test
+	public void testLoadRecordGroupAsSpy() {
+		DataRecordGroup recordGroup = JsonDataLoader.loadingSpies()
+				.loadRecordGroup(new StringReader(RECORD_GROUP));
+
+		assertTrue(recordGroup instanceof DataRecordGroupSpy);
+		assertLoadedRecordInfo(recordGroup);
+		assertEquals(recordGroup.getChildren().size(), 2);
+	}
+
+	private void assertLoadedRecordInfo(DataRecordGroup recordGroup) {
+		assertEquals(recordGroup.getNameInData(), "book");
+		assertEquals(recordGroup.getType(), "book");
+		assertEquals(recordGroup.getId(), "book:1");
+		assertEquals(recordGroup.getDataDivider(), "cora");
+		assertEquals(recordGroup.getCreatedBy(), "user:1");
+		assertEquals(recordGroup.getTsCreated(), "2026-01-01T10:00:00.000000Z");
+		assertEquals(recordGroup.getLatestUpdatedBy(), "user:2");
+		assertEquals(recordGroup.getLatestTsUpdated(), "2026-02-01T10:00:00.000000Z");
+		assertEquals(recordGroup.getAllUpdated().size(), 2);
+		assertEquals(recordGroup.isInTrashBin(), Optional.of(false));
+		assertEquals(recordGroup.getVisibility(), Optional.empty());
+		assertEquals(recordGroup.getFirstAtomicValueWithNameInData("title"), "someTitle");
+	}
+
+	@Test
+	public void testLoadRecord() {
+		String json = "{\"record\":{\"data\":" + RECORD_GROUP + ",\"actionLinks\":{\"read\":"
+				+ "{\"url\":\"someUrl\"}},\"permissions\":{\"read\":[\"title\"],"
+				+ "\"write\":[\"title\",\"note\"]}}}";
+
+		DataRecord dataRecord = JsonDataLoader.loadingFakes().loadRecord(new StringReader(json));
+
+		assertEquals(dataRecord.getType(), "book");
+		assertEquals(dataRecord.getId(), "book:1");
+		assertEquals(dataRecord.getDataRecordGroup().getId(), "book:1");
+		assertTrue(dataRecord.hasReadPermissions());
+		assertEquals(dataRecord.getReadPermissions(), Set.of("title"));
+		assertEquals(dataRecord.getWritePermissions(), Set.of("title", "note"));
+	}
+
+	@Test
+	public void testLoadRecordWithoutRecordInfoReadsTypeWhenAsked() {
+		String json = "{\"record\":{\"data\":{\"name\":\"book\",\"children\":[]}}}";
+
+		DataRecord dataRecord = JsonDataLoader.loadingFakes().loadRecord(new StringReader(json));
+
+		assertEquals(dataRecord.getDataRecordGroup().getNameInData(), "book");
+		try {
+			dataRecord.getType();
+			fail();
+		} catch (DataMissingException e) {
+			assertEquals(e.getMessage(), "Element not found for childNameInData:type");
+		}
+	}
+
+	private String listOfRecords(int numberOfRecords) {
+		StringBuilder json = new StringBuilder(
+				"{\"dataList\":{\"fromNo\":\"1\",\"toNo\":\"" + numberOfRecords
+						+ "\",\"totalNo\":\"" + numberOfRecords
+						+ "\",\"containDataOfType\":\"book\",\"data\":[");
+		for (int i = 0; i < numberOfRecords; i++) {
+			if (i > 0) {
+				json.append(",");
+			}
+			json.append("{\"record\":{\"data\":").append(RECORD_GROUP).append("}}");
+		}
+		return json.append("]}}").toString();
+	}
+
+	@Test
+	public void testLoadList() {
+		DataList dataList = JsonDataLoader.loadingSpies()
+				.loadList(new StringReader(listOfRecords(3)));
+
+		assertEquals(dataList.getFromNo(), "1");
+		assertEquals(dataList.getToNo(), "3");
+		assertEquals(dataList.getTotalNumberOfTypeInStorage(), "3");
+		assertEquals(dataList.getContainDataOfType(), "book");
+		assertEquals(dataList.getDataList().size(), 3);
+		DataRecord firstRecord = (DataRecord) dataList.getDataList().get(0);
+		assertEquals(firstRecord.getId(), "book:1");
+	}
+
+	@Test
+	public void testLoadListOfGroups() {
+		String json = "{\"dataList\":{\"data\":[" + GROUP + "," + GROUP + "]}}";
+
+		DataList dataList = JsonDataLoader.loadingFakes().loadList(new StringReader(json));
+
+		assertEquals(dataList.getDataList().size(), 2);
+		assertLoadedGroup((DataGroup) dataList.getDataList().get(1));
+	}
+
+	@Test
+	public void testForEachRecordInList() {
+		List<DataRecord> records = new ArrayList<>();
+
+		JsonDataLoader.loadingFakes().forEachRecordInList(new StringReader(listOfRecords(4)),
+				records::add);
+
+		assertEquals(records.size(), 4);
+		for (DataRecord dataRecord : records) {
+			assertEquals(dataRecord.getDataRecordGroup().getLatestUpdatedBy(), "user:2");
+		}
+	}
+
+	@Test
+	public void testFieldsInAnyOrder() {
+		String json = "{\"children\":[{\"value\":\"v\",\"name\":\"a\"}],\"name\":\"g\"}";
+
+		DataGroup group = JsonDataLoader.loadingFakes().loadGroup(new StringReader(json));
+
+		assertEquals(group.getNameInData(), "g");
+		DataChild child = group.getChildren().get(0);
+		assertEquals(child.getNameInData(), "a");
+		assertEquals(((DataAtomic) child).getValue(), "v");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "Expected record but found data")
+	public void testLoadRecordNotARecord() {
+		JsonDataLoader.loadingFakes().loadRecord(new StringReader("{\"data\":{}}"));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "Malformed JSON at character \\d+: .*")
+	public void testLoadGroupMalformed() {
+		JsonDataLoader.loadingFakes().loadGroup(new StringReader("{\"name\":\"g\""));
+	}
+}
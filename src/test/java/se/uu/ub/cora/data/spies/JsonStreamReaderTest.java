@@ -0,0 +1,253 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.spies.JsonStreamReader.Token;
+
+public class JsonStreamReaderTest {
+
+	private JsonStreamReader readerFor(String json) {
+		return new JsonStreamReader(new StringReader(json));
+	}
+
+	@Test
+	public void testReadObjectWithNamesAndValues() {
+		JsonStreamReader reader = readerFor("{\"name\":\"someName\", \"value\" : \"someValue\"}");
+
+		reader.beginObject();
+		assertEquals(reader.nextName(), "name");
+		assertEquals(reader.nextString(), "someName");
+		assertEquals(reader.nextName(), "value");
+		assertEquals(reader.nextString(), "someValue");
+		assertFalse(reader.hasNext());
+		reader.endObject();
+		reader.endDocument();
+	}
+
+	@Test
+	public void testReadArray() {
+		JsonStreamReader reader = readerFor(" [ \"one\", \"two\" ] ");
+
+		reader.beginArray();
+		assertTrue(reader.hasNext());
+		assertEquals(reader.nextString(), "one");
+		assertEquals(reader.nextString(), "two");
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		reader.endDocument();
+	}
+
+	@Test
+	public void testEmptyObjectAndArray() {
+		JsonStreamReader reader = readerFor("{\"children\":[],\"attributes\":{}}");
+
+		reader.beginObject();
+		reader.nextName();
+		reader.beginArray();
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		reader.nextName();
+		reader.beginObject();
+		assertFalse(reader.hasNext());
+		reader.endObject();
+		reader.endObject();
+		reader.endDocument();
+	}
+
+	@Test
+	public void testLiteralsAreReadAsStrings() {
+		JsonStreamReader reader = readerFor("[12, true, null]");
+
+		reader.beginArray();
+		assertEquals(reader.peek(), Token.LITERAL);
+		assertEquals(reader.nextString(), "12");
+		assertEquals(reader.nextString(), "true");
+		assertEquals(reader.nextString(), "null");
+		reader.endArray();
+	}
+
+	@Test
+	public void testEscapes() {
+		JsonStreamReader reader = readerFor("\"a\\\"b\\\\c\\/d\\n\\t\\u00e5\"");
+
+		assertEquals(reader.nextString(), "a\"b\\c/d\n\t\u00e5");
+	}
+
+	@Test
+	public void testSkipValueSkipsNestedValues() {
+		JsonStreamReader reader = readerFor(
+				"{\"skip\":{\"a\":[1,{\"b\":\"c\"}],\"d\":\"e\"},\"keep\":\"kept\"}");
+
+		reader.beginObject();
+		reader.nextName();
+		reader.skipValue();
+		assertEquals(reader.nextName(), "keep");
+		assertEquals(reader.nextString(), "kept");
+		reader.endObject();
+		reader.endDocument();
+	}
+
+	@Test
+	public void testStringsLongerThanBuffer() {
+		String longValue = "x".repeat(20000);
+		JsonStreamReader reader = readerFor("[\"" + longValue + "\",\"after\"]");
+
+		reader.beginArray();
+		assertEquals(reader.nextString(), longValue);
+		assertEquals(reader.nextString(), "after");
+	}
+
+	@Test
+	public void testMalformedMissingColon() {
+		JsonStreamReader reader = readerFor("{\"name\" \"value\"}");
+		reader.beginObject();
+		reader.nextName();
+
+		assertMalformed(reader::nextString, "Malformed JSON at character 9: expected :");
+	}
+
+	@Test
+	public void testMalformedUnterminatedString() {
+		JsonStreamReader reader = readerFor("\"open");
+
+		assertMalformed(reader::nextString, "Malformed JSON at character 5: unterminated string");
+	}
+
+	@Test
+	public void testMalformedWrongToken() {
+		JsonStreamReader reader = readerFor("[\"value\"]");
+
+		assertMalformed(reader::beginObject,
+				"Malformed JSON at character 1: expected BEGIN_OBJECT but was BEGIN_ARRAY");
+	}
+
+	@Test
+	public void testMalformedTrailingContent() {
+		JsonStreamReader reader = readerFor("{} {}");
+		reader.beginObject();
+		reader.endObject();
+
+		assertMalformed(reader::endDocument,
+				"Malformed JSON at character 4: expected end of document");
+	}
+
+	@Test
+	public void testMalformedBareWord() {
+		JsonStreamReader reader = readerFor("[\"value\", someWord]");
+		reader.beginArray();
+		reader.nextString();
+
+		assertMalformed(reader::nextString,
+				"Malformed JSON at character 11: expected value but was someWord");
+	}
+
+	@Test
+	public void testMalformedNumber() {
+		JsonStreamReader reader = readerFor("[01]");
+		reader.beginArray();
+
+		assertMalformed(reader::nextString,
+				"Malformed JSON at character 2: expected value but was 01");
+	}
+
+	@Test
+	public void testValidNumbers() {
+		JsonStreamReader reader = readerFor("[0, -1.5, 2e10, 3.25E-2]");
+		reader.beginArray();
+
+		assertEquals(reader.nextString(), "0");
+		assertEquals(reader.nextString(), "-1.5");
+		assertEquals(reader.nextString(), "2e10");
+		assertEquals(reader.nextString(), "3.25E-2");
+		reader.endArray();
+	}
+
+	@Test
+	public void testMalformedTrailingCommaInArray() {
+		JsonStreamReader reader = readerFor("[1,]");
+		reader.beginArray();
+		reader.nextString();
+
+		assertMalformed(reader::hasNext, "Malformed JSON at character 4: expected value");
+	}
+
+	@Test
+	public void testMalformedLeadingCommaInArray() {
+		JsonStreamReader reader = readerFor("[,1]");
+		reader.beginArray();
+
+		assertMalformed(reader::hasNext, "Malformed JSON at character 2: expected value");
+	}
+
+	@Test
+	public void testMalformedMissingValueInObject() {
+		JsonStreamReader reader = readerFor("{\"name\":}");
+		reader.beginObject();
+		reader.nextName();
+
+		assertMalformed(reader::nextString, "Malformed JSON at character 9: expected value");
+	}
+
+	@Test
+	public void testMalformedUnescapedControlCharacterInString() {
+		JsonStreamReader reader = readerFor("[\"line\nbreak\"]");
+		reader.beginArray();
+
+		assertMalformed(reader::nextString,
+				"Malformed JSON at character 7: unescaped control character in string");
+	}
+
+	private void assertMalformed(Runnable read, String message) {
+		try {
+			read.run();
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			assertEquals(e.getMessage(), message);
+		}
+	}
+
+	@Test(expectedExceptions = UncheckedIOException.class)
+	public void testIOExceptionIsRethrownUnchecked() {
+		Reader failingReader = new Reader() {
+			@Override
+			public int read(char[] buffer, int offset, int length) throws IOException {
+				throw new IOException("read failed");
+			}
+
+			@Override
+			public void close() {
+				// nothing to close
+			}
+		};
+
+		new JsonStreamReader(failingReader).peek();
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LazyMethodReturnValuesTest {
+	private DataGroupSpy dataGroup;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataGroup = new DataGroupSpy();
+	}
+
+	@Test
+	public void testSpyUsesLazyMRV() {
+		assertTrue(dataGroup.MRV instanceof LazyMethodReturnValues);
+		assertSame(dataGroup.MCR.onlyForTestGetMRV(), dataGroup.MRV);
+	}
+
+	@Test
+	public void testDefaultsAreInstalledOnFirstCall() {
+		assertFalse(dataGroup.hasRepeatId());
+		assertEquals(dataGroup.getNameInData(), "");
+	}
+
+	@Test
+	public void testDefaultSetBeforeFirstCallIsNotOverwritten() {
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+
+		assertEquals(dataGroup.getNameInData(), "someNameInData");
+	}
+
+	@Test
+	public void testOtherDefaultsAreKeptWhenTestSetsADefault() {
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+
+		assertFalse(dataGroup.hasRepeatId());
+		assertTrue(dataGroup.getFirstGroupWithNameInData("someChild") instanceof DataGroupSpy);
+	}
+
+	@Test
+	public void testDefaultSetAfterFirstCallIsUsed() {
+		dataGroup.getNameInData();
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+
+		assertEquals(dataGroup.getNameInData(), "someNameInData");
+	}
+
+	@Test
+	public void testDefaultTableIsSharedBetweenSpies() {
+		DataGroupSpy otherDataGroup = new DataGroupSpy();
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+
+		assertEquals(otherDataGroup.getNameInData(), "");
+	}
+
+	@Test
+	public void testDefaultsAreNotMemoizedByDefault() {
+		var first = dataGroup.getFirstGroupWithNameInData("someChild");
+		var second = dataGroup.getFirstGroupWithNameInData("someChild");
+
+		assertNotSame(second, first);
+	}
+
+	@Test
+	public void testMemoizedDefaultIsReturnedForEqualParameterValues() {
+		dataGroup.memoizeDefaultReturnValues();
+
+		var first = dataGroup.getFirstGroupWithNameInData("someChild");
+		var second = dataGroup.getFirstGroupWithNameInData("someChild");
+		var other = dataGroup.getFirstGroupWithNameInData("someOtherChild");
+
+		assertSame(second, first);
+		assertNotSame(other, first);
+		dataGroup.MCR.assertNumberOfCallsToMethod("getFirstGroupWithNameInData", 3);
+		dataGroup.MCR.assertReturn("getFirstGroupWithNameInData", 1, first);
+	}
+
+	@Test
+	public void testMemoizedDefaultForMethodWithoutParameters() {
+		DataRecordSpy dataRecord = new DataRecordSpy();
+		dataRecord.memoizeDefaultReturnValues();
+
+		assertSame(dataRecord.getDataRecordGroup(), dataRecord.getDataRecordGroup());
+	}
+
+	@Test
+	public void testAlreadyInstalledDefaultsAreMemoized() {
+		var beforeMemoizing = dataGroup.getFirstGroupWithNameInData("someChild");
+
+		dataGroup.memoizeDefaultReturnValues();
+		var first = dataGroup.getFirstGroupWithNameInData("someChild");
+
+		assertNotSame(first, beforeMemoizing);
+		assertSame(dataGroup.getFirstGroupWithNameInData("someChild"), first);
+	}
+
+	@Test
+	public void testDefaultSetByTestIsNotMemoized() {
+		dataGroup.getFirstGroupWithNameInData("someChild");
+		dataGroup.MRV.setDefaultReturnValuesSupplier("getFirstGroupWithNameInData",
+				DataGroupSpy::new);
+
+		dataGroup.memoizeDefaultReturnValues();
+
+		assertNotSame(dataGroup.getFirstGroupWithNameInData("someChild"),
+				dataGroup.getFirstGroupWithNameInData("someChild"));
+	}
+
+	@Test
+	public void testSpecificReturnValueWinsOverMemoizedDefault() {
+		dataGroup.memoizeDefaultReturnValues();
+		var memoized = dataGroup.getFirstGroupWithNameInData("someChild");
+		DataGroupSpy specific = new DataGroupSpy();
+
+		dataGroup.MRV.setSpecificReturnValuesSupplier("getFirstGroupWithNameInData",
+				() -> specific, "someChild");
+
+		assertSame(dataGroup.getFirstGroupWithNameInData("someChild"), specific);
+		assertNotSame(memoized, specific);
+	}
+
+	@Test
+	public void testSpiesReturnedFromMemoizedDefaultsAreMemoizing() {
+		DataRecordSpy dataRecord = new DataRecordSpy();
+		dataRecord.memoizeDefaultReturnValues();
+
+		var first = dataRecord.getDataRecordGroup().getFirstGroupWithNameInData("someChild");
+		var second = dataRecord.getDataRecordGroup().getFirstGroupWithNameInData("someChild");
+
+		assertSame(second, first);
+	}
+
+	@Test
+	public void testMemoizedDefaultsAreKeyedOnAllParameterValues() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataFactory.memoizeDefaultReturnValues();
+
+		var link = dataFactory.factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
+				"someNameInData", "someType", "someId", "someMimeType");
+
+		assertSame(dataFactory.factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
+				"someNameInData", "someType", "someId", "someMimeType"), link);
+		assertNotSame(dataFactory.factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
+				"someNameInData", "someType", "someId", "otherMimeType"), link);
+		assertNotSame(dataFactory.factorResourceLinkUsingNameInDataAndTypeAndIdAndMimeType(
+				"someNameInData", "someType", "otherId", "someMimeType"), link);
+	}
+
+	@Test
+	public void testMemoizedDefaultsForDifferentNumberOfParameters() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataFactory.memoizeDefaultReturnValues();
+
+		var atomic = dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", "someValue");
+		var atomicWithRepeatId = dataFactory.factorAtomicUsingNameInDataAndValueAndRepeatId(
+				"someNameInData", "someValue", "someRepeatId");
+
+		assertNotSame(atomicWithRepeatId, atomic);
+		assertSame(dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", "someValue"),
+				atomic);
+		assertSame(dataFactory.factorAtomicUsingNameInDataAndValueAndRepeatId("someNameInData",
+				"someValue", "someRepeatId"), atomicWithRepeatId);
+	}
+
+	@Test
+	public void testMemoizedDefaultsAreKeyedOnContentOfArrayParameterValues() {
+		LazyMethodReturnValues mrv = new LazyMethodReturnValues(
+				Map.of("someMethod", DataGroupSpy::new));
+		mrv.memoizeDefaults();
+
+		Object first = answerSomeMethod(mrv, new String[] { "someValue" });
+
+		assertSame(answerSomeMethod(mrv, new String[] { "someValue" }), first);
+		assertNotSame(answerSomeMethod(mrv, new String[] { "otherValue" }), first);
+		assertSame(answerSomeMethod(mrv, new Object[] { new String[] { "someValue" } }),
+				answerSomeMethod(mrv, new Object[] { new String[] { "someValue" } }));
+	}
+
+	private Object answerSomeMethod(LazyMethodReturnValues mrv, Object[] value) {
+		mrv.ensureDefaultInstalled("someMethod");
+		mrv.useParameterValues(1, value, null, null, null);
+		return mrv.answer("someMethod", 1, value, null, null, null);
+	}
+
+	@Test
+	public void testSpecificReturnValueSetAfterFirstCallIsUsed() {
+		dataGroup.containsChildWithNameInData("someChild");
+		dataGroup.MRV.setSpecificReturnValuesSupplier("containsChildWithNameInData", () -> true,
+				"someChild");
+
+		assertTrue(dataGroup.containsChildWithNameInData("someChild"));
+		assertFalse(dataGroup.containsChildWithNameInData("otherChild"));
+	}
+
+	@Test
+	public void testReturnValuesSetAfterFirstCallAreUsed() {
+		dataGroup.getNameInData();
+		dataGroup.MRV.setReturnValues("getNameInData", List.of("first", "second"));
+
+		assertEquals(dataGroup.getNameInData(), "first");
+		assertEquals(dataGroup.getNameInData(), "second");
+	}
+
+	@Test(expectedExceptions = RuntimeException.class, expectedExceptionsMessageRegExp = ""
+			+ "someException")
+	public void testExceptionSetAfterFirstCallIsThrown() {
+		dataGroup.hasChildren();
+		dataGroup.MRV.setAlwaysThrowException("hasChildren", new RuntimeException("someException"));
+
+		dataGroup.hasChildren();
+	}
+
+	@Test(expectedExceptions = RuntimeException.class, expectedExceptionsMessageRegExp = ""
+			+ "someException")
+	public void testSpecificExceptionSetAfterFirstCallIsThrown() {
+		dataGroup.containsChildWithNameInData("someChild");
+		dataGroup.MRV.setThrowException("containsChildWithNameInData",
+				new RuntimeException("someException"), "someChild");
+
+		dataGroup.containsChildWithNameInData("someChild");
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.Data;
+import se.uu.ub.cora.data.DataRecord;
+
+public class MappedDataListFileTest {
+	private Path file;
+
+	@BeforeMethod
+	public void beforeMethod() throws IOException {
+		file = Files.createTempFile("mappedDataList", ".bin");
+	}
+
+	@AfterMethod
+	public void afterMethod() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	private String record(int number) {
+		return """
+				{"record":{"data":{"name":"book","children":[
+				 {"name":"recordInfo","children":[
+				  {"name":"id","value":"book:%d"},
+				  {"name":"type","children":[
+				   {"name":"linkedRecordType","value":"recordType"},
+				   {"name":"linkedRecordId","value":"book"}]}]},
+				 {"name":"title","value":"title \\"%d\\" \\u00e5\\n"}]},
+				 "actionLinks":{"read":{"requestMethod":"GET","url":"someUrl"}},
+				 "permissions":{"read":["title"],"write":[]}}}
+				""".formatted(number, number);
+	}
+
+	private String listOfRecords(int numberOfRecords) {
+		StringBuilder json = new StringBuilder("{\"dataList\":{\"fromNo\":\"1\",\"data\":[");
+		for (int i = 1; i <= numberOfRecords; i++) {
+			json.append(i > 1 ? "," : "").append(record(i));
+		}
+		return json.append("],\"containDataOfType\":\"book\",\"totalNo\":12}}").toString();
+	}
+
+	private MappedDataListFile writeAndOpen(int numberOfRecords, long maxPartSize) {
+		long written = MappedDataListFile
+				.writeFromJsonList(new StringReader(listOfRecords(numberOfRecords)), file);
+		assertEquals(written, numberOfRecords);
+		return MappedDataListFile.open(file, JsonDataLoader.loadingFakes(), maxPartSize);
+	}
+
+	@Test
+	public void testWriteAndReadRecords() {
+		MappedDataListFile listFile = writeAndOpen(12, Integer.MAX_VALUE);
+
+		assertEquals(listFile.getTotalNo(), 12);
+		assertEquals(listFile.getContainDataOfType(), "book");
+		DataRecord seventh = listFile.readRecord(7);
+		assertEquals(seventh.getId(), "book:7");
+		assertEquals(seventh.getDataRecordGroup().getFirstAtomicValueWithNameInData("title"),
+				"title \"7\" \u00e5\n");
+		assertTrue(seventh.getReadPermissions().contains("title"));
+		assertEquals(listFile.readRecord(1).getId(), "book:1");
+		assertEquals(listFile.readRecord(12).getId(), "book:12");
+	}
+
+	@Test
+	public void testRecordsAreStoredWithoutWhitespace() throws IOException {
+		MappedDataListFile.writeFromJsonList(new StringReader(listOfRecords(1)), file);
+
+		String stored = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		assertTrue(stored.contains("{\"record\":{\"data\":{\"name\":\"book\",\"children\":["));
+		assertTrue(stored.contains("\"permissions\":{\"read\":[\"title\"],\"write\":[]}}}"));
+	}
+
+	@Test
+	public void testFileMappedInSeveralParts() {
+		int recordSize = record(10).length();
+		MappedDataListFile listFile = writeAndOpen(12, 3L * recordSize);
+
+		for (int number = 1; number <= 12; number++) {
+			assertEquals(listFile.readRecord(number).getId(), "book:" + number);
+		}
+	}
+
+	@Test
+	public void testIndexMappedInSeveralParts() {
+		int recordSize = record(100).length();
+		MappedDataListFile listFile = writeAndOpen(100, recordSize);
+
+		assertTrue(listFile.onlyForTestNumberOfIndexParts() > 1);
+		for (int number = 1; number <= 100; number++) {
+			assertEquals(listFile.readRecord(number).getId(), "book:" + number);
+		}
+	}
+
+	@Test
+	public void testWriteMoreRecordsThanFirstOffsetCapacity() {
+		MappedDataListFile listFile = writeAndOpen(1500, Integer.MAX_VALUE);
+
+		assertEquals(listFile.onlyForTestNumberOfIndexParts(), 1);
+		assertEquals(listFile.readRecord(1025).getId(), "book:1025");
+		assertEquals(listFile.readRecord(1500).getId(), "book:1500");
+	}
+
+	@Test
+	public void testWriteAsManyRecordsAsLimit() {
+		long written = MappedDataListFile.writeFromJsonList(new StringReader(listOfRecords(3)),
+				file, 3);
+
+		assertEquals(written, 3);
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "A mapped data list file can hold at most 3 records")
+	public void testWriteMoreRecordsThanLimit() {
+		MappedDataListFile.writeFromJsonList(new StringReader(listOfRecords(4)), file, 3);
+	}
+
+	@Test
+	public void testAsDataList() {
+		MappedDataListFile listFile = writeAndOpen(12, Integer.MAX_VALUE);
+		DataListFake dataList = listFile.asDataList();
+		dataList.setFromNo("5");
+		dataList.setToNo("8");
+
+		List<Data> records = dataList.getDataList();
+
+		assertEquals(dataList.getTotalNumberOfTypeInStorage(), "12");
+		assertEquals(dataList.getContainDataOfType(), "book");
+		assertEquals(records.size(), 4);
+		assertEquals(((DataRecord) records.get(0)).getId(), "book:5");
+		assertEquals(((DataRecord) records.get(3)).getId(), "book:8");
+	}
+
+	@Test
+	public void testEmptyList() {
+		MappedDataListFile listFile = writeAndOpen(0, Integer.MAX_VALUE);
+
+		assertEquals(listFile.getTotalNo(), 0);
+		assertEquals(listFile.asDataList().getDataList().size(), 0);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class,
+			expectedExceptionsMessageRegExp = ""
+					+ "Record number 13 out of bounds for total number 12")
+	public void testReadRecordOutsideList() {
+		writeAndOpen(12, Integer.MAX_VALUE).readRecord(13);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "Record 1 is too big to be mapped, \\d+ bytes")
+	public void testRecordBiggerThanPart() {
+		writeAndOpen(2, 10);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "Not a mapped data list file")
+	public void testOpenOtherFile() throws IOException {
+		Files.writeString(file, "{\"dataList\":{\"data\":[]}}");
+
+		MappedDataListFile.open(file, JsonDataLoader.loadingSpies());
+	}
+}
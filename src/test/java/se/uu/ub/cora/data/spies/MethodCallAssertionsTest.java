@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.testutils.mcr.MethodCallRecorder;
+
+/**
+ * MethodCallAssertionsTest records the same calls in MethodCallRecorder from testutils and in a
+ * spy recorder, and checks that every query answers the same and every assertion passes or fails
+ * the same way in both. Only the messages of failing assertions differ.
+ */
+public class MethodCallAssertionsTest {
+	private static final Object FAILED = new Object();
+	private static final String METHOD_NAME = "someMethod";
+	private static final Set<String> NOT_ABOUT_CALLS = Set.of("useMRV", "onlyForTestGetMRV");
+	private MethodCallRecorder upstream;
+	private AllCallsMethodCallRecorder recorder;
+	private Object someObject = new Object();
+	private List<String> someList = List.of("a", "b");
+
+	@BeforeMethod
+	public void beforeMethod() {
+		upstream = new MethodCallRecorder();
+		recorder = new AllCallsMethodCallRecorder();
+		someMethod("value", someObject, "returned");
+		someMethod("otherValue", someList, someObject);
+		someMethod(new String("value"), Integer.valueOf(1000), null);
+	}
+
+	private void someMethod(String value, Object object, Object returnValue) {
+		upstream.addCall("value", value, "object", object);
+		upstream.addReturned(returnValue);
+		long call = recorder.recordCall(METHOD_NAME, 2, "value", value, "object", object, null,
+				null, null, null);
+		recorder.recordReturn(METHOD_NAME, call, returnValue);
+	}
+
+	@Test
+	public void testEveryMethodAboutCallsIsOverridden() {
+		for (Method method : MethodCallRecorder.class.getDeclaredMethods()) {
+			if (Modifier.isPublic(method.getModifiers())
+					&& !NOT_ABOUT_CALLS.contains(method.getName())) {
+				assertOverridden(method);
+			}
+		}
+	}
+
+	private void assertOverridden(Method method) {
+		try {
+			SpyMethodCallRecorder.class.getDeclaredMethod(method.getName(),
+					method.getParameterTypes());
+		} catch (NoSuchMethodException e) {
+			fail(method.getName() + " is not overridden in SpyMethodCallRecorder");
+		}
+	}
+
+	@Test
+	public void testNumberOfCalls() {
+		assertAnswersAsUpstream(mcr -> mcr.getNumberOfCallsToMethod(METHOD_NAME));
+		assertAnswersAsUpstream(mcr -> mcr.getNumberOfCallsToMethod("otherMethod"));
+		assertAnswersAsUpstream(mcr -> mcr.methodWasCalled(METHOD_NAME));
+		assertAnswersAsUpstream(mcr -> mcr.methodWasCalled("otherMethod"));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertNumberOfCallsToMethod(METHOD_NAME, 3));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertNumberOfCallsToMethod(METHOD_NAME, 2));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertNumberOfCallsToMethod("otherMethod", 0));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertMethodWasCalled(METHOD_NAME));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertMethodWasCalled("otherMethod"));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertMethodNotCalled(METHOD_NAME));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertMethodNotCalled("otherMethod"));
+	}
+
+	@Test
+	public void testGetParameters() {
+		assertAnswersAsUpstream(mcr -> mcr
+				.getValueForMethodNameAndCallNumberAndParameterName(METHOD_NAME, 1, "object"));
+		assertAnswersAsUpstream(mcr -> mcr
+				.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 0, "value"));
+		assertAnswersAsUpstream(mcr -> mcr
+				.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 0, "missing"));
+		assertAnswersAsUpstream(mcr -> mcr.getParametersForMethodAndCallNumber(METHOD_NAME, 2));
+		assertAnswersAsUpstream(mcr -> mcr.getReturnValue(METHOD_NAME, 1));
+		assertAnswersAsUpstream(mcr -> mcr.getReturnValue(METHOD_NAME, 2));
+	}
+
+	@Test
+	public void testAssertParameter() {
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 0, "value", "value"));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 2, "value", "value"));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 0, "object", someObject));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 0, "object", new Object()));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 1, "object", List.of("a", "b")));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 2, "object", Integer.valueOf(1000)));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameter(METHOD_NAME, 0, "missing", "value"));
+	}
+
+	@Test
+	public void testAssertParameterAsEqual() {
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameterAsEqual(METHOD_NAME, 1, "object", List.of("a", "b")));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameterAsEqual(METHOD_NAME, 1, "object", List.of("a")));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameterAsEqual(METHOD_NAME, 2, "value", "value"));
+	}
+
+	@Test
+	public void testAssertParameters() {
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameters(METHOD_NAME, 0, "value", someObject));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertParameters(METHOD_NAME, 0, "value"));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertParameters(METHOD_NAME, 1, "otherValue", List.of("a", "b")));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertParametersAsEqual(METHOD_NAME, 1,
+				"otherValue", List.of("a", "b")));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertParametersAsEqual(METHOD_NAME, 1,
+				"otherValue", List.of("b", "a")));
+	}
+
+	@Test
+	public void testAssertCalledParameters() {
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertCalledParameters(METHOD_NAME, "otherValue", someList));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertCalledParameters(METHOD_NAME, "value", Integer.valueOf(1000)));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertCalledParameters(METHOD_NAME, "otherValue", List.of("a")));
+		assertPassesAndFailsAsUpstream(
+				mcr -> mcr.assertCalledParameters("otherMethod", "value", someObject));
+		assertAnswersAsUpstream(
+				mcr -> mcr.assertCalledParametersReturn(METHOD_NAME, "otherValue", someList));
+		assertAnswersAsUpstream(
+				mcr -> mcr.assertCalledParametersReturn(METHOD_NAME, "value", new Object()));
+	}
+
+	@Test
+	public void testAssertReturn() {
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertReturn(METHOD_NAME, 0, "returned"));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertReturn(METHOD_NAME, 1, someObject));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertReturn(METHOD_NAME, 1, new Object()));
+		assertPassesAndFailsAsUpstream(mcr -> mcr.assertReturn(METHOD_NAME, 2, null));
+	}
+
+	private void assertPassesAndFailsAsUpstream(Consumer<MethodCallRecorder> assertion) {
+		assertAnswersAsUpstream(mcr -> {
+			assertion.accept(mcr);
+			return null;
+		});
+	}
+
+	private void assertAnswersAsUpstream(Function<MethodCallRecorder, Object> query) {
+		assertEquals(answer(recorder, query), answer(upstream, query));
+	}
+
+	private Object answer(MethodCallRecorder mcr, Function<MethodCallRecorder, Object> query) {
+		try {
+			return query.apply(mcr);
+		} catch (AssertionError | RuntimeException e) {
+			return FAILED;
+		}
+	}
+}
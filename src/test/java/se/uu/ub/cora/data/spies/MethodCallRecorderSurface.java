@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+
+import se.uu.ub.cora.testutils.mrv.MethodReturnValues;
+
+/**
+ * MethodCallRecorderSurface uses every method of the MCR API on a recorder, so that each recording
+ * mode can be tested against the whole API.
+ */
+final class MethodCallRecorderSurface {
+	private static final String METHOD_NAME = "someMethod";
+	private final SpyMethodCallRecorder recorder;
+
+	MethodCallRecorderSurface(SpyMethodCallRecorder recorder) {
+		this.recorder = recorder;
+		MethodReturnValues mrv = new MethodReturnValues();
+		mrv.setDefaultReturnValuesSupplier(METHOD_NAME, () -> "someReturnValue");
+		mrv.setDefaultReturnValuesSupplier("legacyMethod", () -> "legacyReturnValue");
+		recorder.useMRV(mrv);
+	}
+
+	void recordCalls() {
+		long call = recorder.recordCall(METHOD_NAME, 2, "value", "someValue", "number", 1, null,
+				null, null, null);
+		recorder.recordReturn(METHOD_NAME, call, "someReturnValue");
+		legacyMethod("legacyValue");
+		voidLegacyMethod("legacyValue");
+		returningLegacyMethod();
+	}
+
+	private Object legacyMethod(String value) {
+		return recorder.addCallAndReturnFromMRV("value", value);
+	}
+
+	private void voidLegacyMethod(String value) {
+		recorder.addCall("value", value);
+	}
+
+	private void returningLegacyMethod() {
+		recorder.addCall();
+		recorder.addReturned("returnedValue");
+	}
+
+	void assertCallsAreCounted() {
+		assertEquals(recorder.getNumberOfCallsToMethod(METHOD_NAME), 1);
+		assertTrue(recorder.methodWasCalled(METHOD_NAME));
+		assertFalse(recorder.methodWasCalled("otherMethod"));
+		recorder.assertNumberOfCallsToMethod(METHOD_NAME, 1);
+		recorder.assertNumberOfCallsToMethod("legacyMethod", 1);
+		recorder.assertNumberOfCallsToMethod("voidLegacyMethod", 1);
+		recorder.assertNumberOfCallsToMethod("returningLegacyMethod", 1);
+		recorder.assertMethodWasCalled(METHOD_NAME);
+		recorder.assertMethodNotCalled("otherMethod");
+	}
+
+	void assertCallsAreKept() {
+		assertCallsAreCounted();
+		assertEquals(recorder.getValueForMethodNameAndCallNumberAndParameterName(METHOD_NAME, 0,
+				"value"), "someValue");
+		assertEquals(recorder.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 0,
+				"number"), 1);
+		assertEquals(recorder.getParametersForMethodAndCallNumber(METHOD_NAME, 0),
+				Map.of("value", "someValue", "number", 1));
+		recorder.assertParameter(METHOD_NAME, 0, "value", "someValue");
+		recorder.assertParameterAsEqual(METHOD_NAME, 0, "number", 1);
+		recorder.assertParameters(METHOD_NAME, 0, "someValue", 1);
+		recorder.assertParametersAsEqual(METHOD_NAME, 0, "someValue", 1);
+		recorder.assertCalledParameters(METHOD_NAME, "someValue", 1);
+		assertEquals(recorder.assertCalledParametersReturn(METHOD_NAME, "someValue", 1),
+				"someReturnValue");
+		assertEquals(recorder.getReturnValue(METHOD_NAME, 0), "someReturnValue");
+		recorder.assertReturn(METHOD_NAME, 0, "someReturnValue");
+		recorder.assertReturn("legacyMethod", 0, "legacyReturnValue");
+		recorder.assertParameters("voidLegacyMethod", 0, "legacyValue");
+		recorder.assertReturn("returningLegacyMethod", 0, "returnedValue");
+	}
+
+	void assertParameterAndReturnValuesAreNotKept(String recordingMode) {
+		List<Runnable> queries = List.of(
+				() -> recorder.getValueForMethodNameAndCallNumberAndParameterName(METHOD_NAME, 0,
+						"value"),
+				() -> recorder.getParameterForMethodAndCallNumberAndParameter(METHOD_NAME, 0,
+						"value"),
+				() -> recorder.getParametersForMethodAndCallNumber(METHOD_NAME, 0),
+				() -> recorder.assertParameter(METHOD_NAME, 0, "value", "someValue"),
+				() -> recorder.assertParameterAsEqual(METHOD_NAME, 0, "value", "someValue"),
+				() -> recorder.assertParameters(METHOD_NAME, 0, "someValue", 1),
+				() -> recorder.assertParametersAsEqual(METHOD_NAME, 0, "someValue", 1),
+				() -> recorder.assertCalledParameters(METHOD_NAME, "someValue", 1),
+				() -> recorder.assertCalledParametersReturn(METHOD_NAME, "someValue", 1),
+				() -> recorder.getReturnValue(METHOD_NAME, 0),
+				() -> recorder.assertReturn(METHOD_NAME, 0, "someReturnValue"));
+		for (Runnable query : queries) {
+			assertNotKept(query, recordingMode);
+		}
+	}
+
+	private static void assertNotKept(Runnable query, String recordingMode) {
+		try {
+			query.run();
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			assertEquals(e.getMessage(),
+					"Parameter and return values are not kept in recording mode " + recordingMode);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class NotRecordingMethodCallRecorderTest {
+	private NotRecordingMethodCallRecorder recorder;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		recorder = new NotRecordingMethodCallRecorder();
+	}
+
+	@Test
+	public void testFullMCRSurface() {
+		MethodCallRecorderSurface surface = new MethodCallRecorderSurface(recorder);
+
+		surface.recordCalls();
+
+		assertEquals(recorder.getNumberOfCallsToMethod("someMethod"), 0);
+		assertFalse(recorder.methodWasCalled("someMethod"));
+		recorder.assertNumberOfCallsToMethod("someMethod", 0);
+		recorder.assertMethodNotCalled("someMethod");
+		surface.assertParameterAndReturnValuesAreNotKept("NONE");
+	}
+
+	@Test(expectedExceptions = AssertionError.class, expectedExceptionsMessageRegExp = ""
+			+ "Method someMethod was not called")
+	public void testAssertMethodWasCalledFails() {
+		recorder.recordCall("someMethod", 0, null, null, null, null, null, null, null, null);
+
+		recorder.assertMethodWasCalled("someMethod");
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAtomic;
+import se.uu.ub.cora.data.DataChild;
+import se.uu.ub.cora.data.DataGroup;
+import se.uu.ub.cora.data.DataMissingException;
+
+public class PersistentDataGroupFakeTest {
+	private PersistentDataGroupFake base;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		base = PersistentDataGroupFake.withNameInData("book");
+		PersistentDataGroupFake recordInfo = PersistentDataGroupFake.withNameInData("recordInfo");
+		recordInfo.addChild(createAtomic("id", "book:1"));
+		base.addChild(recordInfo);
+		base.addChild(createAtomic("title", "someTitle"));
+	}
+
+	private DataAtomicSpy createAtomic(String nameInData, String value) {
+		DataAtomicSpy atomic = new DataAtomicSpy();
+		atomic.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> nameInData);
+		atomic.MRV.setDefaultReturnValuesSupplier("getValue", () -> value);
+		return atomic;
+	}
+
+	private List<String> namesOfChildren(DataGroup group) {
+		List<String> names = new ArrayList<>();
+		for (DataChild child : group.getChildren()) {
+			names.add(child.getNameInData());
+		}
+		return names;
+	}
+
+	@Test
+	public void testMakeSureFakeIsRecording() {
+		assertTrue(base instanceof AbstractSpy);
+		assertTrue(base instanceof DataGroup);
+	}
+
+	@Test
+	public void testWorksAsGroup() {
+		base.setRepeatId("1");
+		base.addAttributeByIdWithValue("type", "novel");
+
+		assertEquals(base.getNameInData(), "book");
+		assertEquals(base.getRepeatId(), "1");
+		assertTrue(base.hasRepeatId());
+		assertEquals(base.getAttributeValue("type"), Optional.of("novel"));
+		assertEquals(namesOfChildren(base), List.of("recordInfo", "title"));
+		assertEquals(base.getFirstAtomicValueWithNameInData("title"), "someTitle");
+		DataGroup recordInfo = base.getFirstGroupWithNameInData("recordInfo");
+		assertTrue(recordInfo instanceof PersistentDataGroupFake);
+		assertEquals(recordInfo.getFirstAtomicValueWithNameInData("id"), "book:1");
+		base.MCR.assertParameters("setRepeatId", 0, "1");
+	}
+
+	@Test
+	public void testGroupsFoundAsGroupsAndAsFake() {
+		assertEquals(base.getAllGroupsWithNameInData("recordInfo").size(), 1);
+		assertEquals(base.getChildrenOfType(DataGroup.class).size(), 1);
+		assertEquals(base.getChildrenOfType(PersistentDataGroupFake.class).size(), 1);
+		assertEquals(base.getChildrenOfType(DataAtomic.class).size(), 1);
+		assertEquals(base.getChildrenOfType(DataGroupFake.class).size(), 0);
+		assertTrue(base.containsChildOfTypeAndName(DataGroup.class, "recordInfo"));
+		assertFalse(base.containsChildOfTypeAndName(DataGroup.class, "title"));
+		assertEquals(base.getFirstChildOfTypeAndName(PersistentDataGroupFake.class, "recordInfo")
+				.getNameInData(), "recordInfo");
+	}
+
+	@Test(expectedExceptions = DataMissingException.class,
+			expectedExceptionsMessageRegExp = ""
+					+ "Child of type: DataGroup and name: title not found as child.")
+	public void testGetFirstGroupNotFound() {
+		base.getFirstGroupWithNameInData("title");
+	}
+
+	@Test
+	public void testChangesToForkAreNotSeenInBase() {
+		PersistentDataGroupFake fork = base.fork();
+
+		fork.addChild(createAtomic("subTitle", "someSubTitle"));
+		fork.removeFirstChildWithNameInData("title");
+		fork.addAttributeByIdWithValue("type", "novel");
+
+		assertEquals(namesOfChildren(fork), List.of("recordInfo", "subTitle"));
+		assertEquals(namesOfChildren(base), List.of("recordInfo", "title"));
+		assertFalse(base.hasAttributes());
+		base.MCR.assertReturn("fork", 0, fork);
+	}
+
+	@Test
+	public void testChangesToBaseAreNotSeenInFork() {
+		PersistentDataGroupFake fork = base.fork();
+
+		base.removeAllChildrenWithNameInData("recordInfo");
+
+		assertEquals(namesOfChildren(base), List.of("title"));
+		assertEquals(namesOfChildren(fork), List.of("recordInfo", "title"));
+	}
+
+	@Test
+	public void testChangesToGroupInForkAreNotSeenInBase() {
+		PersistentDataGroupFake fork = base.fork();
+
+		DataGroup forkedRecordInfo = fork.getFirstGroupWithNameInData("recordInfo");
+		forkedRecordInfo.addChild(createAtomic("tsCreated", "2026-01-01"));
+
+		assertEquals(namesOfChildren(fork.getFirstGroupWithNameInData("recordInfo")),
+				List.of("id", "tsCreated"));
+		assertEquals(namesOfChildren(base.getFirstGroupWithNameInData("recordInfo")),
+				List.of("id"));
+	}
+
+	@Test
+	public void testChildViewStaysConnectedToParent() {
+		DataGroup recordInfo = base.getFirstGroupWithNameInData("recordInfo");
+
+		base.addChild(createAtomic("subTitle", "someSubTitle"));
+		recordInfo.addChild(createAtomic("tsCreated", "2026-01-01"));
+		recordInfo.setRepeatId("0");
+
+		DataGroup readAgain = base.getFirstGroupWithNameInData("recordInfo");
+		assertNotSame(readAgain, recordInfo);
+		assertEquals(namesOfChildren(readAgain), List.of("id", "tsCreated"));
+		assertEquals(readAgain.getRepeatId(), "0");
+		assertEquals(namesOfChildren(recordInfo), List.of("id", "tsCreated"));
+	}
+
+	@Test
+	public void testChangesSeenFromOtherViewsOfSameGroup() {
+		DataGroup first = base.getFirstGroupWithNameInData("recordInfo");
+		DataGroup second = base.getFirstGroupWithNameInData("recordInfo");
+
+		first.addChild(createAtomic("tsCreated", "2026-01-01"));
+
+		assertTrue(second.containsChildWithNameInData("tsCreated"));
+	}
+
+	@Test
+	public void testRemovedGroupKeepsWorkingOnItsOwn() {
+		DataGroup recordInfo = base.getFirstGroupWithNameInData("recordInfo");
+		base.removeFirstChildWithNameInData("recordInfo");
+
+		recordInfo.addChild(createAtomic("tsCreated", "2026-01-01"));
+
+		assertEquals(namesOfChildren(recordInfo), List.of("id", "tsCreated"));
+		assertEquals(namesOfChildren(base), List.of("title"));
+	}
+
+	@Test
+	public void testAddedGroupIsConnectedToNewParent() {
+		PersistentDataGroupFake child = PersistentDataGroupFake.withNameInData("note");
+		base.addChild(child);
+
+		child.addChild(createAtomic("text", "someText"));
+
+		assertEquals(base.getFirstGroupWithNameInData("note")
+				.getFirstAtomicValueWithNameInData("text"), "someText");
+	}
+
+	@Test
+	public void testSameGroupAddedTwiceGivesTwoChildren() {
+		PersistentDataGroupFake child = PersistentDataGroupFake.withNameInData("note");
+		base.addChildren(List.of(child, child));
+
+		child.addChild(createAtomic("text", "someText"));
+
+		List<DataGroup> notes = base.getAllGroupsWithNameInData("note");
+		assertEquals(notes.size(), 2);
+		assertFalse(notes.get(0).hasChildren());
+		assertTrue(notes.get(1).hasChildren());
+	}
+
+	@Test
+	public void testForkOfChildIsTopGroup() {
+		DataGroup recordInfo = base.getFirstGroupWithNameInData("recordInfo");
+		PersistentDataGroupFake forkedRecordInfo = ((PersistentDataGroupFake) recordInfo).fork();
+
+		forkedRecordInfo.removeAllChildrenWithNameInData("id");
+
+		assertFalse(forkedRecordInfo.hasChildren());
+		assertTrue(recordInfo.hasChildren());
+	}
+
+	@Test
+	public void testRemoveOnlyChangesWhenSomethingIsRemoved() {
+		DataGroup recordInfo = base.getFirstGroupWithNameInData("recordInfo");
+
+		assertFalse(base.removeFirstChildWithNameInData("notThere"));
+		assertFalse(base.removeChildrenWithTypeAndName(DataGroup.class, "title"));
+		assertTrue(base.removeFirstChildWithTypeAndName(DataGroup.class, "recordInfo"));
+		assertEquals(namesOfChildren(base), List.of("title"));
+		assertTrue(recordInfo.hasChildren());
+	}
+
+	@Test
+	public void testFilterFake() {
+		PersistentDataGroupFake note = PersistentDataGroupFake.withNameInData("note");
+		note.addAttributeByIdWithValue("type", "private");
+		base.addChild(note);
+		DataChildFilterFake filter = DataChildFilterFake.withNameInData("note");
+		filter.addAttributeUsingNameInDataAndPossibleValues("type", Set.of("private"));
+
+		List<DataChild> matching = base.getAllChildrenMatchingFilter(filter);
+		assertEquals(matching.size(), 1);
+		assertTrue(matching.get(0) instanceof PersistentDataGroupFake);
+
+		PersistentDataGroupFake fork = base.fork();
+		assertTrue(fork.removeAllChildrenMatchingFilter(filter));
+		assertEquals(namesOfChildren(fork), List.of("recordInfo", "title"));
+		assertEquals(namesOfChildren(base), List.of("recordInfo", "title", "note"));
+	}
+
+	@Test
+	public void testOtherFiltersAreGivenViews() {
+		DataChildFilterSpy filter = new DataChildFilterSpy();
+		filter.MRV.setDefaultReturnValuesSupplier("childMatches", () -> true);
+
+		List<DataChild> matching = base.getAllChildrenMatchingFilter(filter);
+
+		assertEquals(matching.size(), 2);
+		assertTrue(filter.MCR.getParameterForMethodAndCallNumberAndParameter("childMatches", 0,
+				"child") instanceof PersistentDataGroupFake);
+		assertTrue(base.removeAllChildrenMatchingFilter(filter));
+		assertFalse(base.hasChildren());
+	}
+
+	@Test
+	public void testForkOfDeepTreeSharesContent() {
+		PersistentDataGroupFake top = PersistentDataGroupFake.withNameInData("top");
+		PersistentDataGroupFake current = top;
+		for (int level = 0; level < 50; level++) {
+			PersistentDataGroupFake child = PersistentDataGroupFake.withNameInData("level");
+			current.addChild(child);
+			current = child;
+		}
+		current.addChild(createAtomic("leaf", "original"));
+		DataAtomic leaf = current.getFirstDataAtomicWithNameInData("leaf");
+
+		PersistentDataGroupFake fork = top.fork();
+		DataGroup forkedCurrent = fork;
+		for (int level = 0; level < 50; level++) {
+			forkedCurrent = forkedCurrent.getFirstGroupWithNameInData("level");
+		}
+		forkedCurrent.removeAllChildrenWithNameInData("leaf");
+
+		assertFalse(forkedCurrent.hasChildren());
+		assertSame(current.getFirstDataAtomicWithNameInData("leaf"), leaf);
+	}
+
+	@Test
+	public void testChangesDoNotReadChildrenAgain() {
+		DataAtomicSpy title = (DataAtomicSpy) base.getFirstDataAtomicWithNameInData("title");
+		PersistentDataGroupFake fork = base.fork();
+
+		fork.addChild(createAtomic("subTitle", "someSubTitle"));
+		fork.getFirstGroupWithNameInData("recordInfo")
+				.addChild(createAtomic("tsCreated", "2026-01-01"));
+		fork.removeAllChildrenWithNameInData("subTitle");
+
+		title.MCR.assertNumberOfCallsToMethod("getNameInData", 1);
+		title.MCR.assertNumberOfCallsToMethod("getAttributes", 1);
+	}
+}
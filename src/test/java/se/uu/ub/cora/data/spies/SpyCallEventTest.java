@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class SpyCallEventTest {
+
+	private List<RecordedEvent> recordSpyCalls(boolean enabled, Runnable calls)
+			throws IOException {
+		Path file = Files.createTempFile("spyCalls", ".jfr");
+		try (Recording recording = new Recording()) {
+			if (enabled) {
+				recording.enable(SpyCallEvent.NAME);
+			}
+			recording.start();
+			calls.run();
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().equals(SpyCallEvent.NAME))
+					.collect(Collectors.toList());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testEventPerRecordedCall() throws IOException {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		DataFactorySpy dataFactory = new DataFactorySpy();
+
+		List<RecordedEvent> events = recordSpyCalls(true, () -> {
+			dataGroup.getFirstAtomicValueWithNameInData("someNameInData");
+			dataFactory.factorAtomicUsingNameInDataAndValue("someNameInData", "someValue");
+		});
+
+		assertEquals(events.size(), 2);
+		assertEvent(events.get(0), DataGroupSpy.class, "getFirstAtomicValueWithNameInData", 1);
+		assertEvent(events.get(1), DataFactorySpy.class, "factorAtomicUsingNameInDataAndValue",
+				2);
+		assertEquals(events.get(0).getThread().getJavaName(), Thread.currentThread().getName());
+		assertTrue(events.get(0).getStackTrace().getFrames().stream().anyMatch(
+				frame -> frame.getMethod().getName().equals("testEventPerRecordedCall")));
+	}
+
+	private void assertEvent(RecordedEvent event, Class<?> spyClass, String methodName,
+			int parameterCount) {
+		assertEquals(event.getClass("spyClass").getName(), spyClass.getName());
+		assertEquals(event.getString("methodName"), methodName);
+		assertEquals(event.getInt("parameterCount"), parameterCount);
+	}
+
+	@Test
+	public void testEventsFromFakes() throws IOException {
+		DataGroupFake dataGroup = DataGroupFake.withNameInData("someGroup");
+
+		List<RecordedEvent> events = recordSpyCalls(true, dataGroup::getChildren);
+
+		assertEquals(events.size(), 1);
+		assertEvent(events.get(0), DataGroupFake.class, "getChildren", 0);
+	}
+
+	@Test
+	public void testEventLastsUntilCallIsRecorded() throws IOException {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.setLatency("getChildren", SpyLatency.fixed(Duration.ofMillis(20)));
+
+		List<RecordedEvent> events = recordSpyCalls(true, dataGroup::getChildren);
+
+		assertEquals(events.size(), 1);
+		assertTrue(events.get(0).getDuration().toMillis() >= 20);
+	}
+
+	@Test
+	public void testEventOfStartedCallLastsUntilReturnIsRecorded() throws IOException {
+		DataGroupFake dataGroup = DataGroupFake.withNameInData("someGroup");
+		dataGroup.setLatency("getChildren", SpyLatency.fixed(Duration.ofMillis(20)));
+
+		List<RecordedEvent> events = recordSpyCalls(true, () -> {
+			dataGroup.getChildren();
+			dataGroup.getChildren();
+		});
+
+		assertEquals(events.size(), 2);
+		assertTrue(events.get(0).getDuration().toMillis() >= 20);
+		assertTrue(events.get(0).getEndTime().compareTo(events.get(1).getStartTime()) <= 0);
+	}
+
+	@Test
+	public void testStartedCallWithoutReturnIsDroppedWhenEnclosingCallEnds() throws IOException {
+		StartingSpy spy = new StartingSpy();
+
+		List<RecordedEvent> events = recordSpyCalls(true, () -> {
+			long call = spy.startCall("outer");
+			spy.startCall("inner");
+			spy.recordReturn("outer", call, null);
+			spy.recordReturn("inner", 0, null);
+		});
+
+		assertEquals(events.size(), 1);
+		assertEvent(events.get(0), StartingSpy.class, "outer", 0);
+	}
+
+	private static class StartingSpy extends AbstractSpy {
+		StartingSpy() {
+			super(Map.of());
+		}
+	}
+
+	@Test
+	public void testNoEventsUnlessEnabled() throws IOException {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+
+		List<RecordedEvent> events = recordSpyCalls(false, dataGroup::getChildren);
+
+		assertEquals(events.size(), 0);
+		dataGroup.MCR.assertMethodWasCalled("getChildren");
+	}
+}
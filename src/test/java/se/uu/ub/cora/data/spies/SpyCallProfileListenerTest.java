@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.testng.annotations.Test;
+
+public class SpyCallProfileListenerTest {
+
+	@Test
+	public void testReportsWrittenWhenRunIsFinished() throws IOException {
+		Path directory = Files.createTempDirectory("spyCallProfile").resolve("reports");
+		System.setProperty(SpyCallProfileListener.DIRECTORY_PROPERTY, directory.toString());
+		SpyCallProfileListener listener = new SpyCallProfileListener();
+		try {
+			listener.onExecutionStart();
+			new DataGroupSpy().getChildren();
+			listener.onExecutionFinish();
+
+			String csv = Files.readString(directory.resolve("spy-call-profile.csv"));
+			String json = Files.readString(directory.resolve("spy-call-profile.json"));
+			assertTrue(csv.contains("se.uu.ub.cora.data.spies.DataGroupSpy,getChildren,0,1"));
+			assertTrue(json.contains("\"method\":\"getChildren\""));
+		} finally {
+			System.clearProperty(SpyCallProfileListener.DIRECTORY_PROPERTY);
+			Files.deleteIfExists(directory.resolve("spy-call-profile.csv"));
+			Files.deleteIfExists(directory.resolve("spy-call-profile.json"));
+			Files.deleteIfExists(directory);
+			Files.deleteIfExists(directory.getParent());
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import se.uu.ub.cora.data.DataAttribute;
+
+public class SpyCallProfileTest {
+	private SpyCallProfile profile;
+	private DataGroupSpy dataGroup;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataGroup = new DataGroupSpy();
+		profile = SpyCallProfile.start();
+	}
+
+	@AfterMethod
+	public void afterMethod() {
+		profile.stop();
+	}
+
+	@Test
+	public void testCountsCallsPerSpyClassAndMethod() {
+		dataGroup.getFirstAtomicValueWithNameInData("title");
+		dataGroup.getFirstAtomicValueWithNameInData("title");
+		dataGroup.getFirstAtomicValueWithNameInData("id");
+		dataGroup.getChildren();
+
+		assertEquals(profile.getCallCount(DataGroupSpy.class, "getFirstAtomicValueWithNameInData"),
+				3);
+		assertEquals(profile.getCallCount(DataGroupSpy.class, "getChildren"), 1);
+		assertEquals(profile.getCallCount(DataGroupSpy.class, "hasChildren"), 0);
+		assertEquals(profile.getDistinctValueCounts(DataGroupSpy.class,
+				"getFirstAtomicValueWithNameInData", 1), new int[] { 2 });
+	}
+
+	@Test
+	public void testSpiesAreToldApartByIdentity() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		DataAttribute attribute = new DataAttributeSpy();
+
+		dataGroup.getAllChildrenWithNameInDataAndAttributes("title", attribute);
+		dataGroup.getAllChildrenWithNameInDataAndAttributes("title", attribute);
+		dataGroup.getAllChildrenWithNameInDataAndAttributes("title", new DataAttributeSpy());
+		dataFactory.factorAtomicUsingNameInDataAndValue("title", "someValue");
+
+		assertEquals(profile.getDistinctValueCounts(DataGroupSpy.class,
+				"getAllChildrenWithNameInDataAndAttributes", 2), new int[] { 1, 2 });
+		assertEquals(profile.getDistinctValueCounts(DataFactorySpy.class,
+				"factorAtomicUsingNameInDataAndValue", 2), new int[] { 1, 1 });
+	}
+
+	@Test
+	public void testManySpiesAreAllToldApart() {
+		for (int i = 0; i < SpyCallProfile.DISTINCT_VALUE_LIMIT; i++) {
+			dataGroup.addChild(new DataAtomicSpy());
+		}
+
+		assertEquals(profile.getDistinctValueCounts(DataGroupSpy.class, "addChild", 1),
+				new int[] { SpyCallProfile.DISTINCT_VALUE_LIMIT });
+	}
+
+	@Test
+	public void testValuesWithSameTextAreToldApart() {
+		recordCallWithValue("1");
+		recordCallWithValue(1);
+		recordCallWithValue(null);
+		recordCallWithValue("null");
+		recordCallWithValue(new Object[] { "1" });
+		recordCallWithValue(new Object[] { "1" });
+
+		assertEquals(profile.getDistinctValueCounts(DataGroupSpy.class, "someMethod", 1),
+				new int[] { 5 });
+	}
+
+	private void recordCallWithValue(Object value) {
+		SpyCallProfile.record(DataGroupSpy.class, "someMethod", 1, value, null, null, null);
+	}
+
+	@Test
+	public void testDistinctValuesAreCountedUpToLimit() {
+		for (int i = 0; i < SpyCallProfile.DISTINCT_VALUE_LIMIT + 10; i++) {
+			dataGroup.containsChildWithNameInData("name" + i);
+		}
+
+		int[] distinctValueCounts = profile.getDistinctValueCounts(DataGroupSpy.class,
+				"containsChildWithNameInData", 1);
+		assertEquals(distinctValueCounts, new int[] { SpyCallProfile.DISTINCT_VALUE_LIMIT });
+	}
+
+	@Test
+	public void testNoCountsAfterStop() {
+		profile.stop();
+
+		dataGroup.getChildren();
+
+		assertEquals(profile.getCallCount(DataGroupSpy.class, "getChildren"), 0);
+	}
+
+	@Test
+	public void testStartReplacesRunningProfile() {
+		SpyCallProfile newProfile = SpyCallProfile.start();
+		try {
+			dataGroup.getChildren();
+
+			assertEquals(profile.getCallCount(DataGroupSpy.class, "getChildren"), 0);
+			assertEquals(newProfile.getCallCount(DataGroupSpy.class, "getChildren"), 1);
+		} finally {
+			newProfile.stop();
+		}
+	}
+
+	@Test
+	public void testWriteCsvHottestFirst() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataGroup.getChildren();
+		dataFactory.factorGroupUsingNameInData("someGroup");
+		dataFactory.factorGroupUsingNameInData("otherGroup");
+
+		StringWriter csv = new StringWriter();
+		profile.writeCsv(csv);
+
+		assertEquals(csv.toString(), ""
+				+ "spyClass,method,parameterCount,calls,"
+				+ "distinctValues1,distinctValues2,distinctValues3,distinctValues4\n"
+				+ "se.uu.ub.cora.data.spies.DataFactorySpy,factorGroupUsingNameInData,1,2,2,,,\n"
+				+ "se.uu.ub.cora.data.spies.DataGroupSpy,getChildren,0,1,,,,\n");
+	}
+
+	@Test
+	public void testWriteJson() {
+		DataFactorySpy dataFactory = new DataFactorySpy();
+		dataGroup.getChildren();
+		dataGroup.getFirstGroupWithNameInData("recordInfo");
+		dataFactory.factorGroupUsingNameInData("someGroup");
+
+		StringWriter json = new StringWriter();
+		profile.writeJson(json);
+
+		assertEquals(json.toString(), "{\"distinctValueLimit\":1000,\"spyClasses\":["
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataGroupSpy\",\"calls\":2},"
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataFactorySpy\",\"calls\":1}],"
+				+ "\"methods\":["
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataFactorySpy\","
+				+ "\"method\":\"factorGroupUsingNameInData\",\"parameterCount\":1,\"calls\":1,"
+				+ "\"distinctValues\":[1]},"
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataGroupSpy\","
+				+ "\"method\":\"getChildren\",\"parameterCount\":0,\"calls\":1,"
+				+ "\"distinctValues\":[]},"
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataGroupSpy\","
+				+ "\"method\":\"getFirstGroupWithNameInData\",\"parameterCount\":1,\"calls\":1,"
+				+ "\"distinctValues\":[1]}]}\n");
+	}
+
+	@Test
+	public void testWriteJsonEscapesNames() {
+		SpyCallProfile.record(DataGroupSpy.class, "some\"method\\\n", 0, null, null, null,
+				null);
+
+		StringWriter json = new StringWriter();
+		profile.writeJson(json);
+
+		assertEquals(json.toString(), "{\"distinctValueLimit\":1000,\"spyClasses\":["
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataGroupSpy\",\"calls\":1}],"
+				+ "\"methods\":["
+				+ "{\"spyClass\":\"se.uu.ub.cora.data.spies.DataGroupSpy\","
+				+ "\"method\":\"some\\\"method\\\\\\u000a\",\"parameterCount\":0,\"calls\":1,"
+				+ "\"distinctValues\":[]}]}\n");
+	}
+
+	@Test
+	public void testWriteCsvQuotesNames() {
+		SpyCallProfile.record(DataGroupSpy.class, "some,\"method\"", 0, null, null, null, null);
+
+		StringWriter csv = new StringWriter();
+		profile.writeCsv(csv);
+
+		assertEquals(csv.toString(), ""
+				+ "spyClass,method,parameterCount,calls,"
+				+ "distinctValues1,distinctValues2,distinctValues3,distinctValues4\n"
+				+ "se.uu.ub.cora.data.spies.DataGroupSpy,\"some,\"\"method\"\"\",0,1,,,,\n");
+	}
+}
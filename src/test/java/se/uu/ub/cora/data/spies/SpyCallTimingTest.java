@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.time.Duration;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SpyCallTimingTest {
+	private static final Duration GENEROUS_BUDGET = Duration.ofMinutes(1);
+	private DataFactorySpy dataFactory;
+	private DataRecordSpy dataRecord;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		dataFactory = new DataFactorySpy();
+		dataFactory.recordCallTimestamps();
+		dataRecord = new DataRecordSpy();
+		dataRecord.recordCallTimestamps();
+	}
+
+	@Test
+	public void testToCall() {
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+		dataRecord.addAction(null);
+
+		Duration elapsed = SpyCallTiming
+				.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+				.toCall(dataRecord, "addAction", 0);
+
+		assertEquals(elapsed.toNanos(), dataRecord.getTimestampForCall("addAction", 0)
+				- dataFactory.getTimestampForCall("factorRecordUsingDataRecordGroup", 0));
+		assertTrue(elapsed.compareTo(Duration.ZERO) >= 0);
+	}
+
+	@Test
+	public void testToCallMadeBeforeIsNegative() throws Exception {
+		dataRecord.addAction(null);
+		Thread.sleep(1);
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+
+		Duration elapsed = SpyCallTiming
+				.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+				.toCall(dataRecord, "addAction", 0);
+
+		assertTrue(elapsed.isNegative());
+	}
+
+	@Test
+	public void testToNextCallSkipsCallsMadeBefore() throws Exception {
+		dataRecord.addAction(null);
+		Thread.sleep(1);
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+		dataRecord.addAction(null);
+		dataRecord.addAction(null);
+
+		Duration elapsed = SpyCallTiming
+				.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+				.toNextCall(dataRecord, "addAction");
+
+		assertEquals(elapsed.toNanos(), dataRecord.getTimestampForCall("addAction", 1)
+				- dataFactory.getTimestampForCall("factorRecordUsingDataRecordGroup", 0));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "No call to DataRecordSpy.addAction made after "
+			+ "DataFactorySpy.factorRecordUsingDataRecordGroup call 0")
+	public void testToNextCallNoCallMade() {
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+
+		SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+				.toNextCall(dataRecord, "addAction");
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = ""
+			+ "Call timestamps are not recorded for DataGroupSpy, use recordCallTimestamps\\(\\)")
+	public void testFromCallOnSpyNotRecordingTimestamps() {
+		DataGroupSpy dataGroup = new DataGroupSpy();
+		dataGroup.getNameInData();
+
+		SpyCallTiming.fromCall(dataGroup, "getNameInData", 0);
+	}
+
+	@Test
+	public void testAssertCallWithin() {
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+		dataRecord.addAction(null);
+
+		SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+				.assertCallWithin(dataRecord, "addAction", 0, GENEROUS_BUDGET);
+	}
+
+	@Test
+	public void testAssertCallWithinFailsWhenOverBudget() throws Exception {
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+		Thread.sleep(1);
+		dataRecord.addAction(null);
+
+		try {
+			SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+					.assertCallWithin(dataRecord, "addAction", 0, Duration.ofNanos(1));
+			fail("Expected an AssertionError");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().matches("Expected DataRecordSpy.addAction call 0 within 1 ns"
+					+ " of DataFactorySpy.factorRecordUsingDataRecordGroup call 0"
+					+ " but it took \\d+ ns"), e.getMessage());
+		}
+	}
+
+	@Test
+	public void testAssertCallWithinFailsWhenMadeBefore() throws Exception {
+		dataRecord.addAction(null);
+		Thread.sleep(1);
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+
+		try {
+			SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+					.assertCallWithin(dataRecord, "addAction", 0, GENEROUS_BUDGET);
+			fail("Expected an AssertionError");
+		} catch (AssertionError e) {
+			assertTrue(e.getMessage().matches("Expected DataRecordSpy.addAction call 0 to be made"
+					+ " after DataFactorySpy.factorRecordUsingDataRecordGroup call 0"
+					+ " but it was made \\d+ ns before"), e.getMessage());
+		}
+	}
+
+	@Test
+	public void testAssertNextCallWithin() {
+		dataRecord.addAction(null);
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+		dataRecord.addAction(null);
+
+		SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+				.assertNextCallWithin(dataRecord, "addAction", GENEROUS_BUDGET);
+	}
+
+	@Test
+	public void testAssertNextCallWithinFailsWhenNoCallMade() {
+		dataFactory.factorRecordUsingDataRecordGroup(null);
+
+		try {
+			SpyCallTiming.fromCall(dataFactory, "factorRecordUsingDataRecordGroup", 0)
+					.assertNextCallWithin(dataRecord, "addAction", GENEROUS_BUDGET);
+			fail("Expected an AssertionError");
+		} catch (AssertionError e) {
+			assertEquals(e.getMessage(), "Expected a call to DataRecordSpy.addAction after "
+					+ "DataFactorySpy.factorRecordUsingDataRecordGroup call 0 but none was made");
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.testng.annotations.Test;
+
+public class SpyLatencyTest {
+	private static final long MILLI = 1_000_000;
+
+	@Test
+	public void testFixed() {
+		SpyLatency latency = SpyLatency.fixed(Duration.ofMillis(5));
+
+		assertEquals(latency.nanosAt(0), 5 * MILLI);
+		assertEquals(latency.nanosAt(37.5), 5 * MILLI);
+		assertEquals(latency.sampleNanos(), 5 * MILLI);
+	}
+
+	@Test
+	public void testUniform() {
+		SpyLatency latency = SpyLatency.uniform(Duration.ofMillis(2), Duration.ofMillis(6));
+
+		assertEquals(latency.nanosAt(0), 2 * MILLI);
+		assertEquals(latency.nanosAt(25), 3 * MILLI);
+		assertEquals(latency.nanosAt(100), 6 * MILLI);
+		for (int i = 0; i < 100; i++) {
+			long sample = latency.sampleNanos();
+			assertTrue(sample >= 2 * MILLI && sample <= 6 * MILLI, "sample " + sample);
+		}
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Max latency PT0.001S must not be less than min latency PT0.002S")
+	public void testUniformMaxLessThanMin() {
+		SpyLatency.uniform(Duration.ofMillis(2), Duration.ofMillis(1));
+	}
+
+	@Test
+	public void testPercentiles() {
+		SpyLatency latency = SpyLatency.percentile(50, Duration.ofMillis(5))
+				.andPercentile(99, Duration.ofMillis(50));
+
+		assertEquals(latency.nanosAt(0), 0);
+		assertEquals(latency.nanosAt(25), 2500000);
+		assertEquals(latency.nanosAt(50), 5 * MILLI);
+		assertEquals(latency.nanosAt(99), 50 * MILLI);
+		assertEquals(latency.nanosAt(99.9), 50 * MILLI);
+		for (int i = 0; i < 100; i++) {
+			long sample = latency.sampleNanos();
+			assertTrue(sample >= 0 && sample <= 50 * MILLI, "sample " + sample);
+		}
+	}
+
+	@Test
+	public void testPercentilesAddedInAnyOrder() {
+		SpyLatency latency = SpyLatency.percentile(99, Duration.ofMillis(50))
+				.andPercentile(0, Duration.ofMillis(1)).andPercentile(50, Duration.ofMillis(5));
+
+		assertEquals(latency.nanosAt(0), 1 * MILLI);
+		assertEquals(latency.nanosAt(25), 3 * MILLI);
+		assertEquals(latency.toString(),
+				"SpyLatency[p0.0=PT0.001S, p50.0=PT0.005S, p99.0=PT0.05S]");
+	}
+
+	@Test
+	public void testAndPercentileReplacesGivenPercentile() {
+		SpyLatency first = SpyLatency.percentile(50, Duration.ofMillis(5));
+
+		SpyLatency replaced = first.andPercentile(50, Duration.ofMillis(7));
+
+		assertEquals(first.nanosAt(50), 5 * MILLI);
+		assertEquals(replaced.nanosAt(50), 7 * MILLI);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Latency at percentile 99.0 must not be less than latency at percentile 50.0, "
+			+ "was PT0.001S and PT0.005S")
+	public void testPercentilesMustNotDecrease() {
+		SpyLatency.percentile(50, Duration.ofMillis(5)).andPercentile(99, Duration.ofMillis(1));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Percentile must be from 0 to 100, was 100.5")
+	public void testPercentileOutOfRange() {
+		SpyLatency.percentile(100.5, Duration.ofMillis(5));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ""
+			+ "Latency must not be negative, was PT-0.001S")
+	public void testNegativeLatency() {
+		SpyLatency.fixed(Duration.ofMillis(-1));
+	}
+
+	@Test
+	public void testDelayWaitsForLatency() {
+		SpyLatency latency = SpyLatency.fixed(Duration.ofMillis(20));
+		long before = System.nanoTime();
+
+		latency.delay();
+
+		assertTrue(System.nanoTime() - before >= 20 * MILLI);
+	}
+
+	@Test
+	public void testDelayStopsWhenInterrupted() {
+		SpyLatency latency = SpyLatency.fixed(Duration.ofMinutes(1));
+		Thread.currentThread().interrupt();
+		try {
+			latency.delay();
+
+			assertTrue(Thread.currentThread().isInterrupted());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
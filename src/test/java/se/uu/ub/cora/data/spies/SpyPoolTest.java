@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Uppsala University Library
+ *
+ * This file is part of Cora.
+ *
+ *     Cora is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Cora is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Cora.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package se.uu.ub.cora.data.spies;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SpyPoolTest {
+	private SpyPool<DataGroupSpy> pool;
+
+	@BeforeMethod
+	public void beforeMethod() {
+		pool = new SpyPool<>(DataGroupSpy::new);
+	}
+
+	@Test
+	public void testBorrowCreatesSpyWhenNoneAvailable() {
+		DataGroupSpy first = pool.borrow();
+		DataGroupSpy second = pool.borrow();
+
+		assertNotSame(first, second);
+	}
+
+	@Test
+	public void testReleasedSpyIsReused() {
+		DataGroupSpy borrowed = pool.borrow();
+
+		pool.releaseAll();
+
+		assertSame(pool.borrow(), borrowed);
+	}
+
+	@Test
+	public void testReleasedSpyIsReset() {
+		DataGroupSpy borrowed = pool.borrow();
+		borrowed.MRV.setDefaultReturnValuesSupplier("getNameInData", () -> "someNameInData");
+		borrowed.getNameInData();
+
+		pool.releaseAll();
+		DataGroupSpy reused = pool.borrow();
+
+		reused.MCR.assertMethodNotCalled("getNameInData");
+		assertEquals(reused.getNameInData(), "");
+	}
+
+	@Test
+	public void testReleasedSpyIsBackInCreatedState() {
+		DataGroupSpy borrowed = pool.borrow();
+		borrowed.setRecordingMode(RecordingMode.COUNT);
+		borrowed.recordCallTimestamps();
+
+		pool.releaseAll();
+		DataGroupSpy reused = pool.borrow();
+		reused.getNameInData();
+
+		assertTrue(reused.MCR instanceof AllCallsMethodCallRecorder);
+		reused.MCR.assertParameters("getNameInData", 0);
+		assertFalse(hasTimestamps(reused));
+	}
+
+	private boolean hasTimestamps(DataGroupSpy spy) {
+		try {
+			spy.getTimestampForCall("getNameInData", 0);
+			return true;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testBorrowFromOtherThreadIsNotAllowed() throws Exception {
+		AtomicReference<Exception> caught = new AtomicReference<>();
+		Thread otherThread = new Thread(() -> {
+			try {
+				pool.borrow();
+			} catch (Exception e) {
+				caught.set(e);
+			}
+		}, "otherThread");
+
+		otherThread.start();
+		otherThread.join();
+
+		assertTrue(caught.get() instanceof IllegalStateException);
+		assertTrue(caught.get().getMessage().startsWith("SpyPool used from thread otherThread"));
+	}
+}